@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
+import org.eclipse.gef.fx.nodes.Connection;
+import org.eclipse.gef.fx.nodes.ObstacleAvoidingRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.scene.Group;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * Measures the duration of a single drag step, i.e. the rerouting of the
+ * {@link Connection}s that is caused by moving a node, for a grid of nodes
+ * with 45 columns, which are connected by {@link Connection}s that use an
+ * {@link ObstacleAvoidingRouter}. Most connections link nearby nodes, while
+ * some span the whole grid, so that their routes have to avoid a large number
+ * of obstacles. The nodes are not part of a scene, so that the connections
+ * are rerouted synchronously.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ObstacleAvoidingRouterBenchmark {
+
+	/**
+	 * Provides the nodes and connections.
+	 */
+	@State(Scope.Benchmark)
+	public static class RoutingState {
+
+		private static final long SEED = 4711L;
+		private static final int COLUMNS = 45;
+
+		/**
+		 * The number of nodes.
+		 */
+		@Param({ "500", "2000" })
+		public int nodeCount;
+
+		/**
+		 * The index of the dragged node, relative to the number of nodes.
+		 */
+		@Param({ "0.5", "0.52" })
+		public double draggedNode;
+
+		Rectangle dragged;
+		int step;
+
+		/**
+		 * Creates the nodes and connections, which are routed initially.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			Group group = new Group();
+			List<Rectangle> nodes = new ArrayList<>(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				nodes.add(new Rectangle(
+						(i % COLUMNS) * 120 + random.nextInt(30),
+						(i / COLUMNS) * 100 + random.nextInt(30), 50, 40));
+			}
+			group.getChildren().addAll(nodes);
+			for (int i = 0; i < nodeCount * 5 / 2; i++) {
+				// connect to a nearby index within the same or an adjacent
+				// row, which lies at the other side of the grid if the index
+				// passes the end of a row, so that some connections span it
+				int source = random.nextInt(nodeCount);
+				int target = Math.min(nodeCount - 1, Math.max(0, source
+						+ random.nextInt(7) - 3
+						+ COLUMNS * (random.nextInt(3) - 1)));
+				if (source == target) {
+					target = (source + 1) % nodeCount;
+				}
+				Connection connection = new Connection();
+				group.getChildren().add(connection);
+				connection.setRouter(new ObstacleAvoidingRouter());
+				connection
+						.setStartAnchor(new DynamicAnchor(nodes.get(source)));
+				connection.setEndAnchor(new DynamicAnchor(nodes.get(target)));
+			}
+			dragged = nodes.get((int) (nodeCount * draggedNode));
+		}
+	}
+
+	/**
+	 * Moves a node by a few pixels, back and forth.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void dragStep(RoutingState state) {
+		// move away for 30 steps and back for 30 steps
+		int direction = state.step++ % 60 < 30 ? 1 : -1;
+		Rectangle dragged = state.dragged;
+		dragged.setTranslateX(dragged.getTranslateX() + 3 * direction);
+		dragged.setTranslateY(dragged.getTranslateY() + 2 * direction);
+	}
+
+}
@@ -13,20 +13,174 @@
 package org.eclipse.gef.fx.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
 import org.eclipse.gef.fx.anchors.IAnchor;
 import org.eclipse.gef.fx.anchors.StaticAnchor;
 import org.eclipse.gef.fx.nodes.Connection;
+import org.eclipse.gef.fx.nodes.ConnectionRefreshScheduler;
 import org.eclipse.gef.fx.nodes.GeometryNode;
+import org.eclipse.gef.fx.nodes.StraightRouter;
+import org.eclipse.gef.fx.tests.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.fx.tests.rules.FXNonApplicationThreadRule.RunnableWithResult;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.Point;
+import org.junit.Rule;
 import org.junit.Test;
 
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.shape.Rectangle;
+
 public class ConnectionTests {
 
+	/**
+	 * A {@link StraightRouter} that counts how often it is used.
+	 */
+	private static class CountingRouter extends StraightRouter {
+		private int routeCount;
+
+		@Override
+		public void route(Connection connection) {
+			routeCount++;
+			super.route(connection);
+		}
+	}
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private Rectangle source;
+	private Rectangle target;
+	private Connection connection;
+	private CountingRouter router;
+	private ConnectionRefreshScheduler scheduler;
+
+	private static boolean isTimerRunning(
+			ConnectionRefreshScheduler scheduler)
+			throws ReflectiveOperationException {
+		Field field = ConnectionRefreshScheduler.class
+				.getDeclaredField("timerRunning");
+		field.setAccessible(true);
+		return field.getBoolean(scheduler);
+	}
+
+	/**
+	 * Creates a scene containing a {@link Connection} between two anchorages,
+	 * which uses batched refresh and a {@link CountingRouter}.
+	 */
+	private void createScene() throws Throwable {
+		source = new Rectangle(0, 0, 50, 50);
+		target = new Rectangle(200, 0, 50, 50);
+		connection = new Connection();
+		router = new CountingRouter();
+		Scene scene = ctx.createScene(new Group(source, target, connection),
+				400, 400);
+		scheduler = ConnectionRefreshScheduler.get(scene);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				connection.setRouter(router);
+				connection.setStartAnchor(new DynamicAnchor(source));
+				connection.setEndAnchor(new DynamicAnchor(target));
+				connection.setBatchedRefresh(true);
+				router.routeCount = 0;
+			}
+		});
+	}
+
+	/**
+	 * Waits until the pending refreshes were performed within a pulse.
+	 */
+	private void waitForRefresh() throws Throwable {
+		long timeout = System.currentTimeMillis() + 5000;
+		while (ctx.runAndWait(new RunnableWithResult<Boolean>() {
+			@Override
+			public Boolean run() {
+				return scheduler.isPending();
+			}
+		})) {
+			assertTrue("No pulse within 5 seconds.",
+					System.currentTimeMillis() < timeout);
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void batchedRefresh() {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(200, 0, 50, 50);
+		Connection connection = new Connection();
+		new Group(source, target, connection);
+		connection.setStartAnchor(new DynamicAnchor(source));
+		connection.setEndAnchor(new DynamicAnchor(target));
+		connection.setBatchedRefresh(true);
+		assertTrue(connection.isBatchedRefresh());
+		assertEquals(new Point(50, 25), connection.getStartPoint());
+
+		// refreshes can only be batched within a scene, so that the
+		// connection is refreshed synchronously otherwise
+		source.setTranslateY(50);
+		assertEquals(new Point(50, 68.75), connection.getStartPoint());
+		assertEquals(new Point(200, 31.25), connection.getEndPoint());
+	}
+
+	@Test
+	public void batchedRefreshOncePerPulse() throws Throwable {
+		createScene();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// move both anchorages several times within one pulse
+				for (int i = 1; i <= 3; i++) {
+					source.setTranslateY(10 * i);
+					target.setTranslateY(10 * i);
+				}
+				assertEquals(0, router.routeCount);
+				assertTrue(scheduler.isPending());
+			}
+		});
+		waitForRefresh();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(1, router.routeCount);
+				assertEquals(new Point(50, 55), connection.getStartPoint());
+				assertEquals(new Point(200, 55), connection.getEndPoint());
+			}
+		});
+		// the timer is stopped when no refresh is pending
+		assertFalse(isTimerRunning(scheduler));
+	}
+
+	@Test
+	public void batchedRefreshReusesUnchangedResults() throws Throwable {
+		createScene();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// move an anchorage back and forth within one pulse
+				source.setTranslateY(50);
+				source.setTranslateY(0);
+				assertTrue(scheduler.isPending());
+				scheduler.flush();
+				// the points did not change, so that routing is skipped
+				assertEquals(0, router.routeCount);
+				assertEquals(new Point(50, 25), connection.getStartPoint());
+
+				source.setTranslateY(50);
+				scheduler.flush();
+				assertEquals(1, router.routeCount);
+			}
+		});
+	}
+
 	@Test
 	public void controlPoints() throws IllegalArgumentException, IllegalAccessException {
 		Connection connection = new Connection();
@@ -128,6 +282,26 @@ public class ConnectionTests {
 		assertEquals(newEndPoint, connection.getEndPoint());
 	}
 
+	@Test
+	public void flushRefreshScheduler() throws Throwable {
+		createScene();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				source.setTranslateY(50);
+				assertTrue(scheduler.isPending());
+				assertEquals(0, router.routeCount);
+
+				// flushing performs the pending refresh immediately
+				scheduler.flush();
+				assertFalse(scheduler.isPending());
+				assertEquals(1, router.routeCount);
+				assertEquals(new Point(50, 68.75), connection.getStartPoint());
+			}
+		});
+		assertFalse(isTimerRunning(scheduler));
+	}
+
 	@Test
 	public void pointConversions() {
 		Point startPoint = new Point(123, 456);
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.fx.nodes.InfiniteCanvas;
+import org.eclipse.gef.fx.tests.rules.FXNonApplicationThreadRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Affine;
+
+public class InfiniteCanvasTests {
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private InfiniteCanvas canvas;
+	// children at x = 0, 300, ..., 2700 within a viewport of 400 x 300
+	private List<Rectangle> children;
+
+	private static void assertHidden(Node child) {
+		assertFalse(child.isVisible());
+		assertFalse(child.isManaged());
+	}
+
+	private static void assertShown(Node child) {
+		assertTrue(child.isVisible());
+		assertTrue(child.isManaged());
+	}
+
+	@Before
+	public void setUp() throws Throwable {
+		canvas = new InfiniteCanvas();
+		children = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			children.add(new Rectangle(i * 300, 0, 50, 50));
+		}
+		ctx.createScene(canvas, 400, 300);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				canvas.resize(400, 300);
+				canvas.getContentGroup().getChildren().addAll(children);
+				canvas.setVirtualizationMargin(0);
+				canvas.setVirtualizeContent(true);
+			}
+		});
+	}
+
+	@Test
+	public void applicationHiddenChildrenAreUntouched() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				Rectangle child = children.get(0);
+				child.setVisible(false);
+				canvas.setHorizontalScrollOffset(-600);
+				canvas.setHorizontalScrollOffset(0);
+				assertFalse(child.isVisible());
+				assertTrue(child.isManaged());
+
+				canvas.setVirtualizeContent(false);
+				assertFalse(child.isVisible());
+				assertTrue(child.isManaged());
+			}
+		});
+	}
+
+	@Test
+	public void childrenAreRestored() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// removed children are restored
+				Rectangle removed = children.get(5);
+				assertHidden(removed);
+				canvas.getContentGroup().getChildren().remove(removed);
+				assertShown(removed);
+
+				// all children are restored when disabling virtualization,
+				// retaining their managed state
+				canvas.setHorizontalScrollOffset(-1800);
+				assertShown(children.get(6));
+				children.get(6).setManaged(false);
+				canvas.setHorizontalScrollOffset(0);
+				assertHidden(children.get(6));
+				canvas.setVirtualizeContent(false);
+				for (Rectangle child : children) {
+					assertTrue(child.isVisible());
+					assertEquals(child != children.get(6), child.isManaged());
+				}
+			}
+		});
+	}
+
+	@Test
+	public void contentBoundsIncludeHiddenChildren() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertHidden(children.get(9));
+				assertEquals(2750, canvas.getContentBounds().getMaxX(), 1e-9);
+
+				// removing a hidden child shrinks the content bounds
+				canvas.getContentGroup().getChildren().remove(children.get(9));
+				assertEquals(2450, canvas.getContentBounds().getMaxX(), 1e-9);
+
+				// adding a child that is hidden immediately extends them
+				Rectangle added = new Rectangle(5000, 0, 50, 50);
+				canvas.getContentGroup().getChildren().add(added);
+				assertHidden(added);
+				assertEquals(5050, canvas.getContentBounds().getMaxX(), 1e-9);
+
+				// moving a hidden child updates them
+				added.setX(4000);
+				assertHidden(added);
+				assertEquals(4050, canvas.getContentBounds().getMaxX(), 1e-9);
+			}
+		});
+	}
+
+	@Test
+	public void childrenAreHiddenAndShownOnScroll() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertShown(children.get(0));
+				assertShown(children.get(1));
+				for (Rectangle child : children.subList(2, 10)) {
+					assertHidden(child);
+				}
+
+				canvas.setHorizontalScrollOffset(-600);
+				assertHidden(children.get(0));
+				assertHidden(children.get(1));
+				assertShown(children.get(2));
+				assertShown(children.get(3));
+				assertHidden(children.get(4));
+			}
+		});
+	}
+
+	@Test
+	public void childrenAreHiddenAndShownOnZoom() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				canvas.setContentTransform(new Affine(0.1, 0, 0, 0, 0.1, 0));
+				for (Rectangle child : children) {
+					assertShown(child);
+				}
+
+				canvas.setContentTransform(new Affine(2, 0, 0, 0, 2, 0));
+				assertShown(children.get(0));
+				for (Rectangle child : children.subList(1, 10)) {
+					assertHidden(child);
+				}
+			}
+		});
+	}
+
+}
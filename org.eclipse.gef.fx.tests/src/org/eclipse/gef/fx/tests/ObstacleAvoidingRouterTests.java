@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
+import org.eclipse.gef.fx.nodes.Connection;
+import org.eclipse.gef.fx.nodes.ObstacleAvoidingRouter;
+import org.eclipse.gef.geometry.planar.Point;
+import org.junit.Test;
+
+import javafx.scene.Group;
+import javafx.scene.shape.Rectangle;
+
+public class ObstacleAvoidingRouterTests {
+
+	private static class CountingRouter extends ObstacleAvoidingRouter {
+		private int routeCount = 0;
+
+		@Override
+		public void route(Connection connection) {
+			routeCount++;
+			super.route(connection);
+		}
+	}
+
+	private static Connection connect(Group group, Rectangle source,
+			Rectangle target, ObstacleAvoidingRouter router) {
+		Connection connection = new Connection();
+		group.getChildren().add(connection);
+		connection.setRouter(router);
+		connection.setStartAnchor(new DynamicAnchor(source));
+		connection.setEndAnchor(new DynamicAnchor(target));
+		return connection;
+	}
+
+	// connects a source and a target, which is moved by the given offset,
+	// that are separated by a wall of three obstacles
+	private static Connection createWall(Group group, double offset) {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300 + offset, 30 + offset * 3 / 4,
+				50, 50);
+		group.getChildren().addAll(source, target,
+				new Rectangle(130, -100, 80, 90),
+				new Rectangle(150, 0, 80, 90),
+				new Rectangle(130, 100, 80, 90));
+		return connect(group, source, target, new ObstacleAvoidingRouter());
+	}
+
+	/**
+	 * Returns the (package-private) ObstacleIndex of the given {@link Group},
+	 * or <code>null</code> if there is none.
+	 */
+	private static Object getObstacleIndex(Group group)
+			throws ReflectiveOperationException {
+		return group.getProperties().get(
+				Class.forName("org.eclipse.gef.fx.nodes.ObstacleIndex"));
+	}
+
+	/**
+	 * Performs the rerouting of a single pulse of the given ObstacleIndex,
+	 * which may take the given time.
+	 */
+	private static void pulse(Object index, long budgetNanos)
+			throws ReflectiveOperationException {
+		Method reroutePending = index.getClass()
+				.getDeclaredMethod("reroutePending", long.class);
+		reroutePending.setAccessible(true);
+		reroutePending.invoke(index, budgetNanos);
+	}
+
+	private static boolean crosses(List<Point> points, Rectangle obstacle) {
+		for (int i = 0; i < points.size() - 1; i++) {
+			Point p = points.get(i);
+			Point q = points.get(i + 1);
+			if (Math.max(p.x, q.x) > obstacle.getBoundsInParent().getMinX()
+					&& Math.min(p.x, q.x) < obstacle.getBoundsInParent()
+							.getMaxX()
+					&& Math.max(p.y, q.y) > obstacle.getBoundsInParent()
+							.getMinY()
+					&& Math.min(p.y, q.y) < obstacle.getBoundsInParent()
+							.getMaxY()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isOrthogonal(List<Point> points) {
+		for (int i = 0; i < points.size() - 1; i++) {
+			Point p = points.get(i);
+			Point q = points.get(i + 1);
+			if (p.x != q.x && p.y != q.y) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Test
+	public void routeAroundObstacle() {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Rectangle obstacle = new Rectangle(130, -50, 80, 150);
+		Group group = new Group(source, target, obstacle);
+		Connection connection = connect(group, source, target,
+				new ObstacleAvoidingRouter());
+
+		List<Point> points = connection.getPointsUnmodifiable();
+		assertEquals(new Point(50, 25), connection.getStartPoint());
+		assertEquals(new Point(300, 25), connection.getEndPoint());
+		assertTrue(isOrthogonal(points));
+		assertFalse(crosses(points, obstacle));
+		assertEquals(6, points.size());
+
+		// the connection is rerouted when the obstacle is moved out of the way
+		obstacle.setTranslateY(500);
+		assertEquals(2, connection.getPointsUnmodifiable().size());
+
+		// and again when it is moved back
+		obstacle.setTranslateY(0);
+		points = connection.getPointsUnmodifiable();
+		assertTrue(isOrthogonal(points));
+		assertFalse(crosses(points, obstacle));
+	}
+
+	@Test
+	public void routeAroundDenseObstacles() {
+		// a staggered field of obstacles between source and target, so that
+		// the search has to consider more obstacles than within a single
+		// pulse; outside of a scene, the search is not interrupted, so that
+		// the resulting route may not cross any obstacle
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(1300, 500, 50, 50);
+		Group group = new Group(source, target);
+		for (int column = 0; column < 20; column++) {
+			for (int row = 0; row < 20; row++) {
+				group.getChildren()
+						.add(new Rectangle(100 + column * 60,
+								-100 + row * 50 + (column % 2) * 25, 35,
+								25));
+			}
+		}
+		Connection connection = connect(group, source, target,
+				new ObstacleAvoidingRouter());
+
+		List<Point> points = connection.getPointsUnmodifiable();
+		assertTrue(isOrthogonal(points));
+		for (int i = 2; i < group.getChildren().size(); i++) {
+			if (group.getChildren().get(i) instanceof Rectangle) {
+				assertFalse(crosses(points,
+						(Rectangle) group.getChildren().get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void rerouteConsidersPreviousObstacles() {
+		// the rerouted connection takes into account the obstacles its
+		// previous route passed along, which has to yield the same route as
+		// routing it from scratch
+		Group group = new Group();
+		Connection connection = createWall(group, 0);
+		Rectangle target = (Rectangle) group.getChildren().get(1);
+		target.setTranslateX(40);
+		target.setTranslateY(30);
+		List<Point> expected = createWall(new Group(), 40)
+				.getPointsUnmodifiable();
+		List<Point> points = connection.getPointsUnmodifiable();
+		assertEquals(expected.size(), points.size());
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(expected.get(i).x, points.get(i).x, 1e-3);
+			assertEquals(expected.get(i).y, points.get(i).y, 1e-3);
+		}
+
+		// the route no longer passes around the wall once it is removed
+		group.getChildren().remove(2, 5);
+		for (Point point : connection.getPointsUnmodifiable()) {
+			assertTrue(point.y >= 0 && point.y <= 110);
+		}
+	}
+
+	@Test
+	public void rerouteWithinLaterPulses() throws Exception {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Rectangle obstacle = new Rectangle(130, 200, 80, 150);
+		Group group = new Group(source, target, obstacle);
+		Connection connection = connect(group, source, target,
+				new ObstacleAvoidingRouter());
+		assertEquals(2, connection.getPointsUnmodifiable().size());
+
+		// an obstacle that is moved into the corridor of the connection while
+		// the index is rerouting (i.e. within a pulse) is only taken into
+		// account by the following pulses, which are driven directly, as
+		// there are no pulses outside of a scene
+		Object index = getObstacleIndex(group);
+		Field rerouting = index.getClass().getDeclaredField("rerouting");
+		rerouting.setAccessible(true);
+		rerouting.setBoolean(index, true);
+		obstacle.setTranslateY(-250);
+		rerouting.setBoolean(index, false);
+		assertEquals(2, connection.getPointsUnmodifiable().size());
+
+		// a pulse without remaining time does not reroute the connection
+		pulse(index, 0);
+		assertEquals(2, connection.getPointsUnmodifiable().size());
+
+		Field budget = index.getClass()
+				.getDeclaredField("REROUTING_BUDGET_NANOS");
+		budget.setAccessible(true);
+		pulse(index, budget.getLong(null));
+		assertTrue(isOrthogonal(connection.getPointsUnmodifiable()));
+		assertFalse(crosses(connection.getPointsUnmodifiable(), obstacle));
+	}
+
+	@Test
+	public void obstacleIndexIsDisposed() throws Exception {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Group group = new Group(source, target);
+		Connection connection = connect(group, source, target,
+				new ObstacleAvoidingRouter());
+		Object index = getObstacleIndex(group);
+		assertNotNull(index);
+
+		// the index is disposed along with the corridors of the last
+		// connection, and re-created when a connection is routed again
+		group.getChildren().remove(connection);
+		assertNull(getObstacleIndex(group));
+		connect(group, source, target, new ObstacleAvoidingRouter());
+		assertNotNull(getObstacleIndex(group));
+		assertNotSame(index, getObstacleIndex(group));
+	}
+
+	@Test
+	public void rerouteOnlyAffectedConnections() {
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Rectangle farSource = new Rectangle(0, 1000, 50, 50);
+		Rectangle farTarget = new Rectangle(300, 1000, 50, 50);
+		Rectangle obstacle = new Rectangle(130, 200, 80, 80);
+		Group group = new Group(source, target, farSource, farTarget,
+				obstacle);
+		CountingRouter router = new CountingRouter();
+		CountingRouter farRouter = new CountingRouter();
+		Connection connection = connect(group, source, target, router);
+		connect(group, farSource, farTarget, farRouter);
+		assertEquals(2, connection.getPointsUnmodifiable().size());
+
+		// moving the obstacle into the corridor of the first connection only
+		// reroutes that connection
+		int routeCount = router.routeCount;
+		int farRouteCount = farRouter.routeCount;
+		obstacle.setTranslateY(-220);
+		assertTrue(router.routeCount > routeCount);
+		assertEquals(farRouteCount, farRouter.routeCount);
+		assertFalse(crosses(connection.getPointsUnmodifiable(), obstacle));
+	}
+
+}
@@ -80,4 +80,28 @@ public class OrthogonalProjectionStrategyTests {
 	
 	
 
+
+	@Test
+	public void projectionAfterAnchorageTransform() {
+		javafx.scene.shape.Rectangle anchorage = new javafx.scene.shape.Rectangle(0, 0, 50, 50);
+		DynamicAnchor a = new DynamicAnchor(anchorage, new OrthogonalProjectionStrategy());
+		AnchorageReferenceGeometry computationParameter = a.getComputationParameter(AnchorageReferenceGeometry.class);
+		if(computationParameter.isBound()){
+			computationParameter.unbind();
+		}
+		computationParameter.set(new Rectangle(0, 0, 50, 50));
+
+		javafx.scene.shape.Rectangle anchored = new javafx.scene.shape.Rectangle(100, 0, 50, 50);
+		AnchorKey anchorKey = new AnchorKey(anchored, "role");
+		a.attach(anchorKey);
+
+		a.getComputationParameter(anchorKey, AnchoredReferencePoint.class).set(new Point(125, 25));
+		assertEquals(new Point(50, 25), a.getPosition(anchorKey));
+
+		// the cached anchorage outline has to be discarded when the anchorage
+		// is transformed
+		anchorage.setTranslateX(200);
+		a.getComputationParameter(anchorKey, AnchoredReferencePoint.class).set(new Point(125, 20));
+		assertEquals(new Point(200, 20), a.getPosition(anchorKey));
+	}
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.gef.fx.anchors.AnchorKey;
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
+import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchorageReferenceGeometry;
+import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchoredReferencePoint;
+import org.eclipse.gef.fx.anchors.IComputationStrategy.Parameter;
+import org.eclipse.gef.fx.anchors.ProjectionStrategy;
+import org.eclipse.gef.geometry.planar.ICurve;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Line;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+public class ProjectionStrategyTests {
+
+	/**
+	 * A {@link ProjectionStrategy} that projects onto the left or right side
+	 * of the bounds of the anchorage reference geometry, and changes the
+	 * outline segments that are passed to
+	 * {@link #computeProjectionInScene(List, Point, Set)}.
+	 */
+	private static class SideProjectionStrategy extends ProjectionStrategy {
+
+		private final boolean left;
+
+		public SideProjectionStrategy(boolean left) {
+			this.left = left;
+		}
+
+		@Override
+		protected Point computeProjectionInScene(
+				List<ICurve> anchorageOutlinesInScene,
+				Point anchoredReferencePointInScene,
+				Set<Parameter<?>> parameters) {
+			Line line = (Line) anchorageOutlinesInScene.get(0);
+			line.setX1(line.getX1() + 10);
+			line.setX2(line.getX2() + 10);
+			return super.computeProjectionInScene(anchorageOutlinesInScene,
+					anchoredReferencePointInScene, parameters);
+		}
+
+		@Override
+		protected List<ICurve> getOutlineSegments(IGeometry geometry) {
+			Rectangle bounds = geometry.getBounds();
+			return Collections.<ICurve> singletonList(left
+					? new Line(bounds.getTopLeft(), bounds.getBottomLeft())
+					: new Line(bounds.getTopRight(), bounds.getBottomRight()));
+		}
+	}
+
+	private static DynamicAnchor createAnchor(
+			javafx.scene.shape.Rectangle anchorage,
+			ProjectionStrategy strategy) {
+		DynamicAnchor anchor = new DynamicAnchor(anchorage, strategy);
+		AnchorageReferenceGeometry computationParameter = anchor
+				.getComputationParameter(AnchorageReferenceGeometry.class);
+		if (computationParameter.isBound()) {
+			computationParameter.unbind();
+		}
+		computationParameter.set(new Rectangle(0, 0, 50, 50));
+		return anchor;
+	}
+
+	@Test
+	public void outlinesAreCachedPerStrategy() {
+		javafx.scene.shape.Rectangle anchorage = new javafx.scene.shape.Rectangle(
+				0, 0, 50, 50);
+		DynamicAnchor left = createAnchor(anchorage,
+				new SideProjectionStrategy(true));
+		DynamicAnchor right = createAnchor(anchorage,
+				new SideProjectionStrategy(false));
+
+		javafx.scene.shape.Rectangle anchored = new javafx.scene.shape.Rectangle(
+				100, 0, 50, 50);
+		AnchorKey anchorKey = new AnchorKey(anchored, "role");
+		left.attach(anchorKey);
+		right.attach(anchorKey);
+		left.getComputationParameter(anchorKey, AnchoredReferencePoint.class)
+				.set(new Point(125, 25));
+		right.getComputationParameter(anchorKey, AnchoredReferencePoint.class)
+				.set(new Point(125, 25));
+
+		// differently configured strategies of the same type do not share
+		// their outlines, and the cached outlines cannot be changed
+		assertEquals(new Point(0, 25), left.getPosition(anchorKey));
+		assertEquals(new Point(50, 25), right.getPosition(anchorKey));
+		right.getComputationParameter(anchorKey, AnchoredReferencePoint.class)
+				.set(new Point(125, 30));
+		assertEquals(new Point(50, 30), right.getPosition(anchorKey));
+	}
+
+}
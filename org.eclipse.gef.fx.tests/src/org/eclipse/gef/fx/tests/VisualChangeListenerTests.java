@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.fx.listeners.VisualChangeHub;
+import org.eclipse.gef.fx.listeners.VisualChangeListener;
+import org.junit.Test;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Transform;
+
+public class VisualChangeListenerTests {
+
+	private static class RecordingListener extends VisualChangeListener {
+
+		private final List<Node> transformChanges = new ArrayList<>();
+		private int boundsChanges = 0;
+
+		@Override
+		protected void boundsInLocalChanged(Bounds oldBounds,
+				Bounds newBounds) {
+			boundsChanges++;
+		}
+
+		@Override
+		protected void localToParentTransformChanged(Node observed,
+				Transform oldTransform, Transform newTransform) {
+			transformChanges.add(observed);
+		}
+	}
+
+	@Test
+	public void detachedNodesHub() {
+		// nodes that are not part of a scene share the hub of their root
+		Rectangle anchorage = new Rectangle(0, 0, 10, 10);
+		Rectangle anchored = new Rectangle();
+		Group root = new Group(new Group(anchorage), anchored);
+		VisualChangeHub hub = VisualChangeHub.get(anchorage);
+		assertSame(hub, VisualChangeHub.get(anchored));
+		assertSame(hub, VisualChangeHub.get(root));
+		assertNotSame(hub, VisualChangeHub.get(new Group()));
+
+		// the listener keeps using its hub when the root is added to
+		// another scene graph
+		RecordingListener listener = new RecordingListener();
+		listener.register(anchorage, anchored);
+		assertEquals(3, hub.getObservedNodeCount());
+		Group parent = new Group(root);
+		assertNotSame(hub, VisualChangeHub.get(anchorage));
+		anchorage.setWidth(20);
+		assertEquals(1, listener.boundsChanges);
+		listener.unregister();
+		assertEquals(0, hub.getObservedNodeCount());
+		assertEquals(0,
+				VisualChangeHub.get(parent).getObservedNodeCount());
+	}
+
+	@Test
+	public void sharedListeners() {
+		// content > (layer > (group > anchorage), anchored1, anchored2)
+		Rectangle anchorage = new Rectangle(0, 0, 10, 10);
+		Group group = new Group(anchorage);
+		Group layer = new Group(group);
+		Rectangle anchored1 = new Rectangle();
+		Rectangle anchored2 = new Rectangle();
+		Group content = new Group(layer, anchored1, anchored2);
+
+		VisualChangeHub hub = VisualChangeHub.get(anchorage);
+		int observedNodeCount = hub.getObservedNodeCount();
+		RecordingListener l1 = new RecordingListener();
+		RecordingListener l2 = new RecordingListener();
+		l1.register(anchorage, anchored1);
+		l2.register(anchorage, anchored2);
+
+		// anchorage, group, layer, anchored1, and anchored2 are observed, but
+		// not the common ancestor
+		assertEquals(observedNodeCount + 5, hub.getObservedNodeCount());
+		assertEquals(2 * 2, hub.getSubscriberCount(anchorage));
+		assertEquals(2, hub.getSubscriberCount(group));
+		assertEquals(0, hub.getSubscriberCount(content));
+
+		// transform changes are fanned out to all listeners
+		group.setTranslateX(5);
+		assertEquals(1, l1.transformChanges.size());
+		assertEquals(group, l1.transformChanges.get(0));
+		assertEquals(1, l2.transformChanges.size());
+		anchored1.setTranslateX(5);
+		assertEquals(2, l1.transformChanges.size());
+		assertEquals(1, l2.transformChanges.size());
+
+		// transform changes of the shared ancestor are not reported
+		content.setScaleX(2);
+		assertEquals(2, l1.transformChanges.size());
+		assertEquals(1, l2.transformChanges.size());
+
+		// bounds changes are reported to all listeners
+		anchorage.setWidth(20);
+		assertEquals(1, l1.boundsChanges);
+		assertEquals(1, l2.boundsChanges);
+
+		// listeners are removed upon unregistration
+		l1.unregister();
+		assertFalse(l1.isRegistered());
+		assertEquals(2, hub.getSubscriberCount(anchorage));
+		assertEquals(0, hub.getSubscriberCount(anchored1));
+		group.setTranslateX(10);
+		assertEquals(2, l1.transformChanges.size());
+		assertEquals(2, l2.transformChanges.size());
+		l2.unregister();
+		assertEquals(observedNodeCount, hub.getObservedNodeCount());
+	}
+
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2015, 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Matthias Wienand (itemis AG) - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests.rules;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+/**
+ * A {@link TestRule} to ensure that the JavaFX toolkit is properly initialized
+ * before test execution, which is performed on a thread other than the JavaFX
+ * application thread. It provides the means to show a {@link Scene} (see
+ * {@link #createScene(Parent, double, double)}) and to execute code on the
+ * JavaFX application thread (see {@link #runAndWait(RunnableWithResult)}).
+ * <p>
+ * This is a reduced variant of the rule of the MVC.FX tests, so that the FX
+ * tests do not have to depend on the MVC.FX tests.
+ *
+ * @author mwienand
+ *
+ */
+public class FXNonApplicationThreadRule implements TestRule {
+
+	public interface RunnableWithResult<T> {
+		public T run();
+	}
+
+	private static final long TIMEOUT_MILLIS = 5000;
+
+	private static boolean initializedJavaFxToolkit = false;
+
+	private synchronized static void initFX() throws InterruptedException {
+		if (!initializedJavaFxToolkit) {
+			final CountDownLatch latch = new CountDownLatch(1);
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					new JFXPanel(); // initializes JavaFX
+					latch.countDown();
+				}
+			});
+			latch.await();
+			initializedJavaFxToolkit = true;
+		}
+	}
+
+	private JFXPanel panel;
+	private JFrame jFrame;
+
+	@Override
+	public Statement apply(final Statement base, Description description) {
+		if (Platform.isFxApplicationThread()
+				|| SwingUtilities.isEventDispatchThread()) {
+			throw new IllegalStateException(
+					"Tests may not be executed from FX application or AWT event dispatching thread.");
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				initFX();
+				try {
+					base.evaluate();
+				} finally {
+					runAndWait(() -> {
+						if (panel != null) {
+							panel.setScene(null);
+						}
+						if (jFrame != null) {
+							jFrame.setVisible(false);
+						}
+						jFrame = null;
+						panel = null;
+					});
+				}
+			}
+		};
+	}
+
+	/**
+	 * Creates a {@link Scene} that wraps the given root visual and shows that
+	 * {@link Scene} in a {@link JFrame}.
+	 *
+	 * @param root
+	 *            The root visual.
+	 * @param width
+	 *            The width of the frame/scene.
+	 * @param height
+	 *            The height of the frame/scene.
+	 * @return The created {@link Scene}.
+	 * @throws Throwable
+	 */
+	public Scene createScene(final Parent root, final double width,
+			final double height) throws Throwable {
+		return runAndWait(new RunnableWithResult<Scene>() {
+			@Override
+			public Scene run() {
+				panel = new JFXPanel();
+				Scene scene = new Scene(root, width, height);
+				panel.setScene(scene);
+				jFrame = new JFrame();
+				jFrame.setBounds(0, 0, (int) width, (int) height);
+				jFrame.setContentPane(panel);
+				jFrame.setVisible(true);
+				return scene;
+			}
+		});
+	}
+
+	/**
+	 * Schedules the given {@link Runnable} on the JavaFX application thread and
+	 * waits for its execution to finish.
+	 *
+	 * @param runnable
+	 *            The {@link Runnable} to execute.
+	 * @throws Throwable
+	 */
+	public void runAndWait(final Runnable runnable) throws Throwable {
+		runAndWait(new RunnableWithResult<Void>() {
+			@Override
+			public Void run() {
+				runnable.run();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Schedules the given {@link RunnableWithResult} on the JavaFX application
+	 * thread and waits (at most {@link #TIMEOUT_MILLIS}) for its execution to
+	 * finish. Any {@link Throwable} thrown during its execution is re-thrown.
+	 *
+	 * @param runnableWithResult
+	 *            The {@link RunnableWithResult} to execute.
+	 * @return The result of the {@link RunnableWithResult}.
+	 * @throws Throwable
+	 */
+	public synchronized <T> T runAndWait(
+			final RunnableWithResult<T> runnableWithResult) throws Throwable {
+		final AtomicReference<Throwable> throwableRef = new AtomicReference<>(
+				null);
+		final AtomicReference<T> resultRef = new AtomicReference<>(null);
+		final CountDownLatch latch = new CountDownLatch(1);
+		Platform.runLater(() -> {
+			try {
+				resultRef.set(runnableWithResult.run());
+			} catch (Throwable t) {
+				throwableRef.set(t);
+			} finally {
+				latch.countDown();
+			}
+		});
+		if (!latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+			throw new IllegalStateException("TIMEOUT");
+		}
+		Throwable throwable = throwableRef.get();
+		if (throwable != null) {
+			throw throwable;
+		}
+		return resultRef.get();
+	}
+
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.anchors;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.gef.fx.utils.NodeUtils;
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.ICurve;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+import javafx.scene.Node;
+
+/**
+ * The {@link AnchorageOutlineCache} keeps the outline segments (in scene
+ * coordinates) of an anchorage {@link Node}, as computed by
+ * {@link ProjectionStrategy#getOutlineSegments(IGeometry)} for a given
+ * anchorage reference geometry, so that they do not have to be recomputed for
+ * each anchored that is attached to the anchorage. The bounds of the segments
+ * are computed once, too, so that segments may be pruned by their distance to
+ * a reference point.
+ * <p>
+ * There is one {@link AnchorageOutlineCache} per anchorage, which is stored
+ * within the {@link Node#getProperties() properties} of the anchorage. The
+ * cached outlines are discarded when the local-to-scene-transform of the
+ * anchorage changes. As the anchorage reference geometry is compared as well,
+ * changes of the anchorage bounds (which are reflected by the reference
+ * geometry) lead to a recomputation, too.
+ *
+ * @author itemis AG
+ *
+ */
+final class AnchorageOutlineCache {
+
+	/**
+	 * The outline segments of an anchorage in scene coordinates, together with
+	 * their bounds. As an {@link Outline} is passed to
+	 * {@link ProjectionStrategy#computeProjectionInScene(List, Point, java.util.Set)},
+	 * which may be overridden, it is unmodifiable and {@link #get(int)}
+	 * returns copies of the cached segments, so that these cannot be changed.
+	 */
+	static final class Outline extends AbstractList<ICurve>
+			implements RandomAccess {
+
+		private final ICurve[] segments;
+		private final Rectangle[] bounds;
+
+		private Outline(List<ICurve> segments) {
+			this.segments = segments.toArray(new ICurve[segments.size()]);
+			this.bounds = new Rectangle[this.segments.length];
+			for (int i = 0; i < this.segments.length; i++) {
+				bounds[i] = this.segments[i].getBounds();
+			}
+		}
+
+		/**
+		 * Returns a copy of the segment at the given index. Use
+		 * {@link #getSegment(int)} to access the cached segment.
+		 */
+		@Override
+		public ICurve get(int index) {
+			return (ICurve) segments[index].getCopy();
+		}
+
+		/**
+		 * Returns the bounds of the segment at the given index.
+		 *
+		 * @param index
+		 *            The index of the segment.
+		 * @return The bounds of the segment at the given index.
+		 */
+		Rectangle getBounds(int index) {
+			return bounds[index];
+		}
+
+		/**
+		 * Returns the cached segment at the given index, which must not be
+		 * changed.
+		 *
+		 * @param index
+		 *            The index of the segment.
+		 * @return The cached segment at the given index.
+		 */
+		ICurve getSegment(int index) {
+			return segments[index];
+		}
+
+		/**
+		 * Returns the distance of the given {@link Point} to the bounds of the
+		 * segment at the given index, which is a lower bound for the distance
+		 * of the {@link Point} to any point of the segment.
+		 *
+		 * @param index
+		 *            The index of the segment.
+		 * @param p
+		 *            The {@link Point} for which to compute the distance.
+		 * @return The distance of the given {@link Point} to the bounds of the
+		 *         segment.
+		 */
+		double getBoundsDistance(int index, Point p) {
+			Rectangle r = bounds[index];
+			double dx = Math.max(0, Math.max(r.getX() - p.x,
+					p.x - (r.getX() + r.getWidth())));
+			double dy = Math.max(0, Math.max(r.getY() - p.y,
+					p.y - (r.getY() + r.getHeight())));
+			return Math.sqrt(dx * dx + dy * dy);
+		}
+
+		/**
+		 * Returns the projection of the given {@link Point} onto the segments
+		 * that is nearest to the {@link Point}. Segments whose bounds are
+		 * farther away than the nearest projection found so far are skipped.
+		 * In case of multiple nearest projections, the one of the first
+		 * segment is returned, as with {@link Point#nearest(Point, Point...)}.
+		 *
+		 * @param p
+		 *            The {@link Point} to project.
+		 * @return The nearest projection of the given {@link Point}, or
+		 *         <code>null</code> if there are no segments.
+		 */
+		Point getNearestProjection(Point p) {
+			if (segments.length == 0) {
+				return null;
+			}
+			// start with the segment whose bounds are nearest
+			double[] boundsDistances = new double[segments.length];
+			int nearestIndex = 0;
+			for (int i = 0; i < segments.length; i++) {
+				boundsDistances[i] = getBoundsDistance(i, p);
+				if (boundsDistances[i] < boundsDistances[nearestIndex]) {
+					nearestIndex = i;
+				}
+			}
+			Point nearest = segments[nearestIndex].getProjection(p);
+			double minDistance = p.getDistance(nearest);
+			for (int i = 0; i < segments.length; i++) {
+				if (i == nearestIndex || boundsDistances[i] > minDistance) {
+					continue;
+				}
+				Point projection = segments[i].getProjection(p);
+				double distance = p.getDistance(projection);
+				if (distance < minDistance
+						|| distance == minDistance && i < nearestIndex) {
+					nearest = projection;
+					minDistance = distance;
+					nearestIndex = i;
+				}
+			}
+			return nearest;
+		}
+
+		@Override
+		public int size() {
+			return segments.length;
+		}
+	}
+
+	private static final class Entry {
+		private final ProjectionStrategy strategy;
+		private final IGeometry geometryInLocal;
+		private final Outline outlineInScene;
+
+		private Entry(ProjectionStrategy strategy, IGeometry geometryInLocal,
+				Outline outlineInScene) {
+			this.strategy = strategy;
+			this.geometryInLocal = geometryInLocal;
+			this.outlineInScene = outlineInScene;
+		}
+
+		private boolean matches(ProjectionStrategy strategy,
+				IGeometry geometryInLocal) {
+			return this.strategy == strategy
+					&& (this.geometryInLocal == geometryInLocal
+							|| this.geometryInLocal.equals(geometryInLocal));
+		}
+	}
+
+	/**
+	 * The maximum number of outlines that are cached per anchorage, i.e. the
+	 * number of different anchorage reference geometries (or strategies) that
+	 * may be used for the same anchorage without evicting each other.
+	 */
+	private static final int MAX_ENTRIES = 4;
+
+	/**
+	 * Returns the outline segments (in scene coordinates) of the given
+	 * anchorage reference geometry, as determined by the given
+	 * {@link ProjectionStrategy}. The outline segments are computed upon the
+	 * first request and cached until the anchorage is transformed or the
+	 * anchorage reference geometry changes. They are cached per
+	 * {@link ProjectionStrategy} instance (rather than per type), as
+	 * differently configured instances may compute different segments.
+	 *
+	 * @param strategy
+	 *            The {@link ProjectionStrategy} that is used to determine the
+	 *            outline segments.
+	 * @param anchorage
+	 *            The anchorage {@link Node}.
+	 * @param geometryInLocal
+	 *            The anchorage reference geometry within the local coordinate
+	 *            system of the anchorage.
+	 * @return The {@link Outline} of the anchorage reference geometry in scene
+	 *         coordinates.
+	 */
+	static Outline getOutlineInScene(ProjectionStrategy strategy,
+			Node anchorage, IGeometry geometryInLocal) {
+		Object cache = anchorage.getProperties()
+				.get(AnchorageOutlineCache.class);
+		if (!(cache instanceof AnchorageOutlineCache)) {
+			cache = new AnchorageOutlineCache(anchorage);
+			anchorage.getProperties().put(AnchorageOutlineCache.class, cache);
+		}
+		return ((AnchorageOutlineCache) cache).getOutlineInScene(strategy,
+				geometryInLocal);
+	}
+
+	private final Node anchorage;
+	private AffineTransform localToSceneTx;
+	private final List<Entry> entries = new ArrayList<>(MAX_ENTRIES);
+
+	private AnchorageOutlineCache(Node anchorage) {
+		this.anchorage = anchorage;
+	}
+
+	private Outline getOutlineInScene(ProjectionStrategy strategy,
+			IGeometry geometryInLocal) {
+		// discard all outlines in case the anchorage was transformed (the
+		// transformation is compared instead of being observed, because
+		// listeners that were registered before could otherwise query the
+		// cache before it is notified about the change)
+		AffineTransform currentLocalToSceneTx = NodeUtils
+				.getLocalToSceneTx(anchorage);
+		if (!currentLocalToSceneTx.equals(localToSceneTx)) {
+			entries.clear();
+			localToSceneTx = currentLocalToSceneTx;
+		}
+		for (Entry entry : entries) {
+			if (entry.matches(strategy, geometryInLocal)) {
+				return entry.outlineInScene;
+			}
+		}
+		Outline outlineInScene = new Outline(strategy.getOutlineSegments(
+				geometryInLocal.getTransformed(localToSceneTx)));
+		if (entries.size() == MAX_ENTRIES) {
+			entries.remove(0);
+		}
+		entries.add(new Entry(strategy, geometryInLocal.getCopy(),
+				outlineInScene));
+		return outlineInScene;
+	}
+
+}
@@ -12,7 +12,6 @@
  *******************************************************************************/
 package org.eclipse.gef.fx.anchors;
 
-import java.util.List;
 import java.util.Set;
 
 import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchorageReferenceGeometry;
@@ -24,6 +23,7 @@ import org.eclipse.gef.geometry.planar.IShape;
 import org.eclipse.gef.geometry.planar.Line;
 import org.eclipse.gef.geometry.planar.Path;
 import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
 
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -135,17 +135,26 @@ public class ChopBoxStrategy extends ProjectionStrategy {
 					parameters);
 		}
 
-		IGeometry anchorageGeometryInScene = NodeUtils.localToScene(anchorage,
-				anchorageReferenceGeometryInLocal);
-		List<ICurve> anchorageOutlinesInScene = getOutlineSegments(
-				anchorageGeometryInScene);
+		AnchorageOutlineCache.Outline anchorageOutlinesInScene = AnchorageOutlineCache
+				.getOutlineInScene(this, anchorage,
+						anchorageReferenceGeometryInLocal);
 
 		Line referenceLineInScene = new Line(anchorageReferencePointInScene,
 				anchoredReferencePointInScene);
+		Rectangle referenceLineBoundsInScene = referenceLineInScene
+				.getBounds();
 
 		Point nearestProjectionInScene = null;
 		double nearestDistance = 0d;
-		for (ICurve anchorageOutlineInScene : anchorageOutlinesInScene) {
+		for (int i = 0; i < anchorageOutlinesInScene.size(); i++) {
+			// segments whose bounds do not touch the reference line can
+			// neither contain the reference point nor intersect the line
+			if (!anchorageOutlinesInScene.getBounds(i)
+					.touches(referenceLineBoundsInScene)) {
+				continue;
+			}
+			ICurve anchorageOutlineInScene = anchorageOutlinesInScene
+					.getSegment(i);
 			// if the reference point is already on the outline, we may
 			// directly use it
 			if (anchorageOutlineInScene
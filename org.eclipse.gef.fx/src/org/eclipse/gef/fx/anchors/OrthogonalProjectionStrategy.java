@@ -47,7 +47,19 @@ public class OrthogonalProjectionStrategy extends ProjectionStrategy {
 
 		Point nearestOrthogonalProjectionInScene = null;
 		double nearestOrthogonalProjectionDistance = Double.MAX_VALUE;
-		for (ICurve segment : anchorageOutlinesInScene) {
+		AnchorageOutlineCache.Outline outline = null;
+		if (anchorageOutlinesInScene instanceof AnchorageOutlineCache.Outline) {
+			outline = (AnchorageOutlineCache.Outline) anchorageOutlinesInScene;
+		}
+		for (int i = 0; i < anchorageOutlinesInScene.size(); i++) {
+			// skip curves whose bounds are farther away than the nearest
+			// orthogonal projection found so far
+			if (outline != null && outline.getBoundsDistance(i,
+					anchoredReferencePointInScene) > nearestOrthogonalProjectionDistance) {
+				continue;
+			}
+			ICurve segment = outline != null ? outline.getSegment(i)
+					: anchorageOutlinesInScene.get(i);
 			// determine nearest orthogonal projection of each curve
 			Point projection = getOrthogonalProjection(segment,
 					anchoredReferencePointInScene, orientationHint);
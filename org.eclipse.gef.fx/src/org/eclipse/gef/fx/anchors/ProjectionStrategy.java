@@ -37,7 +37,9 @@ import javafx.scene.Node;
  * In detail, the computation is done as follows:
  * <ol>
  * <li>Compute the anchorage outlines (in scene) based on the anchorage
- * reference geometry,using {@link #getOutlineSegments(IGeometry)}.</li>
+ * reference geometry,using {@link #getOutlineSegments(IGeometry)}. The
+ * outlines are cached per anchorage until the anchorage is transformed or the
+ * anchorage reference geometry changes.</li>
  * <li>Transform the given anchored reference point to scene coordinates.</li>
  * <li>Project the anchored reference point (in scene) onto the anchorage
  * outlines.</li>
@@ -58,13 +60,10 @@ public class ProjectionStrategy implements IComputationStrategy {
 		Point anchoredReferencePointInLocal = Parameter
 				.get(parameters, AnchoredReferencePoint.class).get();
 
-		// determine anchorage geometry in scene
-		IGeometry anchorageGeometryInScene = NodeUtils.localToScene(anchorage,
-				anchorageReferenceGeometryInLocal);
-
-		// determine anchorage outlines in scene
-		List<ICurve> anchorageOutlinesInScene = getOutlineSegments(
-				anchorageGeometryInScene);
+		// determine anchorage outlines in scene (cached per anchorage)
+		List<ICurve> anchorageOutlinesInScene = AnchorageOutlineCache
+				.getOutlineInScene(this, anchorage,
+						anchorageReferenceGeometryInLocal);
 
 		// transform anchored reference point to scene
 		Point anchoredReferencePointInScene = NodeUtils.localToScene(anchored,
@@ -93,6 +92,11 @@ public class ProjectionStrategy implements IComputationStrategy {
 	protected Point computeProjectionInScene(
 			List<ICurve> anchorageOutlinesInScene,
 			Point anchoredReferencePointInScene, Set<Parameter<?>> parameters) {
+		if (anchorageOutlinesInScene instanceof AnchorageOutlineCache.Outline) {
+			// prune segments by the distance to their bounds
+			return ((AnchorageOutlineCache.Outline) anchorageOutlinesInScene)
+					.getNearestProjection(anchoredReferencePointInScene);
+		}
 		Point[] projections = new Point[anchorageOutlinesInScene.size()];
 		for (int i = 0; i < anchorageOutlinesInScene.size(); i++) {
 			ICurve c = anchorageOutlinesInScene.get(i);
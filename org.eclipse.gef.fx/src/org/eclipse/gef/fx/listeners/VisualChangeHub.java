@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.listeners;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.gef.fx.nodes.InfiniteCanvas;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.transform.Transform;
+
+/**
+ * The {@link VisualChangeHub} observes the bounds and local-to-parent
+ * transforms of {@link Node}s on behalf of {@link VisualChangeListener}s. It
+ * registers (at most) one listener per observed {@link Node} and property,
+ * regardless of the number of {@link VisualChangeListener}s that are
+ * interested in it, and fans out the change events to all of them. This
+ * considerably reduces the number of listeners if many
+ * {@link VisualChangeListener}s share observed {@link Node}s, e.g. when
+ * numerous connections are anchored at the same node, so that they observe
+ * the same ancestors.
+ * <p>
+ * A {@link VisualChangeListener} only observes the transforms of the
+ * {@link Node}s below the nearest common ancestor of its observed and
+ * observer {@link Node}s. Therefore, transform changes applied to a shared
+ * ancestor (like the content transform of an {@link InfiniteCanvas}) are not
+ * reported to it, and the {@link VisualChangeHub} does not even listen to them
+ * unless another {@link VisualChangeListener} is interested in them.
+ * <p>
+ * There is one {@link VisualChangeHub} per {@link Scene}, and one per root
+ * {@link Node} of a scene graph that is not part of a {@link Scene}, which are
+ * obtained via {@link #get(Node)}. A {@link VisualChangeListener} keeps using
+ * the {@link VisualChangeHub} it was registered at, even if the observed
+ * {@link Node}s are added to a {@link Scene} or another scene graph later on.
+ * The observed {@link Node}s are only referenced weakly, so that they may be
+ * garbage collected even if a {@link VisualChangeListener} was not
+ * unregistered. Like the scene graph itself, a {@link VisualChangeHub} is not
+ * thread-safe.
+ *
+ * @author itemis AG
+ *
+ */
+public class VisualChangeHub {
+
+	/**
+	 * The listeners that observe a single {@link Node}, and the
+	 * {@link VisualChangeListener}s to which the events are forwarded.
+	 */
+	private final class ObservedNode {
+
+		// the node references the listeners, but not vice versa, so that the
+		// node may be garbage collected
+		private final WeakReference<Node> node;
+		private VisualChangeListener[] boundsSubscribers = new VisualChangeListener[0];
+		private VisualChangeListener[] transformSubscribers = new VisualChangeListener[0];
+
+		private final ChangeListener<Bounds> layoutBoundsListener = new ChangeListener<Bounds>() {
+			@Override
+			public void changed(ObservableValue<? extends Bounds> observable,
+					Bounds oldValue, Bounds newValue) {
+				// only fire a visual change event if the new bounds are valid
+				if (isValidBounds(newValue)) {
+					for (VisualChangeListener subscriber : boundsSubscribers) {
+						subscriber.onLayoutBoundsChanged();
+					}
+				}
+			}
+		};
+
+		private final ChangeListener<Bounds> boundsInLocalListener = new ChangeListener<Bounds>() {
+			@Override
+			public void changed(ObservableValue<? extends Bounds> observable,
+					Bounds oldValue, Bounds newValue) {
+				// only fire a visual change event if the new bounds are valid
+				if (isValidBounds(newValue)) {
+					for (VisualChangeListener subscriber : boundsSubscribers) {
+						subscriber.onBoundsInLocalChanged(oldValue, newValue);
+					}
+				}
+			}
+		};
+
+		private final ChangeListener<Bounds> boundsInParentListener = new ChangeListener<Bounds>() {
+			@Override
+			public void changed(ObservableValue<? extends Bounds> observable,
+					Bounds oldValue, Bounds newValue) {
+				// only fire a visual change event if the new bounds are valid
+				if (isValidBounds(newValue)) {
+					for (VisualChangeListener subscriber : boundsSubscribers) {
+						subscriber.onBoundsInParentChanged();
+					}
+				}
+			}
+		};
+
+		private final ChangeListener<Transform> transformListener = new ChangeListener<Transform>() {
+			@Override
+			public void changed(ObservableValue<? extends Transform> observable,
+					Transform oldValue, Transform newValue) {
+				// only fire a visual change event if the new transform is
+				// valid
+				Node observed = node.get();
+				if (observed != null && isValidTransform(newValue)) {
+					for (VisualChangeListener subscriber : transformSubscribers) {
+						subscriber.localToParentTransformChanged(observed,
+								oldValue, newValue);
+					}
+				}
+			}
+		};
+
+		private ObservedNode(Node node) {
+			this.node = new WeakReference<>(node);
+		}
+
+		private boolean isEmpty() {
+			return boundsSubscribers.length == 0
+					&& transformSubscribers.length == 0;
+		}
+	}
+
+	private static VisualChangeListener[] add(
+			VisualChangeListener[] subscribers,
+			VisualChangeListener subscriber) {
+		// the arrays are copied upon modification, so that the events can be
+		// fanned out without copying, even if subscribers are removed in
+		// response to an event
+		VisualChangeListener[] result = Arrays.copyOf(subscribers,
+				subscribers.length + 1);
+		result[subscribers.length] = subscriber;
+		return result;
+	}
+
+	/**
+	 * Returns the {@link VisualChangeHub} that is responsible for the given
+	 * {@link Node}, i.e. the {@link VisualChangeHub} of its {@link Scene}, or
+	 * the {@link VisualChangeHub} of the root of its scene graph if it is not
+	 * part of a {@link Scene}.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the
+	 *            {@link VisualChangeHub}.
+	 * @return The {@link VisualChangeHub} for the given {@link Node}.
+	 */
+	public static VisualChangeHub get(Node node) {
+		Map<Object, Object> properties;
+		Scene scene = node.getScene();
+		if (scene != null) {
+			properties = scene.getProperties();
+		} else {
+			Node root = node;
+			while (root.getParent() != null) {
+				root = root.getParent();
+			}
+			properties = root.getProperties();
+		}
+		Object hub = properties.get(VisualChangeHub.class);
+		if (!(hub instanceof VisualChangeHub)) {
+			hub = new VisualChangeHub();
+			properties.put(VisualChangeHub.class, hub);
+		}
+		return (VisualChangeHub) hub;
+	}
+
+	/**
+	 * Checks if the given Bounds contain NaN or infinite values. Returns
+	 * <code>true</code> if no such values are found, otherwise
+	 * <code>false</code>.
+	 */
+	private static boolean isValidBounds(Bounds b) {
+		return isValidValue(b.getMinX()) && isValidValue(b.getMinY())
+				&& isValidValue(b.getMaxX()) && isValidValue(b.getMaxY());
+	}
+
+	/**
+	 * Checks if the given Transform contains NaN or infinite values. Returns
+	 * <code>true</code> if no such values are found, otherwise
+	 * <code>false</code>.
+	 */
+	private static boolean isValidTransform(Transform t) {
+		return isValidValue(t.getMxx()) && isValidValue(t.getMxy())
+				&& isValidValue(t.getMxz()) && isValidValue(t.getMyx())
+				&& isValidValue(t.getMyy()) && isValidValue(t.getMyz())
+				&& isValidValue(t.getMzx()) && isValidValue(t.getMzy())
+				&& isValidValue(t.getMzz()) && isValidValue(t.getTx())
+				&& isValidValue(t.getTy()) && isValidValue(t.getTz());
+	}
+
+	private static boolean isValidValue(double value) {
+		return !Double.isNaN(value) && !Double.isInfinite(value);
+	}
+
+	private static VisualChangeListener[] remove(
+			VisualChangeListener[] subscribers,
+			VisualChangeListener subscriber) {
+		for (int i = 0; i < subscribers.length; i++) {
+			if (subscribers[i] == subscriber) {
+				VisualChangeListener[] result = new VisualChangeListener[subscribers.length
+						- 1];
+				System.arraycopy(subscribers, 0, result, 0, i);
+				System.arraycopy(subscribers, i + 1, result, i,
+						result.length - i);
+				return result;
+			}
+		}
+		return subscribers;
+	}
+
+	private final Map<Node, ObservedNode> observedNodes = new WeakHashMap<>();
+
+	/**
+	 * Creates a new {@link VisualChangeHub}. Use {@link #get(Node)} to obtain
+	 * the shared instances.
+	 */
+	VisualChangeHub() {
+	}
+
+	/**
+	 * Returns the number of {@link Node}s that are currently observed by this
+	 * {@link VisualChangeHub}.
+	 *
+	 * @return The number of observed {@link Node}s.
+	 */
+	public int getObservedNodeCount() {
+		return observedNodes.size();
+	}
+
+	/**
+	 * Returns the number of {@link VisualChangeListener}s that are notified
+	 * about changes of the given {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the number of
+	 *            subscribers.
+	 * @return The number of {@link VisualChangeListener}s that are notified
+	 *         about bounds or transform changes of the given {@link Node}.
+	 */
+	public int getSubscriberCount(Node node) {
+		ObservedNode observedNode = observedNodes.get(node);
+		if (observedNode == null) {
+			return 0;
+		}
+		return observedNode.boundsSubscribers.length
+				+ observedNode.transformSubscribers.length;
+	}
+
+	private ObservedNode getOrCreate(Node node) {
+		ObservedNode observedNode = observedNodes.get(node);
+		if (observedNode == null) {
+			observedNode = new ObservedNode(node);
+			observedNodes.put(node, observedNode);
+		}
+		return observedNode;
+	}
+
+	private void removeIfEmpty(Node node, ObservedNode observedNode) {
+		if (observedNode.isEmpty()) {
+			observedNodes.remove(node);
+		}
+	}
+
+	/**
+	 * Forwards changes of the layout-bounds, bounds-in-local, and
+	 * bounds-in-parent of the given {@link Node} to the given
+	 * {@link VisualChangeListener}.
+	 *
+	 * @param node
+	 *            The {@link Node} to observe.
+	 * @param subscriber
+	 *            The {@link VisualChangeListener} to notify.
+	 */
+	void subscribeBounds(Node node, VisualChangeListener subscriber) {
+		ObservedNode observedNode = getOrCreate(node);
+		if (observedNode.boundsSubscribers.length == 0) {
+			node.layoutBoundsProperty()
+					.addListener(observedNode.layoutBoundsListener);
+			node.boundsInLocalProperty()
+					.addListener(observedNode.boundsInLocalListener);
+			node.boundsInParentProperty()
+					.addListener(observedNode.boundsInParentListener);
+		}
+		observedNode.boundsSubscribers = add(observedNode.boundsSubscribers,
+				subscriber);
+	}
+
+	/**
+	 * Forwards changes of the local-to-parent-transform of the given
+	 * {@link Node} to the given {@link VisualChangeListener}.
+	 *
+	 * @param node
+	 *            The {@link Node} to observe.
+	 * @param subscriber
+	 *            The {@link VisualChangeListener} to notify.
+	 */
+	void subscribeTransform(Node node, VisualChangeListener subscriber) {
+		ObservedNode observedNode = getOrCreate(node);
+		if (observedNode.transformSubscribers.length == 0) {
+			node.localToParentTransformProperty()
+					.addListener(observedNode.transformListener);
+		}
+		observedNode.transformSubscribers = add(
+				observedNode.transformSubscribers, subscriber);
+	}
+
+	/**
+	 * Stops forwarding bounds changes of the given {@link Node} to the given
+	 * {@link VisualChangeListener}.
+	 *
+	 * @param node
+	 *            The observed {@link Node}.
+	 * @param subscriber
+	 *            The {@link VisualChangeListener} to no longer notify.
+	 */
+	void unsubscribeBounds(Node node, VisualChangeListener subscriber) {
+		ObservedNode observedNode = observedNodes.get(node);
+		if (observedNode == null) {
+			return;
+		}
+		observedNode.boundsSubscribers = remove(observedNode.boundsSubscribers,
+				subscriber);
+		if (observedNode.boundsSubscribers.length == 0) {
+			node.layoutBoundsProperty()
+					.removeListener(observedNode.layoutBoundsListener);
+			node.boundsInLocalProperty()
+					.removeListener(observedNode.boundsInLocalListener);
+			node.boundsInParentProperty()
+					.removeListener(observedNode.boundsInParentListener);
+		}
+		removeIfEmpty(node, observedNode);
+	}
+
+	/**
+	 * Stops forwarding transform changes of the given {@link Node} to the
+	 * given {@link VisualChangeListener}.
+	 *
+	 * @param node
+	 *            The observed {@link Node}.
+	 * @param subscriber
+	 *            The {@link VisualChangeListener} to no longer notify.
+	 */
+	void unsubscribeTransform(Node node, VisualChangeListener subscriber) {
+		ObservedNode observedNode = observedNodes.get(node);
+		if (observedNode == null) {
+			return;
+		}
+		observedNode.transformSubscribers = remove(
+				observedNode.transformSubscribers, subscriber);
+		if (observedNode.transformSubscribers.length == 0) {
+			node.localToParentTransformProperty()
+					.removeListener(observedNode.transformListener);
+		}
+		removeIfEmpty(node, observedNode);
+	}
+
+}
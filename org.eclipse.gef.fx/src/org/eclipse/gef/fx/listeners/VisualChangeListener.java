@@ -12,14 +12,13 @@
  *******************************************************************************/
 package org.eclipse.gef.fx.listeners;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -36,6 +35,11 @@ import javafx.scene.transform.Transform;
  * local-to-parent-transform change occurs when the node undergoes a
  * transformation change. Transformation listeners are registered for all nodes
  * in the hierarchy up to a specific parent.
+ * <p>
+ * The listeners are not registered at the individual nodes directly, but via
+ * the {@link VisualChangeHub} of the scene (or of the root of a scene graph
+ * that is not part of a scene), which shares them among all
+ * {@link VisualChangeListener}s that observe the same nodes.
  *
  * @author anyssen
  * @author mwienand
@@ -45,51 +49,14 @@ public abstract class VisualChangeListener {
 
 	private Node observed;
 	private Node parent;
-	private HashMap<ChangeListener<Transform>, Node> localToParentTransformListeners = new HashMap<>();
+	private VisualChangeHub hub;
+	private List<Node> transformObserved = new ArrayList<>();
 	private boolean layoutBoundsChanged = false;
 	private boolean boundsInLocalChanged = false;
 	private boolean boundsInParentChanged = false;
 	private Bounds oldBoundsInLocal = null;
 	private Bounds newBoundsInLocal = null;
 
-	private ChangeListener<? super Bounds> layoutBoundsListener = new ChangeListener<Bounds>() {
-		@Override
-		public void changed(ObservableValue<? extends Bounds> observable,
-				Bounds oldValue, Bounds newValue) {
-			// only fire a visual change event if the new bounds are valid
-			if (isValidBounds(newValue)) {
-				layoutBoundsChanged = true;
-				onBoundsChanged();
-			}
-		}
-	};
-
-	private final ChangeListener<? super Bounds> boundsInLocalListener = new ChangeListener<Bounds>() {
-		@Override
-		public void changed(ObservableValue<? extends Bounds> observable,
-				Bounds oldValue, Bounds newValue) {
-			// only fire a visual change event if the new bounds are valid
-			if (isValidBounds(newValue)) {
-				oldBoundsInLocal = oldValue;
-				newBoundsInLocal = newValue;
-				boundsInLocalChanged = true;
-				onBoundsChanged();
-			}
-		}
-	};
-
-	private ChangeListener<? super Bounds> boundsInParentListener = new ChangeListener<Bounds>() {
-		@Override
-		public void changed(ObservableValue<? extends Bounds> observable,
-				Bounds oldValue, Bounds newValue) {
-			// only fire a visual change event if the new bounds are valid
-			if (isValidBounds(newValue)) {
-				boundsInParentChanged = true;
-				onBoundsChanged();
-			}
-		}
-	};
-
 	/**
 	 * This method is called upon a bounds-in-local change.
 	 *
@@ -147,77 +114,6 @@ public abstract class VisualChangeListener {
 		return parent != null;
 	}
 
-	/**
-	 * Checks if the given Bounds contain NaN values. Returns <code>true</code>
-	 * if no NaN values are found, otherwise <code>false</code>.
-	 *
-	 * @param b
-	 * @return
-	 */
-	private boolean isValidBounds(Bounds b) {
-		if (Double.isNaN(b.getMinX()) || Double.isInfinite(b.getMinX())) {
-			return false;
-		}
-		if (Double.isNaN(b.getMinY()) || Double.isInfinite(b.getMinY())) {
-			return false;
-		}
-		if (Double.isNaN(b.getMaxX()) || Double.isInfinite(b.getMaxX())) {
-			return false;
-		}
-		if (Double.isNaN(b.getMaxY()) || Double.isInfinite(b.getMaxY())) {
-			return false;
-		}
-		return true;
-	}
-
-	/**
-	 * Checks if the given Transform contains NaN values. Returns
-	 * <code>true</code> if no NaN values are found, otherwise <code>false/
-	 * <code>.
-	 *
-	 * @param t
-	 * @return
-	 */
-	private boolean isValidTransform(Transform t) {
-		if (Double.isNaN(t.getMxx()) || Double.isInfinite(t.getMxx())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMxy()) || Double.isInfinite(t.getMxy())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMxz()) || Double.isInfinite(t.getMxz())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMyx()) || Double.isInfinite(t.getMyx())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMyy()) || Double.isInfinite(t.getMyy())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMyz()) || Double.isInfinite(t.getMyz())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMzx()) || Double.isInfinite(t.getMzx())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMzy()) || Double.isInfinite(t.getMzy())) {
-			return false;
-		}
-		if (Double.isNaN(t.getMzz()) || Double.isInfinite(t.getMzz())) {
-			return false;
-		}
-		if (Double.isNaN(t.getTx()) || Double.isInfinite(t.getTx())) {
-			return false;
-		}
-		if (Double.isNaN(t.getTy()) || Double.isInfinite(t.getTy())) {
-			return false;
-		}
-		if (Double.isNaN(t.getTz()) || Double.isInfinite(t.getTz())) {
-			return false;
-		}
-		return true;
-	}
-
 	/**
 	 * This method is called upon a local-to-parent-transform change.
 	 *
@@ -231,6 +127,26 @@ public abstract class VisualChangeListener {
 	protected abstract void localToParentTransformChanged(Node observed,
 			Transform oldTransform, Transform newTransform);
 
+	/**
+	 * Called by the {@link VisualChangeHub} upon a bounds-in-local change of
+	 * the observed node.
+	 */
+	void onBoundsInLocalChanged(Bounds oldBounds, Bounds newBounds) {
+		oldBoundsInLocal = oldBounds;
+		newBoundsInLocal = newBounds;
+		boundsInLocalChanged = true;
+		onBoundsChanged();
+	}
+
+	/**
+	 * Called by the {@link VisualChangeHub} upon a bounds-in-parent change of
+	 * the observed node.
+	 */
+	void onBoundsInParentChanged() {
+		boundsInParentChanged = true;
+		onBoundsChanged();
+	}
+
 	/**
 	 * Called upon changes to any of the following properties: "layout-bounds",
 	 * "bounds-in-local", and "bounds-in-parent". Calls the
@@ -247,6 +163,15 @@ public abstract class VisualChangeListener {
 		}
 	}
 
+	/**
+	 * Called by the {@link VisualChangeHub} upon a layout-bounds change of the
+	 * observed node.
+	 */
+	void onLayoutBoundsChanged() {
+		layoutBoundsChanged = true;
+		onBoundsChanged();
+	}
+
 	/**
 	 * Registers this listener on the given pair of observed and observer nodes
 	 * to recognize visual changes of the observed node relative to the common
@@ -312,57 +237,21 @@ public abstract class VisualChangeListener {
 		// assign new nodes
 		this.observed = observed;
 		parent = commonAncestor;
+		hub = VisualChangeHub.get(observed);
 
 		// add bounds listeners
-		observed.layoutBoundsProperty().addListener(layoutBoundsListener);
-		observed.boundsInLocalProperty().addListener(boundsInLocalListener);
-		observed.boundsInParentProperty().addListener(boundsInParentListener);
+		hub.subscribeBounds(observed, this);
 
-		// add transform listeners
-		tmp = observed;
-		while (tmp != null && tmp != parent) {
-			final Node current = tmp;
-			ChangeListener<Transform> transformChangeListener = new ChangeListener<Transform>() {
-				@Override
-				public void changed(
-						ObservableValue<? extends Transform> observable,
-						Transform oldValue, Transform newValue) {
-					// only fire a visual change event if the new transform is
-					// valid
-					if (isValidTransform(newValue)) {
-						localToParentTransformChanged(current, oldValue,
-								newValue);
-					}
-				}
-			};
-			tmp.localToParentTransformProperty()
-					.addListener(transformChangeListener);
-			localToParentTransformListeners.put(transformChangeListener, tmp);
-			tmp = tmp.getParent();
-		}
-
-		// add transform listeners
-		// FIXME: Duplicate code!
-		tmp = observer;
-		while (tmp != null && tmp != parent) {
-			final Node current = tmp;
-			ChangeListener<Transform> transformChangeListener = new ChangeListener<Transform>() {
-				@Override
-				public void changed(
-						ObservableValue<? extends Transform> observable,
-						Transform oldValue, Transform newValue) {
-					// only fire a visual change event if the new transform is
-					// valid
-					if (isValidTransform(newValue)) {
-						localToParentTransformChanged(current, oldValue,
-								newValue);
-					}
-				}
-			};
-			tmp.localToParentTransformProperty()
-					.addListener(transformChangeListener);
-			localToParentTransformListeners.put(transformChangeListener, tmp);
-			tmp = tmp.getParent();
+		// add transform listeners for all nodes up to (but excluding) the
+		// common ancestor, so that transform changes of shared ancestors are
+		// not reported
+		for (Node start : new Node[] { observed, observer }) {
+			tmp = start;
+			while (tmp != null && tmp != parent) {
+				hub.subscribeTransform(tmp, this);
+				transformObserved.add(tmp);
+				tmp = tmp.getParent();
+			}
 		}
 	}
 
@@ -375,21 +264,17 @@ public abstract class VisualChangeListener {
 		}
 
 		// remove bounds listener
-		observed.layoutBoundsProperty().removeListener(layoutBoundsListener);
-		observed.boundsInLocalProperty().removeListener(boundsInLocalListener);
-		observed.boundsInParentProperty()
-				.removeListener(boundsInParentListener);
+		hub.unsubscribeBounds(observed, this);
 
 		// remove transform listeners
-		for (ChangeListener<Transform> l : localToParentTransformListeners
-				.keySet()) {
-			localToParentTransformListeners.get(l)
-					.localToParentTransformProperty().removeListener(l);
+		for (Node node : transformObserved) {
+			hub.unsubscribeTransform(node, this);
 		}
 
 		// reset fields
 		parent = null;
 		observed = null;
-		localToParentTransformListeners.clear();
+		hub = null;
+		transformObserved.clear();
 	}
 }
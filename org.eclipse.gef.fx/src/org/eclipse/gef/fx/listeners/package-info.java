@@ -13,6 +13,9 @@
  * This package provides a
  * {@link org.eclipse.gef.fx.listeners.VisualChangeListener}, which can be used
  * to recognize visual changes of one observed {@link javafx.scene.Node} visual
- * relative to an observer visual.
+ * relative to an observer visual, as well as the
+ * {@link org.eclipse.gef.fx.listeners.VisualChangeHub}, which shares the
+ * underlying property listeners among all
+ * {@link org.eclipse.gef.fx.listeners.VisualChangeListener}s.
  */
 package org.eclipse.gef.fx.listeners;
\ No newline at end of file
@@ -14,6 +14,7 @@
 package org.eclipse.gef.fx.nodes;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
@@ -32,6 +33,7 @@ import org.eclipse.gef.fx.anchors.IAnchor;
 import org.eclipse.gef.fx.anchors.StaticAnchor;
 import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
 import org.eclipse.gef.geometry.convert.fx.Geometry2FX;
+import org.eclipse.gef.geometry.planar.AffineTransform;
 import org.eclipse.gef.geometry.planar.BezierCurve;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.Point;
@@ -39,6 +41,7 @@ import org.eclipse.gef.geometry.planar.PolyBezier;
 
 import com.google.common.collect.Iterators;
 
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanPropertyBase;
@@ -76,6 +79,15 @@ import javafx.scene.transform.Transform;
  * {@link Connection} can be controlled via start and end decorations. They will
  * be rendered 'on-top' of the curveProperty shape and the curveProperty shape
  * will be properly clipped at the decorations (so it does not paint through).
+ * <P>
+ * By default, a {@link Connection} is {@link #refresh() refreshed}
+ * synchronously whenever the position of one of its anchors changes. When
+ * {@link #setBatchedRefresh(boolean) batched refresh} is enabled, it only
+ * requests a refresh in that case, which is performed by the
+ * {@link ConnectionRefreshScheduler} of its {@link javafx.scene.Scene} once per
+ * pulse. In this case, the results of routing and interpolation are also
+ * reused if the anchor positions (and the other inputs) did not change since
+ * the last refresh.
  *
  * @author anyssen
  * @author mwienand
@@ -203,6 +215,38 @@ public class Connection extends Group {
 		}
 	}
 
+	/**
+	 * The inputs of routing and interpolation, which are recorded after each
+	 * refresh while {@link #isBatchedRefresh() batched refresh} is enabled.
+	 * The points and position hints are compared by their exact coordinates
+	 * (instead of using {@link Point#equals(Object)}, which tolerates
+	 * imprecision), so that results are only reused for identical inputs.
+	 */
+	private static final class RefreshInputs {
+		private final Object[] objects;
+		private final double[] coordinates;
+
+		private RefreshInputs(Object[] objects, double[] coordinates) {
+			this.objects = objects;
+			this.coordinates = coordinates;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RefreshInputs)) {
+				return false;
+			}
+			RefreshInputs other = (RefreshInputs) obj;
+			return Arrays.equals(coordinates, other.coordinates)
+					&& Arrays.equals(objects, other.objects);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(coordinates);
+		}
+	}
+
 	private final class PointsUnmodifiableProperty
 			extends LazyReadOnlyListPropertyBase<Point> {
 
@@ -312,6 +356,10 @@ public class Connection extends Group {
 		}
 	};
 	private boolean inRefresh = false;
+	private boolean batchedRefresh = false;
+	private boolean refreshRequested = false;
+	private boolean refreshResultsReusable = false;
+	private RefreshInputs refreshInputs = null;
 
 	/**
 	 * Constructs a new {@link Connection} whose start and end point are set to
@@ -554,13 +602,13 @@ public class Connection extends Group {
 	}
 
 	/**
-	 * Creates a position change listener (PCL) which {@link #refresh()
-	 * refreshes} this {@link Connection} upon anchor position changes
-	 * corresponding to the given {@link AnchorKey}.
+	 * Creates a position change listener (PCL) which {@link #requestRefresh()
+	 * requests a refresh} of this {@link Connection} upon anchor position
+	 * changes corresponding to the given {@link AnchorKey}.
 	 *
 	 * @param anchorKey
 	 *            The {@link AnchorKey} for which a position change will trigger
-	 *            a {@link #refresh()} with the returned PCL.
+	 *            a {@link #requestRefresh()} with the returned PCL.
 	 * @return A position change listener to {@link #refresh() refresh} this
 	 *         {@link Connection} when the position for the given
 	 *         {@link AnchorKey} changes.
@@ -582,7 +630,7 @@ public class Connection extends Group {
 						if (!points.get(getAnchorIndex(anchorKey))
 								.equals(newPoint)) {
 							points.set(getAnchorIndex(anchorKey), newPoint);
-							refresh();
+							requestRefresh();
 						}
 					}
 				}
@@ -922,6 +970,48 @@ public class Connection extends Group {
 		return FXCollections.unmodifiableObservableList(points);
 	}
 
+	/**
+	 * Returns the inputs of routing and interpolation, i.e. the router,
+	 * interpolator, anchors, points, and position hints, as well as the curve
+	 * and decorations (along with their layout bounds).
+	 *
+	 * @return The {@link RefreshInputs} of this {@link Connection}.
+	 */
+	private RefreshInputs getRefreshInputs() {
+		Node curve = getCurve();
+		Node startDecoration = getStartDecoration();
+		Node endDecoration = getEndDecoration();
+		Object[] objects = new Object[8 + anchors.size() + hintsByKeys.size()];
+		double[] coordinates = new double[2
+				* (points.size() + hintsByKeys.size())];
+		objects[0] = getRouter();
+		objects[1] = getInterpolator();
+		objects[2] = curve;
+		objects[3] = curve == null ? null : curve.getLayoutBounds();
+		objects[4] = startDecoration;
+		objects[5] = startDecoration == null ? null
+				: startDecoration.getLayoutBounds();
+		objects[6] = endDecoration;
+		objects[7] = endDecoration == null ? null
+				: endDecoration.getLayoutBounds();
+		int o = 8;
+		for (IAnchor anchor : anchors) {
+			objects[o++] = anchor;
+		}
+		int c = 0;
+		for (Point point : points) {
+			coordinates[c++] = point.x;
+			coordinates[c++] = point.y;
+		}
+		for (Map.Entry<AnchorKey, Point> hint : hintsByKeys.entrySet()) {
+			objects[o++] = hint.getKey();
+			Point point = hint.getValue();
+			coordinates[c++] = point == null ? Double.NaN : point.x;
+			coordinates[c++] = point == null ? Double.NaN : point.y;
+		}
+		return new RefreshInputs(objects, coordinates);
+	}
+
 	/**
 	 * Returns the {@link IConnectionRouter} of this {@link Connection}.
 	 *
@@ -997,6 +1087,39 @@ public class Connection extends Group {
 		return null;
 	}
 
+	/**
+	 * Applies the {@link IConnectionInterpolator} to compute a new curve
+	 * geometry, and refreshes the points afterwards if the curve was moved.
+	 */
+	private void interpolate() {
+		IConnectionInterpolator interpolator = getInterpolator();
+		if (interpolator != null) {
+			Node curve = getCurve();
+			AffineTransform curveToConnection = FX2Geometry
+					.toAffineTransform(curve.getLocalToParentTransform());
+			// apply new points to the visualization
+			interpolator.interpolate(this);
+			// XXX: Changing the visualization changes the
+			// curve-to-connection-transform, and since the PCLs are disabled,
+			// the points need to be refreshed again, in order to be up-to-date.
+			if (getCurve() != curve || !curveToConnection.equals(FX2Geometry
+					.toAffineTransform(curve.getLocalToParentTransform()))) {
+				refreshPoints();
+			}
+
+			// tx = getCurve().getLocalToParentTransform();
+			// System.out.println("| +--- Interpolated ---+");
+			// System.out.println("| | curve-t: " + tx.getTx() + "," +
+			// tx.getTy());
+			// System.out.println("| | points: " + points);
+			// System.out.println("| | anchors: " + anchors);
+			// System.out.println();
+		} else {
+			throw new IllegalStateException(
+					"An IConnectionInterpolator is mandatory for a Connection.");
+		}
+	}
+
 	/**
 	 * Returns the {@link IConnectionInterpolator} property.
 	 *
@@ -1006,6 +1129,21 @@ public class Connection extends Group {
 		return interpolatorProperty;
 	}
 
+	/**
+	 * Returns <code>true</code> if anchor position changes only request a
+	 * refresh of this {@link Connection}, which is performed once per pulse by
+	 * the {@link ConnectionRefreshScheduler} of its {@link javafx.scene.Scene}.
+	 * Returns <code>false</code> if anchor position changes lead to a
+	 * synchronous {@link #refresh()} (which is the default).
+	 *
+	 * @return <code>true</code> if batched refresh is enabled,
+	 *         <code>false</code> otherwise.
+	 * @see #setBatchedRefresh(boolean)
+	 */
+	public boolean isBatchedRefresh() {
+		return batchedRefresh;
+	}
+
 	/**
 	 * Return <code>true</code> in case the anchor is bound to an anchorage
 	 * unequal to this connection.
@@ -1234,6 +1372,8 @@ public class Connection extends Group {
 			return;
 		}
 		inRefresh = true;
+		// a refresh satisfies any pending refresh request
+		refreshRequested = false;
 		// System.out.println("+--- Refresh ---+");
 
 		// unregister PCLs
@@ -1264,52 +1404,20 @@ public class Connection extends Group {
 		// System.out.println("| | points: " + points);
 		// System.out.println("| | anchors: " + anchors);
 
-		// update our anchorsByKeys/points
-		IConnectionRouter router = getRouter();
-		if (router != null) {
-			// we might need to apply a new transform to each of the points
-			// TODO: Do this when the transform changes!
-			refreshPoints();
+		// we might need to apply a new transform to each of the points
+		// TODO: Do this when the transform changes!
+		refreshPoints();
 
-			// compute parameters and insert volatile anchors
-			router.route(this);
-
-			// since PCLs are disabled (to prevent CME), points need to be
-			// refreshed again
-			// XXX: The Router performs the transformation internally after
-			// updating the parameters and before routing.
-			refreshPoints();
-
-			// tx = getCurve().getLocalToParentTransform();
-			// System.out.println("| +--- Routed ---+");
-			// System.out.println("| | curve-t: " + tx.getTx() + "," +
-			// tx.getTy());
-			// System.out.println("| | points: " + points);
-			// System.out.println("| | anchors: " + anchors);
-		} else {
-			throw new IllegalStateException(
-					"An IConnectionRouter is mandatory for a Connection.");
-		}
-
-		IConnectionInterpolator interpolator = getInterpolator();
-		if (interpolator != null) {
-			// apply new points to the visualization
-			interpolator.interpolate(this);
-			// XXX: Changing the visualization changes the
-			// curve-to-connection-transform, and since the PCLs are disabled,
-			// the points need to be refreshed again, in order to be up-to-date.
-			refreshPoints();
-
-			// tx = getCurve().getLocalToParentTransform();
-			// System.out.println("| +--- Interpolated ---+");
-			// System.out.println("| | curve-t: " + tx.getTx() + "," +
-			// tx.getTy());
-			// System.out.println("| | points: " + points);
-			// System.out.println("| | anchors: " + anchors);
-			// System.out.println();
-		} else {
-			throw new IllegalStateException(
-					"An IConnectionInterpolator is mandatory for a Connection.");
+		// reuse the results of the last routing and interpolation if this
+		// refresh was requested (while batched refresh is enabled) because of
+		// anchor position changes, but the points (and all other inputs) are
+		// the same as after the last refresh (i.e. the anchor positions
+		// changed back and forth within a pulse)
+		if (!refreshResultsReusable
+				|| !getRefreshInputs().equals(refreshInputs)) {
+			route();
+			interpolate();
+			refreshInputs = batchedRefresh ? getRefreshInputs() : null;
 		}
 
 		// notify properties (which are lazily created)
@@ -1333,6 +1441,24 @@ public class Connection extends Group {
 		inRefresh = false;
 	}
 
+	/**
+	 * Performs a {@link #refresh()} if one was
+	 * {@link #requestRefresh() requested} and is still pending. If
+	 * {@link #isBatchedRefresh() batched refresh} is enabled, the results of
+	 * routing and interpolation are reused if the anchor positions did not
+	 * change since the last refresh.
+	 */
+	void refreshIfRequested() {
+		if (refreshRequested) {
+			refreshResultsReusable = refreshInputs != null;
+			try {
+				refresh();
+			} finally {
+				refreshResultsReusable = false;
+			}
+		}
+	}
+
 	/**
 	 * Refreshes the points of this {@link Connection} by querying the
 	 * individual anchor positions and transforming them from curve coordinates
@@ -1516,6 +1642,69 @@ public class Connection extends Group {
 		removeAnchor(anchorKey, oldAnchor);
 	}
 
+	/**
+	 * Requests a {@link #refresh()} of this {@link Connection}, which is
+	 * called when the position of one of its anchors changes. If
+	 * {@link #isBatchedRefresh() batched refresh} is enabled and this
+	 * {@link Connection} is part of a {@link javafx.scene.Scene}, the refresh
+	 * is scheduled for the next pulse. Otherwise, or if not called on the
+	 * JavaFX application thread (where no pulses are processed), it is
+	 * performed synchronously.
+	 */
+	protected void requestRefresh() {
+		if (inRefresh) {
+			return;
+		}
+		refreshRequested = true;
+		if (batchedRefresh && getScene() != null
+				&& Platform.isFxApplicationThread()) {
+			ConnectionRefreshScheduler.get(getScene()).schedule(this);
+		} else {
+			refreshIfRequested();
+		}
+	}
+
+	/**
+	 * Requests a {@link #refresh()} of this {@link Connection} (see
+	 * {@link #requestRefresh()}) that applies the {@link IConnectionRouter}
+	 * even if the anchor positions did not change, e.g. because obstacles that
+	 * are taken into account by the {@link IConnectionRouter} were moved.
+	 */
+	void requestRerouting() {
+		refreshInputs = null;
+		requestRefresh();
+	}
+
+	/**
+	 * Applies the {@link IConnectionRouter} to compute the parameters of the
+	 * anchors and to insert volatile anchors, and refreshes the points
+	 * afterwards.
+	 */
+	private void route() {
+		// update our anchorsByKeys/points
+		IConnectionRouter router = getRouter();
+		if (router != null) {
+			// compute parameters and insert volatile anchors
+			router.route(this);
+
+			// since PCLs are disabled (to prevent CME), points need to be
+			// refreshed again
+			// XXX: The Router performs the transformation internally after
+			// updating the parameters and before routing.
+			refreshPoints();
+
+			// tx = getCurve().getLocalToParentTransform();
+			// System.out.println("| +--- Routed ---+");
+			// System.out.println("| | curve-t: " + tx.getTx() + "," +
+			// tx.getTy());
+			// System.out.println("| | points: " + points);
+			// System.out.println("| | anchors: " + anchors);
+		} else {
+			throw new IllegalStateException(
+					"An IConnectionRouter is mandatory for a Connection.");
+		}
+	}
+
 	/**
 	 * Returns a writable property containing the {@link IConnectionRouter} of
 	 * this connection.
@@ -1603,6 +1792,29 @@ public class Connection extends Group {
 		refresh();
 	}
 
+	/**
+	 * Enables or disables batched refresh. If enabled, anchor position changes
+	 * only request a refresh, which is performed once per pulse by the
+	 * {@link ConnectionRefreshScheduler} of the {@link javafx.scene.Scene} of
+	 * this {@link Connection}. When disabling batched refresh, a pending
+	 * refresh is performed immediately.
+	 *
+	 * @param batchedRefresh
+	 *            <code>true</code> to enable batched refresh,
+	 *            <code>false</code> to disable it.
+	 */
+	public void setBatchedRefresh(boolean batchedRefresh) {
+		if (batchedRefresh && !this.batchedRefresh && !refreshRequested) {
+			// the current state results from the inputs of the last refresh
+			refreshInputs = getRefreshInputs();
+		}
+		this.batchedRefresh = batchedRefresh;
+		if (!batchedRefresh) {
+			refreshIfRequested();
+			refreshInputs = null;
+		}
+	}
+
 	/**
 	 * Sets the control anchor for the given control anchor index to the given
 	 * {@link IAnchor}.
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+
+/**
+ * The {@link ConnectionRefreshScheduler} collects the {@link Connection}s of a
+ * {@link Scene} that requested a refresh (see
+ * {@link Connection#setBatchedRefresh(boolean)}), and refreshes each of them
+ * once per JavaFX pulse, before CSS and layout are processed. This way, a
+ * {@link Connection} whose anchors change their positions several times
+ * within a single pulse (e.g. because multiple anchorages are moved in
+ * response to a single mouse event) is only routed and interpolated once.
+ * <p>
+ * There is one {@link ConnectionRefreshScheduler} per {@link Scene}, which is
+ * obtained via {@link #get(Scene)}. Pending refreshes can be performed
+ * immediately via {@link #flush()}, e.g. before the points of a
+ * {@link Connection} are evaluated within an event handler.
+ *
+ * @author itemis AG
+ *
+ */
+public class ConnectionRefreshScheduler {
+
+	/**
+	 * The maximum number of passes within a single pulse. Refreshing a
+	 * {@link Connection} may request refreshes of other {@link Connection}s
+	 * (e.g. if they are anchored at it), which are performed within the same
+	 * pulse up to this limit, so that cyclic dependencies do not block the
+	 * application thread.
+	 */
+	private static final int MAX_PASSES = 8;
+
+	/**
+	 * Returns the {@link ConnectionRefreshScheduler} for the given
+	 * {@link Scene}. It is created upon the first request and stored within
+	 * the {@link Scene#getProperties() properties} of the {@link Scene}.
+	 *
+	 * @param scene
+	 *            The {@link Scene} for which to return the
+	 *            {@link ConnectionRefreshScheduler}.
+	 * @return The {@link ConnectionRefreshScheduler} for the given
+	 *         {@link Scene}.
+	 */
+	public static ConnectionRefreshScheduler get(Scene scene) {
+		Object scheduler = scene.getProperties()
+				.get(ConnectionRefreshScheduler.class);
+		if (!(scheduler instanceof ConnectionRefreshScheduler)) {
+			scheduler = new ConnectionRefreshScheduler();
+			scene.getProperties().put(ConnectionRefreshScheduler.class,
+					scheduler);
+		}
+		return (ConnectionRefreshScheduler) scheduler;
+	}
+
+	private final Set<Connection> dirtyConnections = new LinkedHashSet<>();
+	private AnimationTimer timer;
+	private boolean timerRunning = false;
+
+	private ConnectionRefreshScheduler() {
+	}
+
+	/**
+	 * Refreshes all {@link Connection}s for which a refresh is pending.
+	 */
+	public void flush() {
+		for (int pass = 0; pass < MAX_PASSES
+				&& !dirtyConnections.isEmpty(); pass++) {
+			List<Connection> connections = new ArrayList<>(dirtyConnections);
+			dirtyConnections.clear();
+			for (Connection connection : connections) {
+				connection.refreshIfRequested();
+			}
+		}
+		if (dirtyConnections.isEmpty() && timerRunning) {
+			timer.stop();
+			timerRunning = false;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if a refresh is pending for any
+	 * {@link Connection}, otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if a refresh is pending, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isPending() {
+		return !dirtyConnections.isEmpty();
+	}
+
+	/**
+	 * Schedules a refresh of the given {@link Connection} for the next pulse.
+	 *
+	 * @param connection
+	 *            The {@link Connection} to refresh.
+	 */
+	void schedule(Connection connection) {
+		dirtyConnections.add(connection);
+		if (!timerRunning) {
+			if (timer == null) {
+				timer = new AnimationTimer() {
+					@Override
+					public void handle(long now) {
+						flush();
+					}
+				};
+			}
+			timer.start();
+			timerRunning = true;
+		}
+	}
+
+}
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
+import org.eclipse.gef.geometry.convert.fx.Geometry2FX;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.index.ISpatialIndex;
+import org.eclipse.gef.geometry.planar.index.RStarTree;
+
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.transform.Affine;
+
+/**
+ * The {@link ContentVirtualizer} implements the content virtualization of an
+ * {@link InfiniteCanvas} (see {@link InfiniteCanvas#virtualizeContentProperty()}
+ * ). It maintains the bounds of the children of the virtualized {@link Group}
+ * within a spatial index and hides (i.e. makes invisible and unmanaged) all
+ * children that do not intersect the viewport of the {@link InfiniteCanvas},
+ * expanded by the {@link InfiniteCanvas#virtualizationMarginProperty()
+ * virtualization margin}.
+ * <p>
+ * When the viewport changes (i.e. when the scroll offsets, the content
+ * transformation, or the size of the {@link InfiniteCanvas} change), only the
+ * children that intersect the new viewport are determined using the spatial
+ * index and compared to those that intersected the previous viewport, so that
+ * the effort does not depend on the total number of children. When the bounds
+ * of a child change, only that child is re-evaluated.
+ * <p>
+ * Children that were made invisible by the application are left untouched,
+ * and the visibility and managed state of all hidden children is restored when
+ * they are removed from the virtualized {@link Group} or when the
+ * {@link ContentVirtualizer} is {@link #dispose() disposed}.
+ *
+ * @author itemis AG
+ *
+ */
+final class ContentVirtualizer {
+
+	private final InfiniteCanvas canvas;
+	private final Group group;
+	private final ISpatialIndex<Rectangle> index = new RStarTree<>();
+	private final Map<Node, Rectangle> childBounds = new HashMap<>();
+	private final Map<Rectangle, Node> children = new IdentityHashMap<>();
+	// the hidden children, mapped to their managed state before hiding them
+	private final Map<Node, Boolean> hiddenChildren = new HashMap<>();
+	private Set<Node> childrenInWindow = new HashSet<>();
+	private Rectangle window = new Rectangle();
+	// the union of all child bounds, or null if it needs to be recomputed
+	private Rectangle contentBounds;
+
+	private final ChangeListener<Bounds> boundsInParentListener = new ChangeListener<Bounds>() {
+		@Override
+		public void changed(ObservableValue<? extends Bounds> observable,
+				Bounds oldValue, Bounds newValue) {
+			Node child = (Node) ((ReadOnlyProperty<?>) observable).getBean();
+			Rectangle bounds = childBounds.get(child);
+			if (bounds != null) {
+				Rectangle newBounds = FX2Geometry.toRectangle(newValue);
+				updateContentBounds(bounds, newBounds);
+				bounds.setBounds(newBounds);
+				index.update(bounds);
+				updateChild(child, bounds);
+				// hidden children do not contribute to the bounds of the
+				// group, so that the scroll bars are not updated otherwise
+				if (hiddenChildren.containsKey(child)) {
+					canvas.updateScrollBars();
+				}
+			}
+		}
+	};
+
+	private final ListChangeListener<Node> childrenListener = new ListChangeListener<Node>() {
+		@Override
+		public void onChanged(ListChangeListener.Change<? extends Node> c) {
+			while (c.next()) {
+				for (Node removed : c.getRemoved()) {
+					removeChild(removed);
+				}
+				for (Node added : c.getAddedSubList()) {
+					if (!childBounds.containsKey(added)) {
+						Rectangle bounds = addChild(added);
+						index.insert(bounds);
+						updateChild(added, bounds);
+						// the bounds of the group do not change if the added
+						// child is hidden immediately
+						if (hiddenChildren.containsKey(added)) {
+							canvas.updateScrollBars();
+						}
+					}
+				}
+			}
+		}
+	};
+
+	private final ChangeListener<Number> viewportListener = new ChangeListener<Number>() {
+		@Override
+		public void changed(ObservableValue<? extends Number> observable,
+				Number oldValue, Number newValue) {
+			updateWindow();
+		}
+	};
+
+	/**
+	 * Constructs a new {@link ContentVirtualizer} that virtualizes the
+	 * children of the given {@link Group} with respect to the viewport of the
+	 * given {@link InfiniteCanvas}. The children are not hidden before
+	 * {@link #updateWindow()} is called for the first time.
+	 *
+	 * @param canvas
+	 *            The {@link InfiniteCanvas} that provides the viewport.
+	 * @param group
+	 *            The {@link Group} whose children are virtualized.
+	 */
+	ContentVirtualizer(InfiniteCanvas canvas, Group group) {
+		this.canvas = canvas;
+		this.group = group;
+		List<Rectangle> initialBounds = new ArrayList<>();
+		for (Node child : group.getChildren()) {
+			initialBounds.add(addChild(child));
+		}
+		index.bulkLoad(initialBounds);
+		// all children are initially shown
+		childrenInWindow.addAll(childBounds.keySet());
+		group.getChildren().addListener(childrenListener);
+		registerViewportListeners();
+	}
+
+	private Rectangle addChild(Node child) {
+		Rectangle bounds = FX2Geometry.toRectangle(child.getBoundsInParent());
+		childBounds.put(child, bounds);
+		children.put(bounds, child);
+		child.boundsInParentProperty().addListener(boundsInParentListener);
+		if (contentBounds != null) {
+			contentBounds.union(bounds);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Unregisters all listeners and restores the visibility and managed state
+	 * of all hidden children.
+	 */
+	void dispose() {
+		unregisterViewportListeners();
+		group.getChildren().removeListener(childrenListener);
+		for (Node child : childBounds.keySet()) {
+			child.boundsInParentProperty()
+					.removeListener(boundsInParentListener);
+		}
+		for (Node child : new ArrayList<>(hiddenChildren.keySet())) {
+			show(child);
+		}
+		index.clear();
+		childBounds.clear();
+		children.clear();
+		childrenInWindow.clear();
+	}
+
+	/**
+	 * Returns the union of the bounds of all children of the virtualized
+	 * {@link Group} (including the hidden ones) within the coordinate system
+	 * of the given {@link Node}, or <code>null</code> if the virtualized
+	 * {@link Group} does not have any children.
+	 *
+	 * @param node
+	 *            The {@link Node} in whose coordinate system the bounds are
+	 *            returned. It has to be an ancestor of the virtualized
+	 *            {@link Group} or the virtualized {@link Group} itself.
+	 * @return The union of the bounds of all children, or <code>null</code>.
+	 */
+	Bounds getContentBounds(Node node) {
+		if (childBounds.isEmpty()) {
+			return null;
+		}
+		if (contentBounds == null) {
+			for (Rectangle bounds : childBounds.values()) {
+				if (contentBounds == null) {
+					contentBounds = bounds.getCopy();
+				} else {
+					contentBounds.union(bounds);
+				}
+			}
+		}
+		Bounds bounds = Geometry2FX.toFXBounds(contentBounds);
+		for (Node n = group; n != node && n != null; n = n.getParent()) {
+			bounds = n.localToParent(bounds);
+		}
+		return bounds;
+	}
+
+	private void hide(Node child) {
+		if (child.isVisible() && !hiddenChildren.containsKey(child)) {
+			hiddenChildren.put(child, child.isManaged());
+			child.setVisible(false);
+			child.setManaged(false);
+		}
+	}
+
+	private void registerViewportListeners() {
+		canvas.horizontalScrollOffsetProperty().addListener(viewportListener);
+		canvas.verticalScrollOffsetProperty().addListener(viewportListener);
+		canvas.widthProperty().addListener(viewportListener);
+		canvas.heightProperty().addListener(viewportListener);
+		canvas.virtualizationMarginProperty().addListener(viewportListener);
+		Affine contentTransform = canvas.getContentTransform();
+		contentTransform.mxxProperty().addListener(viewportListener);
+		contentTransform.mxyProperty().addListener(viewportListener);
+		contentTransform.myxProperty().addListener(viewportListener);
+		contentTransform.myyProperty().addListener(viewportListener);
+		contentTransform.txProperty().addListener(viewportListener);
+		contentTransform.tyProperty().addListener(viewportListener);
+	}
+
+	private void removeChild(Node child) {
+		Rectangle bounds = childBounds.remove(child);
+		if (bounds != null) {
+			child.boundsInParentProperty()
+					.removeListener(boundsInParentListener);
+			children.remove(bounds);
+			index.remove(bounds);
+			childrenInWindow.remove(child);
+			// do not leave removed children hidden
+			boolean hidden = hiddenChildren.containsKey(child);
+			show(child);
+			contentBounds = null;
+			// the bounds of the group do not change if a hidden child is
+			// removed
+			if (hidden) {
+				canvas.updateScrollBars();
+			}
+		}
+	}
+
+	private void show(Node child) {
+		Boolean managed = hiddenChildren.remove(child);
+		if (managed != null) {
+			child.setVisible(true);
+			child.setManaged(managed);
+		}
+	}
+
+	private void unregisterViewportListeners() {
+		canvas.horizontalScrollOffsetProperty()
+				.removeListener(viewportListener);
+		canvas.verticalScrollOffsetProperty().removeListener(viewportListener);
+		canvas.widthProperty().removeListener(viewportListener);
+		canvas.heightProperty().removeListener(viewportListener);
+		canvas.virtualizationMarginProperty().removeListener(viewportListener);
+		Affine contentTransform = canvas.getContentTransform();
+		contentTransform.mxxProperty().removeListener(viewportListener);
+		contentTransform.mxyProperty().removeListener(viewportListener);
+		contentTransform.myxProperty().removeListener(viewportListener);
+		contentTransform.myyProperty().removeListener(viewportListener);
+		contentTransform.txProperty().removeListener(viewportListener);
+		contentTransform.tyProperty().removeListener(viewportListener);
+	}
+
+	private void updateChild(Node child, Rectangle bounds) {
+		if (window.touches(bounds)) {
+			if (childrenInWindow.add(child)) {
+				show(child);
+			}
+		} else {
+			childrenInWindow.remove(child);
+			hide(child);
+		}
+	}
+
+	private void updateContentBounds(Rectangle oldBounds,
+			Rectangle newBounds) {
+		if (contentBounds == null) {
+			return;
+		}
+		// the union can only be updated incrementally if the old bounds did
+		// not determine one of its sides
+		if (oldBounds.getX() > contentBounds.getX()
+				&& oldBounds.getY() > contentBounds.getY()
+				&& oldBounds.getX() + oldBounds.getWidth() < contentBounds
+						.getX() + contentBounds.getWidth()
+				&& oldBounds.getY() + oldBounds.getHeight() < contentBounds
+						.getY() + contentBounds.getHeight()) {
+			contentBounds.union(newBounds);
+		} else {
+			contentBounds = null;
+		}
+	}
+
+	/**
+	 * Determines the viewport of the {@link InfiniteCanvas} (expanded by the
+	 * virtualization margin) within the coordinate system of the virtualized
+	 * {@link Group}, and shows and hides the children that started or stopped
+	 * to intersect it.
+	 */
+	void updateWindow() {
+		double margin = canvas.getVirtualizationMargin();
+		Bounds viewport = new BoundingBox(-margin, -margin,
+				canvas.getWidth() + 2 * margin,
+				canvas.getHeight() + 2 * margin);
+		window = FX2Geometry
+				.toRectangle(group.sceneToLocal(canvas.localToScene(viewport)));
+
+		List<Rectangle> hits = new ArrayList<>();
+		index.query(window, hits);
+		Set<Node> newChildrenInWindow = new HashSet<>(hits.size() * 2);
+		for (Rectangle bounds : hits) {
+			newChildrenInWindow.add(children.get(bounds));
+		}
+		for (Node child : childrenInWindow) {
+			if (!newChildrenInWindow.contains(child)) {
+				hide(child);
+			}
+		}
+		for (Node child : newChildrenInWindow) {
+			if (!childrenInWindow.contains(child)) {
+				show(child);
+			}
+		}
+		childrenInWindow = newChildrenInWindow;
+	}
+
+}
@@ -30,6 +30,7 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
@@ -167,6 +168,18 @@ import javafx.util.Duration;
  * <li>The {@link #getScrolledOverlayGroup()} is rendered above the
  * {@link #getContentGroup()}.
  * </ul>
+ * <p>
+ * For large contents, the {@link #virtualizeContentProperty()} can be enabled,
+ * so that only those children of the {@link #virtualizedGroupProperty()
+ * virtualized group} that intersect the visible area (expanded by the
+ * {@link #virtualizationMarginProperty()}) are visible and managed. The
+ * remaining children are made invisible and unmanaged, so that they are not
+ * processed by CSS, layout, and rendering. The bounds of the children are
+ * maintained within a spatial index, so that the visible children can be
+ * updated incrementally when scrolling, zooming, or resizing. The content
+ * bounds (and thereby the scrollbars) still reflect all children. Per default,
+ * the children of the {@link #getContentGroup()} are virtualized, which can be
+ * changed in case the actual contents are nested within additional layers.
  *
  * @author anyssen
  * @author mwienand
@@ -188,6 +201,13 @@ public class InfiniteCanvas extends Region {
 	 */
 	public static final int DEFAULT_GRID_CELL_HEIGHT = 10;
 
+	/**
+	 * The default margin by which the visible area is expanded when
+	 * determining the children that are shown when the content is
+	 * virtualized.
+	 */
+	public static final double DEFAULT_VIRTUALIZATION_MARGIN = 100;
+
 	// background grid
 	private Region grid;
 	private Affine gridTransform = new Affine();
@@ -257,6 +277,15 @@ public class InfiniteCanvas extends Region {
 	private ReadOnlyObjectWrapper<Bounds> contentBoundsProperty = new ReadOnlyObjectWrapper<>();
 	private ReadOnlyObjectWrapper<Bounds> scrollableBoundsProperty = new ReadOnlyObjectWrapper<>();
 
+	// content virtualization
+	private final BooleanProperty virtualizeContentProperty = new SimpleBooleanProperty(
+			false);
+	private final DoubleProperty virtualizationMarginProperty = new SimpleDoubleProperty(
+			DEFAULT_VIRTUALIZATION_MARGIN);
+	private final ObjectProperty<Group> virtualizedGroupProperty = new SimpleObjectProperty<>(
+			contentGroup);
+	private ContentVirtualizer contentVirtualizer;
+
 	// layers within the visualization
 	private Pane scrolledPane = new Pane();
 	private Group underlayGroup = new Group();
@@ -396,6 +425,31 @@ public class InfiniteCanvas extends Region {
 				}
 			}
 		});
+
+		// register for "virtualizeContent" changes to enable/disable content
+		// virtualization (which is disabled by default)
+		virtualizeContentProperty.addListener(new ChangeListener<Boolean>() {
+			@Override
+			public void changed(ObservableValue<? extends Boolean> observable,
+					Boolean oldValue, Boolean newValue) {
+				if (newValue.booleanValue()) {
+					virtualizeContent();
+				} else {
+					unvirtualizeContent();
+				}
+			}
+		});
+		// register for "virtualizedGroup" changes to virtualize the new group
+		virtualizedGroupProperty.addListener(new ChangeListener<Group>() {
+			@Override
+			public void changed(ObservableValue<? extends Group> observable,
+					Group oldValue, Group newValue) {
+				if (virtualizeContentProperty.get()) {
+					unvirtualizeContent();
+					virtualizeContent();
+				}
+			}
+		});
 	}
 
 	/**
@@ -431,6 +485,17 @@ public class InfiniteCanvas extends Region {
 	protected double[] computeContentBoundsInLocal() {
 		Bounds contentBoundsInScrolledPane = getContentGroup()
 				.getBoundsInParent();
+		if (contentVirtualizer != null) {
+			// hidden children do not contribute to the bounds of the content
+			// group, therefore, the bounds of all virtualized children are
+			// added
+			Bounds virtualizedBounds = contentVirtualizer
+					.getContentBounds(getScrolledPane());
+			if (virtualizedBounds != null) {
+				contentBoundsInScrolledPane = union(
+						contentBoundsInScrolledPane, virtualizedBounds);
+			}
+		}
 		double minX = contentBoundsInScrolledPane.getMinX();
 		double maxX = contentBoundsInScrolledPane.getMaxX();
 		double minY = contentBoundsInScrolledPane.getMinY();
@@ -974,6 +1039,24 @@ public class InfiniteCanvas extends Region {
 		return getScrolledPane().getTranslateY();
 	}
 
+	/**
+	 * Returns the value of the {@link #virtualizationMarginProperty()}.
+	 *
+	 * @return The value of the {@link #virtualizationMarginProperty()}.
+	 */
+	public double getVirtualizationMargin() {
+		return virtualizationMarginProperty.get();
+	}
+
+	/**
+	 * Returns the value of the {@link #virtualizedGroupProperty()}.
+	 *
+	 * @return The value of the {@link #virtualizedGroupProperty()}.
+	 */
+	public Group getVirtualizedGroup() {
+		return virtualizedGroupProperty.get();
+	}
+
 	/**
 	 * Returns the grid cell height as a (writable) property.
 	 *
@@ -1043,6 +1126,15 @@ public class InfiniteCanvas extends Region {
 		return showGridProperty.get();
 	}
 
+	/**
+	 * Returns the value of the {@link #virtualizeContentProperty()}.
+	 *
+	 * @return The value of the {@link #virtualizeContentProperty()}.
+	 */
+	public boolean isVirtualizeContent() {
+		return virtualizeContentProperty.get();
+	}
+
 	/**
 	 * Returns the value of the {@link #zoomGridProperty()}.
 	 *
@@ -1393,6 +1485,39 @@ public class InfiniteCanvas extends Region {
 		getScrolledPane().setTranslateY(scrollOffsetY);
 	}
 
+	/**
+	 * Assigns the given value to the {@link #virtualizationMarginProperty()}.
+	 *
+	 * @param virtualizationMargin
+	 *            The new value that is assigned to the
+	 *            {@link #virtualizationMarginProperty()}.
+	 */
+	public void setVirtualizationMargin(double virtualizationMargin) {
+		virtualizationMarginProperty.set(virtualizationMargin);
+	}
+
+	/**
+	 * Assigns the given value to the {@link #virtualizeContentProperty()}.
+	 *
+	 * @param virtualizeContent
+	 *            The new value that is assigned to the
+	 *            {@link #virtualizeContentProperty()}.
+	 */
+	public void setVirtualizeContent(boolean virtualizeContent) {
+		virtualizeContentProperty.set(virtualizeContent);
+	}
+
+	/**
+	 * Assigns the given value to the {@link #virtualizedGroupProperty()}.
+	 *
+	 * @param virtualizedGroup
+	 *            The new value that is assigned to the
+	 *            {@link #virtualizedGroupProperty()}.
+	 */
+	public void setVirtualizedGroup(Group virtualizedGroup) {
+		virtualizedGroupProperty.set(virtualizedGroup);
+	}
+
 	/**
 	 * Assigns the given value to the {@link #showGridProperty()}.
 	 *
@@ -1516,6 +1641,29 @@ public class InfiniteCanvas extends Region {
 		setClip(null);
 	}
 
+	/**
+	 * Computes the union of the given {@link Bounds}. Empty {@link Bounds} are
+	 * ignored.
+	 *
+	 * @param b1
+	 *            The first {@link Bounds}.
+	 * @param b2
+	 *            The second {@link Bounds}.
+	 * @return The union of the given {@link Bounds}.
+	 */
+	private Bounds union(Bounds b1, Bounds b2) {
+		if (b1.isEmpty()) {
+			return b2;
+		} else if (b2.isEmpty()) {
+			return b1;
+		}
+		double minX = Math.min(b1.getMinX(), b2.getMinX());
+		double minY = Math.min(b1.getMinY(), b2.getMinY());
+		return new BoundingBox(minX, minY,
+				Math.max(b1.getMaxX(), b2.getMaxX()) - minX,
+				Math.max(b1.getMaxY(), b2.getMaxY()) - minY);
+	}
+
 	/**
 	 * Unregisters the listeners that were previously registered within
 	 * {@link #registerUpdateScrollBarsOnBoundsChanges()}.
@@ -1527,6 +1675,21 @@ public class InfiniteCanvas extends Region {
 				.removeListener(updateScrollBarsOnBoundsChangeListener);
 	}
 
+	/**
+	 * Disables content virtualization for this {@link InfiniteCanvas}, i.e.
+	 * shows all children that were hidden because they did not intersect the
+	 * visible area.
+	 *
+	 * @see #virtualizeContent()
+	 * @see #virtualizeContentProperty()
+	 */
+	protected void unvirtualizeContent() {
+		if (contentVirtualizer != null) {
+			contentVirtualizer.dispose();
+			contentVirtualizer = null;
+		}
+	}
+
 	/**
 	 * Disables zooming of the background grid.
 	 *
@@ -1666,6 +1829,66 @@ public class InfiniteCanvas extends Region {
 		return getScrolledPane().translateYProperty();
 	}
 
+	/**
+	 * Returns the {@link DoubleProperty} that determines the margin by which
+	 * the visible area is expanded when determining the children that are
+	 * shown when the content is virtualized. A margin ensures that children
+	 * are already shown when they are scrolled into the visible area.
+	 *
+	 * @return The {@link DoubleProperty} that determines the virtualization
+	 *         margin.
+	 */
+	public DoubleProperty virtualizationMarginProperty() {
+		return virtualizationMarginProperty;
+	}
+
+	/**
+	 * Returns the {@link ObjectProperty} that determines the {@link Group}
+	 * whose children are virtualized when the
+	 * {@link #virtualizeContentProperty()} is enabled. Per default, this is the
+	 * {@link #getContentGroup()}. It has to be the {@link #getContentGroup()}
+	 * or one of its descendants.
+	 *
+	 * @return The {@link ObjectProperty} that determines the {@link Group}
+	 *         whose children are virtualized.
+	 */
+	public ObjectProperty<Group> virtualizedGroupProperty() {
+		return virtualizedGroupProperty;
+	}
+
+	/**
+	 * Enables content virtualization for this {@link InfiniteCanvas}, i.e.
+	 * hides all children of the {@link #virtualizedGroupProperty() virtualized
+	 * group} that do not intersect the visible area, expanded by the
+	 * {@link #virtualizationMarginProperty()}.
+	 *
+	 * @see #unvirtualizeContent()
+	 * @see #virtualizeContentProperty()
+	 */
+	protected void virtualizeContent() {
+		if (contentVirtualizer == null
+				&& virtualizedGroupProperty.get() != null) {
+			contentVirtualizer = new ContentVirtualizer(this,
+					virtualizedGroupProperty.get());
+			contentVirtualizer.updateWindow();
+		}
+	}
+
+	/**
+	 * Returns the {@link BooleanProperty} that determines if the content of
+	 * this {@link InfiniteCanvas} is virtualized, i.e. if only those children
+	 * of the {@link #virtualizedGroupProperty() virtualized group} that
+	 * intersect the visible area (expanded by the
+	 * {@link #virtualizationMarginProperty()}) are visible and managed. Content
+	 * virtualization is disabled per default.
+	 *
+	 * @return The {@link BooleanProperty} that determines if the content of
+	 *         this {@link InfiniteCanvas} is virtualized.
+	 */
+	public BooleanProperty virtualizeContentProperty() {
+		return virtualizeContentProperty;
+	}
+
 	/**
 	 * Enables zooming of the background grid when the contents are zoomed.
 	 */
@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.gef.fx.anchors.IAnchor;
+import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
+import org.eclipse.gef.geometry.convert.fx.Geometry2FX;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+/**
+ * An {@link IConnectionRouter} that routes a {@link Connection} orthogonally
+ * around the siblings of the {@link Connection} (i.e. the children of its
+ * {@link Parent} that are no {@link Connection}s themselves), which are
+ * regarded as obstacles. The anchors of the {@link Connection} are handled
+ * like by the {@link OrthogonalRouter}.
+ * <p>
+ * Between each two consecutive points of the {@link Connection}, a route with
+ * minimal costs is determined within a sparse orthogonal visibility graph,
+ * which is spanned by the obstacle bounds (expanded by the
+ * {@link #getObstacleMargin() obstacle margin}) within a search window around
+ * the two points. The costs of a route are given by its length plus the
+ * {@link #getBendPenalty() bend penalty} for each bend. The search starts
+ * with the obstacles that are crossed by a simple orthogonal route, and
+ * repeatedly adds the obstacles that are crossed by the resulting route
+ * (enlarging the search window to their bounds) until the route does not
+ * cross any further obstacle. If no route can be found within the search
+ * window (e.g. because the start or end point is enclosed by obstacles), the
+ * route of the preceding iteration is used, which may cross obstacles (in the
+ * first iteration, this is the simple orthogonal route). Routes leave and
+ * enter the anchorages of the {@link Connection} perpendicular to the
+ * respective side of the anchorage bounds.
+ * <p>
+ * The obstacles are maintained within a spatial index per {@link Parent},
+ * along with the corridors (i.e. the route segments) of the routed
+ * {@link Connection}s. When an obstacle is moved, added, or removed, only the
+ * {@link Connection}s whose corridors intersect the obstacle's old or new
+ * bounds are rerouted. When rerouting, the obstacles the previous route passed
+ * along are taken into account right away, so that the search usually does
+ * not have to be refined.
+ * <p>
+ * While the {@link Parent} is part of a {@link javafx.scene.Scene} and
+ * routing takes place on the JavaFX application thread, the costs per pulse
+ * are limited: {@link Connection}s that are rerouted because of an obstacle
+ * change are routed within the following pulses (subject to a time budget),
+ * and a single search stops after 12 iterations or after taking 64 additional
+ * obstacles into account. If the route found so far still crosses obstacles
+ * then, the {@link Connection} temporarily uses it, and the search is
+ * continued with all obstacles considered so far within a later pulse.
+ * Otherwise (e.g. when a {@link Connection} is routed outside of a
+ * {@link javafx.scene.Scene}), the search is not limited.
+ *
+ * @author itemis AG
+ *
+ */
+public class ObstacleAvoidingRouter extends OrthogonalRouter {
+
+	private static final double DEFAULT_OBSTACLE_MARGIN = 10;
+	private static final double DEFAULT_BEND_PENALTY = 25;
+
+	/**
+	 * The maximum number of iterations of a search within a single pulse, each
+	 * of which takes into account the obstacles that were crossed by the route
+	 * of the preceding iteration.
+	 */
+	private static final int MAX_SEARCH_ITERATIONS = 12;
+
+	/**
+	 * The maximum number of obstacles that are taken into account in addition
+	 * to the previously considered ones by a search within a single pulse.
+	 */
+	private static final int MAX_SEARCH_OBSTACLES = 64;
+
+	private static List<Point> concat(Point start, List<Point> route,
+			Point end) {
+		List<Point> result = new ArrayList<>(route.size() + 2);
+		result.add(start);
+		result.addAll(route);
+		result.add(end);
+		return result;
+	}
+
+	private static boolean containsStrictly(Rectangle r, Point p) {
+		return p.x > r.getX() && p.x < r.getX() + r.getWidth()
+				&& p.y > r.getY() && p.y < r.getY() + r.getHeight();
+	}
+
+	private static List<Point> getFallbackRoute(Point start,
+			int startDirection, Point end) {
+		List<Point> route = new ArrayList<>();
+		route.add(start);
+		if (startDirection == OrthogonalVisibilityGraph.NORTH
+				|| startDirection == OrthogonalVisibilityGraph.SOUTH) {
+			route.add(new Point(start.x, end.y));
+		} else {
+			route.add(new Point(end.x, start.y));
+		}
+		route.add(end);
+		return route;
+	}
+
+	// returns the direction that points from the side of the given bounds
+	// next to the given point to the outside (or ANY_DIRECTION if the bounds
+	// are not valid)
+	private static int getOutwardDirection(Rectangle bounds, Point point,
+			Point opposite) {
+		double[] distances = new double[] {
+				Math.abs(bounds.getX() + bounds.getWidth() - point.x),
+				Math.abs(bounds.getY() + bounds.getHeight() - point.y),
+				Math.abs(bounds.getX() - point.x),
+				Math.abs(bounds.getY() - point.y) };
+		double minDistance = Math.min(Math.min(distances[0], distances[1]),
+				Math.min(distances[2], distances[3]));
+		// in case of ties (i.e. at corners), prefer the side facing the
+		// opposite point
+		int direction = OrthogonalVisibilityGraph.ANY_DIRECTION;
+		double maxAlignment = Double.NEGATIVE_INFINITY;
+		for (int d = 0; d < 4; d++) {
+			if (distances[d] <= minDistance + 0.5) {
+				double alignment = OrthogonalVisibilityGraph.getDX(d)
+						* (opposite.x - point.x)
+						+ OrthogonalVisibilityGraph.getDY(d)
+								* (opposite.y - point.y);
+				if (alignment > maxAlignment) {
+					maxAlignment = alignment;
+					direction = d;
+				}
+			}
+		}
+		return direction;
+	}
+
+	// returns the point at which a route that leaves the given bounds at the
+	// given point in the given direction reaches the given margin
+	private static Point getStubPoint(Rectangle bounds, Point point,
+			int direction, double margin) {
+		switch (direction) {
+		case OrthogonalVisibilityGraph.EAST:
+			return new Point(bounds.getX() + bounds.getWidth() + margin,
+					point.y);
+		case OrthogonalVisibilityGraph.SOUTH:
+			return new Point(point.x,
+					bounds.getY() + bounds.getHeight() + margin);
+		case OrthogonalVisibilityGraph.WEST:
+			return new Point(bounds.getX() - margin, point.y);
+		default:
+			return new Point(point.x, bounds.getY() - margin);
+		}
+	}
+
+	private static boolean touches(Rectangle obstacle, List<Point> route) {
+		for (int i = 0; i < route.size() - 1; i++) {
+			if (obstacle.touches(
+					new Rectangle(route.get(i), route.get(i + 1)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// removes duplicate and collinear points
+	private static List<Point> simplify(List<Point> route) {
+		List<Point> result = new ArrayList<>(route.size());
+		for (Point p : route) {
+			if (!result.isEmpty() && result.get(result.size() - 1).equals(p)) {
+				continue;
+			}
+			int size = result.size();
+			if (size >= 2) {
+				Point a = result.get(size - 2);
+				Point b = result.get(size - 1);
+				if (a.x == b.x && b.x == p.x || a.y == b.y && b.y == p.y) {
+					result.set(size - 1, p);
+					continue;
+				}
+			}
+			result.add(p);
+		}
+		return result;
+	}
+
+	private final double obstacleMargin;
+	private final double bendPenalty;
+
+	/**
+	 * Constructs a new {@link ObstacleAvoidingRouter} with a default obstacle
+	 * margin of <code>10</code> and a default bend penalty of <code>25</code>.
+	 */
+	public ObstacleAvoidingRouter() {
+		this(DEFAULT_OBSTACLE_MARGIN, DEFAULT_BEND_PENALTY);
+	}
+
+	/**
+	 * Constructs a new {@link ObstacleAvoidingRouter} with the given obstacle
+	 * margin and bend penalty.
+	 *
+	 * @param obstacleMargin
+	 *            The minimal distance between routes and obstacles.
+	 * @param bendPenalty
+	 *            The costs of a bend, relative to the length of a route.
+	 */
+	public ObstacleAvoidingRouter(double obstacleMargin, double bendPenalty) {
+		if (obstacleMargin < 0) {
+			throw new IllegalArgumentException(
+					"obstacleMargin may not be negative, but is "
+							+ obstacleMargin + ".");
+		}
+		if (bendPenalty < 0) {
+			throw new IllegalArgumentException(
+					"bendPenalty may not be negative, but is " + bendPenalty
+							+ ".");
+		}
+		this.obstacleMargin = obstacleMargin;
+		this.bendPenalty = bendPenalty;
+	}
+
+	/**
+	 * Adds those obstacles of the given {@link ObstacleIndex} that are crossed
+	 * by the given route (i.e. whose bounds, expanded by the obstacle margin,
+	 * intersect the interior of a route segment) and are not yet considered to
+	 * the given result list.
+	 *
+	 * @return <code>true</code> if a crossed obstacle was found, otherwise
+	 *         <code>false</code>.
+	 */
+	private boolean findCrossedObstacles(ObstacleIndex index,
+			List<Point> route, Set<Rectangle> considered,
+			List<Rectangle> result) {
+		List<Rectangle> hits = new ArrayList<>();
+		for (int i = 0; i < route.size() - 1; i++) {
+			Point p = route.get(i);
+			Point q = route.get(i + 1);
+			hits.clear();
+			index.queryObstacles(new Rectangle(p, q), hits);
+			for (Rectangle hit : hits) {
+				if (!considered.contains(hit)
+						&& Math.max(p.x, q.x) > hit.getX() - obstacleMargin
+						&& Math.min(p.x, q.x) < hit.getX() + hit.getWidth()
+								+ obstacleMargin
+						&& Math.max(p.y, q.y) > hit.getY() - obstacleMargin
+						&& Math.min(p.y, q.y) < hit.getY() + hit.getHeight()
+								+ obstacleMargin) {
+					result.add(hit);
+				}
+			}
+		}
+		return !result.isEmpty();
+	}
+
+	private Rectangle getAnchorageBounds(Connection connection,
+			ObstacleIndex index, int anchorIndex) {
+		IAnchor anchor = connection.getAnchor(anchorIndex);
+		if (!connection.isConnected(anchor)) {
+			return null;
+		}
+		Node anchorage = anchor.getAnchorage();
+		if (index != null && anchorage.getParent() == connection.getParent()) {
+			// use the (exact) obstacle bounds for siblings
+			return index.getObstacleBounds(anchorage);
+		}
+		IGeometry geometry = getAnchorageGeometry(anchorIndex);
+		if (geometry == null) {
+			return null;
+		}
+		Rectangle bounds = geometry.getBounds();
+		return new Rectangle(toParent(connection, bounds.getTopLeft()),
+				toParent(connection, bounds.getBottomRight()));
+	}
+
+	/**
+	 * Returns the costs of a bend, relative to the length of a route.
+	 *
+	 * @return The costs of a bend.
+	 */
+	public double getBendPenalty() {
+		return bendPenalty;
+	}
+
+	/**
+	 * Returns the minimal distance between routes and obstacles.
+	 *
+	 * @return The minimal distance between routes and obstacles.
+	 */
+	public double getObstacleMargin() {
+		return obstacleMargin;
+	}
+
+	@Override
+	protected void insertRouterAnchors(Connection connection) {
+		// XXX: Copy points just to be sure they are not modified.
+		List<Point> pts = new ArrayList<>(connection.getPointsUnmodifiable());
+		for (int i = 0; i < pts.size(); i++) {
+			Point pos = connection.getAnchor(i)
+					.getPosition(connection.getAnchorKey(i));
+			pts.set(i, FX2Geometry.toPoint(connection.getCurve()
+					.localToParent(Geometry2FX.toFXPoint(pos))));
+		}
+
+		Parent parent = connection.getParent();
+		ObstacleIndex index = parent == null ? null : ObstacleIndex.get(parent);
+		Rectangle startBounds = getAnchorageBounds(connection, index, 0);
+		Rectangle endBounds = getAnchorageBounds(connection, index,
+				pts.size() - 1);
+
+		// limit the search if it can be continued within a later pulse
+		boolean limited = index != null && index.isRoutingDeferrable();
+		boolean complete = true;
+
+		ControlPointManipulator cpm = createControlPointManipulator(connection);
+		List<Point> routeInParent = new ArrayList<>();
+		List<List<Rectangle>> searchObstacles = new ArrayList<>();
+		for (int i = 0; i < pts.size() - 1; i++) {
+			Point current = pts.get(i);
+			List<Rectangle> segmentObstacles = new ArrayList<>();
+			List<Point> segmentRoute = new ArrayList<>();
+			complete &= routeSegment(index, toParent(connection, current),
+					toParent(connection, pts.get(i + 1)),
+					i == 0 ? startBounds : null,
+					i == pts.size() - 2 ? endBounds : null,
+					index == null ? Collections.<Rectangle> emptyList()
+							: index.getSearchObstacles(connection, i),
+					limited, segmentRoute, segmentObstacles);
+			searchObstacles.add(segmentObstacles);
+			// insert the bend points as router anchors
+			for (int j = 1; j < segmentRoute.size() - 1; j++) {
+				Point bend = toLocal(connection, segmentRoute.get(j));
+				cpm.addRoutingPoint(i + 1, current, bend.x - current.x,
+						bend.y - current.y);
+			}
+			routeInParent.addAll(
+					routeInParent.isEmpty() ? segmentRoute
+							: segmentRoute.subList(1, segmentRoute.size()));
+		}
+		cpm.applyChanges();
+
+		if (index != null) {
+			index.setCorridors(connection, routeInParent, obstacleMargin);
+			index.setSearchObstacles(connection, searchObstacles);
+			if (!complete) {
+				// continue the search within a later pulse
+				index.scheduleRerouting(connection);
+			}
+		}
+	}
+
+	/**
+	 * Determines an orthogonal route between the given points (within the
+	 * coordinate system of the {@link Parent} of the {@link Connection}) that
+	 * avoids the obstacles within the given {@link ObstacleIndex}.
+	 *
+	 * @param index
+	 *            The {@link ObstacleIndex}, or <code>null</code> if there are
+	 *            no obstacles.
+	 * @param start
+	 *            The start point.
+	 * @param end
+	 *            The end point.
+	 * @param startBounds
+	 *            The bounds of the anchorage at the start point, or
+	 *            <code>null</code> if the start point is not attached.
+	 * @param endBounds
+	 *            The bounds of the anchorage at the end point, or
+	 *            <code>null</code> if the end point is not attached.
+	 * @param previousObstacles
+	 *            The obstacles the route passed along when the segment was
+	 *            routed before (or all obstacles that were considered by an
+	 *            interrupted search), which are considered right away if the
+	 *            simple orthogonal route crosses any obstacle.
+	 * @param limited
+	 *            <code>true</code> if the search is to be interrupted after
+	 *            {@link #MAX_SEARCH_ITERATIONS} iterations or after
+	 *            considering {@link #MAX_SEARCH_OBSTACLES} additional
+	 *            obstacles, otherwise <code>false</code>.
+	 * @param route
+	 *            A {@link List} to which the vertices of the resulting route,
+	 *            including the start and end point, are added.
+	 * @param routeObstacles
+	 *            A {@link List} to which the obstacles the resulting route
+	 *            passes along (or, if the search was interrupted, all
+	 *            obstacles that are to be considered when continuing it) are
+	 *            added.
+	 * @return <code>false</code> if the search was interrupted while the
+	 *         resulting route still crosses obstacles, otherwise
+	 *         <code>true</code>.
+	 */
+	private boolean routeSegment(ObstacleIndex index, Point start, Point end,
+			Rectangle startBounds, Rectangle endBounds,
+			List<Rectangle> previousObstacles, boolean limited,
+			List<Point> route, List<Rectangle> routeObstacles) {
+		// leave and enter anchorages perpendicular to their sides
+		int startDirection = startBounds == null
+				? OrthogonalVisibilityGraph.ANY_DIRECTION
+				: getOutwardDirection(startBounds, start, end);
+		Point searchStart = start;
+		if (startDirection != OrthogonalVisibilityGraph.ANY_DIRECTION) {
+			searchStart = getStubPoint(startBounds, start, startDirection,
+					obstacleMargin);
+		}
+		int outwardDirection = endBounds == null
+				? OrthogonalVisibilityGraph.ANY_DIRECTION
+				: getOutwardDirection(endBounds, end, start);
+		int endDirection = OrthogonalVisibilityGraph.ANY_DIRECTION;
+		Point searchEnd = end;
+		if (outwardDirection != OrthogonalVisibilityGraph.ANY_DIRECTION) {
+			endDirection = OrthogonalVisibilityGraph
+					.getOpposite(outwardDirection);
+			searchEnd = getStubPoint(endBounds, end, outwardDirection,
+					obstacleMargin);
+		}
+
+		// start with the obstacles that are crossed by a simple orthogonal
+		// route, and add those obstacles that are crossed by the resulting
+		// route until the route does not cross any further obstacle; when
+		// rerouting, the obstacles the previous route passed along are added
+		// right away, so that usually one or two iterations suffice
+		Set<Rectangle> considered = Collections
+				.newSetFromMap(new IdentityHashMap<Rectangle, Boolean>());
+		List<Rectangle> obstacles = new ArrayList<>();
+		List<Rectangle> obstacleCandidates = new ArrayList<>();
+		Rectangle searchBounds = new Rectangle(searchStart, searchEnd);
+		List<Point> searchRoute = getFallbackRoute(searchStart, startDirection,
+				searchEnd);
+		List<Rectangle> candidates = new ArrayList<>();
+		if (index == null || !findCrossedObstacles(index, searchRoute,
+				considered, candidates)) {
+			route.addAll(simplify(concat(start, searchRoute, end)));
+			return true;
+		}
+		candidates.addAll(previousObstacles);
+		int maxObstacles = previousObstacles.size() + MAX_SEARCH_OBSTACLES;
+		boolean complete = false;
+		for (int i = 0; !limited || i < MAX_SEARCH_ITERATIONS; i++) {
+			for (Rectangle candidate : candidates) {
+				if (considered.add(candidate)) {
+					Rectangle obstacle = candidate.getExpanded(obstacleMargin,
+							obstacleMargin);
+					// ignore obstacles that contain the start or end point
+					// (e.g. because they contain the anchorage)
+					if (!containsStrictly(obstacle, searchStart)
+							&& !containsStrictly(obstacle, searchEnd)) {
+						obstacles.add(obstacle);
+						obstacleCandidates.add(candidate);
+						searchBounds.union(obstacle);
+					}
+				}
+			}
+			// routes may pass the considered obstacles on either side
+			List<Point> nextRoute = new OrthogonalVisibilityGraph(obstacles,
+					searchBounds.getExpanded(obstacleMargin, obstacleMargin),
+					searchStart, searchEnd).findRoute(searchStart,
+							startDirection, searchEnd, endDirection,
+							bendPenalty);
+			if (nextRoute == null) {
+				// keep the route of the preceding iteration, as the search
+				// window does not contain a route that avoids all obstacles
+				complete = true;
+				break;
+			}
+			searchRoute = nextRoute;
+			candidates.clear();
+			if (!findCrossedObstacles(index, searchRoute, considered,
+					candidates)) {
+				complete = true;
+				break;
+			}
+			if (limited && obstacles.size() > maxObstacles) {
+				break;
+			}
+		}
+		if (complete) {
+			// remember the obstacles the route passes along, which are likely
+			// to determine the route again when rerouting
+			for (int i = 0; i < obstacles.size(); i++) {
+				if (touches(obstacles.get(i), searchRoute)) {
+					routeObstacles.add(obstacleCandidates.get(i));
+				}
+			}
+		} else {
+			// remember all obstacles that are to be considered when
+			// continuing the search
+			routeObstacles.addAll(obstacleCandidates);
+			routeObstacles.addAll(candidates);
+		}
+		route.addAll(simplify(concat(start, searchRoute, end)));
+		return complete;
+	}
+
+	private Point toLocal(Connection connection, Point pointInParent) {
+		Point2D local = connection.parentToLocal(pointInParent.x,
+				pointInParent.y);
+		return new Point(local.getX(), local.getY());
+	}
+
+	private Point toParent(Connection connection, Point pointInLocal) {
+		Point2D parent = connection.localToParent(pointInLocal.x,
+				pointInLocal.y);
+		return new Point(parent.getX(), parent.getY());
+	}
+
+}
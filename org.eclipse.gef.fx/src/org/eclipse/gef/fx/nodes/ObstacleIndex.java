@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.fx.anchors.IAnchor;
+import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.index.ISpatialIndex;
+import org.eclipse.gef.geometry.planar.index.RStarTree;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+/**
+ * The {@link ObstacleIndex} maintains the bounds of the children of a
+ * {@link Parent} that are no {@link Connection}s (i.e. the obstacles that are
+ * avoided by an {@link ObstacleAvoidingRouter}) within a spatial index, as
+ * well as the corridors (i.e. the bounds of the route segments) of the
+ * {@link Connection}s that were routed within the {@link Parent}.
+ * <p>
+ * When an obstacle is added, removed, or its bounds change, only those
+ * {@link Connection}s whose corridors intersect the old or new bounds of the
+ * obstacle are rerouted. {@link Connection}s that are attached to the
+ * obstacle are not rerouted here, as they are refreshed anyway when their
+ * anchor positions change.
+ * <p>
+ * While the {@link Parent} is part of a {@link javafx.scene.Scene} and the
+ * obstacles are changed on the JavaFX application thread, the affected
+ * {@link Connection}s are not rerouted right away, but within the following
+ * pulses, spending at most {@link #REROUTING_BUDGET_NANOS} per pulse (plus the
+ * duration of a single search). {@link Connection}s whose search was
+ * interrupted (see {@link #scheduleRerouting(Connection)}) are continued
+ * within the following pulses as well. Otherwise, all affected
+ * {@link Connection}s are rerouted right away.
+ * <p>
+ * There is one {@link ObstacleIndex} per {@link Parent}, which is stored
+ * within the {@link Parent#getProperties() properties} of the {@link Parent}.
+ * It is disposed (i.e. its listeners are unregistered and it is removed from
+ * the properties) as soon as it does not maintain any corridors and no
+ * {@link Connection}s are pending anymore, and re-created when a
+ * {@link Connection} is routed within the {@link Parent} again.
+ *
+ * @author itemis AG
+ *
+ */
+final class ObstacleIndex {
+
+	/**
+	 * The time that may be spent on rerouting {@link Connection}s within a
+	 * single pulse, so that a pulse stays well below 16 ms.
+	 */
+	static final long REROUTING_BUDGET_NANOS = 8000000L;
+
+	/**
+	 * Returns the {@link ObstacleIndex} for the given {@link Parent}. It is
+	 * created upon the first request and stored within the
+	 * {@link Parent#getProperties() properties} of the {@link Parent}.
+	 *
+	 * @param parent
+	 *            The {@link Parent} for which to return the
+	 *            {@link ObstacleIndex}.
+	 * @return The {@link ObstacleIndex} for the given {@link Parent}.
+	 */
+	static ObstacleIndex get(Parent parent) {
+		Object index = parent.getProperties().get(ObstacleIndex.class);
+		if (!(index instanceof ObstacleIndex)) {
+			index = new ObstacleIndex(parent);
+			parent.getProperties().put(ObstacleIndex.class, index);
+		}
+		return (ObstacleIndex) index;
+	}
+
+	private static boolean isObstacle(Node node) {
+		return !(node instanceof Connection);
+	}
+
+	private final ISpatialIndex<Rectangle> obstacles = new RStarTree<>();
+	private final Map<Node, Rectangle> obstacleBounds = new HashMap<>();
+	private final ISpatialIndex<Rectangle> corridors = new RStarTree<>();
+	private final Map<Rectangle, Connection> corridorOwners = new IdentityHashMap<>();
+	private final Map<Connection, List<Rectangle>> corridorsByConnection = new HashMap<>();
+	// the obstacles the routes of the segments of a connection pass along,
+	// which are reused when it is rerouted
+	private final Map<Connection, List<List<Rectangle>>> searchObstacles = new HashMap<>();
+	private final Set<Rectangle> obstacleSet = Collections
+			.newSetFromMap(new IdentityHashMap<Rectangle, Boolean>());
+
+	private final Parent parent;
+	// the connections that are to be rerouted within the following pulses
+	private final Set<Connection> pendingConnections = new LinkedHashSet<>();
+	private boolean rerouting = false;
+	private AnimationTimer timer;
+	private boolean timerRunning = false;
+
+	private final ChangeListener<Bounds> boundsInParentListener = new ChangeListener<Bounds>() {
+		@Override
+		public void changed(ObservableValue<? extends Bounds> observable,
+				Bounds oldValue, Bounds newValue) {
+			Node node = (Node) ((ReadOnlyProperty<?>) observable).getBean();
+			Rectangle bounds = obstacleBounds.get(node);
+			if (bounds != null) {
+				Rectangle oldBounds = bounds.getCopy();
+				bounds.setBounds(FX2Geometry.toRectangle(newValue));
+				obstacles.update(bounds);
+				rerouteCorridors(node, oldBounds, bounds);
+				disposeIfUnused();
+			}
+		}
+	};
+
+	private final ListChangeListener<Node> childrenListener = new ListChangeListener<Node>() {
+		@Override
+		public void onChanged(ListChangeListener.Change<? extends Node> c) {
+			while (c.next()) {
+				for (Node removed : c.getRemoved()) {
+					if (isObstacle(removed)) {
+						Rectangle bounds = removeObstacle(removed);
+						if (bounds != null) {
+							rerouteCorridors(removed, bounds, null);
+						}
+					} else {
+						removeCorridors((Connection) removed);
+					}
+				}
+				for (Node added : c.getAddedSubList()) {
+					if (isObstacle(added) && !obstacleBounds.containsKey(added)) {
+						obstacles.insert(addObstacle(added));
+						rerouteCorridors(added, null, obstacleBounds.get(added));
+					}
+				}
+			}
+			disposeIfUnused();
+		}
+	};
+
+	private ObstacleIndex(Parent parent) {
+		this.parent = parent;
+		List<Rectangle> initialObstacles = new ArrayList<>();
+		for (Node child : parent.getChildrenUnmodifiable()) {
+			if (isObstacle(child)) {
+				initialObstacles.add(addObstacle(child));
+			}
+		}
+		obstacles.bulkLoad(initialObstacles);
+		parent.getChildrenUnmodifiable().addListener(childrenListener);
+	}
+
+	private Rectangle addObstacle(Node node) {
+		Rectangle bounds = FX2Geometry.toRectangle(node.getBoundsInParent());
+		obstacleBounds.put(node, bounds);
+		obstacleSet.add(bounds);
+		node.boundsInParentProperty().addListener(boundsInParentListener);
+		return bounds;
+	}
+
+	/**
+	 * Disposes this {@link ObstacleIndex} if it does not maintain any corridors
+	 * and no {@link Connection}s are pending, i.e. unregisters its listeners
+	 * and removes it from the {@link Parent#getProperties() properties} of the
+	 * {@link Parent}.
+	 */
+	private void disposeIfUnused() {
+		if (rerouting || !corridorsByConnection.isEmpty()
+				|| !pendingConnections.isEmpty()) {
+			return;
+		}
+		parent.getChildrenUnmodifiable().removeListener(childrenListener);
+		for (Node node : obstacleBounds.keySet()) {
+			node.boundsInParentProperty()
+					.removeListener(boundsInParentListener);
+		}
+		obstacleBounds.clear();
+		obstacleSet.clear();
+		if (timerRunning) {
+			timer.stop();
+			timerRunning = false;
+		}
+		if (parent.getProperties().get(ObstacleIndex.class) == this) {
+			parent.getProperties().remove(ObstacleIndex.class);
+		}
+	}
+
+	/**
+	 * Returns the bounds (within the coordinate system of the {@link Parent})
+	 * of the given obstacle, or <code>null</code> if the given {@link Node}
+	 * is not an obstacle within the {@link Parent}.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the bounds.
+	 * @return The bounds of the given obstacle, or <code>null</code>.
+	 */
+	Rectangle getObstacleBounds(Node node) {
+		return obstacleBounds.get(node);
+	}
+
+	/**
+	 * Returns the obstacles the route of the segment with the given index of
+	 * the given {@link Connection} passed along when it was last routed (see
+	 * {@link #setSearchObstacles(Connection, List)}), except those that were
+	 * removed in the meantime. The returned bounds are updated when the
+	 * obstacles move, and must not be modified.
+	 *
+	 * @param connection
+	 *            The {@link Connection} for which to return the obstacles.
+	 * @param segmentIndex
+	 *            The index of the segment.
+	 * @return The obstacles the route of the given segment passed along.
+	 */
+	List<Rectangle> getSearchObstacles(Connection connection,
+			int segmentIndex) {
+		List<List<Rectangle>> segments = searchObstacles.get(connection);
+		if (segments == null || segmentIndex >= segments.size()) {
+			return Collections.emptyList();
+		}
+		List<Rectangle> result = new ArrayList<>();
+		for (Rectangle obstacle : segments.get(segmentIndex)) {
+			if (obstacleSet.contains(obstacle)) {
+				result.add(obstacle);
+			}
+		}
+		return result;
+	}
+
+	private boolean isAttached(Connection connection, Node node) {
+		for (IAnchor anchor : connection.getAnchorsUnmodifiable()) {
+			if (anchor.getAnchorage() == node) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the bounds of all obstacles that touch the given window (within
+	 * the coordinate system of the {@link Parent}) to the given
+	 * {@link Collection}. The bounds must not be modified.
+	 *
+	 * @param window
+	 *            The query window.
+	 * @param result
+	 *            The {@link Collection} to which the bounds are added.
+	 */
+	void queryObstacles(Rectangle window, Collection<Rectangle> result) {
+		obstacles.query(window, result);
+	}
+
+	/**
+	 * Removes the corridors of the given {@link Connection}.
+	 *
+	 * @param connection
+	 *            The {@link Connection} whose corridors are removed.
+	 */
+	void removeCorridors(Connection connection) {
+		pendingConnections.remove(connection);
+		searchObstacles.remove(connection);
+		List<Rectangle> oldCorridors = corridorsByConnection.remove(connection);
+		if (oldCorridors != null) {
+			for (Rectangle corridor : oldCorridors) {
+				corridors.remove(corridor);
+				corridorOwners.remove(corridor);
+			}
+		}
+	}
+
+	private Rectangle removeObstacle(Node node) {
+		Rectangle bounds = obstacleBounds.remove(node);
+		if (bounds != null) {
+			obstacleSet.remove(bounds);
+			node.boundsInParentProperty()
+					.removeListener(boundsInParentListener);
+			obstacles.remove(bounds);
+		}
+		return bounds;
+	}
+
+	private void rerouteCorridors(Node obstacle, Rectangle oldBounds,
+			Rectangle newBounds) {
+		List<Rectangle> hits = new ArrayList<>();
+		if (oldBounds != null) {
+			corridors.query(oldBounds, hits);
+		}
+		if (newBounds != null) {
+			corridors.query(newBounds, hits);
+		}
+		Set<Connection> affected = new LinkedHashSet<>();
+		for (Rectangle corridor : hits) {
+			Connection connection = corridorOwners.get(corridor);
+			if (connection != null && !isAttached(connection, obstacle)) {
+				affected.add(connection);
+			}
+		}
+		for (Connection connection : affected) {
+			if (connection.getRouter() instanceof ObstacleAvoidingRouter) {
+				scheduleRerouting(connection);
+			} else {
+				removeCorridors(connection);
+			}
+		}
+	}
+
+	/**
+	 * Reroutes the pending {@link Connection}s until none is pending anymore
+	 * or the given budget is exceeded.
+	 *
+	 * @param budgetNanos
+	 *            The time (in nanoseconds) that may be spent, or a negative
+	 *            value if the time is not limited.
+	 */
+	private void reroutePending(long budgetNanos) {
+		if (rerouting) {
+			// the pending connections are processed by the caller
+			return;
+		}
+		rerouting = true;
+		try {
+			long start = System.nanoTime();
+			while (!pendingConnections.isEmpty() && (budgetNanos < 0
+					|| System.nanoTime() - start < budgetNanos)) {
+				Iterator<Connection> iterator = pendingConnections.iterator();
+				Connection connection = iterator.next();
+				iterator.remove();
+				if (connection.getParent() == parent) {
+					connection.requestRerouting();
+					connection.refreshIfRequested();
+				}
+			}
+		} finally {
+			rerouting = false;
+		}
+		if (pendingConnections.isEmpty() && timerRunning) {
+			timer.stop();
+			timerRunning = false;
+		}
+		disposeIfUnused();
+	}
+
+	/**
+	 * Returns <code>true</code> if the routing of {@link Connection}s within
+	 * the {@link Parent} can be spread over several pulses, i.e. if the
+	 * {@link Parent} is part of a {@link javafx.scene.Scene} and the current
+	 * thread is the JavaFX application thread. Otherwise, {@link Connection}s
+	 * are rerouted right away.
+	 *
+	 * @return <code>true</code> if routing may be deferred to later pulses,
+	 *         otherwise <code>false</code>.
+	 */
+	boolean isRoutingDeferrable() {
+		return parent.getScene() != null && Platform.isFxApplicationThread();
+	}
+
+	/**
+	 * Schedules the given {@link Connection} for rerouting. If routing
+	 * {@link #isRoutingDeferrable() can be deferred}, it is rerouted within
+	 * the following pulses (subject to the {@link #REROUTING_BUDGET_NANOS}),
+	 * otherwise right away (or as soon as the current rerouting is finished).
+	 *
+	 * @param connection
+	 *            The {@link Connection} to reroute.
+	 */
+	void scheduleRerouting(Connection connection) {
+		pendingConnections.add(connection);
+		if (!isRoutingDeferrable()) {
+			reroutePending(-1);
+		} else if (!timerRunning) {
+			if (timer == null) {
+				timer = new AnimationTimer() {
+					@Override
+					public void handle(long now) {
+						reroutePending(REROUTING_BUDGET_NANOS);
+					}
+				};
+			}
+			timer.start();
+			timerRunning = true;
+		}
+	}
+
+	/**
+	 * Replaces the corridors of the given {@link Connection} by the bounds of
+	 * the segments of the given route (within the coordinate system of the
+	 * {@link Parent}), expanded by the given margin.
+	 *
+	 * @param connection
+	 *            The {@link Connection} whose corridors are set.
+	 * @param route
+	 *            The vertices of the route of the {@link Connection}.
+	 * @param margin
+	 *            The margin by which the segment bounds are expanded.
+	 */
+	void setCorridors(Connection connection, List<Point> route,
+			double margin) {
+		removeCorridors(connection);
+		List<Rectangle> newCorridors = new ArrayList<>(route.size());
+		for (int i = 0; i < route.size() - 1; i++) {
+			Rectangle corridor = new Rectangle(route.get(i), route.get(i + 1))
+					.expand(margin, margin);
+			corridors.insert(corridor);
+			corridorOwners.put(corridor, connection);
+			newCorridors.add(corridor);
+		}
+		corridorsByConnection.put(connection, newCorridors);
+	}
+
+	/**
+	 * Stores the obstacles the routes of the segments of the given
+	 * {@link Connection} pass along, so that they can be taken into account
+	 * right away when the {@link Connection} is rerouted. They are discarded
+	 * along with the corridors of the {@link Connection}.
+	 *
+	 * @param connection
+	 *            The {@link Connection} for which to store the obstacles.
+	 * @param obstacles
+	 *            The obstacles per segment, as returned
+	 *            by {@link #queryObstacles(Rectangle, Collection)}.
+	 */
+	void setSearchObstacles(Connection connection,
+			List<List<Rectangle>> obstacles) {
+		searchObstacles.put(connection, obstacles);
+	}
+
+}
@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * An {@link OrthogonalVisibilityGraph} is a sparse grid that is spanned by the
+ * borders of a set of (rectangular) obstacles within a search window, as well
+ * as by the start and end point of a route. Its vertices are the intersections
+ * of the grid lines that are not located within the interior of an obstacle,
+ * and its edges connect neighboring vertices if the line between them does
+ * not pass through the interior of an obstacle. Accordingly, routes may run
+ * along the borders of the obstacles, which are therefore expected to be
+ * expanded by the desired distance beforehand.
+ * <p>
+ * Shortest orthogonal routes are determined using A*, where each bend is
+ * penalized by a configurable amount in addition to the route length.
+ *
+ * @author itemis AG
+ *
+ */
+final class OrthogonalVisibilityGraph {
+
+	/**
+	 * A binary min-heap of search states, which are prioritized by their
+	 * estimated costs. States may be contained multiple times (with different
+	 * priorities); outdated entries are skipped when polled.
+	 */
+	private static final class StateQueue {
+
+		private int[] states = new int[64];
+		private double[] priorities = new double[64];
+		private int size = 0;
+
+		private boolean isEmpty() {
+			return size == 0;
+		}
+
+		private int poll() {
+			int result = states[0];
+			size--;
+			int state = states[size];
+			double priority = priorities[size];
+			int i = 0;
+			int child;
+			while ((child = 2 * i + 1) < size) {
+				if (child + 1 < size
+						&& priorities[child + 1] < priorities[child]) {
+					child++;
+				}
+				if (priorities[child] >= priority) {
+					break;
+				}
+				states[i] = states[child];
+				priorities[i] = priorities[child];
+				i = child;
+			}
+			states[i] = state;
+			priorities[i] = priority;
+			return result;
+		}
+
+		private void push(int state, double priority) {
+			if (size == states.length) {
+				states = Arrays.copyOf(states, size * 2);
+				priorities = Arrays.copyOf(priorities, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (priorities[parent] <= priority) {
+					break;
+				}
+				states[i] = states[parent];
+				priorities[i] = priorities[parent];
+				i = parent;
+			}
+			states[i] = state;
+			priorities[i] = priority;
+		}
+	}
+
+	/**
+	 * Direction constant that indicates that a route may start or end in any
+	 * direction.
+	 */
+	static final int ANY_DIRECTION = -1;
+
+	/**
+	 * Direction constant for the positive x direction.
+	 */
+	static final int EAST = 0;
+
+	/**
+	 * Direction constant for the positive y direction.
+	 */
+	static final int SOUTH = 1;
+
+	/**
+	 * Direction constant for the negative x direction.
+	 */
+	static final int WEST = 2;
+
+	/**
+	 * Direction constant for the negative y direction.
+	 */
+	static final int NORTH = 3;
+
+	private static final int[] DX = { 1, 0, -1, 0 };
+	private static final int[] DY = { 0, 1, 0, -1 };
+
+	/**
+	 * Returns the horizontal component (-1, 0, or 1) of the given direction.
+	 *
+	 * @param direction
+	 *            One of {@link #EAST}, {@link #SOUTH}, {@link #WEST}, or
+	 *            {@link #NORTH}.
+	 * @return The horizontal component of the given direction.
+	 */
+	static int getDX(int direction) {
+		return DX[direction];
+	}
+
+	/**
+	 * Returns the vertical component (-1, 0, or 1) of the given direction.
+	 *
+	 * @param direction
+	 *            One of {@link #EAST}, {@link #SOUTH}, {@link #WEST}, or
+	 *            {@link #NORTH}.
+	 * @return The vertical component of the given direction.
+	 */
+	static int getDY(int direction) {
+		return DY[direction];
+	}
+
+	// returns a lower bound for the costs of a route from the given position,
+	// which was entered in the given direction, to the given end point, i.e.
+	// the Manhattan distance plus the minimal number of bends
+	private static double getEstimate(double x, double y, int direction,
+			Point end, double bendPenalty) {
+		double dx = end.x - x;
+		double dy = end.y - y;
+		// signed distances along and across the current direction
+		double ahead = DX[direction] * dx + DY[direction] * dy;
+		double across = DX[direction] * dy - DY[direction] * dx;
+		int bends;
+		if (across == 0) {
+			bends = ahead >= 0 ? 0 : 2;
+		} else {
+			bends = ahead >= 0 ? 1 : 2;
+		}
+		return Math.abs(dx) + Math.abs(dy) + bends * bendPenalty;
+	}
+
+	/**
+	 * Returns the direction that is opposite to the given direction.
+	 *
+	 * @param direction
+	 *            One of {@link #EAST}, {@link #SOUTH}, {@link #WEST}, or
+	 *            {@link #NORTH}.
+	 * @return The opposite direction.
+	 */
+	static int getOpposite(int direction) {
+		return (direction + 2) & 3;
+	}
+
+	// returns the largest index i with values[i] < value (or <= value if not
+	// strict), or -1 if there is no such index
+	private static int indexBelow(double[] values, double value,
+			boolean strict) {
+		int low = 0;
+		int high = values.length - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (strict ? values[mid] < value : values[mid] <= value) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	private static double[] toSortedUniqueArray(double[] values, int count) {
+		Arrays.sort(values, 0, count);
+		int unique = 0;
+		for (int i = 0; i < count; i++) {
+			if (unique == 0 || values[i] != values[unique - 1]) {
+				values[unique++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, unique);
+	}
+
+	private final double[] xs;
+	private final double[] ys;
+	private final boolean[] blockedVertices;
+	// edge from (i, j) to (i + 1, j) is stored at i + j * xs.length
+	private final boolean[] blockedHorizontalEdges;
+	// edge from (i, j) to (i, j + 1) is stored at i + j * xs.length
+	private final boolean[] blockedVerticalEdges;
+
+	/**
+	 * Constructs a new {@link OrthogonalVisibilityGraph} for the given
+	 * obstacles, search window, and route end points.
+	 *
+	 * @param obstacles
+	 *            The (already expanded) obstacle bounds.
+	 * @param window
+	 *            The search window to which the grid is restricted. It has to
+	 *            contain the start and end point.
+	 * @param start
+	 *            The start point of the route.
+	 * @param end
+	 *            The end point of the route.
+	 */
+	OrthogonalVisibilityGraph(List<Rectangle> obstacles, Rectangle window,
+			Point start, Point end) {
+		double left = window.getX();
+		double top = window.getY();
+		double right = left + window.getWidth();
+		double bottom = top + window.getHeight();
+
+		// determine grid lines
+		double[] x = new double[2 * obstacles.size() + 4];
+		double[] y = new double[2 * obstacles.size() + 4];
+		int nx = 0;
+		int ny = 0;
+		x[nx++] = left;
+		x[nx++] = right;
+		x[nx++] = start.x;
+		x[nx++] = end.x;
+		y[ny++] = top;
+		y[ny++] = bottom;
+		y[ny++] = start.y;
+		y[ny++] = end.y;
+		for (Rectangle obstacle : obstacles) {
+			double ol = obstacle.getX();
+			double or = ol + obstacle.getWidth();
+			double ot = obstacle.getY();
+			double ob = ot + obstacle.getHeight();
+			if (ol > left && ol < right) {
+				x[nx++] = ol;
+			}
+			if (or > left && or < right) {
+				x[nx++] = or;
+			}
+			if (ot > top && ot < bottom) {
+				y[ny++] = ot;
+			}
+			if (ob > top && ob < bottom) {
+				y[ny++] = ob;
+			}
+		}
+		xs = toSortedUniqueArray(x, nx);
+		ys = toSortedUniqueArray(y, ny);
+		nx = xs.length;
+		ny = ys.length;
+
+		// mark vertices and edges within the interior of obstacles
+		blockedVertices = new boolean[nx * ny];
+		blockedHorizontalEdges = new boolean[nx * ny];
+		blockedVerticalEdges = new boolean[nx * ny];
+		for (Rectangle obstacle : obstacles) {
+			double ol = obstacle.getX();
+			double or = ol + obstacle.getWidth();
+			double ot = obstacle.getY();
+			double ob = ot + obstacle.getHeight();
+			// grid lines strictly within the obstacle
+			int iIn0 = indexBelow(xs, ol, false) + 1;
+			int iIn1 = indexBelow(xs, or, true);
+			int jIn0 = indexBelow(ys, ot, false) + 1;
+			int jIn1 = indexBelow(ys, ob, true);
+			// grid lines within the obstacle or on its border
+			int iOn0 = indexBelow(xs, ol, true) + 1;
+			int iOn1 = indexBelow(xs, or, false);
+			int jOn0 = indexBelow(ys, ot, true) + 1;
+			int jOn1 = indexBelow(ys, ob, false);
+			for (int j = jIn0; j <= jIn1; j++) {
+				for (int i = iIn0; i <= iIn1; i++) {
+					blockedVertices[i + j * nx] = true;
+				}
+				for (int i = iOn0; i < iOn1; i++) {
+					blockedHorizontalEdges[i + j * nx] = true;
+				}
+			}
+			for (int j = jOn0; j < jOn1; j++) {
+				for (int i = iIn0; i <= iIn1; i++) {
+					blockedVerticalEdges[i + j * nx] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines the route with minimal costs from the given start point to
+	 * the given end point, where the costs are given by the route length plus
+	 * the given bend penalty for each bend. The start and end point have to be
+	 * the ones that were passed in when constructing this
+	 * {@link OrthogonalVisibilityGraph}.
+	 *
+	 * @param start
+	 *            The start point of the route.
+	 * @param startDirection
+	 *            The direction in which the route has to leave the start
+	 *            point, or {@link #ANY_DIRECTION}.
+	 * @param end
+	 *            The end point of the route.
+	 * @param endDirection
+	 *            The direction in which the route has to arrive at the end
+	 *            point (a different direction is penalized like a bend), or
+	 *            {@link #ANY_DIRECTION}.
+	 * @param bendPenalty
+	 *            The costs of a single bend.
+	 * @return The vertices of the route (i.e. the start point, the bend
+	 *         points, and the end point), or <code>null</code> if no route
+	 *         exists.
+	 */
+	List<Point> findRoute(Point start, int startDirection, Point end,
+			int endDirection, double bendPenalty) {
+		int nx = xs.length;
+		int startVertex = Arrays.binarySearch(xs, start.x)
+				+ Arrays.binarySearch(ys, start.y) * nx;
+		int endVertex = Arrays.binarySearch(xs, end.x)
+				+ Arrays.binarySearch(ys, end.y) * nx;
+
+		// a state is a vertex combined with the direction in which it was
+		// entered; the last state represents the arrival at the end point
+		int stateCount = blockedVertices.length * 4;
+		int arrivalState = stateCount;
+		double[] costs = new double[stateCount + 1];
+		Arrays.fill(costs, Double.POSITIVE_INFINITY);
+		int[] predecessors = new int[stateCount + 1];
+		boolean[] closed = new boolean[stateCount + 1];
+		StateQueue queue = new StateQueue();
+
+		for (int d = 0; d < 4; d++) {
+			if (startDirection == ANY_DIRECTION || startDirection == d) {
+				int state = startVertex * 4 + d;
+				costs[state] = 0;
+				predecessors[state] = -1;
+				queue.push(state, getEstimate(start.x, start.y, d, end,
+						bendPenalty));
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			if (state == arrivalState) {
+				return toRoute(predecessors[arrivalState], predecessors);
+			}
+			if (closed[state]) {
+				continue;
+			}
+			closed[state] = true;
+			int vertex = state >> 2;
+			int direction = state & 3;
+			double cost = costs[state];
+			if (vertex == endVertex) {
+				double arrivalCost = cost + (endDirection == ANY_DIRECTION
+						|| endDirection == direction ? 0 : bendPenalty);
+				if (arrivalCost < costs[arrivalState]) {
+					costs[arrivalState] = arrivalCost;
+					predecessors[arrivalState] = state;
+					queue.push(arrivalState, arrivalCost);
+				}
+			}
+			int i = vertex % nx;
+			int j = vertex / nx;
+			for (int d = 0; d < 4; d++) {
+				if (d == getOpposite(direction)) {
+					// no u-turns
+					continue;
+				}
+				int ni = i + DX[d];
+				int nj = j + DY[d];
+				if (ni < 0 || ni >= nx || nj < 0 || nj >= ys.length) {
+					continue;
+				}
+				int neighbor = ni + nj * nx;
+				if (blockedVertices[neighbor] || isBlocked(i, j, d)) {
+					continue;
+				}
+				int neighborState = neighbor * 4 + d;
+				double neighborCost = cost + Math.abs(xs[ni] - xs[i])
+						+ Math.abs(ys[nj] - ys[j])
+						+ (d == direction ? 0 : bendPenalty);
+				if (neighborCost < costs[neighborState]) {
+					costs[neighborState] = neighborCost;
+					predecessors[neighborState] = state;
+					queue.push(neighborState, neighborCost
+							+ getEstimate(xs[ni], ys[nj], d, end, bendPenalty));
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean isBlocked(int i, int j, int direction) {
+		int nx = xs.length;
+		switch (direction) {
+		case EAST:
+			return blockedHorizontalEdges[i + j * nx];
+		case WEST:
+			return blockedHorizontalEdges[i - 1 + j * nx];
+		case SOUTH:
+			return blockedVerticalEdges[i + j * nx];
+		default:
+			return blockedVerticalEdges[i + (j - 1) * nx];
+		}
+	}
+
+	private List<Point> toRoute(int lastState, int[] predecessors) {
+		int nx = xs.length;
+		List<Point> route = new ArrayList<>();
+		int previousDirection = ANY_DIRECTION;
+		for (int state = lastState; state != -1; state = predecessors[state]) {
+			int vertex = state >> 2;
+			int direction = state & 3;
+			// only keep the end point, the start point, and bend points
+			if (route.isEmpty() || predecessors[state] == -1
+					|| direction != previousDirection) {
+				route.add(new Point(xs[vertex % nx], ys[vertex / nx]));
+			}
+			previousDirection = direction;
+		}
+		Collections.reverse(route);
+		return route;
+	}
+
+}
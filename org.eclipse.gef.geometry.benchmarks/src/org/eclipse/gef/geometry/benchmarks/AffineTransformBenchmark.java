@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.awt.geom.NoninvertibleTransformException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of transforming many coordinates by an
+ * {@link AffineTransform}, comparing the bulk transformation of a coordinate
+ * array with the transformation of individual {@link Point}s, and measuring
+ * inverse transformations (which depend on the cached inverse).
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AffineTransformBenchmark {
+
+	/**
+	 * Provides the transformation and the coordinates.
+	 */
+	@State(Scope.Benchmark)
+	public static class Coordinates {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The number of points to transform.
+		 */
+		@Param({ "100", "10000", "1000000" })
+		public int pointCount;
+
+		AffineTransform transform;
+		double[] coordinates;
+		double[] transformed;
+		Point[] points;
+
+		/**
+		 * Creates the transformation and the coordinates.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			transform = new AffineTransform().translate(10, 20).rotate(0.3)
+					.scale(1.5, 0.5);
+			coordinates = new double[2 * pointCount];
+			points = new Point[pointCount];
+			for (int i = 0; i < pointCount; i++) {
+				coordinates[2 * i] = 1000 * random.nextDouble();
+				coordinates[2 * i + 1] = 1000 * random.nextDouble();
+				points[i] = new Point(coordinates[2 * i],
+						coordinates[2 * i + 1]);
+			}
+			transformed = new double[2 * pointCount];
+		}
+	}
+
+	/**
+	 * Transforms the {@link Point}s, one by one.
+	 *
+	 * @param coordinates
+	 *            The benchmark state.
+	 * @return The last transformed {@link Point}.
+	 */
+	@Benchmark
+	public Point getTransformedPoint(Coordinates coordinates) {
+		Point last = null;
+		for (Point p : coordinates.points) {
+			last = coordinates.transform.getTransformed(p);
+		}
+		return last;
+	}
+
+	/**
+	 * Transforms the {@link Point}s in a single call.
+	 *
+	 * @param coordinates
+	 *            The benchmark state.
+	 * @return The transformed {@link Point}s.
+	 */
+	@Benchmark
+	public Point[] getTransformedPoints(Coordinates coordinates) {
+		return coordinates.transform.getTransformed(coordinates.points);
+	}
+
+	/**
+	 * Inverse transforms the coordinate array into a preallocated array, which
+	 * requires the inverse transformation.
+	 *
+	 * @param coordinates
+	 *            The benchmark state.
+	 * @return The inverse transformed coordinates.
+	 * @throws NoninvertibleTransformException
+	 *             never, as the transformation is invertible
+	 */
+	@Benchmark
+	public double[] inverseTransform(Coordinates coordinates)
+			throws NoninvertibleTransformException {
+		coordinates.transform.inverseTransform(coordinates.coordinates, 0,
+				coordinates.transformed, 0, coordinates.pointCount);
+		return coordinates.transformed;
+	}
+
+	/**
+	 * Transforms the coordinate array into a preallocated array.
+	 *
+	 * @param coordinates
+	 *            The benchmark state.
+	 * @return The transformed coordinates.
+	 */
+	@Benchmark
+	public double[] transform(Coordinates coordinates) {
+		coordinates.transform.transform(coordinates.coordinates, 0,
+				coordinates.transformed, 0, coordinates.pointCount);
+		return coordinates.transformed;
+	}
+
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.BezierCurve;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.PolyBezier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of the intersection and offset computations of
+ * {@link BezierCurve}s. The curves are built from random control points
+ * within the same square, so that they intersect (and self-intersect) several
+ * times for higher degrees.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BezierCurveBenchmark {
+
+	/**
+	 * Provides the curves.
+	 */
+	@State(Scope.Benchmark)
+	public static class Curves {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The degree of the curves.
+		 */
+		@Param({ "3", "6", "10" })
+		public int degree;
+
+		BezierCurve a;
+		BezierCurve b;
+
+		private static BezierCurve createCurve(Random random, int degree) {
+			Point[] controlPoints = new Point[degree + 1];
+			for (int i = 0; i <= degree; i++) {
+				controlPoints[i] = new Point(100 * random.nextDouble(),
+						100 * random.nextDouble());
+			}
+			return new BezierCurve(controlPoints);
+		}
+
+		/**
+		 * Creates the curves.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			a = createCurve(random, degree);
+			b = createCurve(random, degree);
+		}
+	}
+
+	/**
+	 * Computes the intersection points of both curves.
+	 *
+	 * @param curves
+	 *            The benchmark state.
+	 * @return The intersection points.
+	 */
+	@Benchmark
+	public Point[] getIntersections(Curves curves) {
+		return curves.a.getIntersections(curves.b);
+	}
+
+	/**
+	 * Computes an offset of the first curve.
+	 *
+	 * @param curves
+	 *            The benchmark state.
+	 * @return The offset.
+	 */
+	@Benchmark
+	public PolyBezier getOffset(Curves curves) {
+		return curves.a.getOffset(5);
+	}
+
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of {@link Point#getConvexHull(Point...)} for points
+ * that are distributed uniformly within a disk, and for points that lie on a
+ * circle (so that all of them are part of the hull).
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConvexHullBenchmark {
+
+	/**
+	 * Provides the points.
+	 */
+	@State(Scope.Benchmark)
+	public static class Points {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The number of points.
+		 */
+		@Param({ "1000", "100000" })
+		public int pointCount;
+
+		/**
+		 * The distribution of the points, either within a disk or on a
+		 * circle.
+		 */
+		@Param({ "disk", "circle" })
+		public String distribution;
+
+		Point[] points;
+
+		/**
+		 * Creates the points.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			boolean circle = "circle".equals(distribution);
+			points = new Point[pointCount];
+			for (int i = 0; i < pointCount; i++) {
+				double angle = 2 * Math.PI * random.nextDouble();
+				double radius = circle ? 100
+						: 100 * Math.sqrt(random.nextDouble());
+				points[i] = new Point(radius * Math.cos(angle),
+						radius * Math.sin(angle));
+			}
+		}
+	}
+
+	/**
+	 * Computes the convex hull of the points.
+	 *
+	 * @param points
+	 *            The benchmark state.
+	 * @return The points of the convex hull.
+	 */
+	@Benchmark
+	public Point[] getConvexHull(Points points) {
+		return Point.getConvexHull(points.points);
+	}
+
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
+import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
+import org.eclipse.gef.geometry.planar.Path;
+import org.eclipse.gef.geometry.planar.PolygonClipper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of the boolean operations on {@link Path}s, comparing
+ * the {@link PolygonClipper} (which is used by {@link Path#add(Path, Path)}
+ * etc.) with the conversion to and from {@link java.awt.geom.Area}. The
+ * operands are two overlapping star-shaped polygons with randomly jittered
+ * radii, so that their outlines intersect many times.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PathBooleanBenchmark {
+
+	/**
+	 * Provides the operands.
+	 */
+	@State(Scope.Benchmark)
+	public static class Operands {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The number of vertices of each operand.
+		 */
+		@Param({ "1000", "10000" })
+		public int vertexCount;
+
+		/**
+		 * The boolean operation to perform.
+		 */
+		@Param({ "add", "intersect", "subtract", "exclusiveOr" })
+		public String operation;
+
+		Path a;
+		Path b;
+		int clipperOperation;
+
+		private static Path createStar(Random random, int vertexCount,
+				double centerX, double centerY) {
+			Path path = new Path();
+			for (int i = 0; i < vertexCount; i++) {
+				double angle = 2 * Math.PI * i / vertexCount;
+				double radius = 100 * (1 - 0.02 * random.nextDouble());
+				double x = centerX + radius * Math.cos(angle);
+				double y = centerY + radius * Math.sin(angle);
+				if (i == 0) {
+					path.moveTo(x, y);
+				} else {
+					path.lineTo(x, y);
+				}
+			}
+			return path.close();
+		}
+
+		/**
+		 * Creates the operands.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			a = createStar(random, vertexCount, 0, 0);
+			b = createStar(random, vertexCount, 30, 20);
+			clipperOperation = "add".equals(operation) ? PolygonClipper.UNION
+					: "intersect".equals(operation)
+							? PolygonClipper.INTERSECTION
+							: "subtract".equals(operation)
+									? PolygonClipper.DIFFERENCE
+									: PolygonClipper.EXCLUSIVE_OR;
+		}
+	}
+
+	/**
+	 * Performs the operation using {@link java.awt.geom.Area}, including the
+	 * conversion of the operands and of the result.
+	 *
+	 * @param operands
+	 *            The benchmark state.
+	 * @return The result of the operation.
+	 */
+	@Benchmark
+	public Path area(Operands operands) {
+		Area a = new Area(Geometry2AWT.toAWTPath(operands.a));
+		Area b = new Area(Geometry2AWT.toAWTPath(operands.b));
+		switch (operands.clipperOperation) {
+		case PolygonClipper.UNION:
+			a.add(b);
+			break;
+		case PolygonClipper.INTERSECTION:
+			a.intersect(b);
+			break;
+		case PolygonClipper.DIFFERENCE:
+			a.subtract(b);
+			break;
+		default:
+			a.exclusiveOr(b);
+		}
+		return AWT2Geometry.toPath(new Path2D.Double(a));
+	}
+
+	/**
+	 * Performs the operation using the {@link PolygonClipper}.
+	 *
+	 * @param operands
+	 *            The benchmark state.
+	 * @return The result of the operation.
+	 */
+	@Benchmark
+	public Path polygonClipper(Operands operands) {
+		return PolygonClipper.clip(operands.a, operands.b,
+				operands.clipperOperation);
+	}
+
+}
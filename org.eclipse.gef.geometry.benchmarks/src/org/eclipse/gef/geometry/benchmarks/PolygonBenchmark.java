@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.PreparedPolygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of point containment tests (comparing
+ * {@link Polygon#contains(Point)} with a {@link PreparedPolygon}) and of the
+ * triangulation of {@link Polygon}s. The polygons are star-shaped with randomly jittered
+ * radii, so that they are simple but not convex.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PolygonBenchmark {
+
+	/**
+	 * Provides the polygon and the query points.
+	 */
+	@State(Scope.Benchmark)
+	public static class Polygons {
+
+		private static final long SEED = 4711L;
+		private static final int QUERY_COUNT = 1000;
+
+		/**
+		 * The number of vertices of the polygon.
+		 */
+		@Param({ "100", "1000", "10000" })
+		public int vertexCount;
+
+		Polygon polygon;
+		PreparedPolygon preparedPolygon;
+		Point[] queries;
+
+		/**
+		 * Creates the polygon and the query points, which are distributed
+		 * uniformly within its bounds.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			Point[] points = new Point[vertexCount];
+			for (int i = 0; i < vertexCount; i++) {
+				double angle = 2 * Math.PI * i / vertexCount;
+				double radius = 100 * (0.5 + 0.5 * random.nextDouble());
+				points[i] = new Point(radius * Math.cos(angle),
+						radius * Math.sin(angle));
+			}
+			polygon = new Polygon(points);
+			preparedPolygon = new PreparedPolygon(polygon);
+			queries = new Point[QUERY_COUNT];
+			for (int i = 0; i < QUERY_COUNT; i++) {
+				queries[i] = new Point(200 * random.nextDouble() - 100,
+						200 * random.nextDouble() - 100);
+			}
+		}
+	}
+
+	/**
+	 * Tests all query points for containment.
+	 *
+	 * @param polygons
+	 *            The benchmark state.
+	 * @return The number of contained query points.
+	 */
+	@Benchmark
+	public int contains(Polygons polygons) {
+		int count = 0;
+		for (Point p : polygons.queries) {
+			if (polygons.polygon.contains(p)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Tests all query points for containment using the
+	 * {@link PreparedPolygon}, excluding its construction.
+	 *
+	 * @param polygons
+	 *            The benchmark state.
+	 * @return The number of contained query points.
+	 */
+	@Benchmark
+	public int containsPrepared(Polygons polygons) {
+		int count = 0;
+		for (Point p : polygons.queries) {
+			if (polygons.preparedPolygon.contains(p)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Triangulates the polygon.
+	 *
+	 * @param polygons
+	 *            The benchmark state.
+	 * @return The triangles.
+	 */
+	@Benchmark
+	public Polygon[] getTriangulation(Polygons polygons) {
+		return polygons.polygon.getTriangulation();
+	}
+
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.Ring;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of building up a {@link Ring} by successively adding
+ * randomly placed, partially overlapping triangles via {@link Ring#add}.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RingBenchmark {
+
+	/**
+	 * Provides the triangles.
+	 */
+	@State(Scope.Benchmark)
+	public static class Triangles {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The number of triangles to add.
+		 */
+		@Param({ "10", "100", "500" })
+		public int triangleCount;
+
+		Polygon[] triangles;
+
+		/**
+		 * Creates the triangles within a square whose area grows with the
+		 * number of triangles, so that the density of overlaps is constant.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			double size = 50 * Math.sqrt(triangleCount);
+			triangles = new Polygon[triangleCount];
+			for (int i = 0; i < triangleCount; i++) {
+				double x = size * random.nextDouble();
+				double y = size * random.nextDouble();
+				triangles[i] = new Polygon(x, y,
+						x + 20 + 40 * random.nextDouble(),
+						y + 40 * random.nextDouble(),
+						x + 40 * random.nextDouble(),
+						y + 20 + 40 * random.nextDouble());
+			}
+		}
+	}
+
+	/**
+	 * Adds all triangles to an initially empty {@link Ring}.
+	 *
+	 * @param triangles
+	 *            The benchmark state.
+	 * @return The resulting {@link Ring}.
+	 */
+	@Benchmark
+	public Ring add(Triangles triangles) {
+		Ring ring = new Ring();
+		for (Polygon triangle : triangles.triangles) {
+			ring.add(triangle);
+		}
+		return ring;
+	}
+
+}
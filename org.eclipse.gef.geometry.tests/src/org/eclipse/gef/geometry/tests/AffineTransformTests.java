@@ -12,9 +12,12 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.awt.geom.NoninvertibleTransformException;
+
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.planar.AffineTransform;
 import org.eclipse.gef.geometry.planar.Point;
@@ -22,6 +25,50 @@ import org.junit.Test;
 
 public class AffineTransformTests {
 
+	@Test
+	public void test_bulk_transform() {
+		AffineTransform tx = new AffineTransform().translate(10, 20).rotate(0.5)
+				.scale(2, 3);
+		double[] coordinates = { 1, 2, -3, 4, 5, -6 };
+		double[] transformed = tx.getTransformed(coordinates);
+		for (int i = 0; i < 3; i++) {
+			Point p = tx.getTransformed(
+					new Point(coordinates[2 * i], coordinates[2 * i + 1]));
+			assertEquals(p.x, transformed[2 * i], 1e-12);
+			assertEquals(p.y, transformed[2 * i + 1], 1e-12);
+		}
+		// in place, with offsets
+		double[] inPlace = { 0, 1, 2, -3, 4, 5, -6 };
+		tx.transform(inPlace, 1, inPlace, 1, 3);
+		assertEquals(0, inPlace[0], 0);
+		for (int i = 0; i < 6; i++) {
+			assertEquals(transformed[i], inPlace[i + 1], 1e-12);
+		}
+		Point[] points = tx.getTransformed(
+				new Point[] { new Point(1, 2), new Point(-3, 4) });
+		assertEquals(tx.getTransformed(new Point(1, 2)), points[0]);
+		assertEquals(tx.getTransformed(new Point(-3, 4)), points[1]);
+	}
+
+	@Test
+	public void test_inverseTransform() throws NoninvertibleTransformException {
+		AffineTransform tx = new AffineTransform().translate(10, 20).rotate(0.5)
+				.scale(2, 3);
+		Point p = new Point(3, 7);
+		assertEquals(p, tx.inverseTransform(tx.getTransformed(p)));
+		assertEquals(p, tx.getInverse().getTransformed(tx.getTransformed(p)));
+		// the cached inverse has to reflect changes of the transformation
+		tx.scale(0.5, 0.5);
+		assertEquals(p, tx.inverseTransform(tx.getTransformed(p)));
+		tx.setToTranslation(5, 5);
+		assertEquals(new Point(-2, 0), tx.inverseTransform(new Point(3, 5)));
+		double[] coordinates = { 5, 5, 6, 7 };
+		tx.inverseTransform(coordinates, 0, coordinates, 0, 2);
+		assertArrayEquals(new double[] { 0, 0, 1, 2 }, coordinates, 0);
+		tx.invert();
+		assertEquals(new Point(8, 10), tx.inverseTransform(new Point(3, 5)));
+	}
+
 	@Test
 	public void test_equals() {
 		AffineTransform t0 = new AffineTransform();
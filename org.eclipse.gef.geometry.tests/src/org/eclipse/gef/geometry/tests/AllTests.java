@@ -23,10 +23,12 @@ import org.junit.runners.Suite.SuiteClasses;
 		CurvedPolygonTests.class, CurveUtilsTests.class, DimensionTests.class,
 		EllipseTests.class, IGeometryTests.class, LineTests.class,
 		PathTests.class, PieTests.class, PointListUtilsTests.class,
-		PointTests.class, PolygonTests.class, PolylineTests.class,
-		PrecisionUtilsTests.class, QuadraticCurveTests.class,
-		RectangleTests.class, RegionTests.class, RingTests.class,
-		RoundedRectangleTests.class, StraightTests.class, VectorTests.class,
+		PointTests.class, PolygonClipperTests.class, PolygonTests.class,
+		PolygonTriangulatorTests.class, PolylineTests.class,
+		PrecisionUtilsTests.class, PreparedPolygonTests.class,
+		QuadraticCurveTests.class, RectangleTests.class, RegionTests.class,
+		RingTests.class, RoundedRectangleTests.class,
+		SpatialIndexTests.class, StraightTests.class, VectorTests.class,
 		Vector3DTests.class })
 public class AllTests {
 
@@ -20,7 +20,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.awt.geom.CubicCurve2D;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
 import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
@@ -267,6 +273,53 @@ public class BezierCurveTests {
 		// TODO: check the derivative for some points on the curve
 	}
 
+	@Test
+	public void test_getIntersections_concurrently() throws Exception {
+		// the clipping routines use per-thread buffers, so that concurrent
+		// computations have to yield the same results as sequential ones
+		Random random = new Random(4711);
+		final BezierCurve[] curves = new BezierCurve[40];
+		for (int i = 0; i < curves.length; i++) {
+			double[] coordinates = new double[8];
+			for (int j = 0; j < coordinates.length; j++) {
+				coordinates[j] = random.nextDouble() * 100;
+			}
+			curves[i] = new BezierCurve(coordinates);
+		}
+		final int pairCount = curves.length / 2;
+		List<Set<Point>> expected = new ArrayList<>();
+		for (int i = 0; i < pairCount; i++) {
+			expected.add(new HashSet<>(Arrays.asList(
+					curves[2 * i].getIntersections(curves[2 * i + 1]))));
+		}
+
+		final List<List<Set<Point>>> results = Collections
+				.synchronizedList(new ArrayList<List<Set<Point>>>());
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					List<Set<Point>> actual = new ArrayList<>();
+					for (int i = 0; i < pairCount; i++) {
+						actual.add(new HashSet<>(Arrays.asList(curves[2 * i]
+								.getIntersections(curves[2 * i + 1]))));
+					}
+					results.add(actual);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(threads.length, results.size());
+		for (List<Set<Point>> actual : results) {
+			assertEquals(expected, actual);
+		}
+	}
+
 	@Test
 	public void test_getIntersections_Rectangle() {
 		Rectangle r = new Rectangle(new Point(100, 150), new Point(550, 300));
@@ -16,7 +16,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.euclidean.Straight;
@@ -260,6 +263,33 @@ public class CurveUtilsTests {
 		assertEquals(0, yAxis.getIntersections(curve).length);
 	}
 
+	@Test
+	public void test_getIntersections_multiple_segments() {
+		Random rng = new Random(SEED);
+
+		for (int i = 0; i < 20; i++) {
+			Point[] points1 = new Point[50];
+			Point[] points2 = new Point[50];
+			for (int j = 0; j < points1.length; j++) {
+				points1[j] = new Point(rng.nextDouble(), rng.nextDouble());
+				points2[j] = new Point(rng.nextDouble(), rng.nextDouble());
+			}
+			Polyline p1 = new Polyline(points1);
+			Polyline p2 = new Polyline(points2);
+
+			// compare with the intersections of all pairs of segments
+			Set<Point> expected = new HashSet<>();
+			for (Line l1 : p1.getCurves()) {
+				for (Line l2 : p2.getCurves()) {
+					expected.addAll(Arrays.asList(l1.getIntersections(l2)));
+				}
+			}
+			Set<Point> actual = new HashSet<>(
+					Arrays.asList(p1.getIntersections(p2)));
+			assertEquals(expected, actual);
+		}
+	}
+
 	@Test
 	public void test_getIntersections_overlapping() {
 		/*
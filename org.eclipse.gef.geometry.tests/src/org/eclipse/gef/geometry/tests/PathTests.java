@@ -18,6 +18,8 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.Ellipse;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.Path;
 import org.eclipse.gef.geometry.planar.Point;
@@ -69,6 +71,58 @@ public class PathTests {
 		assertFalse(differencePath.contains(new Point(125, 125)));
 	}
 
+	@Test
+	public void test_contains_Point() {
+		// two overlapping squares, the second one in opposite direction
+		Path path = new Path(Path.WIND_NON_ZERO).moveTo(0, 0).lineTo(100, 0)
+				.lineTo(100, 100).lineTo(0, 100).close().moveTo(50, 50)
+				.lineTo(50, 150).lineTo(150, 150).lineTo(150, 50).close();
+		assertTrue(path.contains(new Point(25, 25)));
+		assertTrue(path.contains(new Point(125, 125)));
+		assertFalse(path.contains(new Point(75, 75)));
+		assertFalse(path.contains(new Point(200, 75)));
+		// points on the outline are contained
+		assertTrue(path.contains(new Point(100, 25)));
+		assertTrue(path.contains(new Point(150, 150)));
+
+		// the same squares in the same direction
+		path.reset().moveTo(0, 0).lineTo(100, 0).lineTo(100, 100).lineTo(0, 100)
+				.close().moveTo(50, 50).lineTo(150, 50).lineTo(150, 150)
+				.lineTo(50, 150).close();
+		assertTrue(path.contains(new Point(75, 75)));
+		path.setWindingRule(Path.WIND_EVEN_ODD);
+		assertFalse(path.contains(new Point(75, 75)));
+		assertTrue(path.contains(new Point(25, 25)));
+
+		// sub-paths are implicitly closed
+		path.moveTo(200, 0).lineTo(300, 0).lineTo(300, 100);
+		assertTrue(path.contains(new Point(290, 10)));
+		assertFalse(path.contains(new Point(210, 90)));
+
+		Path ellipse = new Ellipse(0, 0, 100, 50).toPath();
+		assertTrue(ellipse.contains(new Point(50, 25)));
+		assertTrue(ellipse.contains(new Point(99.9, 25)));
+		assertFalse(ellipse.contains(new Point(2, 2)));
+	}
+
+	@Test
+	public void test_contains_Rectangle() {
+		Path path = new Path(Path.WIND_EVEN_ODD).moveTo(0, 0).lineTo(100, 0)
+				.lineTo(100, 100).lineTo(0, 100).close().moveTo(25, 25)
+				.lineTo(75, 25).lineTo(75, 75).lineTo(25, 75).close();
+		assertTrue(path.contains(new Rectangle(5, 5, 10, 80)));
+		assertFalse(path.contains(new Rectangle(5, 5, 30, 30)));
+		assertFalse(path.contains(new Rectangle(30, 30, 10, 10)));
+		assertFalse(path.contains(new Rectangle(5, 5, 0, 10)));
+		assertTrue(path.touches(new Rectangle(5, 5, 30, 30)));
+		assertTrue(path.touches(new Rectangle(-10, -10, 200, 200)));
+		assertFalse(path.touches(new Rectangle(30, 30, 10, 10)));
+		assertFalse(path.touches(new Rectangle(110, 0, 10, 10)));
+		path.setWindingRule(Path.WIND_NON_ZERO);
+		assertTrue(path.contains(new Rectangle(30, 30, 10, 10)));
+		assertTrue(path.touches(new Rectangle(30, 30, 10, 10)));
+	}
+
 	@Test
 	public void test_getBounds_cubic() {
 		// create path using all segment types
@@ -160,4 +214,29 @@ public class PathTests {
 		assertEquals(outlineBounds, bounds);
 	}
 
+	@Test
+	public void test_getTransformed() {
+		Path path = new Path(Path.WIND_EVEN_ODD).moveTo(10, 10).lineTo(80, 10)
+				.quadTo(50, 50, 80, 80).cubicTo(50, 50, 30, 100, 10, 80)
+				.close();
+		AffineTransform t = new AffineTransform().translate(5, 10).scale(2,
+				3);
+		Path transformed = path.getTransformed(t);
+		assertEquals(Path.WIND_EVEN_ODD, transformed.getWindingRule());
+		Path.Segment[] segments = path.getSegments();
+		Path.Segment[] transformedSegments = transformed.getSegments();
+		assertEquals(segments.length, transformedSegments.length);
+		for (int i = 0; i < segments.length; i++) {
+			assertEquals(segments[i].getType(),
+					transformedSegments[i].getType());
+			Point[] points = segments[i].getPoints();
+			Point[] transformedPoints = transformedSegments[i].getPoints();
+			for (int j = 0; j < points.length; j++) {
+				assertEquals(t.getTransformed(points[j]),
+						transformedPoints[j]);
+			}
+		}
+		assertTrue(transformed.contains(t.getTransformed(new Point(40, 20))));
+	}
+
 }
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
+import org.eclipse.gef.geometry.planar.Path;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.PolygonClipper;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+public class PolygonClipperTests {
+
+	private static Path createRandomPath(Random random, int windingRule) {
+		Path path = new Path(windingRule);
+		// snap to a grid, so that collinear and overlapping edges occur
+		path.moveTo(random.nextInt(10) * 10, random.nextInt(10) * 10);
+		int count = 2 + random.nextInt(8);
+		for (int i = 0; i < count; i++) {
+			path.lineTo(random.nextInt(10) * 10, random.nextInt(10) * 10);
+		}
+		return path.close();
+	}
+
+	private static double getSignedArea(Polygon polygon) {
+		Point[] points = polygon.getPoints();
+		double area = 0;
+		for (int i = 0; i < points.length; i++) {
+			Point p = points[i];
+			Point q = points[(i + 1) % points.length];
+			area += p.x * q.y - q.x * p.y;
+		}
+		return area / 2;
+	}
+
+	@Test
+	public void holesAreOrientedOppositeToOuterBoundaries() {
+		Path outer = new Rectangle(0, 0, 100, 100).toPath();
+		Path inner = new Rectangle(25, 25, 50, 50).toPath();
+		Polygon[] rings = PolygonClipper.clipToPolygons(outer, inner,
+				PolygonClipper.DIFFERENCE, PolygonClipper.DEFAULT_FLATNESS);
+		assertEquals(2, rings.length);
+		double a0 = getSignedArea(rings[0]);
+		double a1 = getSignedArea(rings[1]);
+		assertEquals(7500, a0 + a1, 0);
+		assertTrue(a0 * a1 < 0);
+	}
+
+	@Test
+	public void matchesAreaForRandomPolygons() {
+		Random random = new Random(4711);
+		for (int i = 0; i < 200; i++) {
+			Path a = createRandomPath(random, random.nextBoolean()
+					? Path.WIND_EVEN_ODD : Path.WIND_NON_ZERO);
+			Path b = createRandomPath(random, random.nextBoolean()
+					? Path.WIND_EVEN_ODD : Path.WIND_NON_ZERO);
+			for (int operation = 0; operation < 4; operation++) {
+				Area expected = new Area(Geometry2AWT.toAWTPath(a));
+				Area other = new Area(Geometry2AWT.toAWTPath(b));
+				switch (operation) {
+				case PolygonClipper.UNION:
+					expected.add(other);
+					break;
+				case PolygonClipper.INTERSECTION:
+					expected.intersect(other);
+					break;
+				case PolygonClipper.DIFFERENCE:
+					expected.subtract(other);
+					break;
+				default:
+					expected.exclusiveOr(other);
+				}
+				Path2D actual = Geometry2AWT
+						.toAWTPath(PolygonClipper.clip(a, b, operation));
+				for (int j = 0; j < 100; j++) {
+					// avoid sampling on the grid lines
+					double x = random.nextDouble() * 100 + 1e-7;
+					double y = random.nextDouble() * 100 + 3e-7;
+					assertEquals(expected.contains(x, y), actual.contains(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void sharedEdgesAreMerged() {
+		Polygon[] rings = PolygonClipper.clipToPolygons(
+				new Rectangle(0, 0, 50, 100).toPath(),
+				new Rectangle(50, 0, 50, 100).toPath(), PolygonClipper.UNION,
+				PolygonClipper.DEFAULT_FLATNESS);
+		assertEquals(1, rings.length);
+		assertEquals(4, rings[0].getPoints().length);
+		assertEquals(new Rectangle(0, 0, 100, 100), rings[0].getBounds());
+	}
+
+	@Test
+	public void windingRules() {
+		// two overlapping squares within one path
+		Path evenOdd = new Path(Path.WIND_EVEN_ODD).moveTo(0, 0).lineTo(60, 0)
+				.lineTo(60, 60).lineTo(0, 60).close().moveTo(40, 40)
+				.lineTo(100, 40).lineTo(100, 100).lineTo(40, 100).close();
+		Path nonZero = evenOdd.getCopy().setWindingRule(Path.WIND_NON_ZERO);
+		Path empty = new Path();
+
+		Path result = PolygonClipper.clip(evenOdd, empty, PolygonClipper.UNION);
+		assertTrue(result.contains(new Point(20, 20)));
+		assertFalse(result.contains(new Point(50, 50)));
+
+		result = PolygonClipper.clip(nonZero, empty, PolygonClipper.UNION);
+		assertTrue(result.contains(new Point(20, 20)));
+		assertTrue(result.contains(new Point(50, 50)));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.PolygonTriangulator;
+import org.junit.Test;
+
+public class PolygonTriangulatorTests {
+
+	private static final long SEED = 4711L;
+
+	private static void assertTriangulation(Polygon[] triangles,
+			double expectedArea, boolean counterClockwise) {
+		double area = 0;
+		for (Polygon triangle : triangles) {
+			assertEquals(3, triangle.getPoints().length);
+			double signedArea = getSignedArea(triangle);
+			assertTrue(counterClockwise ? signedArea > 0 : signedArea < 0);
+			area += Math.abs(signedArea);
+		}
+		assertEquals(expectedArea, area, 1e-6 * expectedArea);
+	}
+
+	private static Polygon createStar(Random random, int vertexCount,
+			double cx, double cy, double radius, boolean counterClockwise) {
+		Point[] points = new Point[vertexCount];
+		for (int i = 0; i < vertexCount; i++) {
+			double angle = 2 * Math.PI * i / vertexCount;
+			double r = radius * (0.5 + 0.5 * random.nextDouble());
+			points[counterClockwise ? i : vertexCount - 1 - i] = new Point(
+					cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+		}
+		return new Polygon(points);
+	}
+
+	private static double getSignedArea(Polygon p) {
+		Point[] points = p.getPoints();
+		double area = 0;
+		for (int i = 0; i < points.length; i++) {
+			Point a = points[i];
+			Point b = points[(i + 1) % points.length];
+			area += a.x * b.y - b.x * a.y;
+		}
+		return area / 2;
+	}
+
+	@Test
+	public void test_antenna() {
+		// the edge (65, 55) -> (95, 65) is retraced
+		Polygon p = new Polygon(45, 15, 35, 50, 45, 60, 65, 55, 95, 65, 65,
+				55);
+		assertTriangulation(p.getTriangulation(), 675, getSignedArea(p) > 0);
+		assertEquals(675, p.getArea(), 1e-9);
+		// antennas at the closing vertex and nested antennas
+		p = new Polygon(10, 0, 10, 10, 0, 10, 0, 0, 10, 0, 20, 0, 25, 0, 20,
+				0);
+		assertTriangulation(p.getTriangulation(), 100, getSignedArea(p) > 0);
+	}
+
+	@Test
+	public void test_comb() {
+		// many split and merge vertices, collinear and horizontal edges
+		int teeth = 50;
+		double[] coordinates = new double[8 * teeth + 4];
+		int k = 0;
+		for (int i = 0; i < teeth; i++) {
+			coordinates[k++] = 4 * i;
+			coordinates[k++] = 0;
+			coordinates[k++] = 4 * i + 2;
+			coordinates[k++] = 10;
+			coordinates[k++] = 4 * i + 2;
+			coordinates[k++] = 0;
+			coordinates[k++] = 4 * i + 4;
+			coordinates[k++] = 0;
+		}
+		coordinates[k++] = 4 * teeth;
+		coordinates[k++] = -5;
+		coordinates[k++] = 0;
+		coordinates[k++] = -5;
+		Polygon comb = new Polygon(coordinates);
+		assertTriangulation(comb.getTriangulation(),
+				Math.abs(getSignedArea(comb)), getSignedArea(comb) > 0);
+		Point[] points = comb.getPoints();
+		Point[] reversedPoints = new Point[points.length];
+		for (int i = 0; i < points.length; i++) {
+			reversedPoints[i] = points[points.length - 1 - i];
+		}
+		Polygon reversed = new Polygon(reversedPoints);
+		assertTriangulation(reversed.getTriangulation(),
+				Math.abs(getSignedArea(comb)), getSignedArea(reversed) > 0);
+	}
+
+	@Test
+	public void test_duplicate_vertices() {
+		Polygon p = new Polygon(0, 0, 10, 0, 10, 0, 10, 10, 0, 10, 0, 0);
+		assertTriangulation(PolygonTriangulator.triangulate(p), 100,
+				getSignedArea(p) > 0);
+		assertEquals(0, PolygonTriangulator
+				.triangulate(new Polygon(0, 0, 5, 5, 10, 10)).length);
+	}
+
+	@Test
+	public void test_holes() {
+		Random random = new Random(SEED);
+		Polygon outline = new Polygon(0, 0, 100, 0, 100, 100, 0, 100);
+		Polygon[] holes = new Polygon[9];
+		double holeArea = 0;
+		for (int i = 0; i < holes.length; i++) {
+			holes[i] = createStar(random, 20, 20 + 30 * (i % 3),
+					20 + 30 * (i / 3), 12, i % 2 == 0);
+			holeArea += Math.abs(getSignedArea(holes[i]));
+		}
+		assertTriangulation(PolygonTriangulator.triangulate(outline, holes),
+				10000 - holeArea, getSignedArea(outline) > 0);
+	}
+
+	@Test
+	public void test_large() {
+		Random random = new Random(SEED);
+		for (boolean counterClockwise : new boolean[] { true, false }) {
+			Polygon star = createStar(random, 10000, 0, 0, 100,
+					counterClockwise);
+			Polygon[] triangles = PolygonTriangulator.triangulate(star);
+			assertEquals(9998, triangles.length);
+			assertTriangulation(triangles, Math.abs(getSignedArea(star)),
+					counterClockwise);
+		}
+	}
+
+	@Test
+	public void test_pinched() {
+		// two triangles that touch at (10, 10)
+		Polygon p = new Polygon(0, 0, 20, 0, 10, 10, 20, 20, 0, 20, 10, 10);
+		assertTriangulation(p.getTriangulation(), 200, getSignedArea(p) > 0);
+		// a square with a triangular hole that touches the outline at (0, 0)
+		p = new Polygon(0, 0, 10, 0, 10, 10, 0, 10, 0, 0, 5, 8, 8, 5);
+		assertTriangulation(p.getTriangulation(), 100 - 19.5,
+				getSignedArea(p) > 0);
+	}
+
+	@Test
+	public void test_vertex_indices() {
+		int[] indices = PolygonTriangulator.triangulate(
+				new double[] { 0, 0, 4, 0, 4, 4, 0, 4, 1, 1, 1, 3, 3, 3, 3, 1 },
+				4);
+		// an annulus with 8 vertices is decomposed into 8 triangles
+		assertEquals(24, indices.length);
+		for (int index : indices) {
+			assertTrue(index >= 0 && index < 8);
+		}
+	}
+
+}
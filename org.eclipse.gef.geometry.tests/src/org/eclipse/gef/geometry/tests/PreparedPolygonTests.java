@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.PreparedPolygon;
+import org.eclipse.gef.geometry.planar.PreparedRing;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.Ring;
+import org.junit.Test;
+
+public class PreparedPolygonTests {
+
+	private static final long SEED = 4711L;
+
+	private static Polygon createStar(Random random, int vertexCount,
+			double cx, double cy) {
+		Point[] points = new Point[vertexCount];
+		for (int i = 0; i < vertexCount; i++) {
+			double angle = 2 * Math.PI * i / vertexCount;
+			double r = 50 + 50 * random.nextDouble();
+			points[i] = new Point(Math.round(cx + r * Math.cos(angle)),
+					Math.round(cy + r * Math.sin(angle)));
+		}
+		return new Polygon(points);
+	}
+
+	@Test
+	public void test_contains() {
+		Random random = new Random(SEED);
+		Polygon polygon = createStar(random, 200, 0, 0);
+		PreparedPolygon prepared = new PreparedPolygon(polygon);
+		assertEquals(polygon.getBounds(), prepared.getBounds());
+		assertEquals(polygon, prepared.getPolygon());
+
+		// vertices and edge midpoints
+		Point[] points = polygon.getPoints();
+		for (int i = 0; i < points.length; i++) {
+			Point next = points[(i + 1) % points.length];
+			assertTrue(prepared.contains(points[i]));
+			assertTrue(prepared.contains((points[i].x + next.x) / 2,
+					(points[i].y + next.y) / 2));
+		}
+
+		// integer grid, which contains many points with the y coordinate of
+		// a vertex
+		for (int x = -110; x <= 110; x++) {
+			for (int y = -110; y <= 110; y += 3) {
+				assertEquals(polygon.contains(new Point(x, y)),
+						prepared.contains(x, y));
+			}
+		}
+
+		// random points
+		for (int i = 0; i < 10000; i++) {
+			Point p = new Point(random.nextDouble() * 220 - 110,
+					random.nextDouble() * 220 - 110);
+			assertEquals(polygon.contains(p), prepared.contains(p));
+		}
+	}
+
+	@Test
+	public void test_contains_degenerated() {
+		PreparedPolygon empty = new PreparedPolygon(new Polygon(new Point[0]));
+		assertFalse(empty.contains(0, 0));
+		assertEquals(new Rectangle(), empty.getBounds());
+
+		PreparedPolygon line = new PreparedPolygon(new Polygon(0, 0, 10, 10));
+		assertTrue(line.contains(5, 5));
+		assertFalse(line.contains(5, 6));
+	}
+
+	@Test
+	public void test_PreparedRing_contains() {
+		Random random = new Random(SEED);
+		Ring ring = new Ring(createStar(random, 20, 0, 0),
+				createStar(random, 20, 150, 30));
+		PreparedRing prepared = new PreparedRing(ring);
+		for (int i = 0; i < 5000; i++) {
+			Point p = new Point(random.nextDouble() * 400 - 150,
+					random.nextDouble() * 300 - 150);
+			assertEquals(ring.contains(p), prepared.contains(p));
+		}
+		assertFalse(new PreparedRing(new Ring()).contains(0, 0));
+	}
+
+}
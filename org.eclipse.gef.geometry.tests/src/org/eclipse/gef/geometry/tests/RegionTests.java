@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 itemis AG and others.
+ * Copyright (c) 2012, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 import org.eclipse.gef.geometry.planar.Path;
 import org.eclipse.gef.geometry.planar.Path.Segment;
@@ -26,6 +28,56 @@ import org.junit.Test;
 
 public class RegionTests {
 
+	private static boolean contains(Rectangle[] rects, Point p) {
+		for (Rectangle r : rects) {
+			if (r.contains(p)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Rectangle[] createRectangles(Random random, int count) {
+		Rectangle[] rects = new Rectangle[count];
+		for (int i = 0; i < count; i++) {
+			rects[i] = new Rectangle(random.nextInt(40), random.nextInt(40),
+					1 + random.nextInt(10), 1 + random.nextInt(10));
+		}
+		return rects;
+	}
+
+	@Test
+	public void test_boolean_operations() {
+		Random random = new Random(4711L);
+		for (int n = 0; n < 20; n++) {
+			Rectangle[] a = createRectangles(random, 10);
+			Rectangle[] b = createRectangles(random, 10);
+			Region union = new Region(a).add(new Region(b));
+			Region intersection = new Region(a).intersect(new Region(b));
+			Region difference = new Region(a).subtract(new Region(b));
+			// sample the centers of the unit squares, which do not lie on
+			// any outline
+			for (double x = -0.5; x < 52; x++) {
+				for (double y = -0.5; y < 52; y++) {
+					Point p = new Point(x, y);
+					boolean inA = contains(a, p);
+					boolean inB = contains(b, p);
+					assertEquals(inA || inB, union.contains(p));
+					assertEquals(inA && inB, intersection.contains(p));
+					assertEquals(inA && !inB, difference.contains(p));
+				}
+			}
+			// the internal rectangles do not share any area
+			Rectangle[] shapes = union.getShapes();
+			for (int i = 0; i < shapes.length; i++) {
+				for (int j = i + 1; j < shapes.length; j++) {
+					assertTrue(shapes[i].getIntersected(shapes[j]).isEmpty());
+				}
+			}
+			assertEquals(union, new Region(b).add(new Region(a)));
+		}
+	}
+
 	@Test
 	public void test_constructor() {
 		Region region = new Region();
@@ -38,6 +90,27 @@ public class RegionTests {
 		assertEquals(1, region.getShapes().length);
 	}
 
+	@Test
+	public void test_contains_Point() {
+		// touching rectangles are coalesced
+		assertEquals(1, new Region(new Rectangle(0, 0, 10, 10),
+				new Rectangle(10, 0, 10, 10)).getShapes().length);
+
+		Region region = new Region(new Rectangle(0, 0, 10, 10),
+				new Rectangle(10, 0, 10, 10), new Rectangle(30, 5, 10, 10));
+		assertTrue(region.contains(new Point(10, 5)));
+		assertTrue(region.contains(new Point(20, 10)));
+		assertTrue(region.contains(new Point(35, 15)));
+		assertFalse(region.contains(new Point(25, 5)));
+		assertFalse(region.contains(new Point(35, 4)));
+
+		region.subtract(new Rectangle(5, 5, 30, 2));
+		assertFalse(region.contains(new Point(20, 6)));
+		assertTrue(region.contains(new Point(20, 5)));
+		assertTrue(region.contains(new Point(36, 6)));
+		assertFalse(new Region().contains(new Point()));
+	}
+
 	@Test
 	public void test_copy_semantics() {
 		Rectangle r1 = new Rectangle(0, 0, 100, 100);
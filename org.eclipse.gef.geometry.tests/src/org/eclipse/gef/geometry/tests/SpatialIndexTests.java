@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.index.ISpatialIndex;
+import org.eclipse.gef.geometry.planar.index.LooseQuadtree;
+import org.eclipse.gef.geometry.planar.index.RStarTree;
+import org.junit.Test;
+
+public class SpatialIndexTests {
+
+	private static final long SEED = 4711L;
+
+	private static void assertQueries(ISpatialIndex<Rectangle> index,
+			List<Rectangle> rectangles, Random random) {
+		assertEquals(rectangles.size(), index.size());
+		for (int i = 0; i < 20; i++) {
+			Rectangle window = createRectangle(random, 200);
+			List<Rectangle> expected = new ArrayList<>();
+			for (Rectangle r : rectangles) {
+				if (r.getX() <= window.getRight().x
+						&& window.getX() <= r.getRight().x
+						&& r.getY() <= window.getBottom().y
+						&& window.getY() <= r.getBottom().y) {
+					expected.add(r);
+				}
+			}
+			assertSameElements(expected, index.query(window));
+
+			Point point = new Point(random.nextDouble() * 1200 - 100,
+					random.nextDouble() * 1200 - 100);
+			expected.clear();
+			for (Rectangle r : rectangles) {
+				if (r.getX() <= point.x && point.x <= r.getRight().x
+						&& r.getY() <= point.y
+						&& point.y <= r.getBottom().y) {
+					expected.add(r);
+				}
+			}
+			assertSameElements(expected, index.query(point));
+
+			// the distances of the nearest neighbors have to match
+			List<Rectangle> nearest = index.getNearest(point, 5);
+			List<Double> distances = new ArrayList<>();
+			for (Rectangle r : rectangles) {
+				distances.add(getDistance(r, point));
+			}
+			Collections.sort(distances);
+			assertEquals(Math.min(5, rectangles.size()), nearest.size());
+			for (int j = 0; j < nearest.size(); j++) {
+				assertEquals(distances.get(j),
+						getDistance(nearest.get(j), point), 0);
+			}
+		}
+	}
+
+	private static void assertSameElements(List<Rectangle> expected,
+			List<Rectangle> actual) {
+		assertEquals(expected.size(), actual.size());
+		Map<Rectangle, Boolean> identities = new IdentityHashMap<>();
+		for (Rectangle r : actual) {
+			identities.put(r, Boolean.TRUE);
+		}
+		for (Rectangle r : expected) {
+			assertTrue(identities.containsKey(r));
+		}
+	}
+
+	private static Rectangle createRectangle(Random random, double maxSize) {
+		return new Rectangle(random.nextDouble() * 1000,
+				random.nextDouble() * 1000, random.nextDouble() * maxSize,
+				random.nextDouble() * maxSize);
+	}
+
+	private static double getDistance(Rectangle r, Point p) {
+		double dx = Math.max(0, Math.max(r.getX() - p.x, p.x - r.getRight().x));
+		double dy = Math.max(0,
+				Math.max(r.getY() - p.y, p.y - r.getBottom().y));
+		return dx * dx + dy * dy;
+	}
+
+	private void test(ISpatialIndex<Rectangle> index) {
+		Random random = new Random(SEED);
+		List<Rectangle> rectangles = new ArrayList<>();
+		assertTrue(index.isEmpty());
+		assertTrue(index.query(new Rectangle(0, 0, 1000, 1000)).isEmpty());
+		assertTrue(index.getNearest(new Point(), 3).isEmpty());
+
+		// single insertions
+		for (int i = 0; i < 500; i++) {
+			Rectangle r = createRectangle(random, i % 10 == 0 ? 300 : 20);
+			assertTrue(index.insert(r));
+			rectangles.add(r);
+		}
+		assertFalse(index.insert(rectangles.get(0)));
+		// equal but not identical geometries are indexed independently
+		Rectangle copy = rectangles.get(0).getCopy();
+		assertFalse(index.contains(copy));
+		assertTrue(index.insert(copy));
+		rectangles.add(copy);
+		assertQueries(index, rectangles, random);
+
+		// updates of moved and resized geometries
+		for (int i = 0; i < 300; i++) {
+			Rectangle r = rectangles.get(random.nextInt(rectangles.size()));
+			if (i % 2 == 0) {
+				r.translate(random.nextDouble() * 20 - 10,
+						random.nextDouble() * 20 - 10);
+			} else {
+				r.setBounds(createRectangle(random, 50));
+			}
+			assertTrue(index.update(r));
+		}
+		assertFalse(index.update(new Rectangle()));
+		assertQueries(index, rectangles, random);
+
+		// removals
+		for (int i = 0; i < 400; i++) {
+			Rectangle r = rectangles
+					.remove(random.nextInt(rectangles.size()));
+			assertTrue(index.remove(r));
+			assertFalse(index.contains(r));
+		}
+		assertFalse(index.remove(new Rectangle()));
+		assertQueries(index, rectangles, random);
+
+		// bulk load of new and contained geometries
+		List<Rectangle> bulk = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			bulk.add(createRectangle(random, 30));
+		}
+		bulk.add(rectangles.get(0));
+		rectangles.get(0).translate(500, 500);
+		rectangles.addAll(bulk.subList(0, 1000));
+		index.bulkLoad(bulk);
+		assertQueries(index, rectangles, random);
+
+		// geometries far outside of the previous bounds
+		Rectangle far = new Rectangle(-100000, 50000, 10, 10);
+		index.insert(far);
+		rectangles.add(far);
+		assertQueries(index, rectangles, random);
+		assertEquals(far,
+				index.getNearest(new Point(-100000, 50000), 1).get(0));
+
+		index.clear();
+		assertTrue(index.isEmpty());
+		assertEquals(0, index.size());
+		assertTrue(index.query(new Rectangle(0, 0, 1000, 1000)).isEmpty());
+	}
+
+	@Test
+	public void test_LooseQuadtree() {
+		test(new LooseQuadtree<Rectangle>());
+		test(new LooseQuadtree<Rectangle>(2, 4));
+	}
+
+	@Test
+	public void test_LooseQuadtree_nonFiniteBounds() {
+		LooseQuadtree<Rectangle> index = new LooseQuadtree<>();
+		Rectangle finite = new Rectangle(0, 0, 10, 10);
+		index.insert(finite);
+		Rectangle[] invalid = { new Rectangle(Double.NaN, 0, 10, 10),
+				new Rectangle(0, Double.POSITIVE_INFINITY, 10, 10),
+				new Rectangle(0, 0, Double.POSITIVE_INFINITY, 10) };
+		for (Rectangle r : invalid) {
+			try {
+				index.insert(r);
+				fail("Non-finite bounds may not be inserted.");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		finite.setX(Double.NEGATIVE_INFINITY);
+		try {
+			index.update(finite);
+			fail("Non-finite bounds may not be updated.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// the index is not changed
+		finite.setX(0);
+		assertEquals(1, index.size());
+		assertEquals(Collections.singletonList(finite),
+				index.query(new Point(5, 5)));
+	}
+
+	@Test
+	public void test_RStarTree() {
+		test(new RStarTree<Rectangle>());
+		RStarTree<Rectangle> tree = new RStarTree<>(4);
+		test(tree);
+		// bulk loading into an empty tree yields a balanced tree
+		List<Rectangle> rectangles = new ArrayList<>();
+		for (int i = 0; i < 1024; i++) {
+			rectangles.add(new Rectangle(i % 32, i / 32, 1, 1));
+		}
+		tree.bulkLoad(rectangles);
+		assertEquals(5, tree.getHeight());
+		assertEquals(1024, tree.size());
+	}
+
+}
@@ -15,8 +15,6 @@ package org.eclipse.gef.geometry.planar;
 
 import java.awt.geom.NoninvertibleTransformException;
 
-import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
-import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.euclidean.Vector;
 
@@ -40,6 +38,9 @@ public class AffineTransform implements Cloneable {
 
 	private java.awt.geom.AffineTransform delegate = new java.awt.geom.AffineTransform();
 
+	// cached inverse of the delegate, reset whenever the delegate is changed
+	private java.awt.geom.AffineTransform inverse;
+
 	/**
 	 * Creates a new {@link AffineTransform} with its transformation matrix set
 	 * to the identity matrix.
@@ -115,6 +116,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform concatenate(AffineTransform Tx) {
 		delegate.concatenate(Tx.delegate);
+		inverse = null;
 		return this;
 	}
 
@@ -153,8 +155,9 @@ public class AffineTransform implements Cloneable {
 	 * @return a new, transformed {@link Point}
 	 */
 	public Point deltaTransform(Point pt) {
-		return AWT2Geometry.toPoint(
-				delegate.deltaTransform(Geometry2AWT.toAWTPoint(pt), null));
+		return new Point(
+				delegate.getScaleX() * pt.x + delegate.getShearX() * pt.y,
+				delegate.getShearY() * pt.x + delegate.getScaleY() * pt.y);
 	}
 
 	@Override
@@ -194,12 +197,21 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform getInverse() {
 		try {
-			return new AffineTransform(delegate.createInverse());
+			return new AffineTransform(
+					new java.awt.geom.AffineTransform(getInverseDelegate()));
 		} catch (NoninvertibleTransformException e) {
 			throw new IllegalArgumentException(e);
 		}
 	}
 
+	private java.awt.geom.AffineTransform getInverseDelegate()
+			throws NoninvertibleTransformException {
+		if (inverse == null) {
+			inverse = delegate.createInverse();
+		}
+		return inverse;
+	}
+
 	/**
 	 * Returns the matrix component in the first row and first column.
 	 *
@@ -281,6 +293,24 @@ public class AffineTransform implements Cloneable {
 		return Math.sqrt(getM01() * getM01() + getM11() * getM11());
 	}
 
+	/**
+	 * Transforms the given array of {@link Point}s, specified by their
+	 * coordinate values (in x, y order), with this {@link AffineTransform}.
+	 *
+	 * @param coordinates
+	 *            the array of x and y coordinates specifying the {@link Point}s
+	 *            to transform
+	 * @return a new array containing the x and y coordinates of the
+	 *         transformed {@link Point}s
+	 * @see #transform(double[], int, double[], int, int)
+	 */
+	public double[] getTransformed(double[] coordinates) {
+		double[] transformed = new double[coordinates.length];
+		delegate.transform(coordinates, 0, transformed, 0,
+				coordinates.length / 2);
+		return transformed;
+	}
+
 	/**
 	 * Transforms the given {@link Point} with this {@link AffineTransform} by
 	 * multiplying the transformation matrix of this {@link AffineTransform}
@@ -291,8 +321,7 @@ public class AffineTransform implements Cloneable {
 	 * @return a new, transformed {@link Point}
 	 */
 	public Point getTransformed(Point ptSrc) {
-		return AWT2Geometry.toPoint(
-				delegate.transform(Geometry2AWT.toAWTPoint(ptSrc), null));
+		return transform(delegate, ptSrc.x, ptSrc.y);
 	}
 
 	/**
@@ -306,12 +335,17 @@ public class AffineTransform implements Cloneable {
 	 * @return an array of new, transformed {@link Point}s
 	 */
 	public Point[] getTransformed(Point[] points) {
-		Point[] result = new Point[points.length];
-
+		double[] coordinates = new double[2 * points.length];
 		for (int i = 0; i < points.length; i++) {
-			result[i] = getTransformed(points[i]);
+			coordinates[2 * i] = points[i].x;
+			coordinates[2 * i + 1] = points[i].y;
 		}
+		delegate.transform(coordinates, 0, coordinates, 0, points.length);
 
+		Point[] result = new Point[points.length];
+		for (int i = 0; i < points.length; i++) {
+			result[i] = new Point(coordinates[2 * i], coordinates[2 * i + 1]);
+		}
 		return result;
 	}
 
@@ -357,7 +391,9 @@ public class AffineTransform implements Cloneable {
 
 	/**
 	 * Inverse transforms an array of {@link Point}s specified by their
-	 * coordinate values with this {@link AffineTransform}.
+	 * coordinate values with this {@link AffineTransform}. The inverse
+	 * transformation matrix is cached until this {@link AffineTransform} is
+	 * changed.
 	 *
 	 * @param srcPts
 	 *            the array of x and y coordinates specifying the {@link Point}s
@@ -378,7 +414,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public void inverseTransform(double[] srcPts, int srcOff, double[] dstPts,
 			int dstOff, int numPts) throws NoninvertibleTransformException {
-		delegate.inverseTransform(srcPts, srcOff, dstPts, dstOff, numPts);
+		getInverseDelegate().transform(srcPts, srcOff, dstPts, dstOff, numPts);
 	}
 
 	/**
@@ -393,8 +429,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public Point inverseTransform(Point pt)
 			throws NoninvertibleTransformException {
-		return AWT2Geometry.toPoint(
-				delegate.inverseTransform(Geometry2AWT.toAWTPoint(pt), null));
+		return transform(getInverseDelegate(), pt.x, pt.y);
 	}
 
 	/**
@@ -406,6 +441,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform invert() throws NoninvertibleTransformException {
 		delegate.invert();
+		inverse = null;
 		return this;
 	}
 
@@ -434,6 +470,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform preConcatenate(AffineTransform Tx) {
 		delegate.preConcatenate(Tx.delegate);
+		inverse = null;
 		return this;
 	}
 
@@ -448,6 +485,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform quadrantRotate(int numquadrants) {
 		delegate.quadrantRotate(numquadrants);
+		inverse = null;
 		return this;
 	}
 
@@ -467,6 +505,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform quadrantRotate(int numquadrants, double anchorx,
 			double anchory) {
 		delegate.quadrantRotate(numquadrants, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -480,6 +519,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform rotate(double theta) {
 		delegate.rotate(theta);
+		inverse = null;
 		return this;
 	}
 
@@ -498,6 +538,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform rotate(double vecx, double vecy) {
 		delegate.rotate(vecx, vecy);
+		inverse = null;
 		return this;
 	}
 
@@ -517,6 +558,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform rotate(double theta, double anchorx,
 			double anchory) {
 		delegate.rotate(theta, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -544,6 +586,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform rotate(double vecx, double vecy, double anchorx,
 			double anchory) {
 		delegate.rotate(vecx, vecy, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -561,6 +604,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform scale(double sx, double sy) {
 		delegate.scale(sx, sy);
+		inverse = null;
 		return this;
 	}
 
@@ -572,6 +616,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToIdentity() {
 		delegate.setToIdentity();
+		inverse = null;
 		return this;
 	}
 
@@ -585,6 +630,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToQuadrantRotation(int numquadrants) {
 		delegate.setToQuadrantRotation(numquadrants);
+		inverse = null;
 		return this;
 	}
 
@@ -605,6 +651,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform setToQuadrantRotation(int numquadrants,
 			double anchorx, double anchory) {
 		delegate.setToQuadrantRotation(numquadrants, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -618,6 +665,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToRotation(double theta) {
 		delegate.setToRotation(theta);
+		inverse = null;
 		return this;
 	}
 
@@ -636,6 +684,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToRotation(double vecx, double vecy) {
 		delegate.setToRotation(vecx, vecy);
+		inverse = null;
 		return this;
 	}
 
@@ -656,6 +705,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform setToRotation(double theta, double anchorx,
 			double anchory) {
 		delegate.setToRotation(theta, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -681,6 +731,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform setToRotation(double vecx, double vecy,
 			double anchorx, double anchory) {
 		delegate.setToRotation(vecx, vecy, anchorx, anchory);
+		inverse = null;
 		return this;
 	}
 
@@ -696,6 +747,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToScale(double sx, double sy) {
 		delegate.setToScale(sx, sy);
+		inverse = null;
 		return this;
 	}
 
@@ -711,6 +763,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToShear(double shx, double shy) {
 		delegate.setToShear(shx, shy);
+		inverse = null;
 		return this;
 	}
 
@@ -727,6 +780,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setToTranslation(double tx, double ty) {
 		delegate.setToTranslation(tx, ty);
+		inverse = null;
 		return this;
 	}
 
@@ -741,6 +795,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform setTransform(AffineTransform Tx) {
 		delegate.setTransform(Tx.delegate);
+		inverse = null;
 		return this;
 	}
 
@@ -772,6 +827,7 @@ public class AffineTransform implements Cloneable {
 	public AffineTransform setTransform(double m00, double m10, double m01,
 			double m11, double m02, double m12) {
 		delegate.setTransform(m00, m10, m01, m11, m02, m12);
+		inverse = null;
 		return this;
 	}
 
@@ -789,6 +845,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform shear(double shx, double shy) {
 		delegate.shear(shx, shy);
+		inverse = null;
 		return this;
 	}
 
@@ -797,6 +854,39 @@ public class AffineTransform implements Cloneable {
 		return delegate.toString();
 	}
 
+	/**
+	 * Transforms an array of {@link Point}s specified by their coordinate
+	 * values with this {@link AffineTransform}. The source and destination
+	 * arrays may be identical, so that the coordinates are transformed in
+	 * place.
+	 *
+	 * @param srcPts
+	 *            the array of x and y coordinates specifying the {@link Point}s
+	 *            that are transformed
+	 * @param srcOff
+	 *            the index of the <i>srcPts</i> array where the x coordinate of
+	 *            the first {@link Point} to transform is found
+	 * @param dstPts
+	 *            the destination array of x and y coordinates for the result of
+	 *            the transformation
+	 * @param dstOff
+	 *            the index of the <i>dstPts</i> array where the x coordinate of
+	 *            the first transformed {@link Point} is stored
+	 * @param numPts
+	 *            the number of {@link Point}s to transform
+	 */
+	public void transform(double[] srcPts, int srcOff, double[] dstPts,
+			int dstOff, int numPts) {
+		delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+	}
+
+	private static Point transform(java.awt.geom.AffineTransform m, double x,
+			double y) {
+		return new Point(
+				m.getScaleX() * x + m.getShearX() * y + m.getTranslateX(),
+				m.getShearY() * x + m.getScaleY() * y + m.getTranslateY());
+	}
+
 	/**
 	 * Sets the translation values of the x and y coordinates of the
 	 * transformation matrix of this {@link AffineTransform}.
@@ -809,6 +899,7 @@ public class AffineTransform implements Cloneable {
 	 */
 	public AffineTransform translate(double tx, double ty) {
 		delegate.translate(tx, ty);
+		inverse = null;
 		return this;
 	}
 
@@ -654,10 +654,113 @@ public class BezierCurve extends AbstractGeometry
 		}
 	}
 
+	/**
+	 * Per-thread scratch buffers, which are reused by the Bezier clipping
+	 * routines, so that intersecting two {@link BezierCurve}s does not allocate
+	 * sub-curves, fat lines, or parameter intervals for every clipping step.
+	 * The clipped control points are stored as homogeneous coordinates (three
+	 * consecutive values per control point) and are computed using the same
+	 * arithmetic as {@link BezierCurve#getClipped(double, double)}, so that
+	 * the results are identical to those of the object-based computation.
+	 */
+	private static final class ClippingBuffers {
+
+		/**
+		 * Ensures that the given array can hold at least the given number of
+		 * values.
+		 *
+		 * @param array
+		 *            The array to check.
+		 * @param length
+		 *            The required minimum length.
+		 * @return The given array, or a larger copy of it.
+		 */
+		private static double[] ensureCapacity(double[] array, int length) {
+			if (array.length >= length) {
+				return array;
+			}
+			return Arrays.copyOf(array, Math.max(length, 2 * array.length));
+		}
+
+		/**
+		 * The control points of the clipped first curve.
+		 */
+		double[] p = new double[12];
+
+		/**
+		 * The control points of the clipped second curve.
+		 */
+		double[] q = new double[12];
+
+		/**
+		 * The control points of the sub-curve examined by
+		 * {@link BezierCurve#containmentParameter(BezierCurve, double[], Point)}
+		 * .
+		 */
+		double[] c = new double[12];
+
+		/**
+		 * The number of control points of the clipped first and second curve.
+		 */
+		int pCount, qCount;
+
+		/**
+		 * The control bounds (x, y, width, height) of the clipped curves.
+		 */
+		final double[] bounds = new double[8];
+
+		/**
+		 * The signed distances of the control points of the clipped first
+		 * curve to a {@link FatLine}.
+		 */
+		double[] distances = new double[4];
+
+		/**
+		 * The homogeneous coordinates of two points on a curve.
+		 */
+		final double[] hc = new double[6];
+
+		/**
+		 * The parameter interval resulting from the clipping to the
+		 * "parallel" fat line.
+		 */
+		final double[] interval = new double[2];
+
+		/**
+		 * The parameter interval resulting from the clipping to the
+		 * "orthogonal" fat line.
+		 */
+		final double[] intervalOrtho = new double[2];
+
+		/**
+		 * The stack of parameter intervals (two values per entry) used by
+		 * {@link BezierCurve#containmentParameter(BezierCurve, double[], Point)}
+		 * .
+		 */
+		double[] intervalStack = new double[64];
+
+		/**
+		 * The stack of interval pairs (five values per entry) used by
+		 * {@link BezierCurve#findSinglePreciseIntersection(IntervalPair)}.
+		 */
+		double[] intervalPairStack = new double[80];
+
+		/**
+		 * The "parallel" fat line.
+		 */
+		final FatLine parallel = new FatLine();
+
+		/**
+		 * The "orthogonal" fat line.
+		 */
+		final FatLine orthogonal = new FatLine();
+
+	}
+
 	/**
 	 * <p>
-	 * A {@link FatLine} combines a {@link Straight3D} with a positive and
-	 * negative distance called dmax and dmin, respectively.
+	 * A {@link FatLine} combines a line with a positive and negative distance
+	 * called dmax and dmin, respectively.
 	 * </p>
 	 * <p>
 	 * It is used to apply a geometric clipping algorithm for finding
@@ -665,45 +768,197 @@ public class BezierCurve extends AbstractGeometry
 	 * {@link BezierCurve}s is bounded by a {@link FatLine} so that the other
 	 * {@link BezierCurve} can be clipped against that {@link FatLine}.
 	 * </p>
+	 * <p>
+	 * The line is stored by its homogeneous coordinates, so that a
+	 * {@link FatLine} can be reused (see {@link ClippingBuffers}).
+	 * </p>
 	 */
-	private static class FatLine {
+	private static final class FatLine {
 
-		public static FatLine from(BezierCurve c, boolean ortho) {
-			FatLine L = new FatLine();
-			L.dmin = L.dmax = 0;
+		/**
+		 * Computes the intersection of the line from (px, py) to (qx, qy) with
+		 * the x-axis-parallel line f(x) = y.
+		 *
+		 * There is always an intersection, because this routine is only called
+		 * when either the lower or the higher fat line bound is crossed.
+		 *
+		 * The following conditions are fulfilled: (px!=qx) and (py!=qy) and
+		 * (py<y<qy) or (py>y>qy).
+		 *
+		 * From these values, one can build a function g(x) = m*x + b where
+		 * m=(qy-py)/(qx-px) and b=py-m*px.
+		 *
+		 * The point of intersection is given by f(x) = g(x). The x-coordinate
+		 * of this point is x = (y - b) / m.
+		 *
+		 * @param px
+		 *            The x coordinate of the start point of the line
+		 * @param py
+		 *            The y coordinate of the start point of the line
+		 * @param qx
+		 *            The x coordinate of the end point of the line
+		 * @param qy
+		 *            The y coordinate of the end point of the line
+		 * @param y
+		 *            The x-axis-parallel line f(x) = y
+		 * @return the x coordinate of the intersection point.
+		 */
+		private static double intersectXAxisParallel(double px, double py,
+				double qx, double qy, double y) {
+			double m = (qy - py) / (qx - px);
+			return (y - py + m * px) / m;
+		}
 
-			L.line = Straight3D.through(c.points[0],
-					c.points[c.points.length - 1]);
-			if (L.line == null) {
-				return null;
+		private double lineX, lineY, lineZ, f;
+
+		public double dmin, dmax;
+
+		/**
+		 * <p>
+		 * Firstly, the difference of the given control points to this
+		 * {@link FatLine} is computed. These are the control points of another
+		 * {@link BezierCurve}, which yields the signed distance of each
+		 * {@link Point} on the clipped curve to the line, and which are
+		 * further examined.
+		 * </p>
+		 * <p>
+		 * Every difference control {@link Point} is checked if it is inside
+		 * this {@link FatLine}. Difference control {@link Point}s within the
+		 * {@link FatLine} represent portions of the curve which cannot be
+		 * clipped. Therefore, the interval recording the parameter range of
+		 * the curve is appropriately modified for these difference control
+		 * {@link Point}s.
+		 * </p>
+		 * <p>
+		 * Subsequently, the {@link Line}s connecting the start/end
+		 * {@link Point} of the difference curve and its other control
+		 * {@link Point}s are intersected with the {@link FatLine}'s border
+		 * lines. The outermost intersections identify parameter ranges that
+		 * can be clipped away from the curve. Therefore, the interval
+		 * recording the parameter range of the curve is appropriately modified
+		 * for these intersections.
+		 * </p>
+		 * <p>
+		 * The starting interval is chosen to be invalid. The individual checks
+		 * move the lower and upper limits past to one another. If everything
+		 * can be clipped, the resulting interval remains invalid. If the
+		 * resulting interval <code>I = [a;b]</code> is valid (
+		 * <code>a <= b</code>), then the portions <code>[0;a]</code> and
+		 * <code>[b;1]</code> of the curve can be clipped away.
+		 * </p>
+		 *
+		 * @param c
+		 *            The homogeneous coordinates of the control points of the
+		 *            curve to clip.
+		 * @param n
+		 *            The number of control points.
+		 * @param buffers
+		 *            The {@link ClippingBuffers} to use.
+		 * @param interval
+		 *            The array in which the new parameter interval of the curve
+		 *            is stored.
+		 */
+		public void clip(double[] c, int n, ClippingBuffers buffers,
+				double[] interval) {
+			interval[0] = 1;
+			interval[1] = 0;
+
+			buffers.distances = ClippingBuffers
+					.ensureCapacity(buffers.distances, n);
+			double[] d = buffers.distances;
+			for (int i = 0; i < n; i++) {
+				d[i] = getSignedDistanceCW(c, i);
 			}
 
-			if (ortho) {
-				L.line = L.line.getOrtho();
+			// inside fat line check
+			for (int i = 0; i < n; i++) {
+				if (Double.isNaN(d[i]) || dmin <= d[i] && d[i] <= dmax) {
+					moveInterval(interval, (double) i / (double) (n - 1));
+				}
 			}
-			if (L.line == null) {
-				return null;
+
+			// intersections from start
+			for (int i = 1; i < n; i++) {
+				double x = (double) i / (double) (n - 1);
+				if (d[0] < dmin != d[i] < dmin) {
+					moveInterval(interval,
+							intersectXAxisParallel(0, d[0], x, d[i], dmin));
+				}
+				if (d[0] < dmax != d[i] < dmax) {
+					moveInterval(interval,
+							intersectXAxisParallel(0, d[0], x, d[i], dmax));
+				}
 			}
 
-			for (int i = 0; i < c.points.length; i++) {
-				double d = L.line.getSignedDistanceCW(c.points[i]);
-				if (d < L.dmin) {
-					L.dmin = d;
-				} else if (d > L.dmax) {
-					L.dmax = d;
+			// intersections from end
+			for (int i = 0; i < n - 1; i++) {
+				double x = (double) i / (double) (n - 1);
+				if (d[i] < dmin != d[n - 1] < dmin) {
+					moveInterval(interval,
+							intersectXAxisParallel(x, d[i], 1, d[n - 1], dmin));
+				}
+				if (d[i] < dmax != d[n - 1] < dmax) {
+					moveInterval(interval,
+							intersectXAxisParallel(x, d[i], 1, d[n - 1], dmax));
 				}
 			}
+		}
 
-			return L;
+		private double getSignedDistanceCW(double[] c, int i) {
+			double px = c[3 * i] / c[3 * i + 2];
+			double py = c[3 * i + 1] / c[3 * i + 2];
+			return (lineX * px + lineY * py + lineZ) / f;
 		}
 
-		public Straight3D line;
+		/**
+		 * Sets this {@link FatLine} to bound the given control points. The line
+		 * runs through the start and end point of the curve, or orthogonal to
+		 * that through the start point.
+		 *
+		 * @param c
+		 *            The homogeneous coordinates of the control points.
+		 * @param n
+		 *            The number of control points.
+		 * @param ortho
+		 *            <code>true</code> if the line is to be orthogonal to the
+		 *            line through the start and end point, otherwise
+		 *            <code>false</code>.
+		 * @return <code>false</code> if the line is undefined, because the
+		 *         curve is degenerated, otherwise <code>true</code>
+		 */
+		public boolean set(double[] c, int n, boolean ortho) {
+			dmin = dmax = 0;
 
-		public double dmin, dmax;
+			int e = 3 * (n - 1);
+			if (!setLine(c[0], c[1], c[2], c[e], c[e + 1], c[e + 2])) {
+				return false;
+			}
 
-		private FatLine() {
-			line = null;
-			dmin = dmax = 0;
+			if (ortho && !setLine(c[0], c[1], c[2], c[0] + lineX,
+					c[1] + lineY, c[2])) {
+				return false;
+			}
+
+			for (int i = 0; i < n; i++) {
+				double d = getSignedDistanceCW(c, i);
+				if (d < dmin) {
+					dmin = d;
+				} else if (d > dmax) {
+					dmax = d;
+				}
+			}
+
+			return true;
+		}
+
+		// see Straight3D#through(Vector3D, Vector3D)
+		private boolean setLine(double sx, double sy, double sz, double ex,
+				double ey, double ez) {
+			lineX = sy * ez - sz * ey;
+			lineY = sz * ex - sx * ez;
+			lineZ = sx * ey - sy * ex;
+			f = Math.sqrt(lineX * lineX + lineY * lineY);
+			return f != 0d;
 		}
 
 	}
@@ -1618,6 +1873,13 @@ public class BezierCurve extends AbstractGeometry
 	private static final double UNRECOGNIZABLE_PRECISION_FRACTION = PrecisionUtils
 			.calculateFraction(0) / 10;
 
+	private static final ThreadLocal<ClippingBuffers> CLIPPING_BUFFERS = new ThreadLocal<ClippingBuffers>() {
+		@Override
+		protected ClippingBuffers initialValue() {
+			return new ClippingBuffers();
+		}
+	};
+
 	/**
 	 * A criteria {@link BiFunction} to find the {@link Point} with the minimal
 	 * x coordinate in a list of {@link Point}s.
@@ -1666,6 +1928,111 @@ public class BezierCurve extends AbstractGeometry
 		return PrecisionUtils.greaterEqual(p.y, q.y);
 	};
 
+	/**
+	 * Stores the homogeneous coordinates of the control points of the given
+	 * {@link BezierCurve} over the parameter {@link Interval}
+	 * <code>[s;e]</code> in the given array. The same arithmetic as in
+	 * {@link #getClipped(double, double)} is used, i.e. the curve is
+	 * subdivided at <i>s</i> and the right part is subdivided at
+	 * <code>(e - s) / (1 - s)</code>, so that the results are identical.
+	 *
+	 * @param c
+	 *            The {@link BezierCurve} to clip.
+	 * @param s
+	 *            The lower limit of the parameter {@link Interval}.
+	 * @param e
+	 *            The upper limit of the parameter {@link Interval}.
+	 * @param dst
+	 *            The array in which the control points are stored.
+	 * @return The number of control points that are stored.
+	 */
+	private static int clip(BezierCurve c, double s, double e, double[] dst) {
+		Vector3D[] points = c.points;
+		int n = points.length;
+		if (s == 1) {
+			dst[0] = points[n - 1].x;
+			dst[1] = points[n - 1].y;
+			dst[2] = points[n - 1].z;
+			return 1;
+		}
+
+		for (int i = 0; i < n; i++) {
+			dst[3 * i] = points[i].x;
+			dst[3 * i + 1] = points[i].y;
+			dst[3 * i + 2] = points[i].z;
+		}
+
+		// right part of the subdivision at s
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < 3 * (n - i - 1); j++) {
+				dst[j] = dst[j] + (dst[j + 3] - dst[j]) * s;
+			}
+		}
+
+		// left part of the subdivision at (e - s) / (1 - s)
+		double t = (e - s) / (1 - s);
+		for (int i = 1; i < n; i++) {
+			for (int j = 3 * n - 1; j >= 3 * i; j--) {
+				dst[j] = dst[j - 3] + (dst[j] - dst[j - 3]) * t;
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * Stores the control points of the given {@link BezierCurve}s over the
+	 * respective parameter intervals in the given {@link ClippingBuffers}.
+	 *
+	 * @see IntervalPair#getPClipped()
+	 * @see IntervalPair#getQClipped()
+	 */
+	private static void clip(BezierCurve p, double pa, double pb,
+			BezierCurve q, double qa, double qb, ClippingBuffers buffers) {
+		buffers.p = ClippingBuffers.ensureCapacity(buffers.p,
+				3 * p.points.length);
+		buffers.q = ClippingBuffers.ensureCapacity(buffers.q,
+				3 * q.points.length);
+		buffers.pCount = clip(p, Math.max(pa, 0), Math.min(pb, 1), buffers.p);
+		buffers.qCount = clip(q, Math.max(qa, 0), Math.min(qb, 1), buffers.q);
+	}
+
+	/**
+	 * Clips the first curve, which is stored in the given
+	 * {@link ClippingBuffers}, to the "parallel" and the "orthogonal"
+	 * {@link FatLine} of the second curve. The smaller one of the resulting
+	 * relative parameter intervals is stored in
+	 * {@link ClippingBuffers#interval}.
+	 *
+	 * @param buffers
+	 *            The {@link ClippingBuffers} that store the clipped curves.
+	 * @return <code>false</code> if the second curve is degenerated, so that
+	 *         no {@link FatLine} can be constructed, otherwise
+	 *         <code>true</code>
+	 */
+	private static boolean clipToFatLines(ClippingBuffers buffers) {
+		// construct "parallel" and "orthogonal" fat lines
+		if (!buffers.parallel.set(buffers.q, buffers.qCount, PARALLEL)
+				|| !buffers.orthogonal.set(buffers.q, buffers.qCount,
+						ORTHOGONAL)) {
+			return false;
+		}
+
+		// clip to the fat lines
+		double[] interval = buffers.interval;
+		double[] intervalOrtho = buffers.intervalOrtho;
+		buffers.parallel.clip(buffers.p, buffers.pCount, buffers, interval);
+		buffers.orthogonal.clip(buffers.p, buffers.pCount, buffers,
+				intervalOrtho);
+
+		// pick smaller interval range
+		if (interval[1] - interval[0] > intervalOrtho[1] - intervalOrtho[0]) {
+			interval[0] = intervalOrtho[0];
+			interval[1] = intervalOrtho[1];
+		}
+		return true;
+	}
+
 	/**
 	 * <p>
 	 * Clusters consecutive {@link IntervalPair}s into a new array of
@@ -1685,11 +2052,9 @@ public class BezierCurve extends AbstractGeometry
 	 */
 	private static IntervalPair[] clusterChunks(IntervalPair[] intervalPairs,
 			int shift) {
-		ArrayList<IntervalPair> ips = new ArrayList<>();
+		IntervalPair[] ips = intervalPairs.clone();
 
-		ips.addAll(Arrays.asList(intervalPairs));
-
-		Collections.sort(ips, new Comparator<IntervalPair>() {
+		Arrays.sort(ips, new Comparator<IntervalPair>() {
 			@Override
 			public int compare(IntervalPair i, IntervalPair j) {
 				if (i.pi.a < j.pi.a) {
@@ -1701,34 +2066,36 @@ public class BezierCurve extends AbstractGeometry
 			}
 		});
 
-		ArrayList<IntervalPair> clusters = new ArrayList<>();
-		IntervalPair current = null;
+		// the clusters are stored in place, only the given interval pairs are
+		// copied (during the first pass)
+		int count = ips.length;
+		boolean isCopy = false;
 		boolean couldMerge;
 
 		do {
-			clusters.clear();
+			int clusterCount = 0;
+			IntervalPair current = null;
 			couldMerge = false;
-			for (IntervalPair i : ips) {
+			for (int k = 0; k < count; k++) {
+				IntervalPair i = ips[k];
 				if (current == null) {
-					current = i.getCopy();
+					current = isCopy ? i : i.getCopy();
 				} else if (isNextTo(current, i, shift)) {
 					couldMerge = true;
 					current.expand(i);
 				} else {
-					isNextTo(current, i, shift);
-					clusters.add(current);
-					current = i.getCopy();
+					ips[clusterCount++] = current;
+					current = isCopy ? i : i.getCopy();
 				}
 			}
 			if (current != null) {
-				clusters.add(current);
-				current = null;
+				ips[clusterCount++] = current;
 			}
-			ips.clear();
-			ips.addAll(clusters);
+			count = clusterCount;
+			isCopy = true;
 		} while (couldMerge);
 
-		return clusters.toArray(new IntervalPair[] {});
+		return Arrays.copyOf(ips, count);
 	}
 
 	/**
@@ -1757,38 +2124,120 @@ public class BezierCurve extends AbstractGeometry
 	 */
 	private static boolean containmentParameter(BezierCurve c,
 			double[] interval, Point p) {
-		Stack<Interval> parts = new Stack<>();
-		parts.push(new Interval(interval));
-		while (!parts.empty()) {
-			Interval i = parts.pop();
-
-			if (i.converges(1)) {
-				interval[0] = i.a;
-				interval[1] = i.b;
+		ClippingBuffers buffers = CLIPPING_BUFFERS.get();
+		buffers.c = ClippingBuffers.ensureCapacity(buffers.c,
+				3 * c.points.length);
+		double[] parts = buffers.intervalStack;
+		int top = 0;
+		parts[top++] = interval[0];
+		parts[top++] = interval[1];
+		while (top > 0) {
+			double b = parts[--top];
+			double a = parts[--top];
+
+			if (PrecisionUtils.equal(a, b, 1)) {
+				interval[0] = a;
+				interval[1] = b;
 				break;
 			}
 
-			double iMid = i.getMid();
-			Interval left = new Interval(i.a, iMid);
-			Interval right = new Interval(iMid, i.b);
-
-			BezierCurve clipped = c.getClipped(left.a, left.b);
-			Rectangle bounds = clipped.getControlBounds();
-
-			if (bounds.contains(p)) {
-				parts.push(left);
+			double mid = (a + b) / 2;
+			if (parts.length < top + 4) {
+				parts = buffers.intervalStack = Arrays.copyOf(parts,
+						2 * parts.length);
 			}
 
-			clipped = c.getClipped(right.a, right.b);
-			bounds = clipped.getControlBounds();
+			int n = clip(c, a, mid, buffers.c);
+			if (controlBoundsContain(buffers.c, n, p, buffers.bounds)) {
+				parts[top++] = a;
+				parts[top++] = mid;
+			}
 
-			if (bounds.contains(p)) {
-				parts.push(right);
+			n = clip(c, mid, b, buffers.c);
+			if (controlBoundsContain(buffers.c, n, p, buffers.bounds)) {
+				parts[top++] = mid;
+				parts[top++] = b;
 			}
 		}
 		return PrecisionUtils.equal(interval[0], interval[1], 1);
 	}
 
+	/**
+	 * Tests if the bounds of the given control points (see
+	 * {@link #getControlBounds()}) contain the given {@link Point}.
+	 *
+	 * @param c
+	 *            The homogeneous coordinates of the control points.
+	 * @param n
+	 *            The number of control points.
+	 * @param p
+	 *            The {@link Point} to test.
+	 * @param bounds
+	 *            The array in which the control bounds are stored.
+	 * @return <code>true</code> if the control bounds contain the given
+	 *         {@link Point}, otherwise <code>false</code>
+	 * @see Rectangle#contains(Point)
+	 */
+	private static boolean controlBoundsContain(double[] c, int n, Point p,
+			double[] bounds) {
+		getControlBounds(c, n, bounds, 0);
+		return PrecisionUtils.greaterEqual(p.y, bounds[1])
+				&& PrecisionUtils.smallerEqual(p.y, bounds[1] + bounds[3])
+				&& PrecisionUtils.greaterEqual(p.x, bounds[0])
+				&& PrecisionUtils.smallerEqual(p.x, bounds[0] + bounds[2]);
+	}
+
+	/**
+	 * Tests if the control bounds of the clipped curves, which are stored in
+	 * the given {@link ClippingBuffers}, touch each other.
+	 *
+	 * @param buffers
+	 *            The {@link ClippingBuffers} that store the clipped curves.
+	 * @return <code>true</code> if the control bounds touch, otherwise
+	 *         <code>false</code>
+	 * @see Rectangle#touches(Rectangle)
+	 */
+	private static boolean controlBoundsTouch(ClippingBuffers buffers) {
+		double[] b = buffers.bounds;
+		getControlBounds(buffers.p, buffers.pCount, b, 0);
+		getControlBounds(buffers.q, buffers.qCount, b, 4);
+		return PrecisionUtils.smallerEqual(b[4], b[0] + b[2])
+				&& PrecisionUtils.smallerEqual(b[5], b[1] + b[3])
+				&& PrecisionUtils.greaterEqual(b[4] + b[6], b[0])
+				&& PrecisionUtils.greaterEqual(b[5] + b[7], b[1]);
+	}
+
+	/**
+	 * <p>
+	 * Checks if the given parameter {@link Interval} of the given
+	 * {@link BezierCurve} converges, i.e. if its limits are equal within the
+	 * specified imprecision, or if the curve is collapsed to a single
+	 * {@link Point} on the {@link Interval}.
+	 * </p>
+	 *
+	 * @see IntervalPair#converges(int)
+	 */
+	private static boolean converges(BezierCurve c, double a, double b,
+			int shift, ClippingBuffers buffers) {
+		return PrecisionUtils.equal(a, b, shift)
+				|| convergesToPoint(c, a, b, shift, buffers);
+	}
+
+	/**
+	 * Checks if the {@link Point}s at the given parameter values of the given
+	 * {@link BezierCurve} are equal within the specified imprecision.
+	 *
+	 * @see IntervalPair#convergesP()
+	 */
+	private static boolean convergesToPoint(BezierCurve c, double a, double b,
+			int shift, ClippingBuffers buffers) {
+		double[] hc = buffers.hc;
+		getHC(c, a, hc, 0);
+		getHC(c, b, hc, 3);
+		return PrecisionUtils.equal(hc[0] / hc[2], hc[3] / hc[5], shift)
+				&& PrecisionUtils.equal(hc[1] / hc[2], hc[4] / hc[5], shift);
+	}
+
 	/**
 	 * <p>
 	 * Returns the similarity of the given {@link BezierCurve} to a {@link Line}
@@ -1990,38 +2439,46 @@ public class BezierCurve extends AbstractGeometry
 	 */
 	private static void findIntersectionChunks(IntervalPair ip,
 			Set<IntervalPair> intervalPairs, Set<Point> intersections) {
-		if (ip.converges(CHUNK_SHIFT)) {
-			intervalPairs.add(ip.getCopy());
+		findIntersectionChunks(ip.p, ip.pi.a, ip.pi.b, ip.q, ip.qi.a, ip.qi.b,
+				intervalPairs, intersections, CLIPPING_BUFFERS.get());
+	}
+
+	/**
+	 * Finds intersection {@link IntervalPair} chunks of the given
+	 * {@link BezierCurve}s on the given parameter intervals (see
+	 * {@link #findIntersectionChunks(IntervalPair, Set, Set)}), using the given
+	 * {@link ClippingBuffers} for the clipping steps, so that
+	 * {@link IntervalPair}s are only allocated for the results.
+	 */
+	private static void findIntersectionChunks(BezierCurve p, double pa,
+			double pb, BezierCurve q, double qa, double qb,
+			Set<IntervalPair> intervalPairs, Set<Point> intersections,
+			ClippingBuffers buffers) {
+		if (converges(p, pa, pb, CHUNK_SHIFT, buffers)
+				&& converges(q, qa, qb, CHUNK_SHIFT, buffers)) {
+			intervalPairs.add(new IntervalPair(p, new Interval(pa, pb), q,
+					new Interval(qa, qb)));
 			return;
 		}
 
-		BezierCurve pClipped = ip.getPClipped();
-		BezierCurve qClipped = ip.getQClipped();
-
-		// construct "parallel" and "orthogonal" fat lines
-		FatLine L1 = FatLine.from(qClipped, PARALLEL);
-		FatLine L2 = FatLine.from(qClipped, ORTHOGONAL);
+		clip(p, pa, pb, q, qa, qb, buffers);
 
 		// curve implosion check
-		if (L1 == null || L2 == null) {
+		if (!clipToFatLines(buffers)) {
 			// q is degenerated
-			Point poi = ip.q.getHC(ip.qi.getMid()).toPoint();
+			Point poi = q.getHC((qa + qb) / 2).toPoint();
 			double[] interval = new double[] { 0, 1 };
-			if (poi != null && containmentParameter(ip.p, interval, poi)) {
+			if (poi != null && containmentParameter(p, interval, poi)) {
 				intersections.add(poi);
 			}
 			return;
 		}
 
-		// clip to the fat lines
-		Interval interval = new Interval(pClipped.clipTo(L1));
-		Interval intervalOrtho = new Interval(pClipped.clipTo(L2));
-
-		// pick smaller interval range
-		interval = Interval.min(interval, intervalOrtho);
-
 		// re-calculate s and e from the clipped interval
-		double ratio = ip.pi.scaleTo(interval);
+		double[] interval = buffers.interval;
+		double ratio = scaleTo(pa, pb, interval);
+		pa = interval[0];
+		pb = interval[1];
 
 		if (ratio < 0) {
 			// no more intersections
@@ -2033,20 +2490,26 @@ public class BezierCurve extends AbstractGeometry
 			 * interval, so that only one of the getIntersection() calls can
 			 * converge in the middle.
 			 */
-			if (ip.isPLonger()) {
-				IntervalPair[] nip = ip.getPSplit();
-				findIntersectionChunks(nip[0], intervalPairs, intersections);
-				findIntersectionChunks(nip[1], intervalPairs, intersections);
+			if (pb - pa > qb - qa) {
+				double pm = (pa + pb) / 2;
+				findIntersectionChunks(p, pa, pm, q, qa, qb, intervalPairs,
+						intersections, buffers);
+				findIntersectionChunks(p,
+						Math.min(pb,
+								pm + 10 * UNRECOGNIZABLE_PRECISION_FRACTION),
+						pb, q, qa, qb, intervalPairs, intersections, buffers);
 			} else {
-				IntervalPair[] nip = ip.getQSplit();
-				findIntersectionChunks(nip[0], intervalPairs, intersections);
-				findIntersectionChunks(nip[1], intervalPairs, intersections);
+				double qm = (qa + qb) / 2;
+				findIntersectionChunks(q, qa, qm, p, pa, pb, intervalPairs,
+						intersections, buffers);
+				findIntersectionChunks(q,
+						Math.min(qb,
+								qm + 10 * UNRECOGNIZABLE_PRECISION_FRACTION),
+						qb, p, pa, pb, intervalPairs, intersections, buffers);
 			}
-
-			return;
 		} else {
-			findIntersectionChunks(ip.getSwapped(), intervalPairs,
-					intersections);
+			findIntersectionChunks(q, qa, qb, p, pa, pb, intervalPairs,
+					intersections, buffers);
 		}
 	}
 
@@ -2059,41 +2522,58 @@ public class BezierCurve extends AbstractGeometry
 	 *            of intersection on two {@link BezierCurve}s
 	 */
 	private static Point findSinglePreciseIntersection(IntervalPair ipIO) {
-		Stack<IntervalPair> partStack = new Stack<>();
-		partStack.push(ipIO);
-
-		while (!partStack.isEmpty()) {
-			IntervalPair ip = partStack.pop();
+		ClippingBuffers buffers = CLIPPING_BUFFERS.get();
+		BezierCurve first = ipIO.p;
+		BezierCurve second = ipIO.q;
+
+		// every entry consists of the parameter intervals of p and q and a flag
+		// indicating if p and q are swapped with respect to the given pair
+		double[] partStack = buffers.intervalPairStack;
+		int top = 0;
+		partStack[top++] = ipIO.pi.a;
+		partStack[top++] = ipIO.pi.b;
+		partStack[top++] = ipIO.qi.a;
+		partStack[top++] = ipIO.qi.b;
+		partStack[top++] = 0;
+
+		while (top > 0) {
+			boolean swapped = partStack[--top] != 0;
+			double qb = partStack[--top];
+			double qa = partStack[--top];
+			double pb = partStack[--top];
+			double pa = partStack[--top];
+			BezierCurve p = swapped ? second : first;
+			BezierCurve q = swapped ? first : second;
 
 			// quick check if intersections can be found
-			BezierCurve pClipped = ip.getPClipped();
-			BezierCurve qClipped = ip.getQClipped();
-			if (!pClipped.getControlBounds()
-					.touches(qClipped.getControlBounds())) {
+			clip(p, pa, pb, q, qa, qb, buffers);
+			if (!controlBoundsTouch(buffers)) {
 				continue;
 			}
 
-			if (ip.convergesP()) {
-				Point p = ip.p.getHC(ip.pi.a).toPoint();
-				if (ip.q.contains(p)) {
-					return p;
+			if (convergesToPoint(p, pa, pb, 0, buffers)) {
+				Point poi = p.getHC(pa).toPoint();
+				if (q.contains(poi)) {
+					return poi;
 				}
 			}
 
-			if (ip.convergesQ()) {
-				Point q = ip.q.getHC(ip.qi.a).toPoint();
-				if (ip.p.contains(q)) {
-					return q;
+			if (convergesToPoint(q, qa, qb, 0, buffers)) {
+				Point poi = q.getHC(qa).toPoint();
+				if (p.contains(poi)) {
+					return poi;
 				}
 			}
 
-			if (ip.converges()) {
+			if (converges(p, pa, pb, 0, buffers)
+					&& converges(q, qa, qb, 0, buffers)) {
 				// TODO: do another clipping algorithm here. the one that
 				// uses control bounds.
-				for (Point pp : ip.p.toPoints(ip.pi)) {
-					for (Point qp : ip.q.toPoints(ip.qi)) {
+				Point[] qPoints = q.toPoints(new Interval(qa, qb));
+				for (Point pp : p.toPoints(new Interval(pa, pb))) {
+					for (Point qp : qPoints) {
 						if (pp.equals(qp)) {
-							IntervalPair.copy(ipIO, ip);
+							setIntervalPair(ipIO, p, pa, pb, q, qa, qb);
 							return pp;
 						}
 					}
@@ -2101,31 +2581,27 @@ public class BezierCurve extends AbstractGeometry
 				continue;
 			}
 
-			// construct "parallel" and "orthogonal" fat lines
-			FatLine L1 = FatLine.from(qClipped, PARALLEL);
-			FatLine L2 = FatLine.from(qClipped, ORTHOGONAL);
-
 			// curve implosion check
-			if (L1 == null || L2 == null) {
+			if (!clipToFatLines(buffers)) {
 				// q is degenerated
-				Point poi = ip.q.getHC(ip.qi.getMid()).toPoint();
-				if (ip.p.contains(poi)) {
-					IntervalPair.copy(ipIO, ip);
+				Point poi = q.getHC((qa + qb) / 2).toPoint();
+				if (p.contains(poi)) {
+					setIntervalPair(ipIO, p, pa, pb, q, qa, qb);
 					return poi;
 				}
 				continue;
 			}
 
-			// clip to the fat lines
-			Interval interval = new Interval(pClipped.clipTo(L1));
-			Interval intervalOrtho = new Interval(pClipped.clipTo(L2));
-
-			// pick smaller interval range
-			interval = Interval.min(interval, intervalOrtho);
-
 			// re-calculate s and e from the clipped interval
-			double ratio = ip.pi.scaleTo(interval);
-
+			double[] interval = buffers.interval;
+			double ratio = scaleTo(pa, pb, interval);
+			pa = interval[0];
+			pb = interval[1];
+
+			if (partStack.length < top + 10) {
+				partStack = buffers.intervalPairStack = Arrays
+						.copyOf(partStack, 2 * partStack.length);
+			}
 			if (ratio < 0) {
 				// no more intersections
 				continue;
@@ -2136,12 +2612,23 @@ public class BezierCurve extends AbstractGeometry
 				 * parameter interval, so that only one of the getIntersection()
 				 * calls can converge in the middle.
 				 */
-				IntervalPair[] nip = ip.isPLonger() ? ip.getPSplit()
-						: ip.getQSplit();
-				partStack.push(nip[1]);
-				partStack.push(nip[0]);
+				if (pb - pa > qb - qa) {
+					double pm = (pa + pb) / 2;
+					top = push(partStack, top,
+							Math.min(pb,
+									pm + 10 * UNRECOGNIZABLE_PRECISION_FRACTION),
+							pb, qa, qb, swapped);
+					top = push(partStack, top, pa, pm, qa, qb, swapped);
+				} else {
+					double qm = (qa + qb) / 2;
+					top = push(partStack, top,
+							Math.min(qb,
+									qm + 10 * UNRECOGNIZABLE_PRECISION_FRACTION),
+							qb, pa, pb, !swapped);
+					top = push(partStack, top, qa, qm, pa, pb, !swapped);
+				}
 			} else {
-				partStack.push(ip.getSwapped());
+				top = push(partStack, top, qa, qb, pa, pb, !swapped);
 			}
 		}
 
@@ -2149,32 +2636,122 @@ public class BezierCurve extends AbstractGeometry
 	}
 
 	/**
-	 * Computes the intersection of the line from {@link Point} p to
-	 * {@link Point} q with the x-axis-parallel line f(x) = y.
+	 * Stores the bounds (x, y, width, height) of the given control points in
+	 * the given array (see {@link #getControlBounds()}).
 	 *
-	 * There is always an intersection, because this routine is only called when
-	 * either the lower or the higher fat line bound is crossed.
-	 *
-	 * The following conditions are fulfilled: (p.x!=q.x) and (p.y!=q.y) and
-	 * (p.y<y<q.y) or (p.y>y>q.y).
-	 *
-	 * From these values, one can build a function g(x) = m*x + b where
-	 * m=(q.y-p.y)/(q.x-p.x) and b=p.y-m*p.x.
+	 * @param c
+	 *            The homogeneous coordinates of the control points.
+	 * @param n
+	 *            The number of control points.
+	 * @param bounds
+	 *            The array in which the bounds are stored.
+	 * @param offset
+	 *            The index at which the bounds are stored.
+	 */
+	private static void getControlBounds(double[] c, int n, double[] bounds,
+			int offset) {
+		double xmin = c[0] / c[2], xmax = xmin, ymin = c[1] / c[2],
+				ymax = ymin;
+
+		for (int i = 1; i < n; i++) {
+			double x = c[3 * i] / c[3 * i + 2];
+			double y = c[3 * i + 1] / c[3 * i + 2];
+			if (x < xmin) {
+				xmin = x;
+			} else if (x > xmax) {
+				xmax = x;
+			}
+
+			if (y < ymin) {
+				ymin = y;
+			} else if (y > ymax) {
+				ymax = y;
+			}
+		}
+
+		bounds[offset] = xmin;
+		bounds[offset + 1] = ymin;
+		bounds[offset + 2] = xmax - xmin < 0 ? 0 : xmax - xmin;
+		bounds[offset + 3] = ymax - ymin < 0 ? 0 : ymax - ymin;
+	}
+
+	/**
+	 * Stores the homogeneous coordinates of the {@link Point} at the given
+	 * parameter value of the given {@link BezierCurve} in the given array,
+	 * using the same arithmetic as {@link #getHC(double)}.
 	 *
-	 * The point of intersection is given by f(x) = g(x). The x-coordinate of
-	 * this point is x = (y - b) / m.
+	 * @param c
+	 *            The {@link BezierCurve} to evaluate.
+	 * @param t
+	 *            The parameter value.
+	 * @param dst
+	 *            The array in which the coordinates are stored.
+	 * @param offset
+	 *            The index at which the coordinates are stored.
+	 */
+	private static void getHC(BezierCurve c, double t, double[] dst,
+			int offset) {
+		if (t < 0 || t > 1) {
+			throw new IllegalArgumentException("t out of range: " + t);
+		}
+
+		// using horner's scheme:
+		Vector3D[] points = c.points;
+		int n = points.length;
+		double bn = 1, tn = 1, d = 1d - t;
+		double x = points[0].x * (bn * tn);
+		double y = points[0].y * (bn * tn);
+		double z = points[0].z * (bn * tn);
+		for (int i = 1; i < n; i++) {
+			bn = bn * (n - i) / i;
+			tn = tn * t;
+			x = x * d + points[i].x * (bn * tn);
+			y = y * d + points[i].y * (bn * tn);
+			z = z * d + points[i].z * (bn * tn);
+		}
+
+		dst[offset] = x;
+		dst[offset + 1] = y;
+		dst[offset + 2] = z;
+	}
+
+	/**
+	 * Transforms the given {@link BezierCurve}s with the given
+	 * {@link AffineTransform}. The control points of all {@link BezierCurve}s
+	 * are transformed at once.
 	 *
-	 * @param p
-	 *            The start point of the {@link Line}
-	 * @param q
-	 *            The end point of the {@link Line}
-	 * @param y
-	 *            The x-axis-parallel line f(x) = y
-	 * @return the x coordinate of the intersection point.
+	 * @param curves
+	 *            The {@link BezierCurve}s to transform.
+	 * @param t
+	 *            The {@link AffineTransform} to apply.
+	 * @return The transformed {@link BezierCurve}s.
 	 */
-	private static double intersectXAxisParallel(Point p, Point q, double y) {
-		double m = (q.y - p.y) / (q.x - p.x);
-		return (y - p.y + m * p.x) / m;
+	static BezierCurve[] getTransformed(BezierCurve[] curves,
+			AffineTransform t) {
+		int count = 0;
+		for (BezierCurve c : curves) {
+			count += c.points.length;
+		}
+		double[] coordinates = new double[2 * count];
+		int k = 0;
+		for (BezierCurve c : curves) {
+			for (Vector3D p : c.points) {
+				coordinates[k++] = p.x / p.z;
+				coordinates[k++] = p.y / p.z;
+			}
+		}
+		t.transform(coordinates, 0, coordinates, 0, count);
+
+		BezierCurve[] transformed = new BezierCurve[curves.length];
+		k = 0;
+		for (int i = 0; i < curves.length; i++) {
+			Point[] points = new Point[curves[i].points.length];
+			for (int j = 0; j < points.length; j++, k += 2) {
+				points[j] = new Point(coordinates[k], coordinates[k + 1]);
+			}
+			transformed[i] = new BezierCurve(points);
+		}
+		return transformed;
 	}
 
 	/**
@@ -2304,6 +2881,22 @@ public class BezierCurve extends AbstractGeometry
 		}
 	}
 
+	/**
+	 * Pushes an entry onto the interval pair stack of
+	 * {@link #findSinglePreciseIntersection(IntervalPair)}.
+	 *
+	 * @return the new size of the stack
+	 */
+	private static int push(double[] stack, int top, double pa, double pb,
+			double qa, double qb, boolean swapped) {
+		stack[top++] = pa;
+		stack[top++] = pb;
+		stack[top++] = qa;
+		stack[top++] = qb;
+		stack[top++] = swapped ? 1 : 0;
+		return top;
+	}
+
 	/**
 	 * Binary search from the {@link IntervalPair}'s {@link Interval}s' limits
 	 * to the {@link Interval} s' inner values to refine the overlap represented
@@ -2403,6 +2996,58 @@ public class BezierCurve extends AbstractGeometry
 		return i;
 	}
 
+	/**
+	 * Scales the parameter interval <code>[a;b]</code> to the given relative
+	 * interval and stores the result in the given array.
+	 *
+	 * @param a
+	 *            The lower limit of the parameter interval to scale.
+	 * @param b
+	 *            The upper limit of the parameter interval to scale.
+	 * @param interval
+	 *            The new upper and lower bounds in percent, which are
+	 *            replaced by the scaled parameter interval.
+	 * @return the ratio of the new parameter range to the old parameter range
+	 * @see Interval#scaleTo(Interval)
+	 */
+	private static double scaleTo(double a, double b, double[] interval) {
+		double na = a + interval[0] * (b - a);
+		double nb = a + interval[1] * (b - a);
+		double ratio = (nb - na) / (b - a);
+		// ensure interval stays valid
+		if (na < 0) {
+			na = 0;
+		}
+		if (na > 1) {
+			na = 1;
+			nb = 1;
+		}
+		if (nb < 0) {
+			na = 0;
+			nb = 0;
+		}
+		if (nb > 1) {
+			nb = 1;
+		}
+		interval[0] = na;
+		interval[1] = nb;
+		return ratio;
+	}
+
+	/**
+	 * Sets the {@link BezierCurve}s and parameter {@link Interval}s of the
+	 * given {@link IntervalPair}.
+	 *
+	 * @see IntervalPair#copy(IntervalPair, IntervalPair)
+	 */
+	private static void setIntervalPair(IntervalPair ip, BezierCurve p,
+			double pa, double pb, BezierCurve q, double qa, double qb) {
+		ip.p = p;
+		ip.pi = new Interval(pa, pb);
+		ip.q = q;
+		ip.qi = new Interval(qa, qb);
+	}
+
 	/**
 	 * An array of {@link Vector3D}s which represent the control points of this
 	 * {@link BezierCurve} in homogenous coordinates.
@@ -2479,95 +3124,6 @@ public class BezierCurve extends AbstractGeometry
 		}
 	}
 
-	/**
-	 * <p>
-	 * Firstly, the difference of this {@link BezierCurve} to the given
-	 * {@link FatLine} is computed. This is another {@link BezierCurve} of which
-	 * the control {@link Point}s are further examined.
-	 * </p>
-	 * <p>
-	 * Every difference control {@link Point} is checked if it is inside the
-	 * given {@link FatLine}. Difference control {@link Point}s within the
-	 * {@link FatLine} represent portions of this {@link BezierCurve} which
-	 * cannot be clipped. Therefore, the {@link Interval} recording the
-	 * parameter range of this {@link BezierCurve} is appropriately modified for
-	 * these difference control {@link Point}s.
-	 * </p>
-	 * <p>
-	 * Subsequently, the {@link Line}s connecting the start/end {@link Point} of
-	 * the difference {@link BezierCurve} and the other control {@link Point}s
-	 * of the difference {@link BezierCurve} are intersected with the
-	 * {@link FatLine}'s border {@link Line}s. The outermost intersections
-	 * identify parameter ranges that can be clipped away from this
-	 * {@link BezierCurve}. Therefore, the {@link Interval} recording the
-	 * parameter range of this {@link BezierCurve} is appropriately modified for
-	 * these intersections.
-	 * </p>
-	 * <p>
-	 * The starting {@link Interval} is chosen to be invalid. The individual
-	 * checks move the lower and upper limits past to one another. If everything
-	 * can be clipped, the resulting {@link Interval} remains invalid. If the
-	 * resulting {@link Interval} <code>I = [a;b]</code> is valid (
-	 * <code>a <= b</code>), then the portions <code>[0;a]</code> and
-	 * <code>[b;1]</code> of this {@link BezierCurve} can be clipped away.
-	 * </p>
-	 *
-	 * @param L
-	 *            the {@link FatLine} to clip this {@link BezierCurve} to
-	 * @return the new parameter {@link Interval} for this {@link BezierCurve}
-	 */
-	// TODO: return Interval
-	private double[] clipTo(FatLine L) {
-		double[] interval = new double[] { 1, 0 };
-
-		Vector3D[] differenceVectors = genDifferencePoints(L.line);
-
-		Point[] differencePoints = new Point[differenceVectors.length];
-		for (int i = 0; i < differenceVectors.length; i++) {
-			differencePoints[i] = differenceVectors[i].toPoint();
-		}
-
-		// inside fat line check
-		for (Point p : differencePoints) {
-			if (Double.isNaN(p.y) || L.dmin <= p.y && p.y <= L.dmax) {
-				moveInterval(interval, p.x);
-			}
-		}
-
-		// intersections from start
-		for (int i = 1; i < differencePoints.length; i++) {
-			Line seg = new Line(differencePoints[0], differencePoints[i]);
-			if (seg.getP1().y < L.dmin != seg.getP2().y < L.dmin) {
-				double x = intersectXAxisParallel(seg.getP1(), seg.getP2(),
-						L.dmin);
-				moveInterval(interval, x);
-			}
-			if (seg.getP1().y < L.dmax != seg.getP2().y < L.dmax) {
-				double x = intersectXAxisParallel(seg.getP1(), seg.getP2(),
-						L.dmax);
-				moveInterval(interval, x);
-			}
-		}
-
-		// intersections from end
-		for (int i = 0; i < differencePoints.length - 1; i++) {
-			Line seg = new Line(differencePoints[i],
-					differencePoints[differencePoints.length - 1]);
-			if (seg.getP1().y < L.dmin != seg.getP2().y < L.dmin) {
-				double x = intersectXAxisParallel(seg.getP1(), seg.getP2(),
-						L.dmin);
-				moveInterval(interval, x);
-			}
-			if (seg.getP1().y < L.dmax != seg.getP2().y < L.dmax) {
-				double x = intersectXAxisParallel(seg.getP1(), seg.getP2(),
-						L.dmax);
-				moveInterval(interval, x);
-			}
-		}
-
-		return interval;
-	}
-
 	/**
 	 * <p>
 	 * Tests if this {@link BezierCurve} contains the given other
@@ -2688,33 +3244,6 @@ public class BezierCurve extends AbstractGeometry
 		return xtreme;
 	}
 
-	/**
-	 * <p>
-	 * Generates the difference control {@link Point}s of this
-	 * {@link BezierCurve} to the given {@link Straight3D}.
-	 * </p>
-	 * <p>
-	 * The difference control {@link Point}s are the control {@link Point}s of a
-	 * {@link BezierCurve} that yields the signed distance of each {@link Point}
-	 * on this {@link BezierCurve} to the given {@link Straight3D}.
-	 * </p>
-	 *
-	 * @param line
-	 *            the {@link Straight3D} to which the difference
-	 *            {@link BezierCurve}'s control {@link Point}s are to be
-	 *            computed
-	 * @return the difference {@link BezierCurve}'s control {@link Point}s
-	 */
-	private Vector3D[] genDifferencePoints(Straight3D line) {
-		Vector3D[] D = new Vector3D[points.length];
-		for (int i = 0; i < points.length; i++) {
-			double y = line.getSignedDistanceCW(points[i]);
-			D[i] = new Vector3D((double) (i) / (double) (points.length - 1), y,
-					1);
-		}
-		return D;
-	}
-
 	/**
 	 * Computes the {@link Point} on this {@link BezierCurve} at parameter value
 	 * <i>t</i>, which is expected to lie in the parameter {@link Interval}
@@ -2975,13 +3504,8 @@ public class BezierCurve extends AbstractGeometry
 
 	@Override
 	public final Point[] getIntersections(ICurve curve) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (BezierCurve c : curve.toBezier()) {
-			intersections.addAll(Arrays.asList(getIntersections(c)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return CurveUtils.getIntersections(new BezierCurve[] { this },
+				curve.toBezier());
 	}
 
 	/**
@@ -12,10 +12,14 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
 /**
  * The {@link CurveUtils} class provides functionality that can be used for all
  * {@link ICurve}s, independent on their construction kind.
@@ -25,6 +29,89 @@ import java.util.Set;
  */
 class CurveUtils {
 
+	// control bounds that are closer than this are regarded to touch
+	private static final double BROAD_PHASE_MARGIN = PrecisionUtils
+			.calculateFraction(-1);
+
+	/**
+	 * Determines the pairs of the given {@link BezierCurve}s whose control
+	 * bounds touch (which is a necessary condition for the curves to intersect
+	 * or overlap). The control bounds of both arrays are sorted by their
+	 * minimum x coordinate and swept from left to right, so that only those
+	 * pairs are tested, whose control bounds overlap horizontally.
+	 *
+	 * @param curves1
+	 *            The first array of {@link BezierCurve}s.
+	 * @param curves2
+	 *            The second array of {@link BezierCurve}s.
+	 * @return The candidate pairs, where the <code>k</code>-th pair consists of
+	 *         <code>curves1[pairs[2 * k]]</code> and
+	 *         <code>curves2[pairs[2 * k + 1]]</code>. The pairs are ordered
+	 *         lexicographically by their indices.
+	 */
+	static int[] getCandidatePairs(BezierCurve[] curves1,
+			BezierCurve[] curves2) {
+		int n1 = curves1.length;
+		int n = n1 + curves2.length;
+		final double[] minX = new double[n];
+		double[] maxX = new double[n];
+		double[] minY = new double[n];
+		double[] maxY = new double[n];
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			Rectangle bounds = (i < n1 ? curves1[i] : curves2[i - n1])
+					.getControlBounds();
+			minX[i] = bounds.getX() - BROAD_PHASE_MARGIN;
+			minY[i] = bounds.getY() - BROAD_PHASE_MARGIN;
+			maxX[i] = bounds.getX() + bounds.getWidth() + BROAD_PHASE_MARGIN;
+			maxY[i] = bounds.getY() + bounds.getHeight() + BROAD_PHASE_MARGIN;
+			order[i] = i;
+		}
+		PolygonClipper.sort(order, n, new PolygonClipper.IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				return Double.compare(minX[i], minX[j]);
+			}
+		});
+
+		// the boxes of either array that may still overlap the sweep-line
+		int[][] active = new int[][] { new int[n1], new int[n - n1] };
+		int[] activeCounts = new int[2];
+		long[] pairs = new long[16];
+		int pairCount = 0;
+		for (int k = 0; k < n; k++) {
+			int i = order[k];
+			int side = i < n1 ? 0 : 1;
+			int[] others = active[1 - side];
+			int kept = 0;
+			for (int a = 0; a < activeCounts[1 - side]; a++) {
+				int j = others[a];
+				if (maxX[j] < minX[i]) {
+					continue;
+				}
+				others[kept++] = j;
+				if (maxY[j] >= minY[i] && minY[j] <= maxY[i]) {
+					if (pairCount == pairs.length) {
+						pairs = Arrays.copyOf(pairs, 2 * pairCount);
+					}
+					pairs[pairCount++] = side == 0
+							? (long) i * n + (j - n1)
+							: (long) j * n + (i - n1);
+				}
+			}
+			activeCounts[1 - side] = kept;
+			active[side][activeCounts[side]++] = i;
+		}
+
+		Arrays.sort(pairs, 0, pairCount);
+		int[] result = new int[2 * pairCount];
+		for (int k = 0; k < pairCount; k++) {
+			result[2 * k] = (int) (pairs[k] / n);
+			result[2 * k + 1] = (int) (pairs[k] % n);
+		}
+		return result;
+	}
+
 	/**
 	 * Creates copies of the given {@link BezierCurve}s.
 	 *
@@ -50,11 +137,28 @@ class CurveUtils {
 	 * @return An array of intersection {@link Point}s
 	 */
 	public static Point[] getIntersections(ICurve curve1, ICurve curve2) {
+		return getIntersections(curve1.toBezier(), curve2.toBezier());
+	}
+
+	/**
+	 * Computes the intersections of all pairs of the given
+	 * {@link BezierCurve}s, whose control bounds touch.
+	 *
+	 * @param curves1
+	 *            The first array of {@link BezierCurve}s to intersect.
+	 * @param curves2
+	 *            The second array of {@link BezierCurve}s to intersect.
+	 * @return An array of intersection {@link Point}s
+	 * @see #getCandidatePairs(BezierCurve[], BezierCurve[])
+	 */
+	static Point[] getIntersections(BezierCurve[] curves1,
+			BezierCurve[] curves2) {
 		Set<Point> intersections = new HashSet<>();
 
-		for (BezierCurve bezier : curve1.toBezier()) {
-			intersections
-					.addAll(Arrays.asList(bezier.getIntersections(curve2)));
+		int[] pairs = getCandidatePairs(curves1, curves2);
+		for (int k = 0; k < pairs.length; k += 2) {
+			intersections.addAll(Arrays.asList(curves1[pairs[k]]
+					.getIntersections(curves2[pairs[k + 1]])));
 		}
 
 		return intersections.toArray(new Point[] {});
@@ -96,13 +200,7 @@ class CurveUtils {
 	 */
 	public static Point[] getIntersections(ICurve curve,
 			IMultiShape multiShape) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (IShape shape : multiShape.getShapes()) {
-			intersections.addAll(Arrays.asList(getIntersections(curve, shape)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return getIntersections(curve.toBezier(), toBezier(multiShape));
 	}
 
 	/**
@@ -115,14 +213,7 @@ class CurveUtils {
 	 * @return an array of intersection {@link Point}s
 	 */
 	public static Point[] getIntersections(ICurve curve, IShape shape) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (ICurve curve2 : shape.getOutlineSegments()) {
-			intersections
-					.addAll(Arrays.asList(getIntersections(curve, curve2)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return getIntersections(curve.toBezier(), toBezier(shape));
 	}
 
 	/**
@@ -138,25 +229,7 @@ class CurveUtils {
 		if (geom1 instanceof ICurve) {
 			return getIntersections((ICurve) geom1, geom2);
 		} else {
-			Set<Point> intersections = new HashSet<>();
-
-			if (geom1 instanceof IShape) {
-				for (ICurve curve : ((IShape) geom1).getOutlineSegments()) {
-					intersections.addAll(
-							Arrays.asList(getIntersections(curve, geom2)));
-				}
-			} else if (geom1 instanceof IMultiShape) {
-				for (IShape shape : ((IMultiShape) geom1).getShapes()) {
-					for (ICurve curve : shape.getOutlineSegments()) {
-						intersections.addAll(
-								Arrays.asList(getIntersections(curve, geom2)));
-					}
-				}
-			} else {
-				throw new UnsupportedOperationException("Not yet implemented.");
-			}
-
-			return intersections.toArray(new Point[] {});
+			return getIntersections(toBezier(geom1), toBezier(geom2));
 		}
 	}
 
@@ -175,12 +248,14 @@ class CurveUtils {
 	public static ICurve[] getOverlaps(ICurve curve1, ICurve curve2) {
 		Set<ICurve> overlaps = new HashSet<>();
 
-		for (BezierCurve bezier1 : curve1.toBezier()) {
-			for (BezierCurve bezier2 : curve2.toBezier()) {
-				BezierCurve overlap = bezier1.getOverlap(bezier2);
-				if (overlap != null) {
-					overlaps.add(overlap);
-				}
+		BezierCurve[] beziers1 = curve1.toBezier();
+		BezierCurve[] beziers2 = curve2.toBezier();
+		int[] pairs = getCandidatePairs(beziers1, beziers2);
+		for (int k = 0; k < pairs.length; k += 2) {
+			BezierCurve overlap = beziers1[pairs[k]]
+					.getOverlap(beziers2[pairs[k + 1]]);
+			if (overlap != null) {
+				overlaps.add(overlap);
 			}
 		}
 
@@ -216,17 +291,49 @@ class CurveUtils {
 	 *         <code>false</code>
 	 */
 	public static boolean overlap(ICurve c1, ICurve c2) {
-		for (BezierCurve seg1 : c1.toBezier()) {
-			for (BezierCurve seg2 : c2.toBezier()) {
-				if (seg1.overlaps(seg2)) {
-					return true;
-				}
+		BezierCurve[] beziers1 = c1.toBezier();
+		BezierCurve[] beziers2 = c2.toBezier();
+		int[] pairs = getCandidatePairs(beziers1, beziers2);
+		for (int k = 0; k < pairs.length; k += 2) {
+			if (beziers1[pairs[k]].overlaps(beziers2[pairs[k + 1]])) {
+				return true;
 			}
 		}
 
 		return false;
 	}
 
+	/**
+	 * Returns the {@link BezierCurve}s that constitute the given
+	 * {@link ICurve}, or the outline of the given {@link IShape} or
+	 * {@link IMultiShape}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to convert.
+	 * @return The {@link BezierCurve}s representing the given
+	 *         {@link IGeometry}.
+	 */
+	private static BezierCurve[] toBezier(IGeometry geometry) {
+		if (geometry instanceof ICurve) {
+			return ((ICurve) geometry).toBezier();
+		}
+		List<BezierCurve> beziers = new ArrayList<>();
+		if (geometry instanceof IShape) {
+			for (ICurve curve : ((IShape) geometry).getOutlineSegments()) {
+				beziers.addAll(Arrays.asList(curve.toBezier()));
+			}
+		} else if (geometry instanceof IMultiShape) {
+			for (IShape shape : ((IMultiShape) geometry).getShapes()) {
+				for (ICurve curve : shape.getOutlineSegments()) {
+					beziers.addAll(Arrays.asList(curve.toBezier()));
+				}
+			}
+		} else {
+			throw new UnsupportedOperationException("Not yet implemented.");
+		}
+		return beziers.toArray(new BezierCurve[] {});
+	}
+
 	/**
 	 * Builds up a {@link Path} from the given {@link ICurve}s. Only
 	 * {@link Line}, {@link QuadraticCurve} and {@link CubicCurve} objects can
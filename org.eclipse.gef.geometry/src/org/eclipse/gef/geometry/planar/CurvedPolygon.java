@@ -304,11 +304,7 @@ public class CurvedPolygon extends AbstractGeometry
 	 */
 	@Override
 	public CurvedPolygon getTransformed(AffineTransform t) {
-		BezierCurve[] transformed = new BezierCurve[edges.length];
-		for (int i = 0; i < edges.length; i++) {
-			transformed[i] = edges[i].getTransformed(t);
-		}
-		return new CurvedPolygon(transformed);
+		return new CurvedPolygon(BezierCurve.getTransformed(edges, t));
 	}
 
 	@Override
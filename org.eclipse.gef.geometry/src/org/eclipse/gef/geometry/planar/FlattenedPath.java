@@ -0,0 +1,465 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+import org.eclipse.gef.geometry.planar.Path.Segment;
+
+/**
+ * A {@link FlattenedPath} approximates the {@link Segment}s of a {@link Path}
+ * by straight edges, where quadratic and cubic segments are flattened with a
+ * given flatness. All sub-paths are implicitly closed. The edges of each
+ * {@link Segment} form a group, for which the bounds are recorded, so that
+ * groups that cannot contribute to a rectangle test are skipped as a whole.
+ * Point tests are accelerated by a {@link SlabIndex} of the edges.
+ * <p>
+ * The crossing numbers computed by {@link #getCrossings(double, double)} and
+ * {@link #getCrossings(double, double, double, double)} follow the
+ * definitions of {@link java.awt.geom.Path2D}, so that the same insideness
+ * rules apply, except that points that lie on an edge (within the imprecision
+ * defined by {@link PrecisionUtils}) are detected.
+ *
+ * @author itemis AG
+ *
+ */
+class FlattenedPath {
+
+	/**
+	 * The value returned by
+	 * {@link #getCrossings(double, double, double, double)} if an edge
+	 * intersects the interior of the rectangle.
+	 */
+	static final int RECT_INTERSECTS = 0x80000000;
+
+	/**
+	 * The value returned by {@link #getCrossings(double, double)} if the point
+	 * lies on an edge.
+	 */
+	static final int ON_OUTLINE = 0x80000000;
+
+	private static final int MAX_SUBDIVISION_DEPTH = 10;
+
+	private static int getCrossings(double px, double py, double x0,
+			double y0, double x1, double y1) {
+		// ray to the right, half-open in y
+		if (py < y0 && py < y1 || py >= y0 && py >= y1
+				|| px >= x0 && px >= x1) {
+			return 0;
+		}
+		if (px < x0 && px < x1) {
+			return y0 < y1 ? 1 : -1;
+		}
+		double intercept = x0 + (py - y0) * (x1 - x0) / (y1 - y0);
+		if (px >= intercept) {
+			return 0;
+		}
+		return y0 < y1 ? 1 : -1;
+	}
+
+	private static int getCrossings(int crossings, double minX, double minY,
+			double maxX, double maxY, double x0, double y0, double x1,
+			double y1) {
+		if (y0 >= maxY && y1 >= maxY || y0 <= minY && y1 <= minY
+				|| x0 <= minX && x1 <= minX) {
+			return crossings;
+		}
+		if (x0 >= maxX && x1 >= maxX) {
+			return getRightCrossings(crossings, minY, maxY, y0, y1);
+		}
+		if (x0 > minX && x0 < maxX && y0 > minY && y0 < maxY
+				|| x1 > minX && x1 < maxX && y1 > minY && y1 < maxY) {
+			return RECT_INTERSECTS;
+		}
+		// determine where the edge passes the top and bottom of the rectangle
+		double xi0 = x0;
+		if (y0 < minY) {
+			xi0 += (minY - y0) * (x1 - x0) / (y1 - y0);
+		} else if (y0 > maxY) {
+			xi0 += (maxY - y0) * (x1 - x0) / (y1 - y0);
+		}
+		double xi1 = x1;
+		if (y1 < minY) {
+			xi1 += (minY - y1) * (x0 - x1) / (y0 - y1);
+		} else if (y1 > maxY) {
+			xi1 += (maxY - y1) * (x0 - x1) / (y0 - y1);
+		}
+		if (xi0 <= minX && xi1 <= minX) {
+			return crossings;
+		}
+		if (xi0 >= maxX && xi1 >= maxX) {
+			return getRightCrossings(crossings, minY, maxY, y0, y1);
+		}
+		return RECT_INTERSECTS;
+	}
+
+	private static int getRightCrossings(int crossings, double minY,
+			double maxY, double y0, double y1) {
+		// the edge passes to the right of the rectangle, count how often it
+		// crosses the extensions of its top and bottom side
+		if (y0 < y1) {
+			if (y0 <= minY) {
+				crossings++;
+			}
+			if (y1 >= maxY) {
+				crossings++;
+			}
+		} else if (y1 < y0) {
+			if (y1 <= minY) {
+				crossings--;
+			}
+			if (y0 >= maxY) {
+				crossings--;
+			}
+		}
+		return crossings;
+	}
+
+	private final double flatness;
+	private final double tolerance = PrecisionUtils.calculateFraction(0);
+
+	// edge i leads from (x0[i], y0[i]) to (x1[i], y1[i])
+	private int edgeCount;
+	private double[] x0 = new double[16];
+	private double[] y0 = new double[16];
+	private double[] x1 = new double[16];
+	private double[] y1 = new double[16];
+
+	// group i consists of the edges groupOffsets[i] to groupOffsets[i + 1]
+	private int groupCount;
+	private int[] groupOffsets = new int[9];
+	private double[] groupMinX = new double[8];
+	private double[] groupMinY = new double[8];
+	private double[] groupMaxX = new double[8];
+	private double[] groupMaxY = new double[8];
+
+	private double minX = Double.POSITIVE_INFINITY;
+	private double minY = Double.POSITIVE_INFINITY;
+	private double maxX = Double.NEGATIVE_INFINITY;
+	private double maxY = Double.NEGATIVE_INFINITY;
+
+	// created on demand, as it is only needed for point tests
+	private SlabIndex slabs;
+
+	/**
+	 * Constructs a new {@link FlattenedPath} for the given {@link Segment}s.
+	 *
+	 * @param segments
+	 *            The {@link Segment}s to flatten.
+	 * @param flatness
+	 *            The maximum distance between a curved segment and the edges
+	 *            that approximate it.
+	 * @throws IllegalStateException
+	 *             if the given {@link Segment}s do not start with a
+	 *             {@link Segment#MOVE_TO}.
+	 */
+	FlattenedPath(List<Segment> segments, double flatness) {
+		this.flatness = flatness;
+		boolean started = false;
+		double startX = 0;
+		double startY = 0;
+		double x = 0;
+		double y = 0;
+		for (Segment s : segments) {
+			Point[] points = s.getPoints();
+			if (s.getType() == Segment.MOVE_TO) {
+				if (started) {
+					// sub-paths are implicitly closed
+					addClose(x, y, startX, startY);
+				}
+				started = true;
+				startX = x = points[0].x;
+				startY = y = points[0].y;
+				continue;
+			}
+			if (!started) {
+				throw new IllegalStateException(
+						"This Path does not start with a MOVE_TO, therefore, no start position could be determined.");
+			}
+			switch (s.getType()) {
+			case Segment.LINE_TO:
+				addEdge(x, y, points[0].x, points[0].y);
+				x = points[0].x;
+				y = points[0].y;
+				break;
+			case Segment.QUAD_TO:
+				// elevate the degree to handle quadratic and cubic segments
+				// uniformly
+				addCubic(x, y, x + 2 * (points[0].x - x) / 3,
+						y + 2 * (points[0].y - y) / 3,
+						points[1].x + 2 * (points[0].x - points[1].x) / 3,
+						points[1].y + 2 * (points[0].y - points[1].y) / 3,
+						points[1].x, points[1].y, 0);
+				x = points[1].x;
+				y = points[1].y;
+				break;
+			case Segment.CUBIC_TO:
+				addCubic(x, y, points[0].x, points[0].y, points[1].x,
+						points[1].y, points[2].x, points[2].y, 0);
+				x = points[2].x;
+				y = points[2].y;
+				break;
+			case Segment.CLOSE:
+				addClose(x, y, startX, startY);
+				x = startX;
+				y = startY;
+				break;
+			default:
+				throw new IllegalStateException(
+						"This Path contains an unsupported Segment: <" + s
+								+ ">.");
+			}
+			closeGroup();
+		}
+		if (started) {
+			addClose(x, y, startX, startY);
+		}
+	}
+
+	private void addClose(double x, double y, double startX, double startY) {
+		if (x != startX || y != startY) {
+			addEdge(x, y, startX, startY);
+			closeGroup();
+		}
+	}
+
+	private void addCubic(double ax, double ay, double bx, double by,
+			double cx, double cy, double dx, double dy, int depth) {
+		double chordX = dx - ax;
+		double chordY = dy - ay;
+		double chordLength2 = chordX * chordX + chordY * chordY;
+		double d1 = (bx - ax) * chordY - (by - ay) * chordX;
+		double d2 = (cx - ax) * chordY - (cy - ay) * chordX;
+		double flatness2 = flatness * flatness;
+		boolean flat;
+		if (chordLength2 == 0) {
+			double e1 = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+			double e2 = (cx - ax) * (cx - ax) + (cy - ay) * (cy - ay);
+			flat = e1 <= flatness2 && e2 <= flatness2;
+		} else {
+			flat = d1 * d1 <= flatness2 * chordLength2
+					&& d2 * d2 <= flatness2 * chordLength2;
+		}
+		if (flat || depth >= MAX_SUBDIVISION_DEPTH) {
+			addEdge(ax, ay, dx, dy);
+			return;
+		}
+		// de Casteljau subdivision at t = 0.5
+		double abx = (ax + bx) / 2;
+		double aby = (ay + by) / 2;
+		double bcx = (bx + cx) / 2;
+		double bcy = (by + cy) / 2;
+		double cdx = (cx + dx) / 2;
+		double cdy = (cy + dy) / 2;
+		double abcx = (abx + bcx) / 2;
+		double abcy = (aby + bcy) / 2;
+		double bcdx = (bcx + cdx) / 2;
+		double bcdy = (bcy + cdy) / 2;
+		double mx = (abcx + bcdx) / 2;
+		double my = (abcy + bcdy) / 2;
+		addCubic(ax, ay, abx, aby, abcx, abcy, mx, my, depth + 1);
+		addCubic(mx, my, bcdx, bcdy, cdx, cdy, dx, dy, depth + 1);
+	}
+
+	private void addEdge(double ax, double ay, double bx, double by) {
+		if (edgeCount == x0.length) {
+			int capacity = 2 * edgeCount;
+			x0 = Arrays.copyOf(x0, capacity);
+			y0 = Arrays.copyOf(y0, capacity);
+			x1 = Arrays.copyOf(x1, capacity);
+			y1 = Arrays.copyOf(y1, capacity);
+		}
+		x0[edgeCount] = ax;
+		y0[edgeCount] = ay;
+		x1[edgeCount] = bx;
+		y1[edgeCount] = by;
+		edgeCount++;
+	}
+
+	private void closeGroup() {
+		int start = groupOffsets[groupCount];
+		if (start == edgeCount) {
+			return;
+		}
+		if (groupCount == groupMinX.length) {
+			int capacity = 2 * groupCount;
+			groupOffsets = Arrays.copyOf(groupOffsets, capacity + 1);
+			groupMinX = Arrays.copyOf(groupMinX, capacity);
+			groupMinY = Arrays.copyOf(groupMinY, capacity);
+			groupMaxX = Arrays.copyOf(groupMaxX, capacity);
+			groupMaxY = Arrays.copyOf(groupMaxY, capacity);
+		}
+		double gMinX = x0[start];
+		double gMinY = y0[start];
+		double gMaxX = gMinX;
+		double gMaxY = gMinY;
+		for (int i = start; i < edgeCount; i++) {
+			gMinX = Math.min(gMinX, x1[i]);
+			gMinY = Math.min(gMinY, y1[i]);
+			gMaxX = Math.max(gMaxX, x1[i]);
+			gMaxY = Math.max(gMaxY, y1[i]);
+		}
+		groupMinX[groupCount] = gMinX;
+		groupMinY[groupCount] = gMinY;
+		groupMaxX[groupCount] = gMaxX;
+		groupMaxY[groupCount] = gMaxY;
+		minX = Math.min(minX, gMinX);
+		minY = Math.min(minY, gMinY);
+		maxX = Math.max(maxX, gMaxX);
+		maxY = Math.max(maxY, gMaxY);
+		groupCount++;
+		groupOffsets[groupCount] = edgeCount;
+	}
+
+	/**
+	 * Computes the number of times a ray from the given point to the right is
+	 * crossed by the edges, where an edge that runs downwards (i.e. in the
+	 * direction of increasing y) counts +1, and one that runs upwards counts
+	 * -1. If the point lies on an edge, {@link #ON_OUTLINE} is returned
+	 * instead.
+	 *
+	 * @param x
+	 *            The x-coordinate of the point.
+	 * @param y
+	 *            The y-coordinate of the point.
+	 * @return The sum of the crossings, or {@link #ON_OUTLINE}.
+	 */
+	int getCrossings(double x, double y) {
+		if (!(x <= maxX + tolerance && y >= minY - tolerance
+				&& y <= maxY + tolerance)) {
+			return 0;
+		}
+		if (slabs == null) {
+			// enlarge the y ranges, so that edges near the point are found
+			// for the outline test
+			double[] edgeMinY = new double[edgeCount];
+			double[] edgeMaxY = new double[edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				edgeMinY[i] = Math.min(y0[i], y1[i]) - tolerance;
+				edgeMaxY[i] = Math.max(y0[i], y1[i]) + tolerance;
+			}
+			slabs = new SlabIndex(edgeMinY, edgeMaxY);
+		}
+		int slab = slabs.getSlab(y);
+		if (slab < 0) {
+			return 0;
+		}
+		int crossings = 0;
+		for (int i = slabs.getStart(slab), end = slabs.getEnd(slab); i < end;
+				i++) {
+			int e = slabs.getItem(i);
+			if (PreparedPolygon.isOnSegment(x0[e], y0[e], x1[e], y1[e], x, y,
+					tolerance)) {
+				return ON_OUTLINE;
+			}
+			crossings += getCrossings(x, y, x0[e], y0[e], x1[e], y1[e]);
+		}
+		return crossings;
+	}
+
+	/**
+	 * Computes the number of times the extensions of the top and bottom sides
+	 * of the given rectangle to the right are crossed by the edges, where an
+	 * edge that runs downwards counts +1, and one that runs upwards counts -1.
+	 * If any edge intersects the interior of the rectangle,
+	 * {@link #RECT_INTERSECTS} is returned instead.
+	 *
+	 * @param minX
+	 *            The minimum x-coordinate of the rectangle.
+	 * @param minY
+	 *            The minimum y-coordinate of the rectangle.
+	 * @param maxX
+	 *            The maximum x-coordinate of the rectangle.
+	 * @param maxY
+	 *            The maximum y-coordinate of the rectangle.
+	 * @return The sum of the crossings, or {@link #RECT_INTERSECTS}.
+	 */
+	int getCrossings(double minX, double minY, double maxX, double maxY) {
+		if (this.maxY <= minY || this.minY >= maxY || this.maxX <= minX) {
+			return 0;
+		}
+		int crossings = 0;
+		for (int g = 0; g < groupCount; g++) {
+			// groups above, below, or to the left of the rectangle do not
+			// contribute
+			if (groupMaxY[g] <= minY || groupMinY[g] >= maxY
+					|| groupMaxX[g] <= minX) {
+				continue;
+			}
+			for (int i = groupOffsets[g]; i < groupOffsets[g + 1]; i++) {
+				crossings = getCrossings(crossings, minX, minY, maxX, maxY,
+						x0[i], y0[i], x1[i], y1[i]);
+				if (crossings == RECT_INTERSECTS) {
+					return RECT_INTERSECTS;
+				}
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the number of edges.
+	 *
+	 * @return The number of edges.
+	 */
+	int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Returns the x-coordinate of the start point of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The x-coordinate of the start point.
+	 */
+	double getX0(int edge) {
+		return x0[edge];
+	}
+
+	/**
+	 * Returns the x-coordinate of the end point of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The x-coordinate of the end point.
+	 */
+	double getX1(int edge) {
+		return x1[edge];
+	}
+
+	/**
+	 * Returns the y-coordinate of the start point of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The y-coordinate of the start point.
+	 */
+	double getY0(int edge) {
+		return y0[edge];
+	}
+
+	/**
+	 * Returns the y-coordinate of the end point of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The y-coordinate of the end point.
+	 */
+	double getY1(int edge) {
+		return y1[edge];
+	}
+
+}
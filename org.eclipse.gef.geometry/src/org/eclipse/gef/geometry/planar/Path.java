@@ -12,14 +12,10 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
-import java.awt.geom.Area;
-import java.awt.geom.Path2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
-import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
 import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 
 /**
@@ -31,6 +27,11 @@ import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
  * intersects, equals, etc.) are based on a limited precision (with an accuracy
  * defined within {@link PrecisionUtils}) to compensate for rounding effects.
  *
+ * The containment and intersection tests are evaluated on a flattened
+ * representation of the {@link Path}, where quadratic and cubic segments are
+ * approximated by lines (with the {@link PolygonClipper#DEFAULT_FLATNESS}). It
+ * is computed on demand and kept until the {@link Path} is changed.
+ *
  * @author anyssen
  *
  */
@@ -245,7 +246,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * Unions the two specified {@link Path}s
+	 * Unions the two specified {@link Path}s. Curved segments are flattened,
+	 * see {@link PolygonClipper}.
 	 *
 	 * @param pa
 	 *            the first area to add
@@ -254,15 +256,12 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the sum of the areas
 	 */
 	public static Path add(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.add(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PolygonClipper.clip(pa, pb, PolygonClipper.UNION);
 	}
 
 	/**
 	 * Computes the area covered by the first or the second but not both given
-	 * areas.
+	 * areas. Curved segments are flattened, see {@link PolygonClipper}.
 	 *
 	 * @param pa
 	 *            the first area to compute the xor for
@@ -271,14 +270,12 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the exclusive-or of the areas
 	 */
 	public static Path exclusiveOr(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.exclusiveOr(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PolygonClipper.clip(pa, pb, PolygonClipper.EXCLUSIVE_OR);
 	}
 
 	/**
-	 * Intersects the given areas.
+	 * Intersects the given areas. Curved segments are flattened, see
+	 * {@link PolygonClipper}.
 	 *
 	 * @param pa
 	 *            the first area to intersect
@@ -288,14 +285,12 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 *         areas
 	 */
 	public static Path intersect(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.intersect(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PolygonClipper.clip(pa, pb, PolygonClipper.INTERSECTION);
 	}
 
 	/**
-	 * Subtracts the second given area from the first given area.
+	 * Subtracts the second given area from the first given area. Curved
+	 * segments are flattened, see {@link PolygonClipper}.
 	 *
 	 * @param pa
 	 *            the area to subtract from
@@ -304,16 +299,16 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the area covered by the first but not the second given area
 	 */
 	public static Path subtract(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.subtract(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PolygonClipper.clip(pa, pb, PolygonClipper.DIFFERENCE);
 	}
 
 	private int windingRule = WIND_NON_ZERO;
 
 	private List<Segment> segments = new ArrayList<>();
 
+	// cached flattened representation, reset on every change of the segments
+	private transient FlattenedPath flattened;
+
 	/**
 	 * Creates a new empty path with a default winding rule of
 	 * {@link #WIND_NON_ZERO}.
@@ -368,6 +363,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path add(List<Segment> segments) {
 		this.segments.addAll(segments);
+		flattened = null;
 		return this;
 	}
 
@@ -380,6 +376,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path add(Segment... segments) {
 		this.segments.addAll(Arrays.asList(segments));
+		flattened = null;
 		return this;
 	}
 
@@ -391,13 +388,19 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path close() {
 		segments.add(new Segment(Segment.CLOSE));
+		flattened = null;
 		return this;
 	}
 
 	@Override
 	public boolean contains(Point p) {
-		return Geometry2AWT.toAWTPath(this)
-				.contains(Geometry2AWT.toAWTPoint(p));
+		int crossings = getFlattened(PolygonClipper.DEFAULT_FLATNESS)
+				.getCrossings(p.x, p.y);
+		if (crossings == FlattenedPath.ON_OUTLINE) {
+			return true;
+		}
+		return windingRule == WIND_NON_ZERO ? crossings != 0
+				: (crossings & 1) != 0;
 	}
 
 	/**
@@ -412,8 +415,9 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 *         within this {@link IGeometry}
 	 */
 	public boolean contains(Rectangle r) {
-		return Geometry2AWT.toAWTPath(this)
-				.contains(Geometry2AWT.toAWTRectangle(r));
+		int crossings = getCrossings(r);
+		return crossings != FlattenedPath.RECT_INTERSECTS
+				&& isInside(crossings);
 	}
 
 	/**
@@ -440,6 +444,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 		segments.add(
 				new Segment(Segment.CUBIC_TO, new Point(control1X, control1Y),
 						new Point(control2X, control2Y), new Point(x, y)));
+		flattened = null;
 		return this;
 	}
 
@@ -474,6 +479,37 @@ public class Path extends AbstractGeometry implements IGeometry {
 		return new Path(getWindingRule(), getSegments());
 	}
 
+	private int getCrossings(Rectangle r) {
+		// empty rectangles are neither contained nor touched (as in AWT)
+		if (!(r.getWidth() > 0 && r.getHeight() > 0)) {
+			return 0;
+		}
+		return getFlattened(PolygonClipper.DEFAULT_FLATNESS).getCrossings(
+				r.getX(), r.getY(), r.getX() + r.getWidth(),
+				r.getY() + r.getHeight());
+	}
+
+	/**
+	 * Returns a {@link FlattenedPath} for this {@link Path}, which
+	 * approximates curved segments with the given flatness. The
+	 * {@link FlattenedPath} for the {@link PolygonClipper#DEFAULT_FLATNESS} is
+	 * cached until this {@link Path} is changed.
+	 *
+	 * @param flatness
+	 *            The maximum distance between a curved segment and the lines
+	 *            that approximate it.
+	 * @return The {@link FlattenedPath} for this {@link Path}.
+	 */
+	FlattenedPath getFlattened(double flatness) {
+		if (flatness != PolygonClipper.DEFAULT_FLATNESS) {
+			return new FlattenedPath(segments, flatness);
+		}
+		if (flattened == null) {
+			flattened = new FlattenedPath(segments, flatness);
+		}
+		return flattened;
+	}
+
 	/**
 	 * Returns a {@link List} of {@link ICurve}s, representing the outline of
 	 * <code>this</code> {@link Path}. For every {@link Segment#LINE_TO},
@@ -548,9 +584,31 @@ public class Path extends AbstractGeometry implements IGeometry {
 
 	@Override
 	public Path getTransformed(AffineTransform t) {
-		return AWT2Geometry
-				.toPath(new Path2D.Double(Geometry2AWT.toAWTPath(this),
-						Geometry2AWT.toAWTAffineTransform(t)));
+		// transform the points of all segments at once
+		int count = 0;
+		for (Segment s : segments) {
+			count += s.points.length;
+		}
+		double[] coordinates = new double[2 * count];
+		int k = 0;
+		for (Segment s : segments) {
+			for (Point p : s.points) {
+				coordinates[k++] = p.x;
+				coordinates[k++] = p.y;
+			}
+		}
+		t.transform(coordinates, 0, coordinates, 0, count);
+
+		Path transformed = new Path(windingRule);
+		k = 0;
+		for (Segment s : segments) {
+			Point[] points = new Point[s.points.length];
+			for (int i = 0; i < points.length; i++, k += 2) {
+				points[i] = new Point(coordinates[k], coordinates[k + 1]);
+			}
+			transformed.segments.add(new Segment(s.type, points));
+		}
+		return transformed;
 	}
 
 	/**
@@ -563,6 +621,13 @@ public class Path extends AbstractGeometry implements IGeometry {
 		return windingRule;
 	}
 
+	private boolean isInside(int rectangleCrossings) {
+		// every crossing of the rectangle is counted twice (at its top and
+		// bottom side)
+		return windingRule == WIND_NON_ZERO ? rectangleCrossings != 0
+				: (rectangleCrossings & 2) != 0;
+	}
+
 	/**
 	 * Adds a straight line segment from the current position to the specified
 	 * end position.
@@ -575,6 +640,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path lineTo(double x, double y) {
 		segments.add(new Segment(Segment.LINE_TO, new Point(x, y)));
+		flattened = null;
 		return this;
 	}
 
@@ -590,6 +656,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path moveTo(double x, double y) {
 		segments.add(new Segment(Segment.MOVE_TO, new Point(x, y)));
+		flattened = null;
 		return this;
 	}
 
@@ -612,6 +679,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 			double y) {
 		segments.add(new Segment(Segment.QUAD_TO, new Point(controlX, controlY),
 				new Point(x, y)));
+		flattened = null;
 		return this;
 	}
 
@@ -622,6 +690,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path reset() {
 		segments.clear();
+		flattened = null;
 		return this;
 	}
 
@@ -662,8 +731,9 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @see IGeometry#touches(IGeometry)
 	 */
 	public boolean touches(Rectangle r) {
-		return Geometry2AWT.toAWTPath(this)
-				.intersects(Geometry2AWT.toAWTRectangle(r));
+		int crossings = getCrossings(r);
+		return crossings == FlattenedPath.RECT_INTERSECTS
+				|| isInside(crossings);
 	}
 
 }
@@ -14,7 +14,6 @@ package org.eclipse.gef.geometry.planar;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.internal.utils.PointListUtils;
@@ -339,11 +338,7 @@ public class PolyBezier extends AbstractGeometry
 
 	@Override
 	public PolyBezier getTransformed(AffineTransform t) {
-		List<BezierCurve> transformedCurves = new ArrayList<>();
-		for (BezierCurve c : beziers) {
-			transformedCurves.add(c.getTransformed(t));
-		}
-		return new PolyBezier(transformedCurves.toArray(new BezierCurve[] {}));
+		return new PolyBezier(BezierCurve.getTransformed(beziers, t));
 	}
 
 	@Override
@@ -74,89 +74,20 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 		}
 	}
 
-	private static Polygon clipEar(Polygon p, int[] ear,
-			ArrayList<Polygon> ears) {
-		Point[] points = p.getPoints();
-		ears.add(new Polygon(points[ear[0]], points[ear[1]], points[ear[2]]));
-		return new Polygon(getPointsWithout(points, ear[1]));
-	}
-
 	/**
-	 * Searches the given list of {@link Point}s for a vertex that starts an
-	 * ear. An ear is a list of 3 vertices which build up a triangle that lies
-	 * inside the {@link Polygon} respective to the list of {@link Point}s and
-	 * can be clipped out of it so that the remaining {@link Polygon} remains
-	 * simple.
-	 *
-	 * @param points
-	 * @return
+	 * Checks if both end points of the second {@link Line} lie on the same
+	 * side of the first {@link Line}, with a distance that exceeds the given
+	 * margin, so that the {@link Line}s cannot touch.
 	 */
-	private static int[] findEarVertex(Polygon p) {
-		Point[] points = p.getPoints();
-
-		for (int start = 0; start < points.length; start++) {
-			int mid = start == points.length - 1 ? 0 : start + 1;
-			int end = start == points.length - 2 ? 0
-					: start == points.length - 1 ? 1 : start + 2;
-
-			if (p.contains(new Line(points[start], points[end]))) {
-				return new int[] { start, mid, end };
-			}
-		}
-
-		// this should never happen (for simple polygons)
-		return null;
-	}
-
-	private static Point[] getPointsWithout(Point[] points,
-			int... indicesToRemove) {
-		Point[] rest = new Point[points.length - indicesToRemove.length];
-		Arrays.sort(indicesToRemove);
-		for (int i = 0, j = 0; i < indicesToRemove.length; i++) {
-			for (int r = j; r < indicesToRemove[i]; r++) {
-				rest[r - i] = points[r];
-			}
-			j = indicesToRemove[i] + 1;
-		}
-		for (int i = indicesToRemove[indicesToRemove.length - 1]
-				+ 1; i < points.length; i++) {
-			rest[i - indicesToRemove.length] = points[i];
-		}
-		return rest;
-	}
-
-	/**
-	 * Clips exactly one ear off of the given {@link Polygon} and adds it to the
-	 * list of ears. If the resulting {@link Polygon} is a triangle, this is
-	 * added to the list of ears, too. Otherwise, the method recurses.
-	 *
-	 * @param p
-	 * @param ears
-	 */
-	private static void triangulate(Polygon p, ArrayList<Polygon> ears) {
-		if (p == null) {
-			throw new IllegalArgumentException(
-					"The given Polygon may not be null.");
-		}
-		if (ears == null) {
-			throw new IllegalArgumentException(
-					"The given ear-list may not be null.");
-		}
-		if (p.points.length < 3) {
-			throw new IllegalArgumentException(
-					"The given Polygon may not have less than three vertices.");
-		}
-
-		if (p.points.length == 3) {
-			ears.add(p.getCopy());
-			return;
-		}
-
-		int[] ear = findEarVertex(p);
-		Polygon rest = clipEar(p, ear, ears);
-
-		// recurse
-		triangulate(rest, ears);
+	private static boolean isSeparated(Line l1, Line l2, double margin) {
+		Point p = l1.getP1();
+		double dx = l1.getP2().x - p.x;
+		double dy = l1.getP2().y - p.y;
+		double threshold = margin * Math.sqrt(dx * dx + dy * dy);
+		double d1 = dx * (l2.getP1().y - p.y) - dy * (l2.getP1().x - p.x);
+		double d2 = dx * (l2.getP2().y - p.y) - dy * (l2.getP2().x - p.x);
+		return d1 > threshold && d2 > threshold
+				|| d1 < -threshold && d2 < -threshold;
 	}
 
 	private static final long serialVersionUID = 1L;
@@ -206,13 +137,38 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 					"A polygon can only be constructed of at least 3 vertices.");
 		}
 
-		for (Line e1 : getOutlineSegments()) {
-			for (Line e2 : getOutlineSegments()) {
+		// sort the edges by their left bounds, so that only edges whose
+		// (slightly enlarged) bounds overlap have to be compared
+		Line[] edges = getOutlineSegments();
+		Arrays.sort(edges, new Comparator<Line>() {
+			@Override
+			public int compare(Line l1, Line l2) {
+				return Double.compare(Math.min(l1.getX1(), l1.getX2()),
+						Math.min(l2.getX1(), l2.getX2()));
+			}
+		});
+		double margin = PrecisionUtils.calculateFraction(-2);
+		for (int i = 0; i < edges.length; i++) {
+			Line e1 = edges[i];
+			double maxX = Math.max(e1.getX1(), e1.getX2()) + 2 * margin;
+			double minY = Math.min(e1.getY1(), e1.getY2()) - 2 * margin;
+			double maxY = Math.max(e1.getY1(), e1.getY2()) + 2 * margin;
+			for (int j = i + 1; j < edges.length; j++) {
+				Line e2 = edges[j];
+				if (Math.min(e2.getX1(), e2.getX2()) > maxX) {
+					break;
+				}
+				if (Math.max(e2.getY1(), e2.getY2()) < minY
+						|| Math.min(e2.getY1(), e2.getY2()) > maxY) {
+					continue;
+				}
 				if (!e1.getP1().equals(e2.getP1())
 						&& !e1.getP2().equals(e2.getP1())
 						&& !e1.getP1().equals(e2.getP2())
 						&& !e1.getP2().equals(e2.getP2())) {
-					if (e1.touches(e2)) {
+					if (!isSeparated(e1, e2, margin)
+							&& !isSeparated(e2, e1, margin)
+							&& e1.touches(e2)) {
 						throw new IllegalStateException(
 								"Only simple polygons allowed. A polygon without any self-intersections is considered to be simple. This polygon is not simple.");
 					}
@@ -580,20 +536,18 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 	@Override
 	public Polygon getTransformed(AffineTransform t) {
 		// shape type should remain polygon (not path)
-		return new Polygon(t.getTransformed(points));
+		return new Polygon(t.getTransformed(getCoordinates()));
 	}
 
 	/**
-	 * Naive, recursive ear-clipping algorithm to triangulate this simple,
-	 * planar {@link Polygon}.
+	 * Triangulates this simple, planar {@link Polygon} in <i>O(n log n)</i>
+	 * time, using the {@link PolygonTriangulator}.
 	 *
 	 * @return triangulation {@link Polygon}s (triangles)
 	 */
 	public Polygon[] getTriangulation() {
 		assureSimplicity();
-		ArrayList<Polygon> ears = new ArrayList<>(points.length - 2);
-		triangulate(this, ears);
-		return ears.toArray(new Polygon[] {});
+		return PolygonTriangulator.triangulate(this);
 	}
 
 	/**
@@ -0,0 +1,933 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link PolygonClipper} computes boolean operations (union, intersection,
+ * difference, and exclusive-or) of the areas enclosed by two {@link Path}s,
+ * respecting the winding rule ({@link Path#WIND_EVEN_ODD} or
+ * {@link Path#WIND_NON_ZERO}) of each {@link Path}.
+ * <p>
+ * The operands are converted into edge lists, where straight segments are
+ * kept as they are, and quadratic and cubic segments are flattened with a
+ * given flatness. All edges are split at their mutual intersections, which
+ * are found using a sweep over the edges sorted by their minimum x
+ * coordinate. Afterwards, a sweep-line (following the approach of
+ * Martinez-Rueda) determines the winding numbers of both operands below each
+ * edge. Those edges that separate the interior of the result from its
+ * exterior are finally linked into closed rings. The interior of the result
+ * always lies on the left side of its rings, i.e. holes are oriented opposite
+ * to outer boundaries, so that the result can be filled using either winding
+ * rule.
+ * <p>
+ * All intermediate data is held in primitive arrays, so that the number of
+ * allocated objects does not depend on the size of the operands.
+ *
+ * @author itemis AG
+ *
+ */
+public class PolygonClipper {
+
+	interface IndexComparator {
+		int compare(int i, int j);
+	}
+
+	/**
+	 * Operation constant for computing the area that is covered by either of
+	 * the operands.
+	 */
+	public static final int UNION = 0;
+
+	/**
+	 * Operation constant for computing the area that is covered by both
+	 * operands.
+	 */
+	public static final int INTERSECTION = 1;
+
+	/**
+	 * Operation constant for computing the area that is covered by the first
+	 * but not by the second operand.
+	 */
+	public static final int DIFFERENCE = 2;
+
+	/**
+	 * Operation constant for computing the area that is covered by exactly one
+	 * of the operands.
+	 */
+	public static final int EXCLUSIVE_OR = 3;
+
+	/**
+	 * The default maximum distance between a flattened quadratic or cubic
+	 * segment and its approximating lines.
+	 */
+	public static final double DEFAULT_FLATNESS = 0.01;
+
+	// relative to the largest absolute coordinate of the operands
+	private static final double RELATIVE_TOLERANCE = 1e-10;
+
+	/**
+	 * Computes the boolean operation specified by the given operation
+	 * constant for the given {@link Path}s, flattening curved segments with
+	 * the {@link #DEFAULT_FLATNESS}.
+	 *
+	 * @param subject
+	 *            The first operand.
+	 * @param clip
+	 *            The second operand.
+	 * @param operation
+	 *            One of {@link #UNION}, {@link #INTERSECTION},
+	 *            {@link #DIFFERENCE}, or {@link #EXCLUSIVE_OR}.
+	 * @return A new {@link Path} (using {@link Path#WIND_NON_ZERO}), which
+	 *         outlines the result of the operation.
+	 */
+	public static Path clip(Path subject, Path clip, int operation) {
+		return clip(subject, clip, operation, DEFAULT_FLATNESS);
+	}
+
+	/**
+	 * Computes the boolean operation specified by the given operation
+	 * constant for the given {@link Path}s, flattening curved segments with
+	 * the given flatness.
+	 *
+	 * @param subject
+	 *            The first operand.
+	 * @param clip
+	 *            The second operand.
+	 * @param operation
+	 *            One of {@link #UNION}, {@link #INTERSECTION},
+	 *            {@link #DIFFERENCE}, or {@link #EXCLUSIVE_OR}.
+	 * @param flatness
+	 *            The maximum distance between a curved segment and the lines
+	 *            that approximate it.
+	 * @return A new {@link Path} (using {@link Path#WIND_NON_ZERO}), which
+	 *         outlines the result of the operation.
+	 */
+	public static Path clip(Path subject, Path clip, int operation,
+			double flatness) {
+		PolygonClipper clipper = new PolygonClipper(subject, clip, operation,
+				flatness);
+		Path result = new Path(Path.WIND_NON_ZERO);
+		for (double[] ring : clipper.rings) {
+			result.moveTo(ring[0], ring[1]);
+			for (int i = 2; i < ring.length; i += 2) {
+				result.lineTo(ring[i], ring[i + 1]);
+			}
+			result.close();
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the boolean operation specified by the given operation
+	 * constant for the given {@link Path}s, and returns the rings that outline
+	 * the result. The interior of the result lies on the left side of each
+	 * ring (with respect to a coordinate system where the y axis points
+	 * upwards), so that holes are oriented opposite to outer boundaries.
+	 *
+	 * @param subject
+	 *            The first operand.
+	 * @param clip
+	 *            The second operand.
+	 * @param operation
+	 *            One of {@link #UNION}, {@link #INTERSECTION},
+	 *            {@link #DIFFERENCE}, or {@link #EXCLUSIVE_OR}.
+	 * @param flatness
+	 *            The maximum distance between a curved segment and the lines
+	 *            that approximate it.
+	 * @return The {@link Polygon}s that outline the result of the operation.
+	 */
+	public static Polygon[] clipToPolygons(Path subject, Path clip,
+			int operation, double flatness) {
+		PolygonClipper clipper = new PolygonClipper(subject, clip, operation,
+				flatness);
+		Polygon[] polygons = new Polygon[clipper.rings.size()];
+		for (int i = 0; i < polygons.length; i++) {
+			polygons[i] = new Polygon(clipper.rings.get(i));
+		}
+		return polygons;
+	}
+
+	private static int orientation(double px, double py, double qx, double qy,
+			double rx, double ry) {
+		double cross = (qx - px) * (ry - py) - (qy - py) * (rx - px);
+		return cross > 0 ? 1 : cross < 0 ? -1 : 0;
+	}
+
+	static void sort(int[] indices, int length,
+			IndexComparator comparator) {
+		int[] buffer = new int[length];
+		// bottom-up merge sort, which is stable and does not box the indices
+		for (int width = 1; width < length; width *= 2) {
+			for (int lo = 0; lo < length - width; lo += 2 * width) {
+				int mid = lo + width;
+				int hi = Math.min(lo + 2 * width, length);
+				if (comparator.compare(indices[mid - 1], indices[mid]) <= 0) {
+					continue;
+				}
+				System.arraycopy(indices, lo, buffer, lo, hi - lo);
+				int i = lo;
+				int j = mid;
+				for (int k = lo; k < hi; k++) {
+					if (j >= hi || i < mid && comparator
+							.compare(buffer[i], buffer[j]) <= 0) {
+						indices[k] = buffer[i++];
+					} else {
+						indices[k] = buffer[j++];
+					}
+				}
+			}
+		}
+	}
+
+	private final int operation;
+	private final int subjectWindingRule;
+	private final int clipWindingRule;
+	private double tolerance;
+
+	// edges (x0, y0) -> (x1, y1), with the winding deltas for both operands
+	private int edgeCount;
+	private double[] x0 = new double[64];
+	private double[] y0 = new double[64];
+	private double[] x1 = new double[64];
+	private double[] y1 = new double[64];
+	private int[] subjectDeltas = new int[64];
+	private int[] clipDeltas = new int[64];
+
+	// split points, i.e. intersections in the interior of an edge
+	private int splitCount;
+	private int[] splitEdges = new int[64];
+	private double[] splitX = new double[64];
+	private double[] splitY = new double[64];
+
+	// winding numbers below each edge, and vertex indices of its end points
+	private int[] subjectWindings;
+	private int[] clipWindings;
+	private int[] leftVertices;
+	private int[] rightVertices;
+	private int vertexCount;
+	private double[] vertexX;
+	private double[] vertexY;
+
+	private final List<double[]> rings = new ArrayList<>();
+
+	private PolygonClipper(Path subject, Path clip, int operation,
+			double flatness) {
+		if (operation < UNION || operation > EXCLUSIVE_OR) {
+			throw new IllegalArgumentException(
+					"Unsupported operation: " + operation);
+		}
+		this.operation = operation;
+		subjectWindingRule = subject.getWindingRule();
+		clipWindingRule = clip.getWindingRule();
+		addEdges(subject, true, flatness);
+		addEdges(clip, false, flatness);
+		if (edgeCount == 0) {
+			return;
+		}
+		double maxCoordinate = 1;
+		for (int i = 0; i < edgeCount; i++) {
+			maxCoordinate = Math.max(maxCoordinate,
+					Math.max(Math.max(Math.abs(x0[i]), Math.abs(y0[i])),
+							Math.max(Math.abs(x1[i]), Math.abs(y1[i]))));
+		}
+		tolerance = maxCoordinate * RELATIVE_TOLERANCE;
+		computeIntersections();
+		snapVertices();
+		splitEdges();
+		mergeEdges();
+		computeWindings();
+		linkRings();
+	}
+
+	private void addEdge(boolean subject, double ax, double ay, double bx,
+			double by) {
+		if (ax == bx && ay == by) {
+			return;
+		}
+		if (edgeCount == x0.length) {
+			int capacity = 2 * edgeCount;
+			x0 = Arrays.copyOf(x0, capacity);
+			y0 = Arrays.copyOf(y0, capacity);
+			x1 = Arrays.copyOf(x1, capacity);
+			y1 = Arrays.copyOf(y1, capacity);
+			subjectDeltas = Arrays.copyOf(subjectDeltas, capacity);
+			clipDeltas = Arrays.copyOf(clipDeltas, capacity);
+		}
+		x0[edgeCount] = ax;
+		y0[edgeCount] = ay;
+		x1[edgeCount] = bx;
+		y1[edgeCount] = by;
+		subjectDeltas[edgeCount] = subject ? 1 : 0;
+		clipDeltas[edgeCount] = subject ? 0 : 1;
+		edgeCount++;
+	}
+
+	private void addEdges(Path path, boolean subject, double flatness) {
+		FlattenedPath flattened = path.getFlattened(flatness);
+		for (int i = 0; i < flattened.getEdgeCount(); i++) {
+			addEdge(subject, flattened.getX0(i), flattened.getY0(i),
+					flattened.getX1(i), flattened.getY1(i));
+		}
+	}
+
+	private void addSplit(int edge, double x, double y) {
+		if (splitCount == splitEdges.length) {
+			int capacity = 2 * splitCount;
+			splitEdges = Arrays.copyOf(splitEdges, capacity);
+			splitX = Arrays.copyOf(splitX, capacity);
+			splitY = Arrays.copyOf(splitY, capacity);
+		}
+		splitEdges[splitCount] = edge;
+		splitX[splitCount] = x;
+		splitY[splitCount] = y;
+		splitCount++;
+	}
+
+	/**
+	 * Compares the given points lexicographically, i.e. by x coordinate
+	 * first, and by y coordinate second. This is the order in which the
+	 * sweep-line passes the points.
+	 */
+	private int comparePoints(double ax, double ay, double bx, double by) {
+		if (ax != bx) {
+			return ax < bx ? -1 : 1;
+		}
+		if (ay != by) {
+			return ay < by ? -1 : 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Compares the given (non-crossing) edges, whose x-ranges overlap, by
+	 * their vertical order.
+	 */
+	private int compareStatus(int a, int b) {
+		if (a == b) {
+			return 0;
+		}
+		if (x0[a] == x0[b] && y0[a] == y0[b]) {
+			int o = orientation(x0[a], y0[a], x1[a], y1[a], x1[b], y1[b]);
+			if (o != 0) {
+				return o > 0 ? -1 : 1;
+			}
+			return a < b ? -1 : 1;
+		}
+		if (comparePoints(x0[a], y0[a], x0[b], y0[b]) > 0) {
+			return -compareStatus(b, a);
+		}
+		int o = orientation(x0[a], y0[a], x1[a], y1[a], x0[b], y0[b]);
+		if (o == 0) {
+			o = orientation(x0[a], y0[a], x1[a], y1[a], x1[b], y1[b]);
+		}
+		if (o != 0) {
+			return o > 0 ? -1 : 1;
+		}
+		return a < b ? -1 : 1;
+	}
+
+	/**
+	 * Determines the points at which the edges need to be split, so that no
+	 * two edges cross or overlap afterwards.
+	 */
+	private void computeIntersections() {
+		final double[] minX = new double[edgeCount];
+		double[] maxX = new double[edgeCount];
+		double[] minY = new double[edgeCount];
+		double[] maxY = new double[edgeCount];
+		int[] order = new int[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			minX[i] = Math.min(x0[i], x1[i]);
+			maxX[i] = Math.max(x0[i], x1[i]);
+			minY[i] = Math.min(y0[i], y1[i]);
+			maxY[i] = Math.max(y0[i], y1[i]);
+			order[i] = i;
+		}
+		sort(order, edgeCount, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				return Double.compare(minX[i], minX[j]);
+			}
+		});
+		int[] active = new int[16];
+		int activeCount = 0;
+		for (int k = 0; k < edgeCount; k++) {
+			int i = order[k];
+			int kept = 0;
+			for (int a = 0; a < activeCount; a++) {
+				int j = active[a];
+				if (maxX[j] < minX[i] - tolerance) {
+					// j cannot intersect any of the remaining edges
+					continue;
+				}
+				active[kept++] = j;
+				if (maxY[j] >= minY[i] - tolerance
+						&& minY[j] <= maxY[i] + tolerance) {
+					intersect(i, j);
+				}
+			}
+			activeCount = kept;
+			if (activeCount == active.length) {
+				active = Arrays.copyOf(active, 2 * activeCount);
+			}
+			active[activeCount++] = i;
+		}
+	}
+
+	/**
+	 * Sweeps over the (split and merged) edges from left to right,
+	 * maintaining the edges that intersect the sweep-line ordered from bottom
+	 * to top. When an edge is inserted, the winding numbers below it are
+	 * derived from its predecessor.
+	 */
+	private void computeWindings() {
+		int[] events = new int[2 * edgeCount];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = i;
+		}
+		sort(events, events.length, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				int e = i >> 1;
+				int f = j >> 1;
+				boolean leftI = (i & 1) == 0;
+				boolean leftJ = (j & 1) == 0;
+				int c = comparePoints(leftI ? x0[e] : x1[e],
+						leftI ? y0[e] : y1[e], leftJ ? x0[f] : x1[f],
+						leftJ ? y0[f] : y1[f]);
+				if (c != 0) {
+					return c;
+				}
+				// edges are removed before edges are inserted at a point, and
+				// edges that start at the same point are inserted from bottom
+				// to top
+				if (leftI != leftJ) {
+					return leftI ? 1 : -1;
+				}
+				return leftI ? compareStatus(e, f) : 0;
+			}
+		});
+
+		leftVertices = new int[edgeCount];
+		rightVertices = new int[edgeCount];
+		vertexX = new double[events.length];
+		vertexY = new double[events.length];
+		subjectWindings = new int[edgeCount];
+		clipWindings = new int[edgeCount];
+		vertexCount = 0;
+		int[] status = new int[16];
+		int statusCount = 0;
+		for (int event : events) {
+			int e = event >> 1;
+			boolean left = (event & 1) == 0;
+			double x = left ? x0[e] : x1[e];
+			double y = left ? y0[e] : y1[e];
+			if (vertexCount == 0 || vertexX[vertexCount - 1] != x
+					|| vertexY[vertexCount - 1] != y) {
+				vertexX[vertexCount] = x;
+				vertexY[vertexCount] = y;
+				vertexCount++;
+			}
+			if (!left) {
+				rightVertices[e] = vertexCount - 1;
+				int index = findStatus(status, statusCount, e);
+				System.arraycopy(status, index + 1, status, index,
+						statusCount - index - 1);
+				statusCount--;
+				continue;
+			}
+			leftVertices[e] = vertexCount - 1;
+			// binary search for the insertion index
+			int lo = 0;
+			int hi = statusCount;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (compareStatus(status[mid], e) < 0) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			if (lo > 0) {
+				int below = status[lo - 1];
+				subjectWindings[e] = subjectWindings[below]
+						+ subjectDeltas[below];
+				clipWindings[e] = clipWindings[below] + clipDeltas[below];
+			}
+			if (statusCount == status.length) {
+				status = Arrays.copyOf(status, 2 * statusCount);
+			}
+			System.arraycopy(status, lo, status, lo + 1, statusCount - lo);
+			status[lo] = e;
+			statusCount++;
+		}
+	}
+
+	private int findStatus(int[] status, int statusCount, int e) {
+		int lo = 0;
+		int hi = statusCount - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = compareStatus(status[mid], e);
+			if (c == 0) {
+				return mid;
+			} else if (c < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		// the order may be inconsistent due to rounding errors
+		for (int i = 0; i < statusCount; i++) {
+			if (status[i] == e) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("Edge is not contained in status.");
+	}
+
+	private boolean isInside(int subjectWinding, int clipWinding) {
+		boolean inSubject = subjectWindingRule == Path.WIND_EVEN_ODD
+				? (subjectWinding & 1) != 0 : subjectWinding != 0;
+		boolean inClip = clipWindingRule == Path.WIND_EVEN_ODD
+				? (clipWinding & 1) != 0 : clipWinding != 0;
+		switch (operation) {
+		case UNION:
+			return inSubject || inClip;
+		case INTERSECTION:
+			return inSubject && inClip;
+		case DIFFERENCE:
+			return inSubject && !inClip;
+		default:
+			return inSubject != inClip;
+		}
+	}
+
+	private void intersect(int i, int j) {
+		double px = x0[i];
+		double py = y0[i];
+		double rx = x1[i] - px;
+		double ry = y1[i] - py;
+		double qx = x0[j];
+		double qy = y0[j];
+		double sx = x1[j] - qx;
+		double sy = y1[j] - qy;
+		double rLength = Math.sqrt(rx * rx + ry * ry);
+		double sLength = Math.sqrt(sx * sx + sy * sy);
+		double d = rx * sy - ry * sx;
+		double qpx = qx - px;
+		double qpy = qy - py;
+		if (Math.abs(d) <= RELATIVE_TOLERANCE * rLength * sLength) {
+			// parallel edges only need to be split if they overlap
+			if (Math.abs(qpx * ry - qpy * rx) > tolerance * rLength) {
+				return;
+			}
+			splitAtPoint(i, x0[j], y0[j]);
+			splitAtPoint(i, x1[j], y1[j]);
+			splitAtPoint(j, x0[i], y0[i]);
+			splitAtPoint(j, x1[i], y1[i]);
+			return;
+		}
+		double t = (qpx * sy - qpy * sx) / d;
+		double u = (qpx * ry - qpy * rx) / d;
+		double tTolerance = tolerance / rLength;
+		double uTolerance = tolerance / sLength;
+		if (t < -tTolerance || t > 1 + tTolerance || u < -uTolerance
+				|| u > 1 + uTolerance) {
+			return;
+		}
+		boolean tInterior = t > tTolerance && t < 1 - tTolerance;
+		boolean uInterior = u > uTolerance && u < 1 - uTolerance;
+		if (!tInterior && !uInterior) {
+			// the edges touch at their end points
+			return;
+		}
+		// prefer existing end points to computed intersection points
+		double x;
+		double y;
+		if (!tInterior) {
+			x = t <= tTolerance ? x0[i] : x1[i];
+			y = t <= tTolerance ? y0[i] : y1[i];
+		} else if (!uInterior) {
+			x = u <= uTolerance ? x0[j] : x1[j];
+			y = u <= uTolerance ? y0[j] : y1[j];
+		} else {
+			x = px + t * rx;
+			y = py + t * ry;
+		}
+		if (tInterior) {
+			addSplit(i, x, y);
+		}
+		if (uInterior) {
+			addSplit(j, x, y);
+		}
+	}
+
+	/**
+	 * Links the edges that separate the interior of the result from its
+	 * exterior into rings, keeping the interior on the left side.
+	 */
+	private void linkRings() {
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		int[] offsets = new int[vertexCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			boolean insideBelow = isInside(subjectWindings[e],
+					clipWindings[e]);
+			boolean insideAbove = isInside(
+					subjectWindings[e] + subjectDeltas[e],
+					clipWindings[e] + clipDeltas[e]);
+			if (insideBelow == insideAbove) {
+				from[e] = -1;
+				continue;
+			}
+			from[e] = insideAbove ? leftVertices[e] : rightVertices[e];
+			to[e] = insideAbove ? rightVertices[e] : leftVertices[e];
+			offsets[from[e] + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] outgoing = new int[offsets[vertexCount]];
+		int[] fill = Arrays.copyOf(offsets, vertexCount);
+		for (int e = 0; e < edgeCount; e++) {
+			if (from[e] >= 0) {
+				outgoing[fill[from[e]]++] = e;
+			}
+		}
+		boolean[] used = new boolean[edgeCount];
+		int[] ring = new int[16];
+		for (int start = 0; start < edgeCount; start++) {
+			if (from[start] < 0 || used[start]) {
+				continue;
+			}
+			int length = 0;
+			int e = start;
+			while (e >= 0) {
+				used[e] = true;
+				if (length == ring.length) {
+					ring = Arrays.copyOf(ring, 2 * length);
+				}
+				ring[length++] = from[e];
+				int v = to[e];
+				if (v == from[start]) {
+					break;
+				}
+				// continue with the unused outgoing edge that turns most to
+				// the left, so that rings touching at a vertex are separated
+				double inX = vertexX[v] - vertexX[from[e]];
+				double inY = vertexY[v] - vertexY[from[e]];
+				int next = -1;
+				double bestTurn = Double.NEGATIVE_INFINITY;
+				for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+					int candidate = outgoing[k];
+					if (used[candidate]) {
+						continue;
+					}
+					double outX = vertexX[to[candidate]] - vertexX[v];
+					double outY = vertexY[to[candidate]] - vertexY[v];
+					double turn = Math.atan2(inX * outY - inY * outX,
+							inX * outX + inY * outY);
+					if (turn > bestTurn) {
+						bestTurn = turn;
+						next = candidate;
+					}
+				}
+				e = next;
+			}
+			addRing(ring, length);
+		}
+	}
+
+	private void addRing(int[] ring, int length) {
+		// remove vertices between collinear edges
+		int[] kept = new int[length];
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			int v = ring[i];
+			while (count >= 2 && isCollinear(kept[count - 2], kept[count - 1],
+					v)) {
+				count--;
+			}
+			kept[count++] = v;
+		}
+		int first = 0;
+		boolean changed = true;
+		while (changed && count - first >= 3) {
+			changed = false;
+			if (isCollinear(kept[count - 2], kept[count - 1], kept[first])) {
+				count--;
+				changed = true;
+			}
+			if (count - first >= 3 && isCollinear(kept[count - 1],
+					kept[first], kept[first + 1])) {
+				first++;
+				changed = true;
+			}
+		}
+		if (count - first < 3) {
+			return;
+		}
+		double[] coordinates = new double[2 * (count - first)];
+		for (int i = first; i < count; i++) {
+			coordinates[2 * (i - first)] = vertexX[kept[i]];
+			coordinates[2 * (i - first) + 1] = vertexY[kept[i]];
+		}
+		rings.add(coordinates);
+	}
+
+	private boolean isCollinear(int u, int v, int w) {
+		return orientation(vertexX[u], vertexY[u], vertexX[v], vertexY[v],
+				vertexX[w], vertexY[w]) == 0;
+	}
+
+	/**
+	 * Orients all edges from left to right, and merges edges with equal end
+	 * points by adding up their winding deltas. Edges whose winding deltas
+	 * cancel out are dropped.
+	 */
+	private void mergeEdges() {
+		for (int i = 0; i < edgeCount; i++) {
+			if (comparePoints(x0[i], y0[i], x1[i], y1[i]) > 0) {
+				double t = x0[i];
+				x0[i] = x1[i];
+				x1[i] = t;
+				t = y0[i];
+				y0[i] = y1[i];
+				y1[i] = t;
+				subjectDeltas[i] = -subjectDeltas[i];
+				clipDeltas[i] = -clipDeltas[i];
+			}
+		}
+		int[] order = new int[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			order[i] = i;
+		}
+		sort(order, edgeCount, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				int c = comparePoints(x0[i], y0[i], x0[j], y0[j]);
+				return c != 0 ? c : comparePoints(x1[i], y1[i], x1[j], y1[j]);
+			}
+		});
+		double[] mx0 = new double[edgeCount];
+		double[] my0 = new double[edgeCount];
+		double[] mx1 = new double[edgeCount];
+		double[] my1 = new double[edgeCount];
+		int[] mSubjectDeltas = new int[edgeCount];
+		int[] mClipDeltas = new int[edgeCount];
+		int count = 0;
+		for (int k = 0; k < edgeCount;) {
+			int i = order[k];
+			int subjectDelta = 0;
+			int clipDelta = 0;
+			int l = k;
+			while (l < edgeCount && x0[order[l]] == x0[i]
+					&& y0[order[l]] == y0[i] && x1[order[l]] == x1[i]
+					&& y1[order[l]] == y1[i]) {
+				subjectDelta += subjectDeltas[order[l]];
+				clipDelta += clipDeltas[order[l]];
+				l++;
+			}
+			if (subjectDelta != 0 || clipDelta != 0) {
+				mx0[count] = x0[i];
+				my0[count] = y0[i];
+				mx1[count] = x1[i];
+				my1[count] = y1[i];
+				mSubjectDeltas[count] = subjectDelta;
+				mClipDeltas[count] = clipDelta;
+				count++;
+			}
+			k = l;
+		}
+		x0 = mx0;
+		y0 = my0;
+		x1 = mx1;
+		y1 = my1;
+		subjectDeltas = mSubjectDeltas;
+		clipDeltas = mClipDeltas;
+		edgeCount = count;
+	}
+
+	/**
+	 * Snaps the end points of all edges and all split points, which lie
+	 * within the tolerance of each other, to a common representative, so that
+	 * intersection points that were computed for different pairs of edges
+	 * (e.g. for overlapping edges) coincide exactly. End points are preferred
+	 * as representatives.
+	 */
+	private void snapVertices() {
+		int count = 2 * edgeCount + splitCount;
+		final double[] px = new double[count];
+		final double[] py = new double[count];
+		for (int e = 0; e < edgeCount; e++) {
+			px[2 * e] = x0[e];
+			py[2 * e] = y0[e];
+			px[2 * e + 1] = x1[e];
+			py[2 * e + 1] = y1[e];
+		}
+		System.arraycopy(splitX, 0, px, 2 * edgeCount, splitCount);
+		System.arraycopy(splitY, 0, py, 2 * edgeCount, splitCount);
+		int[] order = new int[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		sort(order, count, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				return comparePoints(px[i], py[i], px[j], py[j]);
+			}
+		});
+		// runs of points with equal x coordinate, which can be skipped
+		int[] positions = new int[count];
+		int[] runStarts = new int[count];
+		int[] runEnds = new int[count];
+		for (int k = 0; k < count; k++) {
+			positions[order[k]] = k;
+			runStarts[k] = k > 0 && px[order[k - 1]] == px[order[k]]
+					? runStarts[k - 1] : k;
+		}
+		for (int k = count - 1; k >= 0; k--) {
+			runEnds[k] = k < count - 1 && px[order[k + 1]] == px[order[k]]
+					? runEnds[k + 1] : k;
+		}
+		// end points (which have lower indices) are processed first
+		int[] representatives = new int[count];
+		Arrays.fill(representatives, -1);
+		for (int p = 0; p < count; p++) {
+			int representative = p;
+			int k = positions[p];
+			for (int m = k - 1; m >= 0
+					&& px[order[m]] >= px[p] - tolerance; m--) {
+				int q = order[m];
+				if (px[q] == px[p] && py[q] < py[p] - tolerance) {
+					m = runStarts[m];
+				} else if (representatives[q] == q
+						&& Math.abs(py[q] - py[p]) <= tolerance
+						&& q < representative) {
+					representative = q;
+				}
+			}
+			for (int m = k + 1; m < count
+					&& px[order[m]] <= px[p] + tolerance; m++) {
+				int q = order[m];
+				if (px[q] == px[p] && py[q] > py[p] + tolerance) {
+					m = runEnds[m];
+				} else if (representatives[q] == q
+						&& Math.abs(py[q] - py[p]) <= tolerance
+						&& q < representative) {
+					representative = q;
+				}
+			}
+			representatives[p] = representative;
+		}
+		for (int e = 0; e < edgeCount; e++) {
+			int r = representatives[2 * e];
+			x0[e] = px[r];
+			y0[e] = py[r];
+			r = representatives[2 * e + 1];
+			x1[e] = px[r];
+			y1[e] = py[r];
+		}
+		for (int s = 0; s < splitCount; s++) {
+			int r = representatives[2 * edgeCount + s];
+			splitX[s] = px[r];
+			splitY[s] = py[r];
+		}
+	}
+
+	private void splitAtPoint(int edge, double x, double y) {
+		double rx = x1[edge] - x0[edge];
+		double ry = y1[edge] - y0[edge];
+		double length2 = rx * rx + ry * ry;
+		double t = ((x - x0[edge]) * rx + (y - y0[edge]) * ry) / length2;
+		double tTolerance = tolerance / Math.sqrt(length2);
+		if (t > tTolerance && t < 1 - tTolerance) {
+			addSplit(edge, x, y);
+		}
+	}
+
+	/**
+	 * Replaces all edges by the sub-edges between their split points.
+	 */
+	private void splitEdges() {
+		if (splitCount == 0) {
+			return;
+		}
+		final double[] parameters = new double[splitCount];
+		int[] order = new int[splitCount];
+		for (int s = 0; s < splitCount; s++) {
+			int e = splitEdges[s];
+			// the split points are ordered along the edge direction
+			parameters[s] = (splitX[s] - x0[e]) * (x1[e] - x0[e])
+					+ (splitY[s] - y0[e]) * (y1[e] - y0[e]);
+			order[s] = s;
+		}
+		sort(order, splitCount, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				if (splitEdges[i] != splitEdges[j]) {
+					return splitEdges[i] < splitEdges[j] ? -1 : 1;
+				}
+				return Double.compare(parameters[i], parameters[j]);
+			}
+		});
+		int capacity = edgeCount + splitCount;
+		double[] sx0 = new double[capacity];
+		double[] sy0 = new double[capacity];
+		double[] sx1 = new double[capacity];
+		double[] sy1 = new double[capacity];
+		int[] sSubjectDeltas = new int[capacity];
+		int[] sClipDeltas = new int[capacity];
+		int count = 0;
+		int k = 0;
+		for (int e = 0; e < edgeCount; e++) {
+			double x = x0[e];
+			double y = y0[e];
+			while (k < splitCount && splitEdges[order[k]] == e) {
+				int s = order[k++];
+				if (splitX[s] == x && splitY[s] == y) {
+					continue;
+				}
+				sx0[count] = x;
+				sy0[count] = y;
+				sx1[count] = x = splitX[s];
+				sy1[count] = y = splitY[s];
+				sSubjectDeltas[count] = subjectDeltas[e];
+				sClipDeltas[count] = clipDeltas[e];
+				count++;
+			}
+			if (x1[e] != x || y1[e] != y) {
+				sx0[count] = x;
+				sy0[count] = y;
+				sx1[count] = x1[e];
+				sy1[count] = y1[e];
+				sSubjectDeltas[count] = subjectDeltas[e];
+				sClipDeltas[count] = clipDeltas[e];
+				count++;
+			}
+		}
+		x0 = sx0;
+		y0 = sy0;
+		x1 = sx1;
+		y1 = sy1;
+		subjectDeltas = sSubjectDeltas;
+		clipDeltas = sClipDeltas;
+		edgeCount = count;
+	}
+
+}
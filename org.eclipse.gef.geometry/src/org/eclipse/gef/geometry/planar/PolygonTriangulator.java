@@ -0,0 +1,736 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import org.eclipse.gef.geometry.planar.PolygonClipper.IndexComparator;
+
+/**
+ * The {@link PolygonTriangulator} decomposes a simple polygon, which may
+ * contain holes, into triangles in <i>O(n log n)</i> time.
+ * <p>
+ * At first, a sweep-line over the vertices (sorted by decreasing y and
+ * increasing x coordinate) inserts diagonals at all split and merge vertices,
+ * so that the polygon is partitioned into y-monotone pieces (following de
+ * Berg et al., Computational Geometry, chapter 3). The pieces are then
+ * determined by walking around the vertices in angular order, and each piece
+ * is triangulated in linear time by a stack-based sweep over its two chains.
+ * <p>
+ * The vertices are held in primitive arrays and are referenced by index.
+ * Consecutive duplicate vertices are ignored, and triangles with zero area are
+ * omitted. Rings that pass a location more than once are split into loops
+ * there, and retraced edges (zero-width spikes) are retracted, so that weakly
+ * simple polygons are triangulated as well.
+ *
+ * @author itemis AG
+ *
+ */
+public class PolygonTriangulator {
+
+	// placeholder for the current sweep vertex within the sweep status
+	private static final int PROBE = -1;
+
+	/**
+	 * Triangulates the polygon whose outline and holes are given by the
+	 * specified coordinates. The first ring (the outline) is given by the
+	 * coordinates of the vertices up to the first hole index, each hole by
+	 * the coordinates of the vertices from its hole index up to the next one
+	 * (or the end of the coordinates). The orientation of the rings does not
+	 * matter. The rings have to be simple, may not intersect each other, and
+	 * each hole has to be located inside of the outline.
+	 *
+	 * @param coordinates
+	 *            An alternating, even-numbered sequence of x and y
+	 *            coordinates of the vertices of all rings.
+	 * @param holeIndices
+	 *            The (vertex) indices at which the holes start, in increasing
+	 *            order.
+	 * @return An array of vertex indices, where each three consecutive
+	 *         indices specify a triangle. Each triangle has the same
+	 *         orientation as the outline.
+	 */
+	public static int[] triangulate(double[] coordinates, int... holeIndices) {
+		if (coordinates == null || coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"The coordinates have to be given as an even-numbered sequence.");
+		}
+		int previous = 0;
+		for (int holeIndex : holeIndices) {
+			if (holeIndex < previous || holeIndex > coordinates.length / 2) {
+				throw new IllegalArgumentException(
+						"The hole indices have to be ascending vertex indices.");
+			}
+			previous = holeIndex;
+		}
+		PolygonTriangulator triangulator = new PolygonTriangulator(
+				coordinates, holeIndices);
+		return Arrays.copyOf(triangulator.triangles,
+				3 * triangulator.triangleCount);
+	}
+
+	/**
+	 * Triangulates the area that is enclosed by the given outline
+	 * {@link Polygon} but not by any of the given hole {@link Polygon}s. The
+	 * {@link Polygon}s have to be simple, may not intersect each other, and
+	 * the holes have to be located inside of the outline.
+	 *
+	 * @param outline
+	 *            The {@link Polygon} that outlines the area to triangulate.
+	 * @param holes
+	 *            The {@link Polygon}s that outline the holes.
+	 * @return The triangles ({@link Polygon}s), which have the same
+	 *         orientation as the outline.
+	 */
+	public static Polygon[] triangulate(Polygon outline, Polygon... holes) {
+		int[] holeIndices = new int[holes.length];
+		int vertexCount = outline.getPoints().length;
+		for (int i = 0; i < holes.length; i++) {
+			holeIndices[i] = vertexCount;
+			vertexCount += holes[i].getPoints().length;
+		}
+		double[] coordinates = new double[2 * vertexCount];
+		System.arraycopy(outline.getCoordinates(), 0, coordinates, 0,
+				2 * outline.getPoints().length);
+		for (int i = 0; i < holes.length; i++) {
+			double[] hole = holes[i].getCoordinates();
+			System.arraycopy(hole, 0, coordinates, 2 * holeIndices[i],
+					hole.length);
+		}
+		int[] indices = triangulate(coordinates, holeIndices);
+		Polygon[] triangles = new Polygon[indices.length / 3];
+		for (int i = 0; i < triangles.length; i++) {
+			int a = 2 * indices[3 * i];
+			int b = 2 * indices[3 * i + 1];
+			int c = 2 * indices[3 * i + 2];
+			triangles[i] = new Polygon(coordinates[a], coordinates[a + 1],
+					coordinates[b], coordinates[b + 1], coordinates[c],
+					coordinates[c + 1]);
+		}
+		return triangles;
+	}
+
+	private final double[] x;
+	private final double[] y;
+
+	// successor and predecessor of each vertex, so that the interior lies on
+	// the left of each edge (i, next[i]), or -1 for ignored vertices
+	private final int[] next;
+	private final int[] prev;
+	private final int[] vertices;
+	private int vertexCount;
+	private boolean outlineReversed;
+
+	// the first vertex at the location of each vertex, and the next vertex at
+	// the same location (or -1)
+	private final int[] locations;
+	private final int[] coincident;
+
+	// sweep status (edges identified by their start vertex)
+	private double sweepX;
+	private double sweepY;
+	private final TreeSet<Integer> status;
+	private final int[] helpers;
+	private final boolean[] merges;
+
+	private int diagonalCount;
+	private int[] diagonals = new int[64];
+
+	private int triangleCount;
+	private int[] triangles = new int[64];
+
+	private PolygonTriangulator(double[] coordinates, int[] holeIndices) {
+		int n = coordinates.length / 2;
+		x = new double[n];
+		y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = coordinates[2 * i];
+			y[i] = coordinates[2 * i + 1];
+		}
+		next = new int[n];
+		prev = new int[n];
+		Arrays.fill(next, -1);
+		Arrays.fill(prev, -1);
+		vertices = new int[n];
+		locations = new int[n];
+		coincident = new int[n];
+		helpers = new int[n];
+		merges = new boolean[n];
+		status = new TreeSet<>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return compareStatus(a, b);
+			}
+		});
+
+		// group the vertices by their location
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		PolygonClipper.sort(order, n, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				return x[i] != x[j] ? Double.compare(x[i], x[j])
+						: Double.compare(y[i], y[j]);
+			}
+		});
+		for (int k = 0; k < n; k++) {
+			boolean equal = k + 1 < n && isEqual(order[k], order[k + 1]);
+			coincident[order[k]] = equal ? order[k + 1] : -1;
+			locations[order[k]] = k > 0 && isEqual(order[k], order[k - 1])
+					? locations[order[k - 1]] : order[k];
+		}
+
+		for (int r = 0; r <= holeIndices.length; r++) {
+			int start = r == 0 ? 0 : holeIndices[r - 1];
+			int end = r == holeIndices.length ? n : holeIndices[r];
+			boolean reversed = linkRing(start, end, r == 0);
+			if (r == 0) {
+				if (vertexCount == 0) {
+					// degenerate outline
+					return;
+				}
+				outlineReversed = reversed;
+			}
+		}
+		partition();
+		triangulatePieces();
+	}
+
+	private void addDiagonal(int a, int b) {
+		if (locations[a] == locations[b]) {
+			// the pieces are already connected at the shared location
+			return;
+		}
+		for (int u = locations[a]; u >= 0; u = coincident[u]) {
+			if (next[u] >= 0 && (locations[next[u]] == locations[b]
+					|| locations[prev[u]] == locations[b])) {
+				// the diagonal coincides with an edge
+				return;
+			}
+		}
+		if (2 * diagonalCount + 2 > diagonals.length) {
+			diagonals = Arrays.copyOf(diagonals, 2 * diagonals.length);
+		}
+		diagonals[2 * diagonalCount] = a;
+		diagonals[2 * diagonalCount + 1] = b;
+		diagonalCount++;
+	}
+
+	private void addTriangle(int a, int b, int c) {
+		double cross = getCross(a, b, c);
+		if (cross == 0) {
+			return;
+		}
+		if (3 * triangleCount + 3 > triangles.length) {
+			triangles = Arrays.copyOf(triangles, 2 * triangles.length);
+		}
+		// restore the orientation of the outline
+		boolean swap = cross < 0 != outlineReversed;
+		triangles[3 * triangleCount] = a;
+		triangles[3 * triangleCount + 1] = swap ? c : b;
+		triangles[3 * triangleCount + 2] = swap ? b : c;
+		triangleCount++;
+	}
+
+	private int classify(double px, double py, int[] loop, int from,
+			int to) {
+		// -1 (outside), 0 (on the boundary) or 1 (inside)
+		boolean inside = false;
+		for (int k = from; k < to; k++) {
+			int a = loop[k];
+			int b = loop[k + 1 < to ? k + 1 : from];
+			if ((x[b] - x[a]) * (py - y[a]) == (y[b] - y[a]) * (px - x[a])
+					&& Math.min(x[a], x[b]) <= px && px <= Math.max(x[a], x[b])
+					&& Math.min(y[a], y[b]) <= py
+					&& py <= Math.max(y[a], y[b])) {
+				return 0;
+			}
+			if (y[a] > py != y[b] > py && px < x[a]
+					+ (py - y[a]) / (y[b] - y[a]) * (x[b] - x[a])) {
+				inside = !inside;
+			}
+		}
+		return inside ? 1 : -1;
+	}
+
+	private int compareStatus(int a, int b) {
+		if (a == b) {
+			return 0;
+		}
+		double xa = getSweepX(a);
+		double xb = getSweepX(b);
+		if (xa != xb) {
+			return xa < xb ? -1 : 1;
+		}
+		// edges that pass through the sweep vertex are left of it
+		if (a == PROBE) {
+			return 1;
+		}
+		if (b == PROBE) {
+			return -1;
+		}
+		// edges that share the sweep point are ordered below it
+		int c = Double.compare(getSlope(a), getSlope(b));
+		return c != 0 ? c : Integer.compare(a, b);
+	}
+
+	private double getArea(int[] loop, int from, int to) {
+		double area = 0;
+		for (int k = from; k < to; k++) {
+			int a = loop[k];
+			int b = loop[k + 1 < to ? k + 1 : from];
+			area += x[a] * y[b] - x[b] * y[a];
+		}
+		return area;
+	}
+
+	private double getCross(int a, int b, int c) {
+		return (x[b] - x[a]) * (y[c] - y[b]) - (y[b] - y[a]) * (x[c] - x[b]);
+	}
+
+	private int getLeftEdge(int v) {
+		sweepX = x[v];
+		sweepY = y[v];
+		Integer edge = status.lower(PROBE);
+		return edge == null ? -1 : edge;
+	}
+
+	private double getSlope(int edge) {
+		int b = next[edge];
+		double dy = y[edge] - y[b];
+		return dy == 0 ? Double.POSITIVE_INFINITY : (x[b] - x[edge]) / dy;
+	}
+
+	private double getSweepX(int edge) {
+		if (edge == PROBE) {
+			return sweepX;
+		}
+		int a = edge;
+		int b = next[edge];
+		if (y[a] == y[b]) {
+			// the (perturbed) sweep-line crosses a horizontal edge at the
+			// sweep point
+			return Math.max(Math.min(x[a], x[b]),
+					Math.min(Math.max(x[a], x[b]), sweepX));
+		}
+		if (sweepY == y[a]) {
+			return x[a];
+		}
+		if (sweepY == y[b]) {
+			return x[b];
+		}
+		return x[a] + (sweepY - y[a]) / (y[b] - y[a]) * (x[b] - x[a]);
+	}
+
+	private void handleVertex(int v) {
+		int p = prev[v];
+		int n = next[v];
+		boolean prevBelow = isAbove(v, p);
+		boolean nextBelow = isAbove(v, n);
+		boolean convex = getCross(p, v, n) > 0;
+		if (prevBelow && nextBelow) {
+			if (!convex) {
+				// split vertex
+				int left = getLeftEdge(v);
+				if (left >= 0) {
+					addDiagonal(v, helpers[left]);
+					helpers[left] = v;
+				}
+			}
+			insertEdge(v);
+		} else if (!prevBelow && !nextBelow) {
+			removeEdge(p, v);
+			if (!convex) {
+				// merge vertex
+				merges[v] = true;
+				updateLeftHelper(v);
+			}
+		} else if (!prevBelow) {
+			// regular vertex, interior on the right
+			removeEdge(p, v);
+			insertEdge(v);
+		} else {
+			// regular vertex, interior on the left
+			updateLeftHelper(v);
+		}
+	}
+
+	private void insertEdge(int v) {
+		sweepX = x[v];
+		sweepY = y[v];
+		helpers[v] = v;
+		status.add(v);
+	}
+
+	private boolean isAbove(int a, int b) {
+		return y[a] > y[b] || y[a] == y[b] && x[a] < x[b];
+	}
+
+	private boolean isConvex(int a, int b, int c, boolean leftChain) {
+		double cross = getCross(a, b, c);
+		return leftChain ? cross > 0 : cross < 0;
+	}
+
+	private boolean isEqual(int a, int b) {
+		return x[a] == x[b] && y[a] == y[b];
+	}
+
+	private boolean isExterior(int halfEdge) {
+		// the twins of the half-edges of the rings
+		return halfEdge < 2 * vertexCount && (halfEdge & 1) == 1;
+	}
+
+	private boolean isNested(int[] loops, int from, int to, int otherFrom,
+			int otherTo) {
+		// the loops do not cross, so that any vertex or edge midpoint that is
+		// not located on the boundary of the other loop decides
+		for (int k = from; k < to; k++) {
+			int a = loops[k];
+			int b = loops[k + 1 < to ? k + 1 : from];
+			int c = classify(x[a], y[a], loops, otherFrom, otherTo);
+			if (c == 0) {
+				c = classify((x[a] + x[b]) / 2, (y[a] + y[b]) / 2, loops,
+						otherFrom, otherTo);
+			}
+			if (c != 0) {
+				return c > 0;
+			}
+		}
+		return false;
+	}
+
+	private boolean isSpike(int a, int b, int c) {
+		// the edges (a, b) and (b, c) are collinear but opposed
+		return getCross(a, b, c) == 0 && (x[b] - x[a]) * (x[c] - x[b])
+				+ (y[b] - y[a]) * (y[c] - y[b]) < 0;
+	}
+
+	private boolean linkRing(int start, int end, boolean outline) {
+		if (end - start < 3) {
+			return false;
+		}
+
+		int[] ring = new int[end - start];
+		int[] positions = new int[end - start];
+		Arrays.fill(positions, -1);
+
+		// split the ring into loops at the vertices it passes more than once,
+		// so that no loop touches itself, and retract their spikes
+		int[] loops = new int[ring.length];
+		int[] loopStarts = new int[ring.length + 1];
+		int loopCount = 0;
+		int top = 0;
+		for (int i = start; i <= end; i++) {
+			int length;
+			if (i < end) {
+				int location = locations[i] - start;
+				int position = positions[location];
+				if (position < 0) {
+					positions[location] = top;
+					ring[top++] = i;
+					continue;
+				} else if (position == top - 1) {
+					// consecutive duplicate
+					continue;
+				}
+				for (int k = position + 1; k < top; k++) {
+					positions[locations[ring[k]] - start] = -1;
+				}
+				// the loop starts at the previous pass of the vertex, which is
+				// replaced by the current one
+				System.arraycopy(ring, position + 1, loops,
+						loopStarts[loopCount] + 1, top - position - 1);
+				loops[loopStarts[loopCount]] = i;
+				length = top - position;
+				top = position + 1;
+			} else {
+				// the remainder of the ring
+				System.arraycopy(ring, 0, loops, loopStarts[loopCount], top);
+				length = top;
+			}
+			int count = removeSpikes(loops, loopStarts[loopCount],
+					loopStarts[loopCount] + length);
+			if (count >= 3 && getArea(loops, loopStarts[loopCount],
+					loopStarts[loopCount] + count) != 0) {
+				loopStarts[loopCount + 1] = loopStarts[loopCount] + count;
+				loopCount++;
+			}
+		}
+
+		// loops of the ring do not cross but may be nested, so that those
+		// nested within an odd number of others are holes
+		double ringArea = 0;
+		for (int l = 0; l < loopCount; l++) {
+			int from = loopStarts[l];
+			int to = loopStarts[l + 1];
+			double area = getArea(loops, from, to);
+			ringArea += area;
+			boolean hole = !outline;
+			for (int o = 0; o < loopCount && loopCount > 1; o++) {
+				if (o != l && isNested(loops, from, to, loopStarts[o],
+						loopStarts[o + 1])) {
+					hole = !hole;
+				}
+			}
+			// the interior has to be on the left of each edge
+			boolean reverse = hole ? area > 0 : area < 0;
+			for (int k = from; k < to; k++) {
+				int a = loops[k];
+				int b = loops[k + 1 < to ? k + 1 : from];
+				vertices[vertexCount++] = a;
+				if (reverse) {
+					next[b] = a;
+					prev[a] = b;
+				} else {
+					next[a] = b;
+					prev[b] = a;
+				}
+			}
+		}
+		return ringArea < 0;
+	}
+
+	private void partition() {
+		int[] order = Arrays.copyOf(vertices, vertexCount);
+		PolygonClipper.sort(order, vertexCount, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				return isAbove(i, j) ? -1 : isAbove(j, i) ? 1 : 0;
+			}
+		});
+		for (int i = 0; i < vertexCount; i++) {
+			handleVertex(order[i]);
+		}
+	}
+
+	private void removeEdge(int edge, int v) {
+		if (merges[helpers[edge]]) {
+			addDiagonal(v, helpers[edge]);
+		}
+		sweepX = x[v];
+		sweepY = y[v];
+		if (!status.remove(edge)) {
+			// the status order is inconsistent due to rounding errors
+			for (Iterator<Integer> it = status.iterator(); it.hasNext();) {
+				if (it.next() == edge) {
+					it.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	private int removeSpikes(int[] ring, int from, int to) {
+		// retract zero-width spikes (antennas) and remove duplicate vertices
+		int top = from;
+		for (int k = from; k < to; k++) {
+			int v = ring[k];
+			while (v >= 0) {
+				if (top > from && isEqual(ring[top - 1], v)) {
+					v = -1;
+				} else if (top - from >= 2
+						&& isSpike(ring[top - 2], ring[top - 1], v)) {
+					top--;
+				} else {
+					break;
+				}
+			}
+			if (v >= 0) {
+				ring[top++] = v;
+			}
+		}
+		// the same at the closing vertex
+		int bottom = from;
+		while (top - bottom >= 2) {
+			if (isEqual(ring[top - 1], ring[bottom])) {
+				top--;
+			} else if (top - bottom >= 3
+					&& isSpike(ring[top - 2], ring[top - 1], ring[bottom])) {
+				top--;
+			} else if (top - bottom >= 3
+					&& isSpike(ring[top - 1], ring[bottom], ring[bottom + 1])) {
+				bottom++;
+			} else {
+				break;
+			}
+		}
+		System.arraycopy(ring, bottom, ring, from, top - bottom);
+		return top - bottom;
+	}
+
+	private void triangulateMonotone(int[] piece, int m, int[] sorted,
+			boolean[] leftChain, int[] stack) {
+		if (m < 3) {
+			return;
+		}
+		if (m == 3) {
+			addTriangle(piece[0], piece[1], piece[2]);
+			return;
+		}
+		int top = 0;
+		int bottom = 0;
+		for (int i = 1; i < m; i++) {
+			if (isAbove(piece[i], piece[top])) {
+				top = i;
+			}
+			if (isAbove(piece[bottom], piece[i])) {
+				bottom = i;
+			}
+		}
+		// merge the left chain (following the piece from its top) and the
+		// right chain (following the piece backwards from its top)
+		sorted[0] = piece[top];
+		int l = top + 1 < m ? top + 1 : 0;
+		int r = top > 0 ? top - 1 : m - 1;
+		for (int k = 1; k < m; k++) {
+			if (l != bottom && (r == bottom || isAbove(piece[l], piece[r]))) {
+				sorted[k] = piece[l];
+				leftChain[k] = true;
+				l = l + 1 < m ? l + 1 : 0;
+			} else if (r != bottom) {
+				sorted[k] = piece[r];
+				leftChain[k] = false;
+				r = r > 0 ? r - 1 : m - 1;
+			} else {
+				sorted[k] = piece[bottom];
+				leftChain[k] = true;
+			}
+		}
+		int sp = 0;
+		stack[sp++] = 0;
+		stack[sp++] = 1;
+		for (int j = 2; j < m - 1; j++) {
+			if (leftChain[j] != leftChain[stack[sp - 1]]) {
+				// connect to all vertices on the stack
+				for (int s = 0; s < sp - 1; s++) {
+					addTriangle(sorted[j], sorted[stack[s]],
+							sorted[stack[s + 1]]);
+				}
+				stack[0] = j - 1;
+				stack[1] = j;
+				sp = 2;
+			} else {
+				int last = stack[--sp];
+				while (sp > 0 && isConvex(sorted[stack[sp - 1]], sorted[last],
+						sorted[j], leftChain[j])) {
+					addTriangle(sorted[stack[sp - 1]], sorted[last],
+							sorted[j]);
+					last = stack[--sp];
+				}
+				stack[sp++] = last;
+				stack[sp++] = j;
+			}
+		}
+		for (int s = 0; s < sp - 1; s++) {
+			addTriangle(sorted[m - 1], sorted[stack[s]], sorted[stack[s + 1]]);
+		}
+	}
+
+	private void triangulatePieces() {
+		// half-edges 2k and 2k + 1 are twins; the interior lies on the left of
+		// the even half-edges of the rings, and of both half-edges of the
+		// diagonals; vertices at the same location are identified, so that
+		// pieces that touch there are separated by the angular order
+		int edgeCount = vertexCount + diagonalCount;
+		int halfEdgeCount = 2 * edgeCount;
+		final int[] from = new int[halfEdgeCount];
+		int[] to = new int[halfEdgeCount];
+		for (int k = 0; k < vertexCount; k++) {
+			int v = vertices[k];
+			from[2 * k] = to[2 * k + 1] = locations[v];
+			to[2 * k] = from[2 * k + 1] = locations[next[v]];
+		}
+		for (int d = 0; d < diagonalCount; d++) {
+			int k = vertexCount + d;
+			from[2 * k] = to[2 * k + 1] = locations[diagonals[2 * d]];
+			to[2 * k] = from[2 * k + 1] = locations[diagonals[2 * d + 1]];
+		}
+
+		// outgoing half-edges of each vertex, sorted by angle
+		int n = x.length;
+		int[] offsets = new int[n + 1];
+		for (int h = 0; h < halfEdgeCount; h++) {
+			offsets[from[h] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		final double[] angles = new double[halfEdgeCount];
+		for (int h = 0; h < halfEdgeCount; h++) {
+			angles[h] = Math.atan2(y[to[h]] - y[from[h]],
+					x[to[h]] - x[from[h]]);
+		}
+		// sort all half-edges at once (instead of per vertex), as the number
+		// of diagonals that end at a vertex is not bounded
+		int[] outgoing = new int[halfEdgeCount];
+		for (int h = 0; h < halfEdgeCount; h++) {
+			outgoing[h] = h;
+		}
+		PolygonClipper.sort(outgoing, halfEdgeCount, new IndexComparator() {
+			@Override
+			public int compare(int i, int j) {
+				int c = Integer.compare(from[i], from[j]);
+				if (c == 0) {
+					c = Double.compare(angles[i], angles[j]);
+				}
+				// where loops share an edge, the half-edge with the interior
+				// on its right precedes the one with the interior on its left
+				return c != 0 ? c
+						: Boolean.compare(isExterior(j), isExterior(i));
+			}
+		});
+		int[] positions = new int[halfEdgeCount];
+		for (int i = 0; i < halfEdgeCount; i++) {
+			positions[outgoing[i]] = i - offsets[from[outgoing[i]]];
+		}
+
+		// walk around each piece, turning clockwise at each vertex
+		boolean[] visited = new boolean[halfEdgeCount];
+		int[] piece = new int[halfEdgeCount];
+		int[] sorted = new int[halfEdgeCount];
+		boolean[] leftChain = new boolean[halfEdgeCount];
+		int[] stack = new int[halfEdgeCount];
+		for (int h = 0; h < halfEdgeCount; h++) {
+			if (visited[h] || isExterior(h)) {
+				continue;
+			}
+			int m = 0;
+			int e = h;
+			do {
+				visited[e] = true;
+				piece[m++] = from[e];
+				int v = to[e];
+				int degree = offsets[v + 1] - offsets[v];
+				e = outgoing[offsets[v]
+						+ (positions[e ^ 1] + degree - 1) % degree];
+			} while (e != h && m < halfEdgeCount);
+			triangulateMonotone(piece, m, sorted, leftChain, stack);
+		}
+	}
+
+	private void updateLeftHelper(int v) {
+		int left = getLeftEdge(v);
+		if (left >= 0) {
+			if (merges[helpers[left]]) {
+				addDiagonal(v, helpers[left]);
+			}
+			helpers[left] = v;
+		}
+	}
+
+}
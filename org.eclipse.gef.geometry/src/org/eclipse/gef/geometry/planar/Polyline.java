@@ -205,7 +205,7 @@ public class Polyline extends AbstractPointListBasedGeometry<Polyline>
 
 	@Override
 	public Polyline getTransformed(AffineTransform t) {
-		return new Polyline(t.getTransformed(points));
+		return new Polyline(t.getTransformed(getCoordinates()));
 	}
 
 	@Override
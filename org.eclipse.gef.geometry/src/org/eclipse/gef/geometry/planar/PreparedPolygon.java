@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * <p>
+ * A {@link PreparedPolygon} answers repeated point containment queries for a
+ * {@link Polygon} efficiently. Its bounds and a {@link SlabIndex} of its edges
+ * are computed once, so that {@link #contains(double, double)} only has to
+ * examine those edges whose y range contains the query point, which is done
+ * without any allocations using a crossing number test.
+ * </p>
+ * <p>
+ * As {@link Polygon#contains(Point)}, points that lie on the outline (within
+ * the imprecision defined by {@link PrecisionUtils}) are regarded to be
+ * contained. The {@link PreparedPolygon} works on a copy of the coordinates of
+ * the {@link Polygon}, i.e. it does not reflect subsequent changes to the
+ * {@link Polygon}.
+ * </p>
+ *
+ * @author itemis AG
+ *
+ */
+public class PreparedPolygon {
+
+	/**
+	 * Checks if the given point lies on the line segment from (x1, y1) to
+	 * (x2, y2), with respect to the given tolerance.
+	 */
+	static boolean isOnSegment(double x1, double y1, double x2,
+			double y2, double x, double y, double tolerance) {
+		if (x < Math.min(x1, x2) - tolerance
+				|| x > Math.max(x1, x2) + tolerance
+				|| y < Math.min(y1, y2) - tolerance
+				|| y > Math.max(y1, y2) + tolerance) {
+			return false;
+		}
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		return Math.abs(dx * (y - y1) - dy * (x - x1)) <= tolerance
+				* Math.sqrt(dx * dx + dy * dy);
+	}
+
+	private final double tolerance = PrecisionUtils.calculateFraction(0);
+	private final double[] coordinates;
+	private final double minX, minY, maxX, maxY;
+
+	// edge i leads from (x1[i], y1[i]) to (x2[i], y2[i])
+	private final double[] x1, y1, x2, y2;
+	private final SlabIndex slabs;
+
+	/**
+	 * Constructs a new {@link PreparedPolygon} for the given {@link Polygon}.
+	 *
+	 * @param polygon
+	 *            The {@link Polygon} to prepare.
+	 */
+	public PreparedPolygon(Polygon polygon) {
+		coordinates = polygon.getCoordinates();
+		int n = coordinates.length / 2;
+		x1 = new double[n];
+		y1 = new double[n];
+		x2 = new double[n];
+		y2 = new double[n];
+		double[] edgeMinY = new double[n];
+		double[] edgeMaxY = new double[n];
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			int j = i + 1 < n ? i + 1 : 0;
+			x1[i] = coordinates[2 * i];
+			y1[i] = coordinates[2 * i + 1];
+			x2[i] = coordinates[2 * j];
+			y2[i] = coordinates[2 * j + 1];
+			// enlarge the y range, so that edges near the query point are
+			// found for the outline test
+			edgeMinY[i] = Math.min(y1[i], y2[i]) - tolerance;
+			edgeMaxY[i] = Math.max(y1[i], y2[i]) + tolerance;
+			minX = Math.min(minX, x1[i]);
+			minY = Math.min(minY, y1[i]);
+			maxX = Math.max(maxX, x1[i]);
+			maxY = Math.max(maxY, y1[i]);
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		slabs = new SlabIndex(edgeMinY, edgeMaxY);
+	}
+
+	/**
+	 * Checks whether the point that is represented by its x- and y-coordinates
+	 * is contained within the prepared {@link Polygon}.
+	 *
+	 * @param x
+	 *            the x-coordinate of the point to test
+	 * @param y
+	 *            the y-coordinate of the point to test
+	 * @return <code>true</code> if the point is contained (or lies on the
+	 *         outline), <code>false</code> otherwise
+	 */
+	public boolean contains(double x, double y) {
+		// quick rejection test via the bounds
+		if (x < minX - tolerance || x > maxX + tolerance || y < minY - tolerance
+				|| y > maxY + tolerance) {
+			return false;
+		}
+		int slab = slabs.getSlab(y);
+		if (slab < 0) {
+			return false;
+		}
+		boolean odd = false;
+		for (int i = slabs.getStart(slab), end = slabs.getEnd(slab); i < end;
+				i++) {
+			int e = slabs.getItem(i);
+			double ax = x1[e];
+			double ay = y1[e];
+			double bx = x2[e];
+			double by = y2[e];
+			if (isOnSegment(ax, ay, bx, by, x, y, tolerance)) {
+				return true;
+			}
+			// count the crossings of a ray to the right (half-open in y)
+			if (ay > y != by > y
+					&& x < ax + (y - ay) / (by - ay) * (bx - ax)) {
+				odd = !odd;
+			}
+		}
+		return odd;
+	}
+
+	/**
+	 * Checks whether the given {@link Point} is contained within the prepared
+	 * {@link Polygon}.
+	 *
+	 * @param p
+	 *            the {@link Point} to test
+	 * @return <code>true</code> if the {@link Point} is contained (or lies on
+	 *         the outline), <code>false</code> otherwise
+	 * @see #contains(double, double)
+	 */
+	public boolean contains(Point p) {
+		return contains(p.x, p.y);
+	}
+
+	/**
+	 * Returns the bounds of the prepared {@link Polygon}.
+	 *
+	 * @return A new {@link Rectangle} representing the bounds.
+	 */
+	public Rectangle getBounds() {
+		if (coordinates.length == 0) {
+			return new Rectangle();
+		}
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Returns a {@link Polygon} with the prepared coordinates.
+	 *
+	 * @return A new {@link Polygon}.
+	 */
+	public Polygon getPolygon() {
+		return new Polygon(coordinates);
+	}
+
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * A {@link PreparedRing} answers repeated point containment queries for a
+ * {@link Ring} efficiently. Each of the {@link Polygon}s of the {@link Ring}
+ * is prepared as a {@link PreparedPolygon}, and a {@link SlabIndex} of their
+ * bounds is computed once, so that {@link #contains(double, double)} only has
+ * to examine those {@link Polygon}s whose y range contains the query point.
+ * The {@link PreparedRing} does not reflect subsequent changes to the
+ * {@link Ring}.
+ *
+ * @author itemis AG
+ *
+ */
+public class PreparedRing {
+
+	private final PreparedPolygon[] polygons;
+	private final SlabIndex slabs;
+
+	/**
+	 * Constructs a new {@link PreparedRing} for the given {@link Ring}.
+	 *
+	 * @param ring
+	 *            The {@link Ring} to prepare.
+	 */
+	public PreparedRing(Ring ring) {
+		Polygon[] shapes = ring.getShapes();
+		polygons = new PreparedPolygon[shapes.length];
+		double[] minY = new double[shapes.length];
+		double[] maxY = new double[shapes.length];
+		// enlarge the y ranges by the imprecision, as points on the outline
+		// of a polygon are contained
+		double tolerance = PrecisionUtils.calculateFraction(0);
+		for (int i = 0; i < shapes.length; i++) {
+			polygons[i] = new PreparedPolygon(shapes[i]);
+			Rectangle bounds = polygons[i].getBounds();
+			minY[i] = bounds.getY() - tolerance;
+			maxY[i] = bounds.getY() + bounds.getHeight() + tolerance;
+		}
+		slabs = new SlabIndex(minY, maxY);
+	}
+
+	/**
+	 * Checks whether the point that is represented by its x- and y-coordinates
+	 * is contained within the prepared {@link Ring}.
+	 *
+	 * @param x
+	 *            the x-coordinate of the point to test
+	 * @param y
+	 *            the y-coordinate of the point to test
+	 * @return <code>true</code> if the point is contained by one of the
+	 *         {@link Polygon}s of the {@link Ring}, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean contains(double x, double y) {
+		int slab = slabs.getSlab(y);
+		if (slab < 0) {
+			return false;
+		}
+		for (int i = slabs.getStart(slab), end = slabs.getEnd(slab); i < end;
+				i++) {
+			if (polygons[slabs.getItem(i)].contains(x, y)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the given {@link Point} is contained within the prepared
+	 * {@link Ring}.
+	 *
+	 * @param p
+	 *            the {@link Point} to test
+	 * @return <code>true</code> if the {@link Point} is contained by one of
+	 *         the {@link Polygon}s of the {@link Ring}, <code>false</code>
+	 *         otherwise
+	 * @see #contains(double, double)
+	 */
+	public boolean contains(Point p) {
+		return contains(p.x, p.y);
+	}
+
+}
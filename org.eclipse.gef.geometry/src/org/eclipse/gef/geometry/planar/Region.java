@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 itemis AG and others.
+ * Copyright (c) 2011, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -13,15 +13,14 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 
 /**
  * A combination of {@link Rectangle}s. The {@link Rectangle}s that build up a
@@ -36,6 +35,15 @@ import org.eclipse.gef.geometry.euclidean.Angle;
  * They are defined to not share any area, so that only their borders can be
  * overlapping.
  *
+ * Internally, the covered area is stored in a banded representation (as known
+ * from X11 regions): The area is divided into horizontal bands, which are
+ * sorted by their y coordinates and do not overlap. Each band holds a list of
+ * x-sorted, non-overlapping spans. Horizontally touching spans and vertically
+ * touching bands with identical spans are coalesced, so that the
+ * representation of an area is unique. Boolean operations ({@link #add},
+ * {@link #intersect}, {@link #subtract}) merge the bands of both operands in
+ * linear time, and point containment is decided by binary search.
+ *
  * @author anyssen
  * @author mwienand
  *
@@ -44,70 +52,248 @@ public class Region extends AbstractMultiShape
 		implements ITranslatable<Region>, IScalable<Region>, IRotatable<Ring> {
 
 	/**
-	 * Cuts the given {@link Rectangle}s along the given parallel to the x-axis.
-	 *
-	 * @param y
-	 *            the distance of the cut-line to the x-axis
-	 * @param parts
-	 *            the {@link Rectangle}s to cut along that line
+	 * The banded representation of the area of a {@link Region}. Band
+	 * <i>i</i> reaches from <code>tops[i]</code> to <code>bottoms[i]</code>
+	 * and consists of the spans <code>offsets[i]</code> (inclusive) to
+	 * <code>offsets[i + 1]</code> (exclusive), where span <i>j</i> reaches
+	 * from <code>lefts[j]</code> to <code>rights[j]</code>.
 	 */
-	private static void cutH(double y, ArrayList<Rectangle> parts) {
-		for (Rectangle r : new ArrayList<>(parts)) {
-			if (r.y < y && y < r.y + r.height) {
-				parts.remove(r);
-				parts.add(new Rectangle(r.x, r.y, r.width, y - r.y));
-				parts.add(new Rectangle(r.x, y, r.width, r.y + r.height - y));
+	private static final class Bands implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private int bandCount;
+		private double[] tops = new double[4];
+		private double[] bottoms = new double[4];
+		private int[] offsets = new int[5];
+		private int spanCount;
+		private double[] lefts = new double[4];
+		private double[] rights = new double[4];
+
+		/**
+		 * Appends a span to the band that is currently built. Spans have to
+		 * be added in order of their left coordinates. A span that overlaps
+		 * or touches the previous span is merged with it.
+		 */
+		private void addSpan(double left, double right) {
+			if (spanCount > offsets[bandCount]
+					&& left <= rights[spanCount - 1]) {
+				rights[spanCount - 1] = Math.max(rights[spanCount - 1],
+						right);
+				return;
+			}
+			if (spanCount == lefts.length) {
+				lefts = Arrays.copyOf(lefts, 2 * spanCount);
+				rights = Arrays.copyOf(rights, 2 * spanCount);
+			}
+			lefts[spanCount] = left;
+			rights[spanCount] = right;
+			spanCount++;
+		}
+
+		/**
+		 * Completes the band that is currently built. It is dropped if it
+		 * does not contain any spans, and merged with the previous band if
+		 * that touches it and contains the same spans.
+		 */
+		private void closeBand(double top, double bottom) {
+			int start = offsets[bandCount];
+			if (spanCount == start) {
+				return;
+			}
+			if (bandCount > 0 && bottoms[bandCount - 1] == top) {
+				int previousStart = offsets[bandCount - 1];
+				boolean equal = start - previousStart == spanCount - start;
+				for (int i = 0; equal && i < start - previousStart; i++) {
+					equal = lefts[previousStart + i] == lefts[start + i]
+							&& rights[previousStart + i] == rights[start + i];
+				}
+				if (equal) {
+					bottoms[bandCount - 1] = bottom;
+					spanCount = start;
+					return;
+				}
+			}
+			if (bandCount == tops.length) {
+				tops = Arrays.copyOf(tops, 2 * bandCount);
+				bottoms = Arrays.copyOf(bottoms, 2 * bandCount);
+				offsets = Arrays.copyOf(offsets, 2 * bandCount + 1);
 			}
+			tops[bandCount] = top;
+			bottoms[bandCount] = bottom;
+			bandCount++;
+			offsets[bandCount] = spanCount;
+		}
+
+		private Bands getCopy() {
+			Bands copy = new Bands();
+			copy.bandCount = bandCount;
+			copy.tops = Arrays.copyOf(tops, Math.max(1, bandCount));
+			copy.bottoms = Arrays.copyOf(bottoms, Math.max(1, bandCount));
+			copy.offsets = Arrays.copyOf(offsets, Math.max(1, bandCount) + 1);
+			copy.spanCount = spanCount;
+			copy.lefts = Arrays.copyOf(lefts, Math.max(1, spanCount));
+			copy.rights = Arrays.copyOf(rights, Math.max(1, spanCount));
+			return copy;
 		}
+
 	}
 
+	private static final int UNION = 0;
+	private static final int INTERSECTION = 1;
+	private static final int DIFFERENCE = 2;
+
+	private static final long serialVersionUID = 1L;
+
 	/**
-	 * Cuts the given {@link Rectangle}s along the given parallel to the y-axis.
-	 *
-	 * @param x
-	 *            the distance of the cut-line to the y-axis
-	 * @param parts
-	 *            the {@link Rectangle}s to cut along that line
+	 * Combines the given {@link Bands} using the given operation. The y axis
+	 * is swept from top to bottom, and for every horizontal slab in which
+	 * neither operand changes, the spans of both operands are merged.
 	 */
-	private static void cutV(double x, ArrayList<Rectangle> parts) {
-		for (Rectangle r : new ArrayList<>(parts)) {
-			if (r.x < x && x < r.x + r.width) {
-				parts.remove(r);
-				parts.add(new Rectangle(r.x, r.y, x - r.x, r.height));
-				parts.add(new Rectangle(x, r.y, r.x + r.width - x, r.height));
+	private static Bands combine(Bands a, Bands b, int operation) {
+		Bands result = new Bands();
+		int i = 0;
+		int j = 0;
+		double y = Double.NEGATIVE_INFINITY;
+		while (i < a.bandCount || j < b.bandCount) {
+			if (operation != UNION && i == a.bandCount
+					|| operation == INTERSECTION && j == b.bandCount) {
+				break;
+			}
+			// the slab starts at the top of the next band of either operand
+			double aTop = i < a.bandCount ? Math.max(a.tops[i], y)
+					: Double.POSITIVE_INFINITY;
+			double bTop = j < b.bandCount ? Math.max(b.tops[j], y)
+					: Double.POSITIVE_INFINITY;
+			double top = Math.min(aTop, bTop);
+			boolean inA = aTop == top;
+			boolean inB = bTop == top;
+			// and ends where a band of either operand starts or ends
+			double bottom = Math.min(inA ? a.bottoms[i] : aTop,
+					inB ? b.bottoms[j] : bTop);
+			combineSpans(result, a, inA ? i : -1, b, inB ? j : -1,
+					operation);
+			result.closeBand(top, bottom);
+			y = bottom;
+			if (inA && a.bottoms[i] == bottom) {
+				i++;
+			}
+			if (inB && b.bottoms[j] == bottom) {
+				j++;
 			}
 		}
+		return result;
 	}
 
-	private static final long serialVersionUID = 1L;
+	/**
+	 * Combines the spans of band <i>i</i> of <i>a</i> and band <i>j</i> of
+	 * <i>b</i> using the given operation, and adds the resulting spans to the
+	 * given result. A negative band index denotes an empty band.
+	 */
+	private static void combineSpans(Bands result, Bands a, int i, Bands b,
+			int j, int operation) {
+		int ia = i < 0 ? 0 : a.offsets[i];
+		int aEnd = i < 0 ? 0 : a.offsets[i + 1];
+		int ib = j < 0 ? 0 : b.offsets[j];
+		int bEnd = j < 0 ? 0 : b.offsets[j + 1];
+		switch (operation) {
+		case UNION:
+			while (ia < aEnd || ib < bEnd) {
+				if (ib == bEnd || ia < aEnd && a.lefts[ia] <= b.lefts[ib]) {
+					result.addSpan(a.lefts[ia], a.rights[ia]);
+					ia++;
+				} else {
+					result.addSpan(b.lefts[ib], b.rights[ib]);
+					ib++;
+				}
+			}
+			break;
+		case INTERSECTION:
+			while (ia < aEnd && ib < bEnd) {
+				double left = Math.max(a.lefts[ia], b.lefts[ib]);
+				double right = Math.min(a.rights[ia], b.rights[ib]);
+				if (left < right) {
+					result.addSpan(left, right);
+				}
+				if (a.rights[ia] < b.rights[ib]) {
+					ia++;
+				} else {
+					ib++;
+				}
+			}
+			break;
+		case DIFFERENCE:
+			for (; ia < aEnd; ia++) {
+				double left = a.lefts[ia];
+				double right = a.rights[ia];
+				while (ib < bEnd && b.rights[ib] <= left) {
+					ib++;
+				}
+				// cut out the spans of b that overlap the span of a
+				for (int k = ib; k < bEnd && b.lefts[k] < right; k++) {
+					if (b.lefts[k] > left) {
+						result.addSpan(left, b.lefts[k]);
+					}
+					left = Math.max(left, b.rights[k]);
+				}
+				if (left < right) {
+					result.addSpan(left, right);
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException(
+					"Unsupported operation: " + operation);
+		}
+	}
+
+	private static Bands toBands(Rectangle r) {
+		Bands bands = new Bands();
+		if (r.width > 0 && r.height > 0) {
+			bands.addSpan(r.x, r.x + r.width);
+			bands.closeBand(r.y, r.y + r.height);
+		}
+		return bands;
+	}
+
+	/**
+	 * Unions the given {@link Rectangle}s in the range from <i>start</i>
+	 * (inclusive) to <i>end</i> (exclusive), by recursively merging the
+	 * {@link Bands} of both halves of the range.
+	 */
+	private static Bands toBands(Rectangle[] rectangles, int start, int end) {
+		if (end - start == 1) {
+			return toBands(rectangles[start]);
+		}
+		int mid = (start + end) >>> 1;
+		return combine(toBands(rectangles, start, mid),
+				toBands(rectangles, mid, end), UNION);
+	}
 
-	private ArrayList<Rectangle> rects;
+	private Bands bands;
 
 	/**
 	 * Constructs a new {@link Region} not covering any area.
 	 */
 	public Region() {
-		rects = new ArrayList<>();
+		bands = new Bands();
 	}
 
 	/**
 	 * Constructs a new {@link Region} from the given list of {@link Rectangle}
 	 * s.
 	 *
-	 * The given {@link Rectangle}s are {@link #add(Rectangle)}ed to the
-	 * {@link Region} one after the other.
+	 * The area covered by the new {@link Region} is the union of the given
+	 * {@link Rectangle}s, which is computed in <i>O(n log n)</i> for
+	 * <i>n</i> {@link Rectangle}s that are not nested in a grid-like way.
 	 *
 	 * @param rectangles
 	 *            The array of {@link Rectangle}s from which this {@link Region}
 	 *            is constructed.
 	 */
 	public Region(Rectangle... rectangles) {
-		this();
-		rects.add(rectangles[0].getCopy());
-
-		for (int i = 1; i < rectangles.length; i++) {
-			add(rectangles[i].getCopy());
-		}
+		bands = rectangles.length == 0 ? new Bands()
+				: toBands(rectangles, 0, rectangles.length);
 	}
 
 	/**
@@ -119,62 +305,33 @@ public class Region extends AbstractMultiShape
 	 *            constructed.
 	 */
 	public Region(Region other) {
-		rects = new ArrayList<>(other.rects.size());
-
-		for (Rectangle or : other.rects) {
-			rects.add(or.getCopy());
-		}
+		bands = other.bands.getCopy();
 	}
 
 	/**
-	 * Adds the given {@link Rectangle} to this {@link Region}.
-	 *
-	 * To assure the required conditions for internal {@link Rectangle}s, the
-	 * given {@link Rectangle} is cut into several sub-{@link Rectangle}s so
-	 * that no internal {@link Rectangle}s share any area.
+	 * Adds the given {@link Rectangle} to this {@link Region}, i.e. this
+	 * {@link Region} is set to the union of its area and the given
+	 * {@link Rectangle}.
 	 *
 	 * @param rectangle
 	 *            the {@link Rectangle} to add to this {@link Region}
 	 * @return <code>this</code> for convenience
 	 */
 	public Region add(Rectangle rectangle) {
-		ArrayList<Rectangle> toAdd = new ArrayList<>(1);
-
-		toAdd.add(rectangle.getCopy());
-
-		for (Rectangle retain : rects) {
-			for (Rectangle addend : new ArrayList<>(toAdd)) {
-				ArrayList<Rectangle> parts = new ArrayList<>(8);
-				parts.add(addend);
-
-				if (addend.x <= retain.x && retain.x <= addend.x + addend.width
-						|| retain.x <= addend.x
-								&& addend.x <= retain.x + retain.width) {
-					cutH(retain.y, parts);
-					cutH(retain.y + retain.height, parts);
-				}
-
-				if (addend.y <= retain.y && retain.y <= addend.y + addend.height
-						|| retain.y <= addend.y
-								&& addend.y <= retain.y + retain.height) {
-					cutV(retain.x, parts);
-					cutV(retain.x + retain.width, parts);
-				}
-
-				// filter inner parts:
-				for (Iterator<Rectangle> p = parts.iterator(); p.hasNext();) {
-					if (retain.contains(p.next())) {
-						p.remove();
-					}
-				}
-
-				toAdd.remove(addend);
-				toAdd.addAll(parts);
-			}
-		}
-
-		rects.addAll(toAdd);
+		bands = combine(bands, toBands(rectangle), UNION);
+		return this;
+	}
 
+	/**
+	 * Adds the given other {@link Region} to this {@link Region}, i.e. this
+	 * {@link Region} is set to the union of both areas.
+	 *
+	 * @param other
+	 *            the {@link Region} to add to this {@link Region}
+	 * @return <code>this</code> for convenience
+	 */
+	public Region add(Region other) {
+		bands = combine(bands, other.bands, UNION);
 		return this;
 	}
 
@@ -183,11 +340,69 @@ public class Region extends AbstractMultiShape
 		return ShapeUtils.contains(this, g);
 	}
 
+	@Override
+	public boolean contains(Point p) {
+		double tolerance = PrecisionUtils.calculateFraction(0);
+		// find the first band that does not end above the point
+		int lo = 0;
+		int hi = bands.bandCount;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bands.bottoms[mid] + tolerance < p.y) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		// the point may lie on the border of two adjacent bands
+		for (int b = lo; b < bands.bandCount
+				&& bands.tops[b] - tolerance <= p.y; b++) {
+			// find the first span that does not end left of the point
+			int start = bands.offsets[b];
+			int end = bands.offsets[b + 1];
+			while (start < end) {
+				int mid = (start + end) >>> 1;
+				if (bands.rights[mid] + tolerance < p.x) {
+					start = mid + 1;
+				} else {
+					end = mid;
+				}
+			}
+			if (start < bands.offsets[b + 1]
+					&& bands.lefts[start] - tolerance <= p.x) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof Region) {
 			Region o = (Region) obj;
-			// TODO: Invent a better algorithm.
+			// the banded representation is unique, so that it suffices to
+			// compare the bands (with respect to imprecision)
+			if (bands.bandCount == o.bands.bandCount
+					&& bands.spanCount == o.bands.spanCount) {
+				boolean equal = true;
+				for (int i = 0; equal && i < bands.bandCount; i++) {
+					equal = bands.offsets[i + 1] == o.bands.offsets[i + 1]
+							&& PrecisionUtils.equal(bands.tops[i],
+									o.bands.tops[i])
+							&& PrecisionUtils.equal(bands.bottoms[i],
+									o.bands.bottoms[i]);
+				}
+				for (int i = 0; equal && i < bands.spanCount; i++) {
+					equal = PrecisionUtils.equal(bands.lefts[i],
+							o.bands.lefts[i])
+							&& PrecisionUtils.equal(bands.rights[i],
+									o.bands.rights[i]);
+				}
+				if (equal) {
+					return true;
+				}
+			}
+			// imprecision may result in different bands for equal areas
 			return contains(o) && o.contains(this);
 		}
 		return false;
@@ -202,7 +417,7 @@ public class Region extends AbstractMultiShape
 	protected Line[] getAllEdges() {
 		Stack<Line> edges = new Stack<>();
 
-		for (Rectangle r : rects) {
+		for (Rectangle r : getShapes()) {
 			for (Line e : r.getOutlineSegments()) {
 				edges.push(e);
 			}
@@ -212,16 +427,19 @@ public class Region extends AbstractMultiShape
 
 	@Override
 	public Rectangle getBounds() {
-		if (rects.size() == 0) {
+		if (bands.bandCount == 0) {
 			return null;
 		}
 
-		Rectangle bounds = rects.get(0).getBounds();
-		for (int i = 1; i < rects.size(); i++) {
-			bounds.union(rects.get(i).getBounds());
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < bands.bandCount; i++) {
+			minX = Math.min(minX, bands.lefts[bands.offsets[i]]);
+			maxX = Math.max(maxX, bands.rights[bands.offsets[i + 1] - 1]);
 		}
-
-		return bounds;
+		double minY = bands.tops[0];
+		double maxY = bands.bottoms[bands.bandCount - 1];
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
 	}
 
 	@Override
@@ -256,9 +474,10 @@ public class Region extends AbstractMultiShape
 
 	@Override
 	public Ring getRotatedCCW(Angle angle, double cx, double cy) {
-		Polygon[] polys = new Polygon[rects.size()];
+		Rectangle[] rects = getShapes();
+		Polygon[] polys = new Polygon[rects.length];
 		for (int i = 0; i < polys.length; i++) {
-			polys[i] = rects.get(i).getRotatedCCW(angle, cx, cy);
+			polys[i] = rects[i].getRotatedCCW(angle, cx, cy);
 		}
 		return new Ring(polys);
 	}
@@ -276,9 +495,10 @@ public class Region extends AbstractMultiShape
 
 	@Override
 	public Ring getRotatedCW(Angle angle, double cx, double cy) {
-		Polygon[] polys = new Polygon[rects.size()];
+		Rectangle[] rects = getShapes();
+		Polygon[] polys = new Polygon[rects.length];
 		for (int i = 0; i < polys.length; i++) {
-			polys[i] = rects.get(i).getRotatedCW(angle, cx, cy);
+			polys[i] = rects[i].getRotatedCW(angle, cx, cy);
 		}
 		return new Ring(polys);
 	}
@@ -318,18 +538,36 @@ public class Region extends AbstractMultiShape
 		return getCopy().scale(factor, center);
 	}
 
+	/**
+	 * Returns the internal {@link Rectangle}s of this {@link Region}, i.e. one
+	 * {@link Rectangle} per span of each band, ordered by their y and x
+	 * coordinates.
+	 *
+	 * @return new {@link Rectangle}s that cover the area of this
+	 *         {@link Region}
+	 */
 	@Override
 	public Rectangle[] getShapes() {
-		return rects.toArray(new Rectangle[] {});
+		Rectangle[] rects = new Rectangle[bands.spanCount];
+		for (int i = 0; i < bands.bandCount; i++) {
+			double top = bands.tops[i];
+			double height = bands.bottoms[i] - top;
+			for (int j = bands.offsets[i]; j < bands.offsets[i + 1]; j++) {
+				rects[j] = new Rectangle(bands.lefts[j], top,
+						bands.rights[j] - bands.lefts[j], height);
+			}
+		}
+		return rects;
 	}
 
 	@Override
 	public Ring getTransformed(AffineTransform t) {
-		List<Polygon> transformedRectangles = new ArrayList<>();
-		for (Rectangle r : rects) {
-			transformedRectangles.add(r.getTransformed(t));
+		Rectangle[] rects = getShapes();
+		Polygon[] transformedRectangles = new Polygon[rects.length];
+		for (int i = 0; i < rects.length; i++) {
+			transformedRectangles[i] = rects[i].getTransformed(t);
 		}
-		return new Ring(transformedRectangles.toArray(new Polygon[] {}));
+		return new Ring(transformedRectangles);
 	}
 
 	@Override
@@ -342,6 +580,34 @@ public class Region extends AbstractMultiShape
 		return getCopy().translate(d.x, d.y);
 	}
 
+	/**
+	 * Intersects this {@link Region} with the given {@link Rectangle}, i.e.
+	 * this {@link Region} is set to the area that is covered by both, this
+	 * {@link Region} and the given {@link Rectangle}.
+	 *
+	 * @param rectangle
+	 *            the {@link Rectangle} to intersect this {@link Region} with
+	 * @return <code>this</code> for convenience
+	 */
+	public Region intersect(Rectangle rectangle) {
+		bands = combine(bands, toBands(rectangle), INTERSECTION);
+		return this;
+	}
+
+	/**
+	 * Intersects this {@link Region} with the given other {@link Region}, i.e.
+	 * this {@link Region} is set to the area that is covered by both
+	 * {@link Region}s.
+	 *
+	 * @param other
+	 *            the {@link Region} to intersect this {@link Region} with
+	 * @return <code>this</code> for convenience
+	 */
+	public Region intersect(Region other) {
+		bands = combine(bands, other.bands, INTERSECTION);
+		return this;
+	}
+
 	@Override
 	public Region scale(double factor) {
 		return scale(factor, factor);
@@ -360,8 +626,27 @@ public class Region extends AbstractMultiShape
 
 	@Override
 	public Region scale(double fx, double fy, double cx, double cy) {
-		for (Rectangle r : rects) {
-			r.scale(fx, fy, cx, cy);
+		if (fx > 0 && fy > 0) {
+			// positive factors preserve the order of bands and spans
+			for (int i = 0; i < bands.bandCount; i++) {
+				bands.tops[i] = cy + (bands.tops[i] - cy) * fy;
+				bands.bottoms[i] = cy + (bands.bottoms[i] - cy) * fy;
+			}
+			for (int i = 0; i < bands.spanCount; i++) {
+				bands.lefts[i] = cx + (bands.lefts[i] - cx) * fx;
+				bands.rights[i] = cx + (bands.rights[i] - cx) * fx;
+			}
+		} else {
+			Rectangle[] rects = getShapes();
+			for (int i = 0; i < rects.length; i++) {
+				Rectangle r = rects[i];
+				rects[i] = new Rectangle(
+						new Point(cx + (r.x - cx) * fx, cy + (r.y - cy) * fy),
+						new Point(cx + (r.x + r.width - cx) * fx,
+								cy + (r.y + r.height - cy) * fy));
+			}
+			bands = rects.length == 0 ? new Bands()
+					: toBands(rects, 0, rects.length);
 		}
 		return this;
 	}
@@ -376,6 +661,34 @@ public class Region extends AbstractMultiShape
 		return scale(factor, factor, center.x, center.y);
 	}
 
+	/**
+	 * Subtracts the given {@link Rectangle} from this {@link Region}, i.e. this
+	 * {@link Region} is set to the area that is covered by this {@link Region}
+	 * but not by the given {@link Rectangle}.
+	 *
+	 * @param rectangle
+	 *            the {@link Rectangle} to subtract from this {@link Region}
+	 * @return <code>this</code> for convenience
+	 */
+	public Region subtract(Rectangle rectangle) {
+		bands = combine(bands, toBands(rectangle), DIFFERENCE);
+		return this;
+	}
+
+	/**
+	 * Subtracts the given other {@link Region} from this {@link Region}, i.e.
+	 * this {@link Region} is set to the area that is covered by this
+	 * {@link Region} but not by the given other {@link Region}.
+	 *
+	 * @param other
+	 *            the {@link Region} to subtract from this {@link Region}
+	 * @return <code>this</code> for convenience
+	 */
+	public Region subtract(Region other) {
+		bands = combine(bands, other.bands, DIFFERENCE);
+		return this;
+	}
+
 	/**
 	 * Constructs a new {@link Ring} that covers the same area as this
 	 * {@link Region}.
@@ -384,18 +697,23 @@ public class Region extends AbstractMultiShape
 	 *         {@link Region}
 	 */
 	public Ring toRing() {
-		Polygon[] polys = new Polygon[rects.size()];
-		Iterator<Rectangle> i = rects.iterator();
-		for (int j = 0; j < rects.size(); j++) {
-			polys[j] = i.next().toPolygon();
+		Rectangle[] rects = getShapes();
+		Polygon[] polys = new Polygon[rects.length];
+		for (int i = 0; i < rects.length; i++) {
+			polys[i] = rects[i].toPolygon();
 		}
 		return new Ring(polys);
 	}
 
 	@Override
 	public Region translate(double dx, double dy) {
-		for (Rectangle r : rects) {
-			r.translate(dx, dy);
+		for (int i = 0; i < bands.bandCount; i++) {
+			bands.tops[i] += dy;
+			bands.bottoms[i] += dy;
+		}
+		for (int i = 0; i < bands.spanCount; i++) {
+			bands.lefts[i] += dx;
+			bands.rights[i] += dx;
 		}
 		return this;
 	}
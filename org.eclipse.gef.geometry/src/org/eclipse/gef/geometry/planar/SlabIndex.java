@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.util.Arrays;
+
+/**
+ * A {@link SlabIndex} divides the y range of a set of items into horizontal
+ * slabs, and records for each slab the indices of the items whose y range
+ * overlaps it. The slab boundaries are placed at quantiles of the minimum y
+ * coordinates of the items, so that the items are evenly distributed. The
+ * slab that contains a given y coordinate is determined by binary search, so
+ * that the candidates for a horizontal query line are found in
+ * <i>O(log n + k)</i>, without any allocations.
+ *
+ * @author itemis AG
+ *
+ */
+class SlabIndex {
+
+	private final double[] boundaries;
+	private final int[] offsets;
+	private final int[] items;
+
+	/**
+	 * Constructs a new {@link SlabIndex} for the items whose y ranges are
+	 * given by the specified arrays.
+	 *
+	 * @param minY
+	 *            The minimum y coordinate of each item.
+	 * @param maxY
+	 *            The maximum y coordinate of each item.
+	 */
+	SlabIndex(double[] minY, double[] maxY) {
+		int count = minY.length;
+		if (count == 0) {
+			boundaries = new double[] { Double.POSITIVE_INFINITY,
+					Double.NEGATIVE_INFINITY };
+			offsets = new int[2];
+			items = new int[0];
+			return;
+		}
+		double[] sortedMinY = Arrays.copyOf(minY, count);
+		Arrays.sort(sortedMinY);
+		double max = maxY[0];
+		for (int i = 1; i < count; i++) {
+			max = Math.max(max, maxY[i]);
+		}
+		// a number of slabs that grows sub-linearly, so that long items do not
+		// blow up the index
+		int slabCount = Math.max(1,
+				Math.min(count, (int) Math.ceil(2 * Math.sqrt(count))));
+		boundaries = new double[slabCount + 1];
+		boundaries[0] = sortedMinY[0];
+		for (int s = 1; s < slabCount; s++) {
+			boundaries[s] = Math.max(boundaries[s - 1],
+					sortedMinY[(int) ((long) s * count / slabCount)]);
+		}
+		boundaries[slabCount] = Math.max(max, boundaries[slabCount - 1]);
+
+		offsets = new int[slabCount + 1];
+		for (int i = 0; i < count; i++) {
+			for (int s = getSlab(minY[i]); s <= getSlab(maxY[i]); s++) {
+				offsets[s + 1]++;
+			}
+		}
+		for (int s = 0; s < slabCount; s++) {
+			offsets[s + 1] += offsets[s];
+		}
+		items = new int[offsets[slabCount]];
+		int[] fill = Arrays.copyOf(offsets, slabCount);
+		for (int i = 0; i < count; i++) {
+			for (int s = getSlab(minY[i]); s <= getSlab(maxY[i]); s++) {
+				items[fill[s]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Returns the position after the last item of the given slab.
+	 *
+	 * @param slab
+	 *            The slab index.
+	 * @return The (exclusive) end index within the items of the slab.
+	 */
+	int getEnd(int slab) {
+		return offsets[slab + 1];
+	}
+
+	/**
+	 * Returns the item at the given position.
+	 *
+	 * @param position
+	 *            A position between {@link #getStart(int)} and
+	 *            {@link #getEnd(int)} of a slab.
+	 * @return The index of the item at the given position.
+	 */
+	int getItem(int position) {
+		return items[position];
+	}
+
+	/**
+	 * Determines the slab that contains the given y coordinate.
+	 *
+	 * @param y
+	 *            The y coordinate.
+	 * @return The index of the slab that contains the given y coordinate, or
+	 *         <code>-1</code> if it is outside of the y range of all items.
+	 */
+	int getSlab(double y) {
+		int slabCount = boundaries.length - 1;
+		if (!(y >= boundaries[0] && y <= boundaries[slabCount])) {
+			return -1;
+		}
+		// find the last boundary that is not greater than y
+		int lo = 0;
+		int hi = slabCount - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (boundaries[mid] <= y) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the position of the first item of the given slab.
+	 *
+	 * @param slab
+	 *            The slab index.
+	 * @return The (inclusive) start index within the items of the slab.
+	 */
+	int getStart(int slab) {
+		return offsets[slab];
+	}
+
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar.index;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * An axis-parallel bounding box, which is the common base of the entries and
+ * nodes of the {@link ISpatialIndex} implementations. The coordinates are
+ * stored as primitive values, so that they can be accessed without
+ * indirection.
+ *
+ * @author itemis AG
+ *
+ */
+class Box {
+
+	double minX, minY, maxX, maxY;
+
+	/**
+	 * Checks if this {@link Box} contains the given other {@link Box}.
+	 *
+	 * @param b
+	 *            The other {@link Box}.
+	 * @return <code>true</code> if this {@link Box} contains the other
+	 *         {@link Box}, otherwise <code>false</code>.
+	 */
+	boolean contains(Box b) {
+		return minX <= b.minX && b.maxX <= maxX && minY <= b.minY
+				&& b.maxY <= maxY;
+	}
+
+	/**
+	 * Returns the area of this {@link Box}.
+	 *
+	 * @return The area of this {@link Box}.
+	 */
+	double getArea() {
+		return (maxX - minX) * (maxY - minY);
+	}
+
+	/**
+	 * Returns the squared distance of the given point to this {@link Box},
+	 * which is <code>0</code> if the point is contained.
+	 *
+	 * @param x
+	 *            The x coordinate of the point.
+	 * @param y
+	 *            The y coordinate of the point.
+	 * @return The squared distance of the point to this {@link Box}.
+	 */
+	double getDistanceSquared(double x, double y) {
+		double dx = x < minX ? minX - x : x > maxX ? x - maxX : 0;
+		double dy = y < minY ? minY - y : y > maxY ? y - maxY : 0;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Returns the half perimeter of this {@link Box}.
+	 *
+	 * @return The half perimeter of this {@link Box}.
+	 */
+	double getMargin() {
+		return maxX - minX + maxY - minY;
+	}
+
+	/**
+	 * Returns the area of the intersection of this and the given other
+	 * {@link Box}.
+	 *
+	 * @param b
+	 *            The other {@link Box}.
+	 * @return The area of the intersection of both {@link Box}es.
+	 */
+	double getOverlap(Box b) {
+		double w = Math.min(maxX, b.maxX) - Math.max(minX, b.minX);
+		double h = Math.min(maxY, b.maxY) - Math.max(minY, b.minY);
+		return w <= 0 || h <= 0 ? 0 : w * h;
+	}
+
+	/**
+	 * Returns the area of the union of this and the given other {@link Box}.
+	 *
+	 * @param b
+	 *            The other {@link Box}.
+	 * @return The area of the union of both {@link Box}es.
+	 */
+	double getUnionArea(Box b) {
+		return (Math.max(maxX, b.maxX) - Math.min(minX, b.minX))
+				* (Math.max(maxY, b.maxY) - Math.min(minY, b.minY));
+	}
+
+	/**
+	 * Expands this {@link Box} to include the given other {@link Box}.
+	 *
+	 * @param b
+	 *            The other {@link Box}.
+	 */
+	void include(Box b) {
+		if (b.minX < minX) {
+			minX = b.minX;
+		}
+		if (b.minY < minY) {
+			minY = b.minY;
+		}
+		if (b.maxX > maxX) {
+			maxX = b.maxX;
+		}
+		if (b.maxY > maxY) {
+			maxY = b.maxY;
+		}
+	}
+
+	/**
+	 * Sets this {@link Box} to the given {@link Rectangle}.
+	 *
+	 * @param r
+	 *            The {@link Rectangle} to adopt.
+	 */
+	void setBounds(Rectangle r) {
+		minX = r.getX();
+		minY = r.getY();
+		maxX = minX + r.getWidth();
+		maxY = minY + r.getHeight();
+	}
+
+	/**
+	 * Sets this {@link Box} to be empty, so that the next
+	 * {@link #include(Box)} adopts the bounds of the included {@link Box}.
+	 */
+	void setEmpty() {
+		minX = minY = Double.POSITIVE_INFINITY;
+		maxX = maxY = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Checks if this {@link Box} touches the given bounds (inclusively).
+	 *
+	 * @param x1
+	 *            The minimum x coordinate of the bounds.
+	 * @param y1
+	 *            The minimum y coordinate of the bounds.
+	 * @param x2
+	 *            The maximum x coordinate of the bounds.
+	 * @param y2
+	 *            The maximum y coordinate of the bounds.
+	 * @return <code>true</code> if this {@link Box} touches the given bounds,
+	 *         otherwise <code>false</code>.
+	 */
+	boolean touches(double x1, double y1, double x2, double y2) {
+		return minX <= x2 && x1 <= maxX && minY <= y2 && y1 <= maxY;
+	}
+
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar.index;
+
+/**
+ * A {@link Candidate} associates a {@link Box} with its squared distance to the
+ * query point of a nearest neighbor search. {@link Candidate}s are ordered by
+ * increasing distance, so that they can be processed best-first using a
+ * {@link java.util.PriorityQueue}.
+ *
+ * @author itemis AG
+ *
+ */
+final class Candidate implements Comparable<Candidate> {
+
+	final Box box;
+	final double distance;
+
+	/**
+	 * Constructs a new {@link Candidate} for the given {@link Box}.
+	 *
+	 * @param box
+	 *            The {@link Box} (node or entry).
+	 * @param distance
+	 *            The squared distance of the {@link Box} to the query point.
+	 */
+	Candidate(Box box, double distance) {
+		this.box = box;
+		this.distance = distance;
+	}
+
+	@Override
+	public int compareTo(Candidate o) {
+		return Double.compare(distance, o.distance);
+	}
+
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar.index;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * <p>
+ * An {@link ISpatialIndex} manages a collection of {@link IGeometry}s, so that
+ * those {@link IGeometry}s that are located within a given window or near a
+ * given {@link Point} can be determined without examining all of them.
+ * </p>
+ * <p>
+ * The {@link IGeometry}s are indexed by their {@link IGeometry#getBounds()
+ * bounds}, which are evaluated when an {@link IGeometry} is
+ * {@link #insert(IGeometry) inserted}. In case an indexed {@link IGeometry} is
+ * changed afterwards, {@link #update(IGeometry)} has to be called, so that the
+ * index reflects its new bounds. The {@link IGeometry}s are identified by
+ * reference, i.e. two {@link IGeometry}s that are equal but not identical can
+ * be indexed independently. Accordingly, all queries are based on the bounds
+ * of the indexed {@link IGeometry}s and inclusive, i.e. bounds that only touch
+ * the query window are reported, too.
+ * </p>
+ *
+ * @author itemis AG
+ *
+ * @param <T>
+ *            The type of the indexed {@link IGeometry}s.
+ */
+public interface ISpatialIndex<T extends IGeometry> {
+
+	/**
+	 * Inserts all of the given {@link IGeometry}s into this
+	 * {@link ISpatialIndex}. This is more efficient than inserting the
+	 * {@link IGeometry}s one by one, and should be preferred for the initial
+	 * population of an {@link ISpatialIndex}. {@link IGeometry}s that are
+	 * already contained are {@link #update(IGeometry) updated}.
+	 *
+	 * @param geometries
+	 *            The {@link IGeometry}s to insert.
+	 */
+	void bulkLoad(Collection<? extends T> geometries);
+
+	/**
+	 * Removes all {@link IGeometry}s from this {@link ISpatialIndex}.
+	 */
+	void clear();
+
+	/**
+	 * Returns whether the given {@link IGeometry} is contained in this
+	 * {@link ISpatialIndex}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to test.
+	 * @return <code>true</code> if the given {@link IGeometry} is contained,
+	 *         otherwise <code>false</code>.
+	 */
+	boolean contains(T geometry);
+
+	/**
+	 * Returns the (at most) <i>k</i> {@link IGeometry}s whose bounds are
+	 * nearest to the given {@link Point}, ordered by increasing distance. The
+	 * distance of a {@link Point} to bounds that contain it is <code>0</code>.
+	 *
+	 * @param point
+	 *            The {@link Point} for which to determine the nearest
+	 *            {@link IGeometry}s.
+	 * @param k
+	 *            The maximum number of {@link IGeometry}s to return.
+	 * @return The {@link IGeometry}s nearest to the given {@link Point}.
+	 */
+	List<T> getNearest(Point point, int k);
+
+	/**
+	 * Inserts the given {@link IGeometry} into this {@link ISpatialIndex},
+	 * using its current {@link IGeometry#getBounds() bounds}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to insert.
+	 * @return <code>true</code> if the given {@link IGeometry} was inserted,
+	 *         <code>false</code> if it was already contained.
+	 */
+	boolean insert(T geometry);
+
+	/**
+	 * Returns whether this {@link ISpatialIndex} is empty.
+	 *
+	 * @return <code>true</code> if no {@link IGeometry} is contained,
+	 *         otherwise <code>false</code>.
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Returns all {@link IGeometry}s whose bounds contain the given
+	 * {@link Point}.
+	 *
+	 * @param point
+	 *            The {@link Point} to test.
+	 * @return The {@link IGeometry}s whose bounds contain the given
+	 *         {@link Point}.
+	 */
+	List<T> query(Point point);
+
+	/**
+	 * Returns all {@link IGeometry}s whose bounds touch the given window.
+	 *
+	 * @param window
+	 *            The query window.
+	 * @return The {@link IGeometry}s whose bounds touch the given window.
+	 */
+	List<T> query(Rectangle window);
+
+	/**
+	 * Adds all {@link IGeometry}s whose bounds touch the given window to the
+	 * given {@link Collection}. This allows to reuse the result
+	 * {@link Collection} for repeated queries.
+	 *
+	 * @param window
+	 *            The query window.
+	 * @param result
+	 *            The {@link Collection} to which the {@link IGeometry}s are
+	 *            added.
+	 */
+	void query(Rectangle window, Collection<? super T> result);
+
+	/**
+	 * Removes the given {@link IGeometry} from this {@link ISpatialIndex}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to remove.
+	 * @return <code>true</code> if the given {@link IGeometry} was removed,
+	 *         <code>false</code> if it was not contained.
+	 */
+	boolean remove(T geometry);
+
+	/**
+	 * Returns the number of {@link IGeometry}s contained in this
+	 * {@link ISpatialIndex}.
+	 *
+	 * @return The number of contained {@link IGeometry}s.
+	 */
+	int size();
+
+	/**
+	 * Updates the given {@link IGeometry} within this {@link ISpatialIndex}
+	 * to its current {@link IGeometry#getBounds() bounds}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to update.
+	 * @return <code>true</code> if the given {@link IGeometry} was updated,
+	 *         <code>false</code> if it is not contained.
+	 */
+	boolean update(T geometry);
+
+}
@@ -0,0 +1,518 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * <p>
+ * A {@link LooseQuadtree} is an {@link ISpatialIndex} that recursively divides
+ * the plane into square cells. In contrast to a regular quadtree, the bounds of
+ * each cell are loosened, i.e. extended to twice its size, so that an
+ * {@link IGeometry} can always be stored in a cell whose size corresponds to
+ * its own size, regardless of its position. {@link IGeometry}s are thus never
+ * stored close to the root only because they straddle a cell border.
+ * </p>
+ * <p>
+ * As the cell of an {@link IGeometry} is determined by its center and size
+ * only, an {@link #update(IGeometry) update} of a moving {@link IGeometry}
+ * does usually not change its cell and is performed in constant time. The
+ * {@link LooseQuadtree} is therefore suited for collections of frequently
+ * moving {@link IGeometry}s of similar size. The root cell grows automatically
+ * when {@link IGeometry}s are inserted outside of it, which is why the bounds
+ * of the indexed {@link IGeometry}s have to be finite (an
+ * {@link IllegalArgumentException} is thrown otherwise).
+ * </p>
+ *
+ * @author itemis AG
+ *
+ * @param <T>
+ *            The type of the indexed {@link IGeometry}s.
+ */
+public class LooseQuadtree<T extends IGeometry> implements ISpatialIndex<T> {
+
+	/**
+	 * An entry, which refers to an indexed {@link IGeometry} and keeps track
+	 * of the {@link Node} it is stored in.
+	 */
+	private static final class Entry<T> extends Box {
+		final T geometry;
+		Node<T> node;
+		int index;
+
+		Entry(T geometry) {
+			this.geometry = geometry;
+		}
+	}
+
+	/**
+	 * A cell of the tree, whose (inherited) bounds are the loose bounds of
+	 * the cell.
+	 */
+	private static final class Node<T> extends Box {
+		final double centerX;
+		final double centerY;
+		final double halfSize;
+		final int level;
+		final List<Entry<T>> entries = new ArrayList<>();
+		Node<T> parent;
+		Node<T>[] children;
+		// number of entries within the subtree
+		int count;
+
+		Node(Node<T> parent, double centerX, double centerY, double halfSize,
+				int level) {
+			this.parent = parent;
+			this.centerX = centerX;
+			this.centerY = centerY;
+			this.halfSize = halfSize;
+			this.level = level;
+			minX = centerX - 2 * halfSize;
+			minY = centerY - 2 * halfSize;
+			maxX = centerX + 2 * halfSize;
+			maxY = centerY + 2 * halfSize;
+		}
+	}
+
+	/**
+	 * The default maximum number of entries of a cell before it is divided.
+	 */
+	public static final int DEFAULT_NODE_CAPACITY = 8;
+
+	/**
+	 * The default maximum number of subdivisions of the initial root cell.
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 16;
+
+	private static <T> void add(Node<T> node, Entry<T> entry) {
+		entry.node = node;
+		entry.index = node.entries.size();
+		node.entries.add(entry);
+	}
+
+	private static <T> void collectEntries(Node<T> node,
+			List<Entry<T>> entries) {
+		entries.addAll(node.entries);
+		if (node.children != null) {
+			for (Node<T> child : node.children) {
+				if (child != null) {
+					collectEntries(child, entries);
+				}
+			}
+		}
+	}
+
+	private static boolean fits(Box box, double centerX, double centerY,
+			double halfSize) {
+		double looseSize = 2 * halfSize;
+		return centerX - looseSize <= box.minX && box.maxX <= centerX + looseSize
+				&& centerY - looseSize <= box.minY
+				&& box.maxY <= centerY + looseSize;
+	}
+
+	private static Rectangle getFiniteBounds(IGeometry geometry) {
+		Rectangle bounds = geometry.getBounds();
+		// the root cell could not grow to contain non-finite bounds
+		if (!Double.isFinite(bounds.getX()) || !Double.isFinite(bounds.getY())
+				|| !Double.isFinite(bounds.getWidth())
+				|| !Double.isFinite(bounds.getHeight())) {
+			throw new IllegalArgumentException(
+					"The bounds of the geometry have to be finite, but are "
+							+ bounds + ".");
+		}
+		return bounds;
+	}
+
+	private static int getQuadrant(Node<?> node, Box box) {
+		return ((box.minX + box.maxX) / 2 >= node.centerX ? 1 : 0)
+				+ ((box.minY + box.maxY) / 2 >= node.centerY ? 2 : 0);
+	}
+
+	private static double getQuadrantCenterX(Node<?> node, int quadrant) {
+		return node.centerX
+				+ ((quadrant & 1) == 0 ? -node.halfSize : node.halfSize) / 2;
+	}
+
+	private static double getQuadrantCenterY(Node<?> node, int quadrant) {
+		return node.centerY
+				+ ((quadrant & 2) == 0 ? -node.halfSize : node.halfSize) / 2;
+	}
+
+	private static <T> void removeEntry(Entry<T> entry) {
+		List<Entry<T>> entries = entry.node.entries;
+		Entry<T> last = entries.remove(entries.size() - 1);
+		if (last != entry) {
+			last.index = entry.index;
+			entries.set(entry.index, last);
+		}
+		entry.node = null;
+	}
+
+	private final int nodeCapacity;
+	private final int maxDepth;
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+	private Node<T> root;
+
+	/**
+	 * Constructs a new, empty {@link LooseQuadtree} using the
+	 * {@link #DEFAULT_NODE_CAPACITY default node capacity} and
+	 * {@link #DEFAULT_MAX_DEPTH default maximum depth}.
+	 */
+	public LooseQuadtree() {
+		this(DEFAULT_NODE_CAPACITY, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Constructs a new, empty {@link LooseQuadtree} using the given node
+	 * capacity and maximum depth.
+	 *
+	 * @param nodeCapacity
+	 *            The maximum number of entries of a cell before it is divided,
+	 *            which has to be positive.
+	 * @param maxDepth
+	 *            The maximum number of subdivisions of the initial root cell,
+	 *            which has to be non-negative.
+	 */
+	public LooseQuadtree(int nodeCapacity, int maxDepth) {
+		if (nodeCapacity < 1) {
+			throw new IllegalArgumentException(
+					"nodeCapacity has to be positive, but is " + nodeCapacity
+							+ ".");
+		}
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException(
+					"maxDepth may not be negative, but is " + maxDepth + ".");
+		}
+		this.nodeCapacity = nodeCapacity;
+		this.maxDepth = maxDepth;
+	}
+
+	@Override
+	public void bulkLoad(Collection<? extends T> geometries) {
+		// validate all bounds before the index is changed
+		List<Rectangle> geometryBounds = new ArrayList<>(geometries.size());
+		for (T geometry : geometries) {
+			geometryBounds.add(getFiniteBounds(geometry));
+		}
+		List<Entry<T>> added = new ArrayList<>();
+		Box bounds = new Box();
+		bounds.setEmpty();
+		int i = 0;
+		for (T geometry : geometries) {
+			Rectangle b = geometryBounds.get(i++);
+			Entry<T> entry = entries.get(geometry);
+			if (entry != null) {
+				if (entry.node != null) {
+					update(geometry);
+				}
+				continue;
+			}
+			entry = new Entry<>(geometry);
+			entry.setBounds(b);
+			entries.put(geometry, entry);
+			added.add(entry);
+			bounds.include(entry);
+		}
+		if (added.isEmpty()) {
+			return;
+		}
+		if (root == null) {
+			// size the root so that all new entries fit into it
+			root = createRoot(bounds);
+		}
+		for (Entry<T> entry : added) {
+			place(entry);
+		}
+	}
+
+	@Override
+	public void clear() {
+		entries.clear();
+		root = null;
+	}
+
+	private void collapse(Node<T> node) {
+		List<Entry<T>> collected = new ArrayList<>();
+		for (Node<T> child : node.children) {
+			if (child != null) {
+				collectEntries(child, collected);
+			}
+		}
+		node.children = null;
+		for (Entry<T> entry : collected) {
+			add(node, entry);
+		}
+	}
+
+	@Override
+	public boolean contains(T geometry) {
+		return entries.containsKey(geometry);
+	}
+
+	private Node<T> createChild(Node<T> node, int quadrant) {
+		Node<T> child = new Node<>(node, getQuadrantCenterX(node, quadrant),
+				getQuadrantCenterY(node, quadrant), node.halfSize / 2,
+				node.level - 1);
+		node.children[quadrant] = child;
+		return child;
+	}
+
+	private Node<T> createRoot(Box bounds) {
+		double size = Math.max(bounds.maxX - bounds.minX,
+				bounds.maxY - bounds.minY);
+		return new Node<>(null, (bounds.minX + bounds.maxX) / 2,
+				(bounds.minY + bounds.maxY) / 2, size > 0 ? size / 2 : 1,
+				maxDepth);
+	}
+
+	@Override
+	public List<T> getNearest(Point point, int k) {
+		List<T> nearest = new ArrayList<>();
+		if (k <= 0 || root == null) {
+			return nearest;
+		}
+		double x = point.x;
+		double y = point.y;
+		PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		queue.add(new Candidate(root, 0));
+		while (!queue.isEmpty() && nearest.size() < k) {
+			Box box = queue.poll().box;
+			if (box instanceof Entry) {
+				@SuppressWarnings("unchecked")
+				Entry<T> entry = (Entry<T>) box;
+				nearest.add(entry.geometry);
+			} else {
+				@SuppressWarnings("unchecked")
+				Node<T> node = (Node<T>) box;
+				for (Entry<T> entry : node.entries) {
+					queue.add(new Candidate(entry,
+							entry.getDistanceSquared(x, y)));
+				}
+				if (node.children != null) {
+					for (Node<T> child : node.children) {
+						if (child != null && child.count > 0) {
+							queue.add(new Candidate(child,
+									child.getDistanceSquared(x, y)));
+						}
+					}
+				}
+			}
+		}
+		return nearest;
+	}
+
+	private void grow(Box box) {
+		while (!root.contains(box)) {
+			// double the root towards the box, so that the old root becomes
+			// one of its quadrants
+			Node<T> oldRoot = root;
+			double halfSize = oldRoot.halfSize;
+			double cx = (box.minX + box.maxX) / 2;
+			double cy = (box.minY + box.maxY) / 2;
+			Node<T> newRoot = new Node<>(null,
+					oldRoot.centerX + (cx < oldRoot.centerX ? -halfSize
+							: halfSize),
+					oldRoot.centerY + (cy < oldRoot.centerY ? -halfSize
+							: halfSize),
+					2 * halfSize, oldRoot.level + 1);
+			@SuppressWarnings("unchecked")
+			Node<T>[] children = (Node<T>[]) new Node<?>[4];
+			newRoot.children = children;
+			children[(cx < oldRoot.centerX ? 1 : 0)
+					+ (cy < oldRoot.centerY ? 2 : 0)] = oldRoot;
+			newRoot.count = oldRoot.count;
+			oldRoot.parent = newRoot;
+			root = newRoot;
+		}
+	}
+
+	@Override
+	public boolean insert(T geometry) {
+		if (entries.containsKey(geometry)) {
+			return false;
+		}
+		Rectangle bounds = getFiniteBounds(geometry);
+		Entry<T> entry = new Entry<>(geometry);
+		entry.setBounds(bounds);
+		entries.put(geometry, entry);
+		if (root == null) {
+			root = createRoot(entry);
+		}
+		place(entry);
+		return true;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	private boolean isFittingChild(Node<T> node, Box box) {
+		if (node.level == 0) {
+			return false;
+		}
+		int quadrant = getQuadrant(node, box);
+		return fits(box, getQuadrantCenterX(node, quadrant),
+				getQuadrantCenterY(node, quadrant), node.halfSize / 2);
+	}
+
+	private void place(Entry<T> entry) {
+		grow(entry);
+		Node<T> node = root;
+		while (true) {
+			if (node.children == null) {
+				if (node.entries.size() < nodeCapacity || node.level == 0) {
+					break;
+				}
+				subdivide(node);
+			}
+			if (!isFittingChild(node, entry)) {
+				break;
+			}
+			int quadrant = getQuadrant(node, entry);
+			Node<T> child = node.children[quadrant];
+			node = child != null ? child : createChild(node, quadrant);
+		}
+		add(node, entry);
+		for (Node<T> n = node; n != null; n = n.parent) {
+			n.count++;
+		}
+	}
+
+	@Override
+	public List<T> query(Point point) {
+		List<T> result = new ArrayList<>();
+		if (root != null) {
+			query(root, point.x, point.y, point.x, point.y, result);
+		}
+		return result;
+	}
+
+	private void query(Node<T> node, double x1, double y1, double x2,
+			double y2, Collection<? super T> result) {
+		for (Entry<T> entry : node.entries) {
+			if (entry.touches(x1, y1, x2, y2)) {
+				result.add(entry.geometry);
+			}
+		}
+		if (node.children != null) {
+			for (Node<T> child : node.children) {
+				if (child != null && child.count > 0
+						&& child.touches(x1, y1, x2, y2)) {
+					query(child, x1, y1, x2, y2, result);
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> query(Rectangle window) {
+		List<T> result = new ArrayList<>();
+		query(window, result);
+		return result;
+	}
+
+	@Override
+	public void query(Rectangle window, Collection<? super T> result) {
+		if (root == null) {
+			return;
+		}
+		double x1 = window.getX();
+		double y1 = window.getY();
+		query(root, x1, y1, x1 + window.getWidth(), y1 + window.getHeight(),
+				result);
+	}
+
+	@Override
+	public boolean remove(T geometry) {
+		Entry<T> entry = entries.remove(geometry);
+		if (entry == null) {
+			return false;
+		}
+		unplace(entry);
+		if (entries.isEmpty()) {
+			root = null;
+		}
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	private void subdivide(Node<T> node) {
+		@SuppressWarnings("unchecked")
+		Node<T>[] children = (Node<T>[]) new Node<?>[4];
+		node.children = children;
+		List<Entry<T>> remaining = new ArrayList<>(node.entries);
+		node.entries.clear();
+		for (Entry<T> entry : remaining) {
+			if (isFittingChild(node, entry)) {
+				int quadrant = getQuadrant(node, entry);
+				Node<T> child = children[quadrant];
+				if (child == null) {
+					child = createChild(node, quadrant);
+				}
+				add(child, entry);
+				child.count++;
+			} else {
+				add(node, entry);
+			}
+		}
+	}
+
+	private void unplace(Entry<T> entry) {
+		Node<T> node = entry.node;
+		removeEntry(entry);
+		// collapse the topmost subtree that became sparse
+		Node<T> sparse = null;
+		for (Node<T> n = node; n != null; n = n.parent) {
+			n.count--;
+			if (n.children != null && n.count <= nodeCapacity / 2) {
+				sparse = n;
+			}
+		}
+		if (sparse != null) {
+			collapse(sparse);
+		}
+	}
+
+	@Override
+	public boolean update(T geometry) {
+		Entry<T> entry = entries.get(geometry);
+		if (entry == null) {
+			return false;
+		}
+		entry.setBounds(getFiniteBounds(geometry));
+		Node<T> node = entry.node;
+		if (node.contains(entry)
+				&& (node.children == null || !isFittingChild(node, entry))) {
+			// the entry may stay in its cell
+			return true;
+		}
+		unplace(entry);
+		place(entry);
+		return true;
+	}
+
+}
@@ -0,0 +1,669 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * <p>
+ * An {@link RStarTree} is an {@link ISpatialIndex} that organizes the bounds of
+ * the indexed {@link IGeometry}s in a balanced tree of nested bounding boxes,
+ * following the R*-tree variant of Beckmann, Kriegel, Schneider, and Seeger
+ * (1990). Subtrees are chosen so that the overlap between sibling nodes is
+ * minimized, overflowing nodes are split along the axis with the least margin,
+ * and a fraction of the entries of an overflowing node is reinserted once per
+ * level and insertion, which continuously improves the structure of the tree.
+ * </p>
+ * <p>
+ * {@link #bulkLoad(Collection)} builds the tree bottom-up using the
+ * Sort-Tile-Recursive (STR) algorithm, which yields nearly optimal trees at a
+ * fraction of the costs of repeated insertion.
+ * </p>
+ * <p>
+ * An {@link RStarTree} is suited for collections of {@link IGeometry}s whose
+ * sizes vary strongly and that are queried more often than they are changed.
+ * For collections of frequently moving {@link IGeometry}s of similar size, a
+ * {@link LooseQuadtree} may be preferable.
+ * </p>
+ *
+ * @author itemis AG
+ *
+ * @param <T>
+ *            The type of the indexed {@link IGeometry}s.
+ */
+public class RStarTree<T extends IGeometry> implements ISpatialIndex<T> {
+
+	/**
+	 * An entry, i.e. a leaf level item that refers to an indexed
+	 * {@link IGeometry}.
+	 */
+	private static final class Entry<T> extends Item {
+		final T geometry;
+
+		Entry(T geometry) {
+			this.geometry = geometry;
+		}
+	}
+
+	/**
+	 * The common base of entries and nodes, which keeps track of the parent
+	 * {@link Node}.
+	 */
+	private static class Item extends Box {
+		Node parent;
+	}
+
+	/**
+	 * A node of the tree, whose children are {@link Entry entries} in case
+	 * its level is <code>0</code>, or {@link Node nodes} otherwise.
+	 */
+	private static final class Node extends Item {
+		final int level;
+		final Item[] children;
+		int size;
+
+		Node(int level, int capacity) {
+			this.level = level;
+			children = new Item[capacity];
+			setEmpty();
+		}
+	}
+
+	/**
+	 * The default maximum number of children per node.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 16;
+
+	private static final double MIN_FILL = 0.4;
+	private static final double REINSERT_FRACTION = 0.3;
+
+	private static final Comparator<Item> BY_MIN_X = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			int c = Double.compare(a.minX, b.minX);
+			return c != 0 ? c : Double.compare(a.maxX, b.maxX);
+		}
+	};
+
+	private static final Comparator<Item> BY_MAX_X = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			int c = Double.compare(a.maxX, b.maxX);
+			return c != 0 ? c : Double.compare(a.minX, b.minX);
+		}
+	};
+
+	private static final Comparator<Item> BY_MIN_Y = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			int c = Double.compare(a.minY, b.minY);
+			return c != 0 ? c : Double.compare(a.maxY, b.maxY);
+		}
+	};
+
+	private static final Comparator<Item> BY_MAX_Y = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			int c = Double.compare(a.maxY, b.maxY);
+			return c != 0 ? c : Double.compare(a.minY, b.minY);
+		}
+	};
+
+	private static final Comparator<Item> BY_CENTER_X = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			return Double.compare(a.minX + a.maxX, b.minX + b.maxX);
+		}
+	};
+
+	private static final Comparator<Item> BY_CENTER_Y = new Comparator<Item>() {
+		@Override
+		public int compare(Item a, Item b) {
+			return Double.compare(a.minY + a.maxY, b.minY + b.maxY);
+		}
+	};
+
+	private static void add(Node node, Item item) {
+		node.children[node.size++] = item;
+		item.parent = node;
+	}
+
+	private static void collectEntries(Node node, List<Item> entries) {
+		for (int i = 0; i < node.size; i++) {
+			if (node.level == 0) {
+				entries.add(node.children[i]);
+			} else {
+				collectEntries((Node) node.children[i], entries);
+			}
+		}
+	}
+
+	private static Box copy(Box b) {
+		Box copy = new Box();
+		copy.minX = b.minX;
+		copy.minY = b.minY;
+		copy.maxX = b.maxX;
+		copy.maxY = b.maxY;
+		return copy;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Comparator<Item>[] createComparators(
+			Comparator<Item> first, Comparator<Item> second) {
+		return (Comparator<Item>[]) new Comparator<?>[] { first, second };
+	}
+
+	private static Box[] getPrefixBounds(Item[] items) {
+		Box[] bounds = new Box[items.length + 1];
+		bounds[0] = new Box();
+		bounds[0].setEmpty();
+		for (int i = 0; i < items.length; i++) {
+			bounds[i + 1] = copy(bounds[i]);
+			bounds[i + 1].include(items[i]);
+		}
+		return bounds;
+	}
+
+	private static Box[] getSuffixBounds(Item[] items) {
+		Box[] bounds = new Box[items.length + 1];
+		bounds[items.length] = new Box();
+		bounds[items.length].setEmpty();
+		for (int i = items.length - 1; i >= 0; i--) {
+			bounds[i] = copy(bounds[i + 1]);
+			bounds[i].include(items[i]);
+		}
+		return bounds;
+	}
+
+	private static void recompute(Node node) {
+		node.setEmpty();
+		for (int i = 0; i < node.size; i++) {
+			node.include(node.children[i]);
+		}
+	}
+
+	private static void removeChild(Node node, Item item) {
+		for (int i = 0; i < node.size; i++) {
+			if (node.children[i] == item) {
+				node.children[i] = node.children[--node.size];
+				node.children[node.size] = null;
+				item.parent = null;
+				return;
+			}
+		}
+	}
+
+	private static void tighten(Node node) {
+		for (Node n = node; n != null; n = n.parent) {
+			recompute(n);
+		}
+	}
+
+	private final int maxEntries;
+	private final int minEntries;
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+	private final Box union = new Box();
+	private Node root;
+
+	// levels at which a forced reinsertion was performed during the current
+	// insertion (bit mask)
+	private long reinsertedLevels;
+
+	/**
+	 * Constructs a new, empty {@link RStarTree} using the
+	 * {@link #DEFAULT_MAX_ENTRIES default maximum number of children} per
+	 * node.
+	 */
+	public RStarTree() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Constructs a new, empty {@link RStarTree} using the given maximum number
+	 * of children per node. The minimum number of children per node is 40% of
+	 * the maximum.
+	 *
+	 * @param maxEntries
+	 *            The maximum number of children per node, which has to be at
+	 *            least <code>4</code>.
+	 */
+	public RStarTree(int maxEntries) {
+		if (maxEntries < 4) {
+			throw new IllegalArgumentException(
+					"maxEntries has to be at least 4, but is " + maxEntries
+							+ ".");
+		}
+		this.maxEntries = maxEntries;
+		this.minEntries = Math.max(2, (int) Math.round(maxEntries * MIN_FILL));
+		root = createNode(0);
+	}
+
+	@Override
+	public void bulkLoad(Collection<? extends T> geometries) {
+		for (T geometry : geometries) {
+			Entry<T> entry = entries.get(geometry);
+			if (entry == null) {
+				entry = new Entry<>(geometry);
+				entries.put(geometry, entry);
+			}
+			entry.setBounds(geometry.getBounds());
+		}
+		List<Item> items = new ArrayList<Item>(entries.values());
+		if (items.isEmpty()) {
+			root = createNode(0);
+			return;
+		}
+		// Sort-Tile-Recursive: pack each level bottom-up
+		int level = 0;
+		while (true) {
+			List<Item> nodes = pack(items, level);
+			if (nodes.size() == 1) {
+				root = (Node) nodes.get(0);
+				root.parent = null;
+				return;
+			}
+			items = nodes;
+			level++;
+		}
+	}
+
+	private Node chooseSubtree(Item item, int level) {
+		Node node = root;
+		while (node.level > level) {
+			Node best = null;
+			double bestOverlap = Double.POSITIVE_INFINITY;
+			double bestEnlargement = Double.POSITIVE_INFINITY;
+			double bestArea = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < node.size; i++) {
+				Node child = (Node) node.children[i];
+				double area = child.getArea();
+				double enlargement = child.getUnionArea(item) - area;
+				// the overlap enlargement is only considered when the
+				// children point to leaves (as proposed for the R*-tree)
+				double overlap = node.level == 1
+						? getOverlapEnlargement(node, child, item) : 0;
+				if (overlap < bestOverlap || overlap == bestOverlap
+						&& (enlargement < bestEnlargement
+								|| enlargement == bestEnlargement
+										&& area < bestArea)) {
+					best = child;
+					bestOverlap = overlap;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			node = best;
+		}
+		return node;
+	}
+
+	@Override
+	public void clear() {
+		entries.clear();
+		root = createNode(0);
+	}
+
+	private void condense(Node node) {
+		List<Node> orphans = null;
+		for (Node n = node; n != root;) {
+			Node parent = n.parent;
+			if (n.size < minEntries) {
+				removeChild(parent, n);
+				if (orphans == null) {
+					orphans = new ArrayList<>();
+				}
+				orphans.add(n);
+			} else {
+				recompute(n);
+			}
+			n = parent;
+		}
+		recompute(root);
+		// shorten the tree
+		while (root.level > 0 && root.size == 1) {
+			root = (Node) root.children[0];
+			root.parent = null;
+		}
+		if (root.level > 0 && root.size == 0) {
+			root = createNode(0);
+		}
+		// reinsert the entries of eliminated nodes
+		if (orphans != null) {
+			List<Item> orphanedEntries = new ArrayList<>();
+			for (Node orphan : orphans) {
+				collectEntries(orphan, orphanedEntries);
+			}
+			for (Item entry : orphanedEntries) {
+				reinsertedLevels = 0;
+				insert(entry, 0);
+			}
+		}
+	}
+
+	@Override
+	public boolean contains(T geometry) {
+		return entries.containsKey(geometry);
+	}
+
+	private Node createNode(int level) {
+		// one additional slot to temporarily hold an overflowing child
+		return new Node(level, maxEntries + 1);
+	}
+
+	/**
+	 * Returns the height of this {@link RStarTree}, i.e. the number of levels
+	 * of nodes.
+	 *
+	 * @return The height of this {@link RStarTree}.
+	 */
+	public int getHeight() {
+		return root.level + 1;
+	}
+
+	private double getMarginSum(Item[] items, Comparator<Item> first,
+			Comparator<Item> second) {
+		double sum = 0;
+		for (Comparator<Item> comparator : createComparators(first,
+				second)) {
+			Item[] sorted = items.clone();
+			Arrays.sort(sorted, comparator);
+			Box[] prefix = getPrefixBounds(sorted);
+			Box[] suffix = getSuffixBounds(sorted);
+			for (int k = minEntries; k <= sorted.length - minEntries; k++) {
+				sum += prefix[k].getMargin() + suffix[k].getMargin();
+			}
+		}
+		return sum;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<T> getNearest(Point point, int k) {
+		List<T> nearest = new ArrayList<>();
+		if (k <= 0 || entries.isEmpty()) {
+			return nearest;
+		}
+		double x = point.x;
+		double y = point.y;
+		PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		queue.add(new Candidate(root, 0));
+		while (!queue.isEmpty() && nearest.size() < k) {
+			Box box = queue.poll().box;
+			if (box instanceof Entry) {
+				nearest.add(((Entry<T>) box).geometry);
+			} else {
+				Node node = (Node) box;
+				for (int i = 0; i < node.size; i++) {
+					Item child = node.children[i];
+					queue.add(new Candidate(child,
+							child.getDistanceSquared(x, y)));
+				}
+			}
+		}
+		return nearest;
+	}
+
+	private double getOverlapEnlargement(Node node, Node child, Item item) {
+		union.minX = Math.min(child.minX, item.minX);
+		union.minY = Math.min(child.minY, item.minY);
+		union.maxX = Math.max(child.maxX, item.maxX);
+		union.maxY = Math.max(child.maxY, item.maxY);
+		double enlargement = 0;
+		for (int i = 0; i < node.size; i++) {
+			Item sibling = node.children[i];
+			if (sibling != child) {
+				enlargement += union.getOverlap(sibling)
+						- child.getOverlap(sibling);
+			}
+		}
+		return enlargement;
+	}
+
+	@Override
+	public boolean insert(T geometry) {
+		if (entries.containsKey(geometry)) {
+			return false;
+		}
+		Entry<T> entry = new Entry<>(geometry);
+		entry.setBounds(geometry.getBounds());
+		entries.put(geometry, entry);
+		reinsertedLevels = 0;
+		insert(entry, 0);
+		return true;
+	}
+
+	private void insert(Item item, int level) {
+		Node node = chooseSubtree(item, level);
+		add(node, item);
+		for (Node n = node; n != null; n = n.parent) {
+			n.include(item);
+		}
+		if (node.size > maxEntries) {
+			overflow(node);
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	private void overflow(Node node) {
+		long levelBit = 1L << node.level;
+		if (node != root && (reinsertedLevels & levelBit) == 0) {
+			reinsertedLevels |= levelBit;
+			reinsert(node);
+		} else {
+			split(node);
+		}
+	}
+
+	private List<Item> pack(List<Item> items, int level) {
+		int count = items.size();
+		int nodeCount = (count + maxEntries - 1) / maxEntries;
+		int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+		int sliceSize = sliceCount * maxEntries;
+		Item[] sorted = items.toArray(new Item[count]);
+		Arrays.sort(sorted, BY_CENTER_X);
+		List<Item> nodes = new ArrayList<>(nodeCount);
+		for (int s = 0; s < count; s += sliceSize) {
+			int sliceEnd = Math.min(count, s + sliceSize);
+			Arrays.sort(sorted, s, sliceEnd, BY_CENTER_Y);
+			for (int i = s; i < sliceEnd; i += maxEntries) {
+				Node node = createNode(level);
+				for (int j = i; j < Math.min(sliceEnd, i + maxEntries); j++) {
+					add(node, sorted[j]);
+				}
+				recompute(node);
+				nodes.add(node);
+			}
+		}
+		return nodes;
+	}
+
+	@Override
+	public List<T> query(Point point) {
+		List<T> result = new ArrayList<>();
+		if (!entries.isEmpty()) {
+			query(root, point.x, point.y, point.x, point.y, result);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void query(Node node, double x1, double y1, double x2, double y2,
+			Collection<? super T> result) {
+		for (int i = 0; i < node.size; i++) {
+			Item child = node.children[i];
+			if (child.touches(x1, y1, x2, y2)) {
+				if (node.level == 0) {
+					result.add(((Entry<T>) child).geometry);
+				} else {
+					query((Node) child, x1, y1, x2, y2, result);
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> query(Rectangle window) {
+		List<T> result = new ArrayList<>();
+		query(window, result);
+		return result;
+	}
+
+	@Override
+	public void query(Rectangle window, Collection<? super T> result) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		double x1 = window.getX();
+		double y1 = window.getY();
+		query(root, x1, y1, x1 + window.getWidth(), y1 + window.getHeight(),
+				result);
+	}
+
+	private void reinsert(Node node) {
+		final double cx = (node.minX + node.maxX) / 2;
+		final double cy = (node.minY + node.maxY) / 2;
+		Item[] items = Arrays.copyOf(node.children, node.size);
+		// sort by increasing distance of the centers to the node's center
+		Arrays.sort(items, new Comparator<Item>() {
+			@Override
+			public int compare(Item a, Item b) {
+				return Double.compare(getDistance(a), getDistance(b));
+			}
+
+			private double getDistance(Item item) {
+				double dx = (item.minX + item.maxX) / 2 - cx;
+				double dy = (item.minY + item.maxY) / 2 - cy;
+				return dx * dx + dy * dy;
+			}
+		});
+		int reinsertCount = Math.max(1,
+				(int) Math.round(maxEntries * REINSERT_FRACTION));
+		int keepCount = items.length - reinsertCount;
+		Arrays.fill(node.children, null);
+		node.size = 0;
+		for (int i = 0; i < keepCount; i++) {
+			add(node, items[i]);
+		}
+		tighten(node);
+		// close reinsert, i.e. starting with the nearest removed item
+		for (int i = keepCount; i < items.length; i++) {
+			insert(items[i], node.level);
+		}
+	}
+
+	@Override
+	public boolean remove(T geometry) {
+		Entry<T> entry = entries.remove(geometry);
+		if (entry == null) {
+			return false;
+		}
+		Node leaf = entry.parent;
+		removeChild(leaf, entry);
+		condense(leaf);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	private void split(Node node) {
+		Item[] items = Arrays.copyOf(node.children, node.size);
+		// choose the split axis with the minimum sum of margins
+		Comparator<Item>[] axis = getMarginSum(items, BY_MIN_X,
+				BY_MAX_X) <= getMarginSum(items, BY_MIN_Y, BY_MAX_Y)
+						? createComparators(BY_MIN_X, BY_MAX_X)
+						: createComparators(BY_MIN_Y, BY_MAX_Y);
+		// choose the distribution with the minimum overlap, then area
+		Item[] bestSorted = null;
+		int bestIndex = -1;
+		double bestOverlap = Double.POSITIVE_INFINITY;
+		double bestArea = Double.POSITIVE_INFINITY;
+		for (Comparator<Item> comparator : axis) {
+			Item[] sorted = items.clone();
+			Arrays.sort(sorted, comparator);
+			Box[] prefix = getPrefixBounds(sorted);
+			Box[] suffix = getSuffixBounds(sorted);
+			for (int k = minEntries; k <= sorted.length - minEntries; k++) {
+				double overlap = prefix[k].getOverlap(suffix[k]);
+				double area = prefix[k].getArea() + suffix[k].getArea();
+				if (overlap < bestOverlap
+						|| overlap == bestOverlap && area < bestArea) {
+					bestSorted = sorted;
+					bestIndex = k;
+					bestOverlap = overlap;
+					bestArea = area;
+				}
+			}
+		}
+		Node sibling = createNode(node.level);
+		Arrays.fill(node.children, null);
+		node.size = 0;
+		for (int i = 0; i < bestSorted.length; i++) {
+			add(i < bestIndex ? node : sibling, bestSorted[i]);
+		}
+		recompute(node);
+		recompute(sibling);
+		if (node == root) {
+			Node newRoot = createNode(node.level + 1);
+			add(newRoot, node);
+			add(newRoot, sibling);
+			recompute(newRoot);
+			root = newRoot;
+		} else {
+			// the parent's bounds already cover the sibling
+			Node parent = node.parent;
+			add(parent, sibling);
+			if (parent.size > maxEntries) {
+				overflow(parent);
+			}
+		}
+	}
+
+	@Override
+	public boolean update(T geometry) {
+		Entry<T> entry = entries.get(geometry);
+		if (entry == null) {
+			return false;
+		}
+		entry.setBounds(geometry.getBounds());
+		Node leaf = entry.parent;
+		if (leaf.contains(entry)) {
+			// the entry may stay where it is
+			tighten(leaf);
+		} else {
+			removeChild(leaf, entry);
+			condense(leaf);
+			reinsertedLevels = 0;
+			insert(entry, 0);
+		}
+		return true;
+	}
+
+}
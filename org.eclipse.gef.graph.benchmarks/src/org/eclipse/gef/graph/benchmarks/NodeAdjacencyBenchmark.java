@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the indexed neighbor queries of {@link Node} against a linear scan
+ * over {@link Graph#getEdges()}, which is how they were computed before the
+ * {@link Graph} maintained an adjacency index. Each invocation visits the
+ * successors and predecessors of every node in the graph.
+ *
+ * @author itemis AG
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NodeAdjacencyBenchmark {
+
+	private static final long SEED = 4711L;
+
+	private static Set<Node> scanPredecessorNodes(Node node) {
+		Set<Node> predecessors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		for (Edge e : node.getGraph().getEdges()) {
+			if (e.getTarget() == node) {
+				predecessors.add(e.getSource());
+			}
+		}
+		return predecessors;
+	}
+
+	private static Set<Node> scanSuccessorNodes(Node node) {
+		Set<Node> successors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		for (Edge e : node.getGraph().getEdges()) {
+			if (e.getSource() == node) {
+				successors.add(e.getTarget());
+			}
+		}
+		return successors;
+	}
+
+	/**
+	 * The number of nodes of the generated graph.
+	 */
+	@Param({ "1000", "10000" })
+	public int nodeCount;
+
+	/**
+	 * The average number of outgoing edges per node.
+	 */
+	@Param({ "5" })
+	public int averageDegree;
+
+	private Graph graph;
+
+	/**
+	 * Benchmarks {@link Node#getPredecessorNodes()} and
+	 * {@link Node#getSuccessorNodes()} for all nodes.
+	 *
+	 * @param blackhole
+	 *            The {@link Blackhole} to consume the results.
+	 */
+	@Benchmark
+	public void indexed(Blackhole blackhole) {
+		for (Node n : graph.getNodes()) {
+			blackhole.consume(n.getPredecessorNodes());
+			blackhole.consume(n.getSuccessorNodes());
+		}
+	}
+
+	/**
+	 * Benchmarks a linear scan over all edges to determine predecessor and
+	 * successor nodes for all nodes.
+	 *
+	 * @param blackhole
+	 *            The {@link Blackhole} to consume the results.
+	 */
+	@Benchmark
+	public void scan(Blackhole blackhole) {
+		for (Node n : graph.getNodes()) {
+			blackhole.consume(scanPredecessorNodes(n));
+			blackhole.consume(scanSuccessorNodes(n));
+		}
+	}
+
+	/**
+	 * Creates a random graph with {@link #nodeCount} nodes and
+	 * {@link #nodeCount} * {@link #averageDegree} edges.
+	 */
+	@Setup
+	public void setUp() {
+		Random random = new Random(SEED);
+		List<Node> nodes = new ArrayList<>(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			nodes.add(new Node());
+		}
+		List<Edge> edges = new ArrayList<>(nodeCount * averageDegree);
+		for (int i = 0; i < nodeCount * averageDegree; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(nodeCount)),
+					nodes.get(random.nextInt(nodeCount))));
+		}
+		graph = new Graph(nodes, edges);
+	}
+
+}
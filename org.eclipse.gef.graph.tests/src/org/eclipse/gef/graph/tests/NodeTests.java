@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+public class NodeTests {
+
+	@Test
+	public void adjacencyFollowsEdgeChanges() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Node n3 = new Node();
+		Edge e12 = new Edge(n1, n2);
+		Edge e13 = new Edge(n1, n3);
+		Graph graph = new Graph(Arrays.asList(n1, n2, n3),
+				Arrays.asList(e12, e13));
+
+		assertEquals(2, n1.getOutgoingEdges().size());
+		assertTrue(n1.getIncomingEdges().isEmpty());
+		assertEquals(2, n1.getSuccessorNodes().size());
+		assertEquals(1, n2.getPredecessorNodes().size());
+		assertSame(n1, n2.getPredecessorNodes().iterator().next());
+
+		// add an edge
+		Edge e32 = new Edge(n3, n2);
+		graph.getEdges().add(e32);
+		assertEquals(2, n2.getIncomingEdges().size());
+		assertTrue(n2.getIncomingEdges().contains(e32));
+		assertEquals(2, n3.getNeighbors().size());
+
+		// remove an edge
+		graph.getEdges().remove(e12);
+		assertEquals(1, n1.getOutgoingEdges().size());
+		assertEquals(1, n2.getIncomingEdges().size());
+		assertSame(n3, n2.getPredecessorNodes().iterator().next());
+
+		// re-target an edge
+		e13.setTarget(n2);
+		assertTrue(n3.getIncomingEdges().isEmpty());
+		assertEquals(2, n2.getIncomingEdges().size());
+		assertTrue(n2.getPredecessorNodes().contains(n1));
+
+		// re-source an edge
+		e32.setSource(n1);
+		assertTrue(n3.getOutgoingEdges().isEmpty());
+		assertEquals(2, n1.getOutgoingEdges().size());
+		assertEquals(1, n1.getSuccessorNodes().size());
+
+		// replace all edges
+		graph.getEdges().setAll(e12);
+		assertEquals(1, n1.getOutgoingEdges().size());
+		assertSame(e12, n1.getOutgoingEdges().iterator().next());
+		assertSame(graph, e12.getGraph());
+		assertEquals(null, e13.getGraph());
+		assertTrue(n3.getNeighbors().isEmpty());
+	}
+
+	@Test
+	public void adjacencyWithDuplicateEdges() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Edge e12 = new Edge(n1, n2);
+		Graph graph = new Graph(Arrays.asList(n1, n2),
+				Arrays.asList(e12, e12));
+
+		// removing one occurrence keeps the edge indexed
+		graph.getEdges().remove(1);
+		assertEquals(1, n1.getOutgoingEdges().size());
+		assertEquals(1, n2.getIncomingEdges().size());
+		assertSame(graph, e12.getGraph());
+
+		// removing the last occurrence removes it from the index
+		graph.getEdges().remove(e12);
+		assertTrue(n1.getOutgoingEdges().isEmpty());
+		assertTrue(n2.getIncomingEdges().isEmpty());
+		assertEquals(null, e12.getGraph());
+	}
+
+	@Test
+	public void adjacencyWithinHierarchy() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Node nested = new Node();
+		Graph nestedGraph = new Graph(Arrays.asList(nested),
+				Arrays.<Edge> asList());
+		Graph graph = new Graph(Arrays.asList(n1, n2),
+				Arrays.asList(new Edge(n1, n2)));
+		n2.setNestedGraph(nestedGraph);
+
+		assertTrue(nested.getPredecessorNodes().isEmpty());
+		assertEquals(1, nested.getAllPredecessorNodes().size());
+		assertSame(n1, nested.getAllPredecessorNodes().iterator().next());
+		assertEquals(1, nested.getAllIncomingEdges().size());
+		assertSame(graph.getEdges().get(0),
+				nested.getAllIncomingEdges().iterator().next());
+		assertTrue(nested.getAllSuccessorNodes().isEmpty());
+
+		// nodes that are removed from the graph have no neighbors
+		graph.getNodes().remove(n1);
+		assertTrue(n1.getSuccessorNodes().isEmpty());
+		assertTrue(n1.getOutgoingEdges().isEmpty());
+	}
+
+}
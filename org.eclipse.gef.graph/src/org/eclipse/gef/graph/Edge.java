@@ -297,7 +297,7 @@ public class Edge implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Edge}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getEdges().contains(this)) {
+		if (graph != null && !graph.isIndexed(this)) {
 			throw new IllegalArgumentException("Edge is not contained in graph " + graph);
 		}
 		this.graph = graph;
@@ -310,7 +310,13 @@ public class Edge implements IAttributeStore {
 	 *            The new source {@link Node} for this {@link Edge}.
 	 */
 	public void setSource(Node source) {
+		if (graph != null) {
+			graph.unindexEdge(this);
+		}
 		this.source = source;
+		if (graph != null) {
+			graph.indexEdge(this);
+		}
 	}
 
 	/**
@@ -320,7 +326,13 @@ public class Edge implements IAttributeStore {
 	 *            The new target {@link Node} for this {@link Edge}.
 	 */
 	public void setTarget(Node target) {
+		if (graph != null) {
+			graph.unindexEdge(this);
+		}
 		this.target = target;
+		if (graph != null) {
+			graph.indexEdge(this);
+		}
 	}
 
 	@Override
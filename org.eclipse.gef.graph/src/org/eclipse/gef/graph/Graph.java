@@ -17,10 +17,13 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.function.BiConsumer;
@@ -326,6 +329,30 @@ public final class Graph implements IAttributeStore {
 	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
 			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
 
+	/**
+	 * {@link Edge}s of this {@link Graph} indexed by their
+	 * {@link Edge#getTarget() target} {@link Node}. Kept in sync with the
+	 * {@link #getEdges() edges} by the list change listener registered in the
+	 * constructor.
+	 */
+	private final Map<Node, Set<Edge>> incomingEdgesIndex = new IdentityHashMap<>();
+
+	/**
+	 * {@link Edge}s of this {@link Graph} indexed by their
+	 * {@link Edge#getSource() source} {@link Node}. Kept in sync with the
+	 * {@link #getEdges() edges} by the list change listener registered in the
+	 * constructor.
+	 */
+	private final Map<Node, Set<Edge>> outgoingEdgesIndex = new IdentityHashMap<>();
+
+	/**
+	 * The number of occurrences of each {@link Edge} within the
+	 * {@link #getEdges() edges}, so that an {@link Edge} that is contained
+	 * multiple times is only removed from the adjacency index when its last
+	 * occurrence is removed.
+	 */
+	private final Map<Edge, Integer> edgeOccurrences = new IdentityHashMap<>();
+
 	/**
 	 * {@link Node} which contains this {@link Graph}. May be <code>null</code>
 	 * .
@@ -385,12 +412,20 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
 				while (c.next()) {
+					// process removals first, so that replacing an edge with
+					// itself leaves it indexed and associated
+					for (Edge e : c.getRemoved()) {
+						if (removeOccurrence(e)) {
+							unindexEdge(e);
+							e.setGraph(null);
+						}
+					}
 					for (Edge e : c.getAddedSubList()) {
+						if (addOccurrence(e)) {
+							indexEdge(e);
+						}
 						e.setGraph(Graph.this);
 					}
-					for (Edge e : c.getRemoved()) {
-						e.setGraph(null);
-					}
 				}
 			}
 		});
@@ -398,6 +433,21 @@ public final class Graph implements IAttributeStore {
 		this.edgesProperty.addAll(edges);
 	}
 
+	/**
+	 * Increments the number of occurrences of the given {@link Edge} within
+	 * the {@link #getEdges() edges}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} that was added.
+	 * @return <code>true</code> if this is the first occurrence of the given
+	 *         {@link Edge}, <code>false</code> otherwise.
+	 */
+	private boolean addOccurrence(Edge edge) {
+		Integer occurrences = edgeOccurrences.get(edge);
+		edgeOccurrences.put(edge, occurrences == null ? 1 : occurrences + 1);
+		return occurrences == null;
+	}
+
 	@Override
 	public ReadOnlyMapProperty<String, Object> attributesProperty() {
 		return attributesProperty.getReadOnlyProperty();
@@ -427,6 +477,34 @@ public final class Graph implements IAttributeStore {
 		return edgesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Returns the {@link Edge}s of this {@link Graph} whose
+	 * {@link Edge#getTarget() target} is the given {@link Node}. The returned
+	 * set is backed by the adjacency index and may not be modified.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the incoming edges.
+	 * @return An unmodifiable set containing the indexed incoming edges.
+	 */
+	Set<Edge> getIndexedIncomingEdges(Node node) {
+		Set<Edge> incoming = incomingEdgesIndex.get(node);
+		return incoming == null ? Collections.<Edge>emptySet() : Collections.unmodifiableSet(incoming);
+	}
+
+	/**
+	 * Returns the {@link Edge}s of this {@link Graph} whose
+	 * {@link Edge#getSource() source} is the given {@link Node}. The returned
+	 * set is backed by the adjacency index and may not be modified.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the outgoing edges.
+	 * @return An unmodifiable set containing the indexed outgoing edges.
+	 */
+	Set<Edge> getIndexedOutgoingEdges(Node node) {
+		Set<Edge> outgoing = outgoingEdgesIndex.get(node);
+		return outgoing == null ? Collections.<Edge>emptySet() : Collections.unmodifiableSet(outgoing);
+	}
+
 	/**
 	 * Returns the {@link Node} in which this {@link Graph} is nested. Returns
 	 * <code>null</code> when this {@link Graph} is not nested.
@@ -460,6 +538,44 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	/**
+	 * Adds the given {@link Edge} to the adjacency index of this {@link Graph},
+	 * using its current {@link Edge#getSource() source} and
+	 * {@link Edge#getTarget() target}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to index.
+	 */
+	void indexEdge(Edge edge) {
+		Set<Edge> outgoing = outgoingEdgesIndex.get(edge.getSource());
+		if (outgoing == null) {
+			outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+			outgoingEdgesIndex.put(edge.getSource(), outgoing);
+		}
+		outgoing.add(edge);
+		Set<Edge> incoming = incomingEdgesIndex.get(edge.getTarget());
+		if (incoming == null) {
+			incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+			incomingEdgesIndex.put(edge.getTarget(), incoming);
+		}
+		incoming.add(edge);
+	}
+
+	/**
+	 * Tests whether the given {@link Edge} is contained in the adjacency index
+	 * of this {@link Graph}, i.e. whether it is one of its {@link #getEdges()
+	 * edges}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to test.
+	 * @return <code>true</code> if the given {@link Edge} is indexed,
+	 *         <code>false</code> otherwise.
+	 */
+	boolean isIndexed(Edge edge) {
+		Set<Edge> outgoing = outgoingEdgesIndex.get(edge.getSource());
+		return outgoing != null && outgoing.contains(edge);
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Node}s of this
 	 * {@link Graph}.
@@ -487,6 +603,44 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	/**
+	 * Decrements the number of occurrences of the given {@link Edge} within
+	 * the {@link #getEdges() edges}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} that was removed.
+	 * @return <code>true</code> if the last occurrence of the given
+	 *         {@link Edge} was removed, <code>false</code> otherwise.
+	 */
+	private boolean removeOccurrence(Edge edge) {
+		Integer occurrences = edgeOccurrences.get(edge);
+		if (occurrences == null || occurrences <= 1) {
+			edgeOccurrences.remove(edge);
+			return true;
+		}
+		edgeOccurrences.put(edge, occurrences - 1);
+		return false;
+	}
+
+	/**
+	 * Removes the given {@link Edge} from the adjacency index of this
+	 * {@link Graph}, using its current {@link Edge#getSource() source} and
+	 * {@link Edge#getTarget() target}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to remove from the index.
+	 */
+	void unindexEdge(Edge edge) {
+		Set<Edge> outgoing = outgoingEdgesIndex.get(edge.getSource());
+		if (outgoing != null && outgoing.remove(edge) && outgoing.isEmpty()) {
+			outgoingEdgesIndex.remove(edge.getSource());
+		}
+		Set<Edge> incoming = incomingEdgesIndex.get(edge.getTarget());
+		if (incoming != null && incoming.remove(edge) && incoming.isEmpty()) {
+			incomingEdgesIndex.remove(edge.getTarget());
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
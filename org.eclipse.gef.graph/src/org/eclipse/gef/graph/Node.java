@@ -354,7 +354,9 @@ public class Node implements IAttributeStore {
 	/**
 	 * Returns the local incoming {@link Edge}s of this {@link Node}. Only the
 	 * {@link #getGraph() associated graph} is scanned for incoming edges, and
-	 * not the whole graph hierarchy.
+	 * not the whole graph hierarchy. The edges are retrieved from the adjacency
+	 * index maintained by the {@link #getGraph() associated graph}, so that the
+	 * costs are proportional to the number of incoming edges.
 	 *
 	 * @return The local incoming {@link Edge}s.
 	 */
@@ -363,11 +365,7 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getTarget() == this) {
-				incoming.add(e);
-			}
-		}
+		incoming.addAll(graph.getIndexedIncomingEdges(this));
 		return incoming;
 	}
 
@@ -398,7 +396,9 @@ public class Node implements IAttributeStore {
 	/**
 	 * Returns the local outgoing {@link Edge}s of this {@link Node}. Only the
 	 * {@link #getGraph() associated graph} is scanned for outgoing edges, and
-	 * not the whole graph hierarchy.
+	 * not the whole graph hierarchy. The edges are retrieved from the adjacency
+	 * index maintained by the {@link #getGraph() associated graph}, so that the
+	 * costs are proportional to the number of outgoing edges.
 	 *
 	 * @return The local outgoing {@link Edge}s.
 	 */
@@ -407,11 +407,7 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getSource() == this) {
-				outgoing.add(e);
-			}
-		}
+		outgoing.addAll(graph.getIndexedOutgoingEdges(this));
 		return outgoing;
 	}
 
@@ -423,8 +419,11 @@ public class Node implements IAttributeStore {
 	 * @return The local predecessor {@link Node}s.
 	 */
 	public Set<Node> getPredecessorNodes() {
+		if (graph == null) {
+			return Collections.emptySet();
+		}
 		Set<Node> predecessors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge incoming : getIncomingEdges()) {
+		for (Edge incoming : graph.getIndexedIncomingEdges(this)) {
 			predecessors.add(incoming.getSource());
 		}
 		return predecessors;
@@ -438,8 +437,11 @@ public class Node implements IAttributeStore {
 	 * @return The local successor {@link Node}s.
 	 */
 	public Set<Node> getSuccessorNodes() {
+		if (graph == null) {
+			return Collections.emptySet();
+		}
 		Set<Node> successors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge outgoing : getOutgoingEdges()) {
+		for (Edge outgoing : graph.getIndexedOutgoingEdges(this)) {
 			successors.add(outgoing.getTarget());
 		}
 		return successors;
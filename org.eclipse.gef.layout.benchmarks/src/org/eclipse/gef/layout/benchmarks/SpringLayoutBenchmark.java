@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the iterations per second of the {@link SpringLayoutAlgorithm},
+ * computing the repulsive forces either exactly for all pairs of nodes, or
+ * approximating them by means of a Barnes-Hut quadtree, sequentially (a
+ * parallelism of 0) or using a {@link ForkJoinPool}. The exact computation is
+ * not measured for 100k nodes, as a single iteration takes minutes.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SpringLayoutBenchmark {
+
+	/**
+	 * Approximates the repulsive forces using a Barnes-Hut quadtree.
+	 */
+	@State(Scope.Benchmark)
+	public static class BarnesHutState extends LayoutState {
+
+		/**
+		 * The Barnes-Hut approximation parameter.
+		 */
+		@Param({ "0.8" })
+		public double theta;
+
+		/**
+		 * The number of nodes of the generated graph.
+		 */
+		@Param({ "1000", "10000", "100000" })
+		public int nodeCount;
+
+		/**
+		 * Initializes the layout.
+		 */
+		@Setup
+		public void setUp() {
+			SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+			algorithm.setApproximateRepulsion(true);
+			algorithm.setBarnesHutTheta(theta);
+			init(nodeCount, parallelism, algorithm);
+		}
+	}
+
+	/**
+	 * Computes the repulsive forces for all pairs of nodes.
+	 */
+	@State(Scope.Benchmark)
+	public static class ExactState extends LayoutState {
+
+		/**
+		 * The number of nodes of the generated graph.
+		 */
+		@Param({ "1000", "10000" })
+		public int nodeCount;
+
+		/**
+		 * Initializes the layout.
+		 */
+		@Setup
+		public void setUp() {
+			init(nodeCount, parallelism, new SpringLayoutAlgorithm());
+		}
+	}
+
+	/**
+	 * Common base class for the benchmark states, which provides a random
+	 * graph (a random spanning tree complemented by random cross edges) and an
+	 * initialized {@link SpringLayoutAlgorithm}.
+	 */
+	@State(Scope.Benchmark)
+	public static abstract class LayoutState {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The parallelism of the {@link ForkJoinPool} used for the force
+		 * computation, or 0 to compute the forces sequentially.
+		 */
+		@Param({ "0", "4", "16" })
+		public int parallelism;
+
+		SpringLayoutAlgorithm algorithm;
+		ForkJoinPool pool;
+
+		/**
+		 * Shuts down the {@link ForkJoinPool}.
+		 */
+		@TearDown
+		public void tearDown() {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+
+		void init(int nodeCount, int parallelism,
+				SpringLayoutAlgorithm algorithm) {
+			Random random = new Random(SEED);
+			Rectangle bounds = new Rectangle(0, 0, 1000, 1000);
+			List<Node> nodes = new ArrayList<>(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				Node node = new Node();
+				LayoutProperties.setLocation(node,
+						new Point(random.nextDouble() * bounds.getWidth(),
+								random.nextDouble() * bounds.getHeight()));
+				LayoutProperties.setSize(node, new Dimension(20, 10));
+				nodes.add(node);
+			}
+			List<Edge> edges = new ArrayList<>(2 * nodeCount);
+			for (int i = 1; i < nodeCount; i++) {
+				edges.add(
+						new Edge(nodes.get(random.nextInt(i)), nodes.get(i)));
+			}
+			for (int i = 0; i < nodeCount / 2; i++) {
+				edges.add(new Edge(nodes.get(random.nextInt(nodeCount)),
+						nodes.get(random.nextInt(nodeCount))));
+			}
+			Graph graph = new Graph(nodes, edges);
+			LayoutProperties.setBounds(graph, bounds);
+
+			algorithm.setRandom(false);
+			if (parallelism > 0) {
+				pool = new ForkJoinPool(parallelism);
+				algorithm.setForkJoinPool(pool);
+			}
+			LayoutContext context = new LayoutContext();
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(algorithm);
+			// a non-clean pass only initializes the layout
+			context.applyLayout(false);
+			this.algorithm = algorithm;
+		}
+	}
+
+	/**
+	 * Performs a single iteration using the Barnes-Hut approximation.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void barnesHutIteration(BarnesHutState state) {
+		state.algorithm.performOneIteration();
+	}
+
+	/**
+	 * Performs a single iteration using exact repulsive forces.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void exactIteration(ExactState state) {
+		state.algorithm.performOneIteration();
+	}
+
+}
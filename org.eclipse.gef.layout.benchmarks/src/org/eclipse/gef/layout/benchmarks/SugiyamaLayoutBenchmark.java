@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BarycentricCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BrandesKoepfCoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.DFSLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.GreedyCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.IndexCoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.MedianCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SplitCrossingReducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of a complete {@link SugiyamaLayoutAlgorithm} pass
+ * (layering, crossing reduction, and coordinate assignment) for the different
+ * {@link CrossingReducer}s and {@link CoordinateAssigner}s.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SugiyamaLayoutBenchmark {
+
+	/**
+	 * Provides a random directed acyclic graph (a random spanning tree
+	 * complemented by random forward edges).
+	 */
+	@State(Scope.Benchmark)
+	public static class LayoutState {
+
+		private static final long SEED = 4711L;
+
+		/**
+		 * The number of nodes of the generated graph.
+		 */
+		@Param({ "1000", "3000" })
+		public int nodeCount;
+
+		/**
+		 * The number of additional edges per node.
+		 */
+		@Param({ "1", "4" })
+		public int density;
+
+		/**
+		 * The {@link CrossingReducer} that is used.
+		 */
+		@Param({ "barycentric", "greedy", "median", "split" })
+		public String crossingReducer;
+
+		/**
+		 * The {@link CoordinateAssigner} that is used.
+		 */
+		@Param({ "index", "brandesKoepf" })
+		public String coordinateAssigner;
+
+		LayoutContext context;
+
+		private CoordinateAssigner createCoordinateAssigner() {
+			if ("brandesKoepf".equals(coordinateAssigner)) {
+				return new BrandesKoepfCoordinateAssigner();
+			}
+			return new IndexCoordinateAssigner();
+		}
+
+		private CrossingReducer createCrossingReducer() {
+			if ("greedy".equals(crossingReducer)) {
+				return new GreedyCrossingReducer();
+			} else if ("median".equals(crossingReducer)) {
+				return new MedianCrossingReducer();
+			} else if ("split".equals(crossingReducer)) {
+				return new SplitCrossingReducer();
+			}
+			return new BarycentricCrossingReducer();
+		}
+
+		/**
+		 * Initializes the graph and the {@link LayoutContext}.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(SEED);
+			List<Node> nodes = new ArrayList<>(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				Node node = new Node();
+				LayoutProperties.setLocation(node, new Point());
+				LayoutProperties.setSize(node, new Dimension(20, 10));
+				nodes.add(node);
+			}
+			List<Edge> edges = new ArrayList<>((density + 1) * nodeCount);
+			for (int i = 1; i < nodeCount; i++) {
+				edges.add(
+						new Edge(nodes.get(random.nextInt(i)), nodes.get(i)));
+			}
+			for (int i = 0; i < density * nodeCount; i++) {
+				int source = random.nextInt(nodeCount);
+				int target = random.nextInt(nodeCount);
+				if (source < target) {
+					edges.add(new Edge(nodes.get(source), nodes.get(target)));
+				}
+			}
+			Graph graph = new Graph(nodes, edges);
+			LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+
+			context = new LayoutContext();
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+					Direction.VERTICAL, null, new DFSLayerProvider(),
+					createCrossingReducer(), createCoordinateAssigner()));
+		}
+	}
+
+	/**
+	 * Performs a clean layout pass.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void layout(LayoutState state) {
+		state.context.applyLayout(true);
+	}
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.TidyTreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the duration of a clean layout pass of the
+ * {@link TidyTreeLayoutAlgorithm} and of the {@link TreeLayoutAlgorithm} for
+ * random trees, whose nodes have up to 50 children. The
+ * {@link TreeLayoutAlgorithm} is not measured for 200k nodes.
+ *
+ * @author itemis AG
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TreeLayoutBenchmark {
+
+	/**
+	 * Uses the {@link TidyTreeLayoutAlgorithm}.
+	 */
+	@State(Scope.Benchmark)
+	public static class TidyTreeState extends LayoutState {
+
+		/**
+		 * The number of nodes of the generated tree.
+		 */
+		@Param({ "10000", "200000" })
+		public int nodeCount;
+
+		/**
+		 * Initializes the layout.
+		 */
+		@Setup
+		public void setUp() {
+			init(nodeCount, new TidyTreeLayoutAlgorithm());
+		}
+	}
+
+	/**
+	 * Uses the {@link TreeLayoutAlgorithm}.
+	 */
+	@State(Scope.Benchmark)
+	public static class TreeState extends LayoutState {
+
+		/**
+		 * The number of nodes of the generated tree.
+		 */
+		@Param({ "10000" })
+		public int nodeCount;
+
+		/**
+		 * Initializes the layout.
+		 */
+		@Setup
+		public void setUp() {
+			init(nodeCount, new TreeLayoutAlgorithm());
+		}
+	}
+
+	/**
+	 * Common base class for the benchmark states, which provides a random
+	 * tree.
+	 */
+	@State(Scope.Benchmark)
+	public static abstract class LayoutState {
+
+		private static final long SEED = 4711L;
+
+		LayoutContext context;
+
+		void init(int nodeCount, ILayoutAlgorithm algorithm) {
+			Random random = new Random(SEED);
+			List<Node> nodes = new ArrayList<>(nodeCount);
+			List<Edge> edges = new ArrayList<>(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				Node node = new Node();
+				LayoutProperties.setLocation(node, new Point());
+				LayoutProperties.setSize(node, new Dimension(20, 10));
+				nodes.add(node);
+				if (i > 0) {
+					// attach to one of the 50 preceding nodes
+					int parent = i - 1 - random.nextInt(Math.min(i, 50));
+					edges.add(new Edge(nodes.get(parent), node));
+				}
+			}
+			Graph graph = new Graph(nodes, edges);
+			LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+			context = new LayoutContext();
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(algorithm);
+		}
+	}
+
+	/**
+	 * Performs a clean layout pass using the {@link TidyTreeLayoutAlgorithm}.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void tidyTree(TidyTreeState state) {
+		state.context.applyLayout(true);
+	}
+
+	/**
+	 * Performs a clean layout pass using the {@link TreeLayoutAlgorithm}.
+	 *
+	 * @param state
+	 *            The benchmark state.
+	 */
+	@Benchmark
+	public void tree(TreeState state) {
+		state.context.applyLayout(true);
+	}
+
+}
@@ -17,6 +17,9 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ LayoutAlgorithmTests.class })
+@SuiteClasses({ CoordinateAssignerTests.class, CrossingReducerTests.class,
+		IncrementalLayoutTests.class, LayoutAlgorithmTests.class,
+		LayoutContextTests.class, SpringLayoutAlgorithmTests.class,
+		TidyTreeLayoutAlgorithmTests.class })
 public class AllTests {
 }
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BarycentricCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BrandesKoepfCoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SimpleLayerProvider;
+import org.junit.Test;
+
+public class CoordinateAssignerTests {
+
+	private static Node createNode() {
+		Node node = new Node();
+		LayoutProperties.setLocation(node, new Point());
+		LayoutProperties.setSize(node, new Dimension(20, 10));
+		return node;
+	}
+
+	@Test
+	public void brandesKoepfCentersParent() {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		nodes.add(createNode());
+		for (int i = 1; i <= 3; i++) {
+			nodes.add(createNode());
+			edges.add(new Edge(nodes.get(0), nodes.get(i)));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 400, 400));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				Direction.VERTICAL, null, null, null,
+				new BrandesKoepfCoordinateAssigner()));
+		context.applyLayout(true);
+
+		assertEquals(LayoutProperties.getLocation(nodes.get(2)).x,
+				LayoutProperties.getLocation(nodes.get(0)).x, 1e-9);
+		assertTrue(LayoutProperties.getLocation(nodes.get(0)).y < LayoutProperties
+				.getLocation(nodes.get(2)).y);
+	}
+
+	/**
+	 * Creates a context for a node with the given number of children.
+	 */
+	private static LayoutContext createFanContext(int childCount) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		nodes.add(createNode());
+		for (int i = 1; i <= childCount; i++) {
+			nodes.add(createNode());
+			edges.add(new Edge(nodes.get(0), nodes.get(i)));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 400, 400));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		return context;
+	}
+
+	@Test
+	public void positionsDoNotDependOnPreviousLayoutPass() {
+		SugiyamaLayoutAlgorithm algorithm = new SugiyamaLayoutAlgorithm();
+		LayoutContext narrow = createFanContext(1);
+		narrow.setLayoutAlgorithm(algorithm);
+		narrow.applyLayout(true);
+		Point expected = LayoutProperties
+				.getLocation(narrow.getGraph().getNodes().get(1)).getCopy();
+
+		LayoutContext wide = createFanContext(9);
+		wide.setLayoutAlgorithm(algorithm);
+		wide.applyLayout(true);
+		narrow.applyLayout(true);
+		assertEquals(expected, LayoutProperties
+				.getLocation(narrow.getGraph().getNodes().get(1)));
+	}
+
+	@Test
+	public void brandesKoepfRetainsOrder() {
+		Random random = new Random(4711);
+		for (int run = 0; run < 20; run++) {
+			List<Node> nodes = new ArrayList<>();
+			List<Edge> edges = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				nodes.add(new Node());
+				if (i > 0) {
+					edges.add(new Edge(nodes.get(random.nextInt(i)),
+							nodes.get(i)));
+				}
+			}
+			for (int i = 0; i < 10; i++) {
+				int source = random.nextInt(40);
+				int target = random.nextInt(40);
+				if (source < target) {
+					edges.add(new Edge(nodes.get(source), nodes.get(target)));
+				}
+			}
+			new Graph(nodes, edges);
+			List<List<NodeWrapper>> layers = new SimpleLayerProvider()
+					.calculateLayers(new ArrayList<>(nodes));
+			new BarycentricCrossingReducer().crossReduction(layers);
+
+			double[][] coordinates = new BrandesKoepfCoordinateAssigner()
+					.assignCoordinates(layers);
+			for (int i = 0; i < coordinates.length; i++) {
+				assertEquals(layers.get(i).size(), coordinates[i].length);
+				for (int j = 1; j < coordinates[i].length; j++) {
+					assertTrue(coordinates[i][j]
+							- coordinates[i][j - 1] >= 1 - 1e-9);
+				}
+			}
+		}
+	}
+
+}
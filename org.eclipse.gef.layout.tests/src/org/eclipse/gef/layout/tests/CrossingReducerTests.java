@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CrossingCounter;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.GreedyCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.MedianCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SimpleLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SplitCrossingReducer;
+import org.junit.Test;
+
+public class CrossingReducerTests {
+
+	/**
+	 * Creates the layers for two rows of nodes, where the i-th node of the
+	 * upper row is connected to the i-th node of the lower row, but where the
+	 * lower row is given in reverse order, so that all edges cross each other.
+	 */
+	private static List<List<NodeWrapper>> createReversedLayers(int count) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add(new Node());
+		}
+		for (int i = 0; i < count; i++) {
+			nodes.add(new Node());
+			edges.add(new Edge(nodes.get(count - 1 - i), nodes.get(count + i)));
+		}
+		new Graph(nodes, edges);
+		return new SimpleLayerProvider().calculateLayers(nodes);
+	}
+
+	private static void assertCrossingsRemoved(CrossingReducer reducer) {
+		List<List<NodeWrapper>> layers = createReversedLayers(6);
+		assertEquals(15, new CrossingCounter(layers).countCrossings());
+		reducer.crossReduction(layers);
+		assertEquals(0, new CrossingCounter(layers).countCrossings());
+	}
+
+	@Test
+	public void countCrossings() {
+		Random random = new Random(4711);
+		for (int run = 0; run < 20; run++) {
+			int edgeCount = random.nextInt(200);
+			int[] north = new int[edgeCount];
+			int[] south = new int[edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				north[i] = random.nextInt(30);
+				south[i] = random.nextInt(40);
+			}
+			long expected = 0;
+			for (int i = 0; i < edgeCount; i++) {
+				for (int j = 0; j < edgeCount; j++) {
+					if (north[i] < north[j] && south[i] > south[j]) {
+						expected++;
+					}
+				}
+			}
+			assertEquals(expected,
+					CrossingCounter.countCrossings(north, south, edgeCount));
+		}
+	}
+
+	@Test
+	public void greedyCrossingReducer() {
+		assertCrossingsRemoved(new GreedyCrossingReducer());
+	}
+
+	@Test
+	public void medianCrossingReducer() {
+		assertCrossingsRemoved(new MedianCrossingReducer());
+	}
+
+	@Test
+	public void splitCrossingReducer() {
+		assertCrossingsRemoved(new SplitCrossingReducer());
+	}
+
+}
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ILayoutFilter;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.RadialLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.junit.Test;
+
+public class IncrementalLayoutTests {
+
+	private static Node createNode() {
+		Node node = new Node();
+		LayoutProperties.setLocation(node, new Point());
+		LayoutProperties.setSize(node, new Dimension(20, 10));
+		return node;
+	}
+
+	/**
+	 * Creates a context for a complete binary tree with the given number of
+	 * nodes, using the given algorithm.
+	 */
+	private static LayoutContext createTreeContext(int nodeCount,
+			ILayoutAlgorithm algorithm) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			nodes.add(createNode());
+			if (i > 0) {
+				edges.add(new Edge(nodes.get((i - 1) / 2), nodes.get(i)));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		return context;
+	}
+
+	private static Map<Node, Point> getLocations(LayoutContext context) {
+		Map<Node, Point> locations = new IdentityHashMap<>();
+		for (Node node : context.getGraph().getNodes()) {
+			locations.put(node, LayoutProperties.getLocation(node).getCopy());
+		}
+		return locations;
+	}
+
+	private static void assertUnchanged(Map<Node, Point> expected,
+			List<Node> except) {
+		for (Map.Entry<Node, Point> entry : expected.entrySet()) {
+			if (!except.contains(entry.getKey())) {
+				assertEquals(entry.getValue(),
+						LayoutProperties.getLocation(entry.getKey()));
+			}
+		}
+	}
+
+	/**
+	 * Adds a child to the given node, returning the child.
+	 */
+	private static Node addChild(LayoutContext context, Node parent) {
+		Node child = createNode();
+		context.getGraph().getNodes().add(child);
+		context.getGraph().getEdges().add(new Edge(parent, child));
+		return child;
+	}
+
+	@Test
+	public void radialIncrementalLayoutOnlyPlacesNewNodes() {
+		LayoutContext context = createTreeContext(31,
+				new RadialLayoutAlgorithm());
+		context.applyLayout(true);
+		Map<Node, Point> locations = getLocations(context);
+
+		Node leaf = context.getGraph().getNodes().get(30);
+		Node child = addChild(context, leaf);
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		assertNotEquals(new Point(), LayoutProperties.getLocation(child));
+	}
+
+	@Test
+	public void sugiyamaIncrementalLayoutKeepsLayers() {
+		LayoutContext context = createTreeContext(15,
+				new SugiyamaLayoutAlgorithm());
+		final List<Node> hidden = new ArrayList<>();
+		context.addLayoutFilter(new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return hidden.contains(edge.getSource())
+						|| hidden.contains(edge.getTarget());
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				return hidden.contains(node);
+			}
+		});
+		context.applyLayout(true);
+		Map<Node, Point> locations = getLocations(context);
+
+		// hide an inner node and its children
+		List<Node> nodes = context.getGraph().getNodes();
+		hidden.add(nodes.get(2));
+		hidden.add(nodes.get(5));
+		hidden.add(nodes.get(6));
+		// the changed filter results are not observed by the context
+		context.invalidateLayoutSnapshot();
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+
+		// show them again
+		hidden.clear();
+		context.invalidateLayoutSnapshot();
+		for (Node node : nodes.subList(0, 7)) {
+			LayoutProperties.setLocation(node, new Point());
+		}
+		Map<Node, Point> hiddenLocations = new IdentityHashMap<>(locations);
+		locations.keySet().removeAll(nodes.subList(0, 7));
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		// the shown nodes are placed in the layers below their predecessors
+		Point parent = LayoutProperties.getLocation(nodes.get(0));
+		Point child = LayoutProperties.getLocation(nodes.get(2));
+		Point grandChild = LayoutProperties.getLocation(nodes.get(5));
+		assertTrue(parent.y < child.y);
+		assertTrue(child.y < grandChild.y);
+		assertEquals(hiddenLocations.get(nodes.get(5)).y, grandChild.y, 0);
+
+		// add a new node below a leaf
+		Node leaf = nodes.get(14);
+		locations = getLocations(context);
+		Node newNode = addChild(context, leaf);
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		assertTrue(LayoutProperties.getLocation(leaf).y < LayoutProperties
+				.getLocation(newNode).y);
+
+		// a new node that is also connected to the root is placed below the
+		// deeper predecessor, and can be removed again
+		locations = getLocations(context);
+		Node longEdgeNode = addChild(context, newNode);
+		context.getGraph().getEdges().add(new Edge(nodes.get(0), longEdgeNode));
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		assertTrue(LayoutProperties.getLocation(newNode).y < LayoutProperties
+				.getLocation(longEdgeNode).y);
+		context.getGraph().getNodes().remove(longEdgeNode);
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+	}
+
+	@Test
+	public void treeIncrementalLayoutIgnoresHiddenNodes() {
+		LayoutContext context = createTreeContext(15,
+				new TreeLayoutAlgorithm());
+		final List<Node> nodes = context.getGraph().getNodes();
+		context.addLayoutFilter(new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return edge.getSource() == nodes.get(2)
+						|| edge.getTarget() == nodes.get(2);
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				return node == nodes.get(2);
+			}
+		});
+		// the hidden node is not part of the tree structure, so that it is
+		// not placed, and its children become roots
+		context.applyLayout(true);
+		assertEquals(new Point(), LayoutProperties.getLocation(nodes.get(2)));
+		assertEquals(LayoutProperties.getLocation(nodes.get(0)).y,
+				LayoutProperties.getLocation(nodes.get(5)).y, 0);
+		Map<Node, Point> locations = getLocations(context);
+
+		// the tree structure of the clean layout pass is therefore retained
+		// by an incremental layout pass
+		Node leaf = nodes.get(14);
+		Node child = addChild(context, leaf);
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		assertTrue(LayoutProperties.getLocation(leaf).y < LayoutProperties
+				.getLocation(child).y);
+	}
+
+	@Test
+	public void treeIncrementalLayoutHandlesReparentedSubtrees() {
+		LayoutContext context = createTreeContext(15,
+				new TreeLayoutAlgorithm());
+		context.applyLayout(true);
+
+		// move the subtree of the third node from the second child of the
+		// root to the first one, and attach the root to a leaf of that
+		// subtree, which must not result in a cycle
+		List<Node> nodes = context.getGraph().getNodes();
+		List<Edge> edges = context.getGraph().getEdges();
+		edges.remove(5);
+		edges.add(new Edge(nodes.get(1), nodes.get(6)));
+		edges.add(new Edge(nodes.get(13), nodes.get(0)));
+		context.applyLayout(false);
+		Map<Node, Point> incremental = getLocations(context);
+
+		// the order of the children is not specified, so that only the depths
+		// are compared to the ones of a clean layout pass
+		context.applyLayout(true);
+		for (Node node : nodes) {
+			assertEquals(LayoutProperties.getLocation(node).y,
+					incremental.get(node).y, 1e-9);
+		}
+		assertTrue(incremental.get(nodes.get(1)).y < incremental
+				.get(nodes.get(6)).y);
+		assertTrue(incremental.get(nodes.get(6)).y < incremental
+				.get(nodes.get(13)).y);
+	}
+
+	@Test
+	public void treeIncrementalLayoutIsAppliedAsynchronously()
+			throws Exception {
+		LayoutContext context = createTreeContext(31,
+				new TreeLayoutAlgorithm());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		// publish the results on the layout thread
+		Executor publisher = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		try {
+			context.applyLayout(true, executor, publisher).get();
+			// a node that is moved by the user is only re-positioned by a
+			// clean layout pass
+			Node moved = context.getGraph().getNodes().get(15);
+			LayoutProperties.setLocation(moved, new Point(-10, -10));
+			Map<Node, Point> locations = getLocations(context);
+
+			Node leaf = context.getGraph().getNodes().get(30);
+			Node child = addChild(context, leaf);
+			context.applyLayout(false, executor, publisher).get();
+			assertUnchanged(locations, new ArrayList<Node>());
+			assertTrue(LayoutProperties.getLocation(leaf).y < LayoutProperties
+					.getLocation(child).y);
+
+			context.applyLayout(true, executor, publisher).get();
+			assertNotEquals(new Point(-10, -10),
+					LayoutProperties.getLocation(moved));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void treeIncrementalLayoutKeepsUnaffectedSubtrees() {
+		LayoutContext context = createTreeContext(31,
+				new TreeLayoutAlgorithm());
+		context.applyLayout(true);
+		Map<Node, Point> locations = getLocations(context);
+
+		// adding a child to the right-most leaf does not shift other nodes
+		Node leaf = context.getGraph().getNodes().get(30);
+		Node child = addChild(context, leaf);
+		context.applyLayout(false);
+		assertUnchanged(locations, new ArrayList<Node>());
+		Point leafLocation = LayoutProperties.getLocation(leaf);
+		Point childLocation = LayoutProperties.getLocation(child);
+		assertEquals(leafLocation.x, childLocation.x, 1e-9);
+		assertTrue(leafLocation.y < childLocation.y);
+
+		// adding a second child to the left-most leaf shifts the nodes to
+		// the right of it, and its ancestors
+		// (the order of the children is not specified, so that the leaves are
+		// sorted by their locations)
+		locations = getLocations(context);
+		List<Node> nodes = context.getGraph().getNodes();
+		List<Node> leaves = new ArrayList<>(nodes.subList(15, 31));
+		Collections.sort(leaves, new Comparator<Node>() {
+			@Override
+			public int compare(Node n1, Node n2) {
+				return Double.compare(LayoutProperties.getLocation(n1).x,
+						LayoutProperties.getLocation(n2).x);
+			}
+		});
+		Node leftLeaf = leaves.get(0);
+		addChild(context, leftLeaf);
+		addChild(context, leftLeaf);
+		context.applyLayout(false);
+		assertTrue(locations.get(leaves.get(1)).x
+				+ 1e-9 < LayoutProperties.getLocation(leaves.get(1)).x);
+		assertNotEquals(locations.get(nodes.get(0)),
+				LayoutProperties.getLocation(nodes.get(0)));
+
+		// a clean layout pass is performed for a different context
+		LayoutContext other = createTreeContext(3,
+				context.getLayoutAlgorithm());
+		other.applyLayout(false);
+		assertNotEquals(new Point(), LayoutProperties
+				.getLocation(other.getGraph().getNodes().get(1)));
+	}
+
+}
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ILayoutFilter;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutContext.LayoutSnapshot;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.GridLayoutAlgorithm;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LayoutContextTests {
+
+	/**
+	 * Blocks every layout pass until it is released, and records how many
+	 * layout passes are executed concurrently.
+	 */
+	private static class BlockingLayoutAlgorithm implements ILayoutAlgorithm {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch released = new CountDownLatch(1);
+		private final AtomicInteger running = new AtomicInteger();
+		private final AtomicInteger maxRunning = new AtomicInteger();
+		private final AtomicInteger passes = new AtomicInteger();
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+			passes.incrementAndGet();
+			started.countDown();
+			// ignore the interruption of cancelled layout passes
+			boolean done = false;
+			while (!done) {
+				try {
+					released.await();
+					done = true;
+				} catch (InterruptedException e) {
+					// wait until released
+				}
+			}
+			running.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Counts the executed pre- and post-layout passes of a context.
+	 */
+	private static class LayoutPassCounter {
+		private int preLayoutCount;
+		private int postLayoutCount;
+
+		public LayoutPassCounter(LayoutContext context) {
+			context.schedulePreLayoutPass(new Runnable() {
+				@Override
+				public void run() {
+					preLayoutCount++;
+				}
+			});
+			context.schedulePostLayoutPass(new Runnable() {
+				@Override
+				public void run() {
+					postLayoutCount++;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Collects the published tasks, so that they can be executed on the test
+	 * thread.
+	 */
+	private static class QueueingExecutor implements Executor {
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		public void runAll() {
+			List<Runnable> pending;
+			synchronized (this) {
+				pending = new ArrayList<>(tasks);
+				tasks.clear();
+			}
+			for (Runnable r : pending) {
+				r.run();
+			}
+		}
+	}
+
+	private ExecutorService executor;
+
+	private static LayoutContext createContext() {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node, new Point());
+			LayoutProperties.setSize(node, new Dimension(20, 10));
+			nodes.add(node);
+			if (i > 0) {
+				edges.add(new Edge(nodes.get((i - 1) / 2), node));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 500, 300));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		return context;
+	}
+
+	@Before
+	public void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void asynchronousLayoutMatchesSynchronousLayout() throws Exception {
+		LayoutContext expected = createContext();
+		expected.applyLayout(true);
+
+		LayoutContext context = createContext();
+		final int[] postLayoutCount = new int[1];
+		context.schedulePostLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				postLayoutCount[0]++;
+			}
+		});
+		QueueingExecutor publisher = new QueueingExecutor();
+		context.applyLayout(true, executor, publisher).get();
+
+		// the graph is not changed before the results are published
+		for (Node node : context.getGraph().getNodes()) {
+			assertEquals(new Point(), LayoutProperties.getLocation(node));
+		}
+		assertEquals(0, postLayoutCount[0]);
+
+		publisher.runAll();
+		assertEquals(1, postLayoutCount[0]);
+		List<Node> expectedNodes = expected.getGraph().getNodes();
+		List<Node> nodes = context.getGraph().getNodes();
+		for (int i = 0; i < nodes.size(); i++) {
+			assertEquals(LayoutProperties.getLocation(expectedNodes.get(i)),
+					LayoutProperties.getLocation(nodes.get(i)));
+		}
+	}
+
+	@Test
+	public void layoutFiltersAreRespected() throws Exception {
+		LayoutContext context = createContext();
+		final Node irrelevant = context.getGraph().getNodes().get(14);
+		context.addLayoutFilter(new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return edge.getTarget() == irrelevant;
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				return node == irrelevant;
+			}
+		});
+		QueueingExecutor publisher = new QueueingExecutor();
+		context.applyLayout(true, executor, publisher).get();
+		publisher.runAll();
+		assertEquals(new Point(), LayoutProperties.getLocation(irrelevant));
+	}
+
+	@Test
+	public void layoutSnapshotIsCachedUntilInvalidated() {
+		LayoutContext context = createContext();
+		LayoutSnapshot snapshot = context.getLayoutSnapshot();
+		assertSame(snapshot, context.getLayoutSnapshot());
+		// layout passes retain the snapshot
+		context.applyLayout(true);
+		context.applyLayout(false);
+		assertSame(snapshot, context.getLayoutSnapshot());
+		assertEquals(15, snapshot.getNodeCount());
+		assertEquals(14, snapshot.getEdgeCount());
+		for (int i = 0; i < snapshot.getEdgeCount(); i++) {
+			Edge edge = snapshot.getEdge(i);
+			assertSame(edge.getSource(),
+					snapshot.getNode(snapshot.getEdgeSources()[i]));
+			assertSame(edge.getTarget(),
+					snapshot.getNode(snapshot.getEdgeTargets()[i]));
+		}
+
+		// adding a filter invalidates the snapshot
+		final Node[] irrelevant = { context.getGraph().getNodes().get(14) };
+		ILayoutFilter filter = new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return false;
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				return node == irrelevant[0];
+			}
+		};
+		context.addLayoutFilter(filter);
+		LayoutSnapshot filtered = context.getLayoutSnapshot();
+		assertNotSame(snapshot, filtered);
+		assertTrue(filtered.getVersion() > snapshot.getVersion());
+		assertEquals(14, filtered.getNodeCount());
+		assertEquals(-1, filtered.getNodeIndex(irrelevant[0]));
+		assertEquals(-1, filtered.getEdgeTargets()[13]);
+
+		// changing the graph invalidates the snapshot
+		Node node = new Node();
+		context.getGraph().getNodes().add(node);
+		LayoutSnapshot changed = context.getLayoutSnapshot();
+		assertNotSame(filtered, changed);
+		assertEquals(14, changed.getNodeIndex(node));
+
+		// changed filter results have to be invalidated explicitly
+		irrelevant[0] = node;
+		assertSame(changed, context.getLayoutSnapshot());
+		context.invalidateLayoutSnapshot();
+		assertEquals(-1, context.getLayoutSnapshot().getNodeIndex(node));
+		assertEquals(14, context.getLayoutSnapshot().getNodeIndex(
+				context.getGraph().getNodes().get(14)));
+
+		// removing a filter invalidates the snapshot
+		context.removeLayoutFilter(filter);
+		assertEquals(16, context.getLayoutSnapshot().getNodeCount());
+	}
+
+	@Test
+	public void failingLayoutIsPublished() throws Exception {
+		LayoutContext context = createContext();
+		LayoutPassCounter counter = new LayoutPassCounter(context);
+		final IllegalStateException failure = new IllegalStateException();
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				throw failure;
+			}
+		});
+		QueueingExecutor publisher = new QueueingExecutor();
+		Future<?> future = context.applyLayout(true, executor, publisher);
+		try {
+			future.get();
+			fail("The failure should be reported by the future.");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+		assertEquals(0, counter.postLayoutCount);
+
+		// the failure is re-thrown by the publisher after the post-layout pass
+		try {
+			publisher.runAll();
+			fail("The failure should be re-thrown by the publisher.");
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+		}
+		assertEquals(1, counter.preLayoutCount);
+		assertEquals(1, counter.postLayoutCount);
+	}
+
+	@Test
+	public void failingSupersededLayoutIsNotPublished() throws Exception {
+		LayoutContext context = createContext();
+		LayoutPassCounter counter = new LayoutPassCounter(context);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch released = new CountDownLatch(1);
+		final IllegalStateException failure = new IllegalStateException();
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				started.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					// fail after being cancelled
+				}
+				throw failure;
+			}
+		});
+		QueueingExecutor publisher = new QueueingExecutor();
+		context.applyLayout(true, executor, publisher);
+		started.await();
+		context.cancelLayout();
+		assertEquals(1, counter.postLayoutCount);
+		released.countDown();
+		// wait for the cancelled pass to fail
+		executor.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+
+		// the failure of the cancelled pass is not re-thrown by the publisher
+		publisher.runAll();
+		assertEquals(1, counter.preLayoutCount);
+		assertEquals(1, counter.postLayoutCount);
+	}
+
+	@Test
+	public void layoutPassesAreSerialized() throws Exception {
+		LayoutContext context = createContext();
+		LayoutPassCounter counter = new LayoutPassCounter(context);
+		BlockingLayoutAlgorithm algorithm = new BlockingLayoutAlgorithm();
+		context.setLayoutAlgorithm(algorithm);
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			QueueingExecutor publisher = new QueueingExecutor();
+			context.applyLayout(true, pool, publisher);
+			algorithm.started.await();
+			// the second pass is superseded while waiting for the first one,
+			// which keeps running after being cancelled
+			context.applyLayout(true, pool, publisher);
+			Future<?> last = context.applyLayout(true, pool, publisher);
+			assertEquals(3, counter.preLayoutCount);
+			assertEquals(2, counter.postLayoutCount);
+			algorithm.released.countDown();
+			last.get();
+			publisher.runAll();
+			assertEquals(1, algorithm.maxRunning.get());
+			assertEquals(2, algorithm.passes.get());
+			assertEquals(3, counter.postLayoutCount);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void synchronousLayoutIsDeferred() throws Exception {
+		LayoutContext context = createContext();
+		LayoutPassCounter counter = new LayoutPassCounter(context);
+		BlockingLayoutAlgorithm algorithm = new BlockingLayoutAlgorithm();
+		context.setLayoutAlgorithm(algorithm);
+		QueueingExecutor publisher = new QueueingExecutor();
+		context.applyLayout(true, executor, publisher);
+		algorithm.started.await();
+
+		// the synchronous pass does not wait for the superseded pass, which
+		// keeps running after being cancelled
+		context.applyLayout(false);
+		assertEquals(1, algorithm.passes.get());
+		assertEquals(1, counter.preLayoutCount);
+		assertEquals(1, counter.postLayoutCount);
+
+		// but is executed by the publisher once the superseded pass finished
+		algorithm.released.countDown();
+		// wait for the superseded pass to finish
+		executor.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+		publisher.runAll();
+		assertEquals(2, algorithm.passes.get());
+		assertEquals(1, algorithm.maxRunning.get());
+		assertEquals(2, counter.preLayoutCount);
+		assertEquals(2, counter.postLayoutCount);
+	}
+
+	@Test
+	public void supersededLayoutIsDiscarded() throws Exception {
+		LayoutContext context = createContext();
+		LayoutPassCounter counter = new LayoutPassCounter(context);
+		QueueingExecutor publisher = new QueueingExecutor();
+		context.applyLayout(true, executor, publisher).get();
+		context.applyLayout(true, executor, publisher).get();
+		// the post-layout pass of the superseded pass is executed right away
+		assertEquals(1, counter.postLayoutCount);
+		publisher.runAll();
+		assertEquals(2, counter.preLayoutCount);
+		assertEquals(2, counter.postLayoutCount);
+
+		// cancelled layout passes are not published at all
+		Node node = context.getGraph().getNodes().get(0);
+		LayoutProperties.setLocation(node, new Point());
+		context.applyLayout(true, executor, publisher).get();
+		context.cancelLayout();
+		assertEquals(3, counter.postLayoutCount);
+		publisher.runAll();
+		assertEquals(3, counter.preLayoutCount);
+		assertEquals(3, counter.postLayoutCount);
+		assertEquals(new Point(), LayoutProperties.getLocation(node));
+
+		// a synchronous pass supersedes a pending asynchronous one
+		context.applyLayout(true, executor, publisher).get();
+		context.applyLayout(true);
+		publisher.runAll();
+		assertEquals(5, counter.preLayoutCount);
+		assertEquals(5, counter.postLayoutCount);
+
+		// without a layout algorithm, no layout pass is scheduled
+		context.setLayoutAlgorithm(null);
+		assertNull(context.applyLayout(true, executor, publisher));
+	}
+
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.junit.Test;
+
+public class SpringLayoutAlgorithmTests {
+
+	private static final Rectangle BOUNDS = new Rectangle(0, 0, 500, 500);
+
+	private static Graph createGraph(int nodeCount, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node,
+					new Point(random.nextDouble() * BOUNDS.getWidth(),
+							random.nextDouble() * BOUNDS.getHeight()));
+			LayoutProperties.setSize(node, new Dimension(20, 10));
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 1; i < nodeCount; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(i)), nodes.get(i)));
+		}
+		// add some parallel and cross edges
+		for (int i = 0; i < nodeCount / 3; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(nodeCount)),
+					nodes.get(random.nextInt(nodeCount))));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, BOUNDS);
+		return graph;
+	}
+
+	private static Point[] layout(Graph graph,
+			SpringLayoutAlgorithm algorithm) {
+		// disable random placement and time-based iteration skipping, so the
+		// result is deterministic
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(50);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Point[] locations = new Point[graph.getNodes().size()];
+		for (int i = 0; i < locations.length; i++) {
+			locations[i] = LayoutProperties
+					.getLocation(graph.getNodes().get(i));
+		}
+		return locations;
+	}
+
+	@Test
+	public void approximatedRepulsionWithZeroThetaIsExact() {
+		Point[] exact = layout(createGraph(60, 4711),
+				new SpringLayoutAlgorithm());
+
+		SpringLayoutAlgorithm barnesHut = new SpringLayoutAlgorithm();
+		barnesHut.setApproximateRepulsion(true);
+		barnesHut.setBarnesHutTheta(0);
+		Point[] approximated = layout(createGraph(60, 4711), barnesHut);
+
+		for (int i = 0; i < exact.length; i++) {
+			assertEquals(exact[i].x, approximated[i].x, 1e-6);
+			assertEquals(exact[i].y, approximated[i].y, 1e-6);
+		}
+	}
+
+	@Test
+	public void parallelForcesAreDeterministic() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (boolean approximate : new boolean[] { false, true }) {
+				SpringLayoutAlgorithm sequential = new SpringLayoutAlgorithm();
+				sequential.setApproximateRepulsion(approximate);
+				Point[] expected = layout(createGraph(100, 13), sequential);
+
+				Point[] previous = null;
+				for (int run = 0; run < 3; run++) {
+					SpringLayoutAlgorithm parallel = new SpringLayoutAlgorithm();
+					parallel.setApproximateRepulsion(approximate);
+					parallel.setForkJoinPool(pool);
+					Point[] actual = layout(createGraph(100, 13), parallel);
+					for (int i = 0; i < actual.length; i++) {
+						// the summation order differs from the sequential
+						// computation
+						assertEquals(expected[i].x, actual[i].x, 1e-6);
+						assertEquals(expected[i].y, actual[i].y, 1e-6);
+						if (previous != null) {
+							assertEquals(previous[i], actual[i]);
+						}
+					}
+					previous = actual;
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void randomSeedMakesPlacementReproducible() {
+		Point[] previous = null;
+		for (int run = 0; run < 2; run++) {
+			SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+			algorithm.setRandomSeed(4711L);
+			algorithm.setSpringTimeout(0);
+			algorithm.setIterations(10);
+			Graph graph = createGraph(30, 7);
+			LayoutContext context = new LayoutContext();
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(algorithm);
+			context.applyLayout(true);
+			Point[] locations = new Point[graph.getNodes().size()];
+			for (int i = 0; i < locations.length; i++) {
+				locations[i] = LayoutProperties
+						.getLocation(graph.getNodes().get(i));
+				if (previous != null) {
+					assertEquals(previous[i], locations[i]);
+				}
+			}
+			previous = locations;
+		}
+	}
+
+	@Test
+	public void approximatedRepulsionStaysWithinBounds() {
+		SpringLayoutAlgorithm barnesHut = new SpringLayoutAlgorithm();
+		barnesHut.setApproximateRepulsion(true);
+		Point[] approximated = layout(createGraph(200, 42), barnesHut);
+
+		for (Point p : approximated) {
+			assertTrue(!Double.isNaN(p.x) && !Double.isNaN(p.y));
+			assertTrue(BOUNDS.getExpanded(1, 1).contains(p));
+		}
+	}
+
+}
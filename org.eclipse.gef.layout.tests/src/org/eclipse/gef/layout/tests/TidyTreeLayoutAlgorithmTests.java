@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.TidyTreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.junit.Test;
+
+public class TidyTreeLayoutAlgorithmTests {
+
+	@Test
+	public void computePositions() {
+		// 0 has the children 1 and 2, 1 has the children 3, 4, and 5, 2 has
+		// the child 6, and 7 is a second root
+		int[] parents = { -1, 0, 0, 1, 1, 1, 2, -1 };
+		double[] positions = TidyTreeLayoutAlgorithm.computePositions(parents);
+		assertArrayEquals(new double[] { 2, 1, 3, 0, 1, 2, 3, 3 },
+				positions, 1e-9);
+	}
+
+	@Test
+	public void subtreesArePackedWithNodeSpace() {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node, new Point());
+			LayoutProperties.setSize(node, new Dimension(20, 10));
+			nodes.add(node);
+		}
+		// a root with two children, the first of which has three children,
+		// and the second of which has one child
+		edges.add(new Edge(nodes.get(0), nodes.get(1)));
+		edges.add(new Edge(nodes.get(0), nodes.get(2)));
+		edges.add(new Edge(nodes.get(1), nodes.get(3)));
+		edges.add(new Edge(nodes.get(1), nodes.get(4)));
+		edges.add(new Edge(nodes.get(1), nodes.get(5)));
+		edges.add(new Edge(nodes.get(2), nodes.get(6)));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(new Graph(nodes, edges));
+		context.setLayoutAlgorithm(new TidyTreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.LEFT_RIGHT, new Dimension(100, 50)));
+		context.applyLayout(true);
+
+		// the root is placed in the first layer, centered with respect to its
+		// children
+		assertEquals(new Point(50, 125),
+				LayoutProperties.getLocation(nodes.get(0)));
+		assertEquals(new Point(150, 75),
+				LayoutProperties.getLocation(nodes.get(1)));
+		assertEquals(new Point(150, 175),
+				LayoutProperties.getLocation(nodes.get(2)));
+		// the subtree of the second child is placed next to the subtree of
+		// the first child
+		assertEquals(new Point(250, 25),
+				LayoutProperties.getLocation(nodes.get(3)));
+		assertEquals(new Point(250, 125),
+				LayoutProperties.getLocation(nodes.get(5)));
+		assertEquals(new Point(250, 175),
+				LayoutProperties.getLocation(nodes.get(6)));
+	}
+
+}
@@ -17,7 +17,9 @@ import org.eclipse.gef.graph.Node;
 
 /**
  * An {@link ILayoutFilter} can be used to filter layout objects, so that they
- * are not reported to any {@link ILayoutAlgorithm}.
+ * are not reported to any {@link ILayoutAlgorithm}. As the results of the
+ * filters are cached by the {@link LayoutContext}, it has to be notified via
+ * {@link LayoutContext#invalidateLayoutSnapshot()} whenever they change.
  */
 public interface ILayoutFilter {
 
@@ -13,27 +13,215 @@
 package org.eclipse.gef.layout;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
 import org.eclipse.gef.graph.Node;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
 
 /**
  * The {@link LayoutContext} provides the context in which to layout a
  * {@link Graph}. It maintains an {@link ILayoutAlgorithm} that can be applied,
  * supports the handling and execution of pre and post {@link Runnable}s, and
  * filtering of layout objects using {@link ILayoutFilter}.
+ * <p>
+ * Besides the synchronous {@link #applyLayout(boolean)}, a layout pass may be
+ * executed asynchronously using
+ * {@link #applyLayout(boolean, ExecutorService, Executor)}. In this case, the
+ * layout algorithm is applied to a detached copy of the graph, and the
+ * resulting locations and sizes are transferred back to the graph as a single
+ * batch. The detached copy is retained and updated for subsequent
+ * asynchronous layout passes, so that these may be incremental. An
+ * asynchronous layout pass is cancelled when a newer layout pass is
+ * requested.
+ * <p>
+ * The layout-relevant nodes and edges are cached within a
+ * {@link LayoutSnapshot}, which is re-computed lazily after the node or edge
+ * lists of the {@link Graph} changed, a layout filter was added or removed, or
+ * {@link #invalidateLayoutSnapshot()} was called. The snapshot (and its
+ * version) is retained across layout passes. As the results of the layout
+ * filters are not observed, {@link #invalidateLayoutSnapshot()} has to be
+ * called whenever they change, as well as when the source or target of an
+ * edge changes.
  * 
  * @author mwienand
  *
  */
 public class LayoutContext {
 
+	/**
+	 * An immutable snapshot of the layout-relevant {@link Node}s and
+	 * {@link Edge}s of a {@link LayoutContext}. Besides the nodes and edges, it
+	 * provides the indices of the source and target nodes of all edges as
+	 * primitive arrays, so that layout algorithms do not need to hash
+	 * {@link Node}s in order to map them to their own data structures.
+	 */
+	public static final class LayoutSnapshot {
+
+		private final long version;
+		private final Node[] nodes;
+		private final Edge[] edges;
+		private final int[] edgeSources;
+		private final int[] edgeTargets;
+		private final Map<Node, Integer> nodeIndices;
+
+		private LayoutSnapshot(LayoutContext context, long version) {
+			this.version = version;
+			List<Node> layoutRelevantNodes = new ArrayList<>();
+			for (Node n : context.graph.getNodes()) {
+				if (!context.isLayoutIrrelevant(n)) {
+					layoutRelevantNodes.add(n);
+				}
+			}
+			nodes = layoutRelevantNodes.toArray(new Node[] {});
+			nodeIndices = new IdentityHashMap<>(nodes.length);
+			for (int i = 0; i < nodes.length; i++) {
+				nodeIndices.put(nodes[i], i);
+			}
+			List<Edge> layoutRelevantEdges = new ArrayList<>();
+			for (Edge e : context.graph.getEdges()) {
+				if (!context.isLayoutIrrelevant(e)) {
+					layoutRelevantEdges.add(e);
+				}
+			}
+			edges = layoutRelevantEdges.toArray(new Edge[] {});
+			edgeSources = new int[edges.length];
+			edgeTargets = new int[edges.length];
+			for (int i = 0; i < edges.length; i++) {
+				edgeSources[i] = getNodeIndex(edges[i].getSource());
+				edgeTargets[i] = getNodeIndex(edges[i].getTarget());
+			}
+		}
+
+		/**
+		 * Returns the {@link Edge} at the given index.
+		 * 
+		 * @param index
+		 *            The index of the {@link Edge} to return.
+		 * @return The {@link Edge} at the given index.
+		 */
+		public Edge getEdge(int index) {
+			return edges[index];
+		}
+
+		/**
+		 * Returns the number of layout-relevant {@link Edge}s.
+		 * 
+		 * @return The number of layout-relevant {@link Edge}s.
+		 */
+		public int getEdgeCount() {
+			return edges.length;
+		}
+
+		/**
+		 * Returns a copy of the layout-relevant {@link Edge}s.
+		 * 
+		 * @return A new array containing the layout-relevant {@link Edge}s.
+		 */
+		public Edge[] getEdges() {
+			return edges.clone();
+		}
+
+		/**
+		 * Returns the node indices of the sources of the layout-relevant
+		 * {@link Edge}s, i.e. the source of the edge at index <code>i</code>
+		 * is the node at index <code>getEdgeSources()[i]</code>. An index of
+		 * <code>-1</code> denotes a source node that is not layout-relevant
+		 * (or not contained in the graph). The returned array is shared and
+		 * may not be modified.
+		 * 
+		 * @return The node indices of the edge sources.
+		 */
+		public int[] getEdgeSources() {
+			return edgeSources;
+		}
+
+		/**
+		 * Returns the node indices of the targets of the layout-relevant
+		 * {@link Edge}s, i.e. the target of the edge at index <code>i</code>
+		 * is the node at index <code>getEdgeTargets()[i]</code>. An index of
+		 * <code>-1</code> denotes a target node that is not layout-relevant
+		 * (or not contained in the graph). The returned array is shared and
+		 * may not be modified.
+		 * 
+		 * @return The node indices of the edge targets.
+		 */
+		public int[] getEdgeTargets() {
+			return edgeTargets;
+		}
+
+		/**
+		 * Returns the {@link Node} at the given index.
+		 * 
+		 * @param index
+		 *            The index of the {@link Node} to return.
+		 * @return The {@link Node} at the given index.
+		 */
+		public Node getNode(int index) {
+			return nodes[index];
+		}
+
+		/**
+		 * Returns the number of layout-relevant {@link Node}s.
+		 * 
+		 * @return The number of layout-relevant {@link Node}s.
+		 */
+		public int getNodeCount() {
+			return nodes.length;
+		}
+
+		/**
+		 * Returns the index of the given {@link Node} within this snapshot.
+		 * 
+		 * @param node
+		 *            The {@link Node} in question.
+		 * @return The index of the given {@link Node}, or <code>-1</code> if
+		 *         it is not layout-relevant.
+		 */
+		public int getNodeIndex(Node node) {
+			Integer index = nodeIndices.get(node);
+			return index == null ? -1 : index.intValue();
+		}
+
+		/**
+		 * Returns a copy of the layout-relevant {@link Node}s.
+		 * 
+		 * @return A new array containing the layout-relevant {@link Node}s.
+		 */
+		public Node[] getNodes() {
+			return nodes.clone();
+		}
+
+		/**
+		 * Returns the version of this snapshot, which is increased whenever
+		 * the snapshot of a {@link LayoutContext} is invalidated. Layout
+		 * algorithms may use it to detect whether data that was derived from
+		 * a previous snapshot is still valid.
+		 * 
+		 * @return The version of this snapshot.
+		 */
+		public long getVersion() {
+			return version;
+		}
+	}
+
 	/**
 	 * An {@link LayoutContext} notifies registered listeners about changes to
 	 * the layout algorithm using this property name.
@@ -47,6 +235,25 @@ public class LayoutContext {
 	private final List<Runnable> postLayoutPass = new ArrayList<>();
 	private final List<Runnable> preLayoutPass = new ArrayList<>();
 	private final List<ILayoutFilter> layoutFilters = new ArrayList<>();
+	private Future<?> pendingLayout;
+	private DetachedGraph detachedGraph;
+	// incremented by every layout request, so that outdated asynchronous
+	// layout results can be detected and discarded
+	private volatile long layoutRequestCount;
+	// guards the following fields, which track whether an asynchronous pass
+	// is running and a synchronous pass is deferred until it is finished
+	private final Object asynchronousLayoutLock = new Object();
+	private boolean asynchronousLayoutRunning;
+	private long deferredLayoutRequest = -1;
+	private boolean deferredLayoutClean;
+	private LayoutSnapshot layoutSnapshot;
+	private long layoutSnapshotVersion;
+	private final ListChangeListener<Object> graphObserver = new ListChangeListener<Object>() {
+		@Override
+		public void onChanged(ListChangeListener.Change<? extends Object> c) {
+			invalidateLayoutSnapshot();
+		}
+	};
 
 	/**
 	 * Adds the given ILayoutFilter to this {@link LayoutContext}.
@@ -56,26 +263,250 @@ public class LayoutContext {
 	 */
 	public void addLayoutFilter(ILayoutFilter layoutFilter) {
 		layoutFilters.add(layoutFilter);
+		invalidateLayoutSnapshot();
 	}
 
 	/**
 	 * Applies the layout algorithm of this LayoutContext. The clean flag is
 	 * passed-in to the layout algorithm to indicate whether the context changed
 	 * significantly since the last layout pass.
+	 * <p>
+	 * Pending asynchronous layout passes are cancelled. If a cancelled
+	 * asynchronous layout pass is still running (because the layout algorithm
+	 * does not react to the interruption), the calling thread is not blocked
+	 * until it is finished. Instead, the layout pass is deferred and executed
+	 * by the publishing {@link Executor} of the running layout pass as soon as
+	 * it is finished, unless another layout pass is requested in the meantime.
 	 * 
 	 * @param clear
 	 *            <code>true</code> to indicate that the algorithm has to fully
 	 *            re-compute the layout, otherwise <code>false</code>.
 	 */
 	public void applyLayout(boolean clear) {
+		// a synchronous layout pass supersedes pending asynchronous ones
+		cancelLayout();
 		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
 		if (layoutAlgorithm != null) {
+			synchronized (asynchronousLayoutLock) {
+				if (asynchronousLayoutRunning) {
+					// do not wait for a superseded asynchronous pass that
+					// still uses the algorithm
+					deferredLayoutClean = clear
+							|| deferredLayoutRequest >= 0 && deferredLayoutClean;
+					deferredLayoutRequest = layoutRequestCount;
+					return;
+				}
+			}
 			preLayout();
-			layoutAlgorithm.applyLayout(this, clear);
+			// wait for an asynchronous pass of another context that uses the
+			// same algorithm
+			synchronized (layoutAlgorithm) {
+				layoutAlgorithm.applyLayout(this, clear);
+			}
+			postLayout();
+		}
+	}
+
+	/**
+	 * Applies the layout algorithm of this LayoutContext asynchronously. The
+	 * pre-layout pass is executed and the layout-relevant nodes and edges are
+	 * copied into a detached {@link Graph} on the calling thread. The layout
+	 * algorithm is then applied to that copy using the given
+	 * {@link ExecutorService}. Afterwards, the computed locations and sizes are
+	 * transferred back to the original nodes in one batch, followed by the
+	 * post-layout pass, both executed by the given publishing {@link Executor}
+	 * (e.g. the JavaFX application thread).
+	 * <p>
+	 * Any asynchronous layout pass that is still pending is cancelled, i.e. its
+	 * results are discarded. The same applies when a newer layout pass is
+	 * requested before the results of this pass are published, or when
+	 * {@link #cancelLayout()} is called. The post-layout pass of a cancelled
+	 * layout pass is executed when it is cancelled, so that every pre-layout
+	 * pass is matched by exactly one post-layout pass.
+	 * <p>
+	 * The layout algorithm is applied while holding its monitor, so that
+	 * layout passes that use the same algorithm (including synchronous ones)
+	 * are executed one after the other. A cancelled layout pass that is still
+	 * waiting for a previous one is skipped, however, a cancelled layout pass
+	 * that is already running is only interrupted, so that it is completed
+	 * unless the algorithm reacts to the interruption. If the layout algorithm
+	 * throws an exception, it is reported by the returned {@link Future}. If
+	 * the layout pass was not cancelled, the exception is also re-thrown by the
+	 * publishing {@link Executor}, after the post-layout pass was executed.
+	 * <p>
+	 * The detached copy of the {@link Graph} is retained between asynchronous
+	 * layout passes and only updated to reflect the changes of the graph, so
+	 * that the layout algorithm may compute the layout incrementally. As
+	 * synchronous layout passes are applied to this context instead, an
+	 * incremental asynchronous layout pass that follows a synchronous one (or
+	 * a cancelled or failed one) is executed as a clean layout pass. Since
+	 * only the {@link Graph} of this context is copied, {@link Edge}s that
+	 * connect to {@link Node}s outside of it are not available to the layout
+	 * algorithm.
+	 * 
+	 * @param clean
+	 *            <code>true</code> to indicate that the algorithm has to fully
+	 *            re-compute the layout, otherwise <code>false</code>.
+	 * @param executor
+	 *            The {@link ExecutorService} that is used to execute the layout
+	 *            algorithm.
+	 * @param publisher
+	 *            The {@link Executor} that is used to transfer the layout
+	 *            results back to the {@link Graph} of this context. It has to
+	 *            execute the given tasks on the thread that is used to modify
+	 *            the graph.
+	 * @return A {@link Future} representing the computation of the layout, or
+	 *         <code>null</code> if no layout algorithm is set.
+	 */
+	public Future<?> applyLayout(final boolean clean, ExecutorService executor,
+			final Executor publisher) {
+		cancelLayout();
+		final ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
+		if (layoutAlgorithm == null) {
+			return null;
+		}
+		preLayout();
+		final Snapshot snapshot = new Snapshot(this);
+		if (detachedGraph == null) {
+			detachedGraph = new DetachedGraph();
+		}
+		final DetachedGraph detached = detachedGraph;
+		final long request = layoutRequestCount;
+		pendingLayout = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					synchronized (detached) {
+						synchronized (layoutAlgorithm) {
+							synchronized (asynchronousLayoutLock) {
+								// skip the pass if it was superseded while
+								// waiting for a previous pass
+								if (request != layoutRequestCount) {
+									return;
+								}
+								asynchronousLayoutRunning = true;
+							}
+							Node[] copies = snapshot.apply(detached);
+							// an incremental pass cannot be based on results
+							// that were never published
+							boolean cleanPass = clean || detached.unpublished;
+							detached.unpublished = true;
+							layoutAlgorithm.applyLayout(detached.context,
+									cleanPass);
+							snapshot.collect(copies);
+						}
+					}
+				} catch (RuntimeException e) {
+					publishFailure(request, e, publisher);
+					throw e;
+				} catch (Error e) {
+					publishFailure(request, e, publisher);
+					throw e;
+				} finally {
+					publishDeferredLayout(publisher);
+				}
+				if (request != layoutRequestCount
+						|| Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				publisher.execute(new Runnable() {
+					@Override
+					public void run() {
+						// check again, because a newer layout pass might have
+						// been requested in the meantime
+						if (request != layoutRequestCount) {
+							return;
+						}
+						pendingLayout = null;
+						snapshot.publish();
+						detached.unpublished = false;
+						postLayout();
+					}
+				});
+			}
+		});
+		return pendingLayout;
+	}
+
+	/**
+	 * Cancels the pending asynchronous layout pass (if any), so that its
+	 * results are not transferred to the {@link Graph} of this context. The
+	 * post-layout pass of the cancelled layout pass is executed immediately.
+	 * 
+	 * @see #applyLayout(boolean, ExecutorService, Executor)
+	 */
+	public void cancelLayout() {
+		layoutRequestCount++;
+		if (pendingLayout != null) {
+			pendingLayout.cancel(true);
+			pendingLayout = null;
+			// the pre-layout pass was already executed
 			postLayout();
 		}
 	}
 
+	/**
+	 * Marks the running asynchronous layout pass as finished, and executes a
+	 * synchronous layout pass that was deferred while it was running (see
+	 * {@link #applyLayout(boolean)}) using the given publishing
+	 * {@link Executor}.
+	 */
+	private void publishDeferredLayout(Executor publisher) {
+		final long request;
+		final boolean clean;
+		synchronized (asynchronousLayoutLock) {
+			if (!asynchronousLayoutRunning) {
+				return;
+			}
+			asynchronousLayoutRunning = false;
+			request = deferredLayoutRequest;
+			clean = deferredLayoutClean;
+			deferredLayoutRequest = -1;
+		}
+		if (request >= 0) {
+			publisher.execute(new Runnable() {
+				@Override
+				public void run() {
+					// skip the pass if another one was requested in the
+					// meantime
+					if (request == layoutRequestCount) {
+						applyLayout(clean);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Executes the post-layout pass of the given asynchronous layout pass and
+	 * re-throws the given failure of the layout algorithm, both using the
+	 * given publishing {@link Executor}. Failures of cancelled layout passes
+	 * (whose post-layout pass was already executed on cancellation) are only
+	 * reported by the {@link Future} of the layout pass.
+	 */
+	private void publishFailure(final long request, final Throwable failure,
+			Executor publisher) {
+		if (request != layoutRequestCount) {
+			return;
+		}
+		publisher.execute(new Runnable() {
+			@Override
+			public void run() {
+				// check again, because a newer layout pass might have been
+				// requested in the meantime
+				if (request != layoutRequestCount) {
+					return;
+				}
+				pendingLayout = null;
+				postLayout();
+				if (failure instanceof Error) {
+					throw (Error) failure;
+				}
+				throw (RuntimeException) failure;
+			}
+		});
+	}
+
 	/**
 	 * Initiated by the context or by an {@link ILayoutAlgorithm} to perform
 	 * steps that are scheduled to be run after the layout pass. Should not be
@@ -119,7 +550,14 @@ public class LayoutContext {
 		if (graph == null) {
 			graph = new Graph();
 		}
+		if (this.graph != null) {
+			this.graph.getNodes().removeListener(graphObserver);
+			this.graph.getEdges().removeListener(graphObserver);
+		}
 		this.graph = graph;
+		graph.getNodes().addListener(graphObserver);
+		graph.getEdges().addListener(graphObserver);
+		invalidateLayoutSnapshot();
 	}
 
 	/**
@@ -130,14 +568,7 @@ public class LayoutContext {
 	 */
 	// TODO: remove this (algorithms should use getGraph().getNodes())
 	public Node[] getNodes() {
-		ObservableList<Node> nodes = graph.getNodes();
-		List<Node> layoutRelevantNodes = new ArrayList<>();
-		for (Node n : nodes) {
-			if (!isLayoutIrrelevant(n)) {
-				layoutRelevantNodes.add(n);
-			}
-		}
-		return layoutRelevantNodes.toArray(new Node[] {});
+		return getLayoutSnapshot().getNodes();
 	}
 
 	/**
@@ -147,14 +578,23 @@ public class LayoutContext {
 	 * @return array of connections between nodes
 	 */
 	public Edge[] getEdges() {
-		ObservableList<Edge> edges = graph.getEdges();
-		List<Edge> layoutRelevantEdges = new ArrayList<>();
-		for (Edge e : edges) {
-			if (!isLayoutIrrelevant(e)) {
-				layoutRelevantEdges.add(e);
-			}
+		return getLayoutSnapshot().getEdges();
+	}
+
+	/**
+	 * Returns the {@link LayoutSnapshot} of the layout-relevant nodes and
+	 * edges. The snapshot is cached until the node or edge lists of the graph
+	 * change, a layout filter is added or removed, or
+	 * {@link #invalidateLayoutSnapshot()} is called.
+	 * 
+	 * @return The {@link LayoutSnapshot} of the layout-relevant nodes and
+	 *         edges.
+	 */
+	public LayoutSnapshot getLayoutSnapshot() {
+		if (layoutSnapshot == null) {
+			layoutSnapshot = new LayoutSnapshot(this, layoutSnapshotVersion);
 		}
-		return layoutRelevantEdges.toArray(new Edge[] {});
+		return layoutSnapshot;
 	}
 
 	/**
@@ -167,6 +607,17 @@ public class LayoutContext {
 		return layoutAlgorithmProperty.get();
 	}
 
+	/**
+	 * Discards the cached {@link LayoutSnapshot}, so that the layout-relevant
+	 * nodes and edges are re-computed when they are accessed next. Needs to be
+	 * called when the result of a layout filter or the source or target of an
+	 * edge changes, as these changes are not observed.
+	 */
+	public void invalidateLayoutSnapshot() {
+		layoutSnapshot = null;
+		layoutSnapshotVersion++;
+	}
+
 	/**
 	 * Returns <code>true</code> when the given {@link Edge} is not relevant for
 	 * layout according to the configured {@link ILayoutFilter layout filters}.
@@ -227,7 +678,9 @@ public class LayoutContext {
 	 *            The ILayoutFilter to remove to this context.
 	 */
 	public void removeLayoutFilter(ILayoutFilter layoutFilter) {
-		layoutFilters.remove(layoutFilter);
+		if (layoutFilters.remove(layoutFilter)) {
+			invalidateLayoutSnapshot();
+		}
 	}
 
 	/**
@@ -312,4 +765,247 @@ public class LayoutContext {
 			preLayoutPass.remove(runnable);
 		}
 	}
+
+	/**
+	 * A detached copy of the {@link Graph} of a {@link LayoutContext}, which
+	 * can be laid out independently of the original graph. The copy is
+	 * retained between asynchronous layout passes and updated to reflect the
+	 * changes of the original graph, so that its context as well as the copied
+	 * nodes and edges keep their identity, which enables layout algorithms to
+	 * perform incremental layout passes.
+	 */
+	private static class DetachedGraph {
+
+		private final LayoutContext context = new LayoutContext();
+		private final Map<Node, Node> nodeCopies = new IdentityHashMap<>();
+		private final Map<Edge, Edge> edgeCopies = new IdentityHashMap<>();
+		private Map<Node, Boolean> irrelevantNodes = new IdentityHashMap<>();
+		private Map<Edge, Boolean> irrelevantEdges = new IdentityHashMap<>();
+		// whether the results of the last layout pass were discarded, so that
+		// they cannot serve as the basis of an incremental layout pass
+		private volatile boolean unpublished;
+
+		public DetachedGraph() {
+			context.setGraph(new Graph());
+			// layout relevance is evaluated on the calling thread, because
+			// the filters may access non thread-safe state
+			context.addLayoutFilter(new ILayoutFilter() {
+				@Override
+				public boolean isLayoutIrrelevant(Edge edge) {
+					return irrelevantEdges.containsKey(edge);
+				}
+
+				@Override
+				public boolean isLayoutIrrelevant(Node node) {
+					return irrelevantNodes.containsKey(node);
+				}
+			});
+		}
+	}
+
+	/**
+	 * The state of the {@link Graph} of a {@link LayoutContext} that is
+	 * captured on the calling thread, so that it can be transferred to the
+	 * {@link DetachedGraph} on the layout thread. It also stores the
+	 * computed locations and sizes until they are published.
+	 */
+	private static class Snapshot {
+
+		private final Graph originalGraph;
+		private final Map<String, Object> graphAttributes;
+		private final Node[] nodes;
+		private final List<Map<String, Object>> nodeAttributes = new ArrayList<>();
+		private final Map<Node, Boolean> irrelevantNodes = new IdentityHashMap<>();
+		private final List<Edge> edges = new ArrayList<>();
+		private final List<Node[]> edgeEnds = new ArrayList<>();
+		private final List<Map<String, Object>> edgeAttributes = new ArrayList<>();
+		private final Map<Edge, Boolean> irrelevantEdges = new IdentityHashMap<>();
+		private Point[] locations;
+		private Dimension[] sizes;
+
+		public Snapshot(LayoutContext original) {
+			originalGraph = original.getGraph();
+			nodes = originalGraph.getNodes().toArray(new Node[] {});
+			Set<Node> nodeSet = Collections
+					.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+			for (Node node : nodes) {
+				nodeSet.add(node);
+				nodeAttributes.add(copyAttributes(node));
+				if (original.isLayoutIrrelevant(node)) {
+					irrelevantNodes.put(node, Boolean.TRUE);
+				}
+			}
+			for (Edge e : originalGraph.getEdges()) {
+				if (!nodeSet.contains(e.getSource())
+						|| !nodeSet.contains(e.getTarget())) {
+					continue;
+				}
+				edges.add(e);
+				edgeEnds.add(new Node[] { e.getSource(), e.getTarget() });
+				edgeAttributes.add(new HashMap<>(e.getAttributes()));
+				if (original.isLayoutIrrelevant(e)) {
+					irrelevantEdges.put(e, Boolean.TRUE);
+				}
+			}
+			graphAttributes = new HashMap<>(originalGraph.getAttributes());
+			Object bounds = graphAttributes
+					.get(LayoutProperties.BOUNDS_PROPERTY);
+			if (bounds instanceof Rectangle) {
+				graphAttributes.put(LayoutProperties.BOUNDS_PROPERTY,
+						((Rectangle) bounds).getCopy());
+			}
+		}
+
+		private static Map<String, Object> copyAttributes(Node node) {
+			Map<String, Object> attributes = new HashMap<>(
+					node.getAttributes());
+			// locations and sizes may be changed in-place by the algorithm
+			Point location = LayoutProperties.getLocation(node);
+			if (location != null) {
+				attributes.put(LayoutProperties.LOCATION_PROPERTY,
+						location.getCopy());
+			}
+			Dimension size = LayoutProperties.getSize(node);
+			if (size != null) {
+				attributes.put(LayoutProperties.SIZE_PROPERTY, size.getCopy());
+			}
+			return attributes;
+		}
+
+		private static void setAttributes(Map<String, Object> target,
+				Map<String, Object> attributes) {
+			target.keySet().retainAll(attributes.keySet());
+			target.putAll(attributes);
+		}
+
+		/**
+		 * Updates the given {@link DetachedGraph} to reflect the captured
+		 * state, creating copies for the added nodes and edges and removing
+		 * the copies of the removed ones, so that all other copies are
+		 * retained.
+		 */
+		public Node[] apply(DetachedGraph detached) {
+			Graph graph = detached.context.getGraph();
+			setAttributes(graph.getAttributes(), graphAttributes);
+			Map<Node, Boolean> irrelevantNodeCopies = new IdentityHashMap<>();
+			Map<Edge, Boolean> irrelevantEdgeCopies = new IdentityHashMap<>();
+
+			Node[] copies = new Node[nodes.length];
+			Set<Node> nodeSet = Collections
+					.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+			List<Node> addedNodes = new ArrayList<>();
+			for (int i = 0; i < nodes.length; i++) {
+				nodeSet.add(nodes[i]);
+				Node copy = detached.nodeCopies.get(nodes[i]);
+				if (copy == null) {
+					copy = new Node(nodeAttributes.get(i));
+					detached.nodeCopies.put(nodes[i], copy);
+					addedNodes.add(copy);
+				} else {
+					setAttributes(copy.getAttributes(), nodeAttributes.get(i));
+				}
+				copies[i] = copy;
+				if (irrelevantNodes.containsKey(nodes[i])) {
+					irrelevantNodeCopies.put(copy, Boolean.TRUE);
+				}
+			}
+			Set<Node> removedNodes = Collections
+					.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+			for (Iterator<Map.Entry<Node, Node>> iterator = detached.nodeCopies
+					.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Node, Node> entry = iterator.next();
+				if (!nodeSet.contains(entry.getKey())) {
+					removedNodes.add(entry.getValue());
+					iterator.remove();
+				}
+			}
+			graph.getNodes().addAll(addedNodes);
+
+			Set<Edge> edgeSet = Collections
+					.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+			List<Edge> addedEdges = new ArrayList<>();
+			for (int i = 0; i < edges.size(); i++) {
+				Edge edge = edges.get(i);
+				edgeSet.add(edge);
+				Node source = detached.nodeCopies.get(edgeEnds.get(i)[0]);
+				Node target = detached.nodeCopies.get(edgeEnds.get(i)[1]);
+				Edge copy = detached.edgeCopies.get(edge);
+				if (copy == null) {
+					copy = new Edge(edgeAttributes.get(i), source, target);
+					detached.edgeCopies.put(edge, copy);
+					addedEdges.add(copy);
+				} else {
+					setAttributes(copy.getAttributes(), edgeAttributes.get(i));
+					if (copy.getSource() != source) {
+						copy.setSource(source);
+					}
+					if (copy.getTarget() != target) {
+						copy.setTarget(target);
+					}
+				}
+				if (irrelevantEdges.containsKey(edge)) {
+					irrelevantEdgeCopies.put(copy, Boolean.TRUE);
+				}
+			}
+			Set<Edge> removedEdges = Collections
+					.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+			for (Iterator<Map.Entry<Edge, Edge>> iterator = detached.edgeCopies
+					.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Edge, Edge> entry = iterator.next();
+				if (!edgeSet.contains(entry.getKey())) {
+					removedEdges.add(entry.getValue());
+					iterator.remove();
+				}
+			}
+			graph.getEdges().removeAll(removedEdges);
+			graph.getEdges().addAll(addedEdges);
+			graph.getNodes().removeAll(removedNodes);
+			// retain the order of the original nodes, which may affect the
+			// layout
+			if (!graph.getNodes().equals(Arrays.asList(copies))) {
+				graph.getNodes().setAll(copies);
+			}
+
+			detached.irrelevantNodes = irrelevantNodeCopies;
+			detached.irrelevantEdges = irrelevantEdgeCopies;
+			detached.context.invalidateLayoutSnapshot();
+			return copies;
+		}
+
+		/**
+		 * Stores the locations and sizes of the given copies of the captured
+		 * nodes, so that they can be published after the next layout pass
+		 * was started.
+		 */
+		public void collect(Node[] copies) {
+			locations = new Point[copies.length];
+			sizes = new Dimension[copies.length];
+			for (int i = 0; i < copies.length; i++) {
+				Point location = LayoutProperties.getLocation(copies[i]);
+				locations[i] = location == null ? null : location.getCopy();
+				Dimension size = LayoutProperties.getSize(copies[i]);
+				sizes[i] = size == null ? null : size.getCopy();
+			}
+		}
+
+		/**
+		 * Transfers the computed locations and sizes to the original nodes
+		 * that are still contained in the original graph.
+		 */
+		public void publish() {
+			for (int i = 0; i < nodes.length; i++) {
+				if (nodes[i].getGraph() != originalGraph) {
+					continue;
+				}
+				if (locations[i] != null && !locations[i]
+						.equals(LayoutProperties.getLocation(nodes[i]))) {
+					LayoutProperties.setLocation(nodes[i], locations[i]);
+				}
+				if (sizes[i] != null && !sizes[i]
+						.equals(LayoutProperties.getSize(nodes[i]))) {
+					LayoutProperties.setSize(nodes[i], sizes[i]);
+				}
+			}
+		}
+	}
 }
@@ -12,10 +12,14 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
 /**
@@ -60,7 +64,31 @@ class AlgorithmHelper {
 			fitSingleEntity(entities[0], destinationBounds, resize);
 			return;
 		}
-		Rectangle startingBounds = getLayoutBounds(entities, false);
+		fitWithinBounds(entities, getLayoutBounds(entities, false),
+				destinationBounds, resize);
+	}
+
+	/**
+	 * Fits given entities within given bounds like
+	 * {@link #fitWithinBounds(Node[], Rectangle, boolean)}, but maps the given
+	 * starting bounds (instead of the layout bounds of the entities) to the
+	 * destination bounds. This allows to place additional entities
+	 * consistently with a previous fit.
+	 * 
+	 * @param entities
+	 *            The {@link Node}s to fit.
+	 * @param startingBounds
+	 *            The {@link Rectangle} that is mapped to the destination
+	 *            bounds.
+	 * @param destinationBounds
+	 *            The {@link Rectangle} representing the layout bounds.
+	 * @param resize
+	 *            <code>true</code> to indicate that the entities can be
+	 *            resized, otherwise <code>false</code>.
+	 */
+	public static void fitWithinBounds(Node[] entities,
+			Rectangle startingBounds, Rectangle destinationBounds,
+			boolean resize) {
 		double sizeScale = Math.min(
 				destinationBounds.getWidth() / startingBounds.getWidth(),
 				destinationBounds.getHeight() / startingBounds.getHeight());
@@ -92,6 +120,28 @@ class AlgorithmHelper {
 		}
 	}
 
+	/**
+	 * Returns the given {@link Node}s that are relevant for the layout of the
+	 * given {@link LayoutContext}.
+	 * 
+	 * @param context
+	 *            The {@link LayoutContext} that decides about the layout
+	 *            relevance.
+	 * @param nodes
+	 *            The {@link Node}s to filter.
+	 * @return The layout relevant {@link Node}s.
+	 */
+	public static Node[] getLayoutRelevantNodes(LayoutContext context,
+			List<Node> nodes) {
+		List<Node> relevantNodes = new ArrayList<>(nodes.size());
+		for (Node node : nodes) {
+			if (!context.isLayoutIrrelevant(node)) {
+				relevantNodes.add(node);
+			}
+		}
+		return relevantNodes.toArray(new Node[] {});
+	}
+
 	private static void fitSingleEntity(Node entity,
 			Rectangle destinationBounds, boolean resize) {
 		if (LayoutProperties.isMovable(entity)) {
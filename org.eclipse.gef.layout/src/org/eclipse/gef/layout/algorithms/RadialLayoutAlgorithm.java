@@ -12,6 +12,8 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.List;
+
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
@@ -22,6 +24,12 @@ import org.eclipse.gef.layout.LayoutProperties;
 /**
  * This layout will take the given entities, apply a tree layout to them, and
  * then display the tree in a circular fashion with the roots in the center.
+ * <p>
+ * When the layout is applied with <code>clean == false</code>, only the nodes
+ * that are re-positioned by an incremental {@link TreeLayoutAlgorithm} pass are
+ * mapped to new radial locations, using the angular and radial scale as well
+ * as the mapping to the layout bounds of the previous clean layout pass. All
+ * other nodes keep their locations.
  * 
  * @author Casey Best
  * @author Ian Bull
@@ -37,6 +45,13 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 	private boolean resize = false;
 	private TreeLayoutAlgorithm treeLayout = new TreeLayoutAlgorithm();
 
+	// state of the previous layout pass (used for incremental layout)
+	private Rectangle radialBounds;
+	private double previousStartDegree;
+	private double previousEndDegree;
+	private Rectangle fitStartingBounds;
+	private Rectangle fitDestinationBounds;
+
 	/**
 	 * Default constructor.
 	 */
@@ -44,13 +59,30 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
-			return;
+		if (!clean && fitStartingBounds != null
+				&& previousStartDegree == startDegree
+				&& previousEndDegree == endDegree) {
+			List<Node> relocated = treeLayout
+					.internalApplyIncrementalLayout(layoutContext);
+			if (relocated != null) {
+				Node[] entities = AlgorithmHelper
+						.getLayoutRelevantNodes(layoutContext, relocated);
+				computeRadialPositions(entities, radialBounds);
+				AlgorithmHelper.fitWithinBounds(entities, fitStartingBounds,
+						fitDestinationBounds, false);
+				return;
+			}
+		}
+
 		treeLayout.internalApplyLayout(layoutContext);
 		Node[] entities = layoutContext.getNodes();
 		Rectangle bounds = LayoutProperties.getBounds(layoutContext.getGraph())
 				.getCopy();
-		computeRadialPositions(entities, bounds);
+		Rectangle layoutBounds = AlgorithmHelper.getLayoutBounds(entities,
+				false);
+		layoutBounds.setX(bounds.getX());
+		layoutBounds.setWidth(bounds.getWidth());
+		computeRadialPositions(entities, layoutBounds);
 		if (resize)
 			AlgorithmHelper.maximizeSizes(entities);
 		int insets = 4;
@@ -58,14 +90,32 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		bounds.setY(bounds.getY() + insets);
 		bounds.setWidth(bounds.getWidth() - 2 * insets);
 		bounds.setHeight(bounds.getHeight() - 2 * insets);
-		AlgorithmHelper.fitWithinBounds(entities, bounds, resize);
+
+		fitStartingBounds = null;
+		fitDestinationBounds = null;
+		if (entities.length > 1) {
+			Rectangle startingBounds = AlgorithmHelper
+					.getLayoutBounds(entities, false);
+			AlgorithmHelper.fitWithinBounds(entities, startingBounds, bounds,
+					resize);
+			// an incremental layout pass can only reproduce a
+			// non-degenerated mapping
+			if (layoutBounds.getWidth() > 0 && layoutBounds.getHeight() > 0
+					&& startingBounds.getWidth() > 0
+					&& startingBounds.getHeight() > 0) {
+				radialBounds = layoutBounds;
+				previousStartDegree = startDegree;
+				previousEndDegree = endDegree;
+				fitStartingBounds = startingBounds;
+				fitDestinationBounds = bounds;
+			}
+		} else {
+			AlgorithmHelper.fitWithinBounds(entities, bounds, resize);
+		}
 	}
 
-	private void computeRadialPositions(Node[] entities, Rectangle bounds) {
-		Rectangle layoutBounds = AlgorithmHelper.getLayoutBounds(entities,
-				false);
-		layoutBounds.setX(bounds.getX());
-		layoutBounds.setWidth(bounds.getWidth());
+	private void computeRadialPositions(Node[] entities,
+			Rectangle layoutBounds) {
 		for (int i = 0; i < entities.length; i++) {
 			Point location = LayoutProperties.getLocation(entities[i]);
 			if (layoutBounds.getWidth() == 0 || layoutBounds.getHeight() == 0) {
@@ -14,7 +14,11 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -79,6 +83,11 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final double MIN_DISTANCE = 1.0d;
 
+	/**
+	 * The default value for the Barnes-Hut approximation parameter.
+	 */
+	private static final double DEFAULT_BARNES_HUT_THETA = 0.8d;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
@@ -122,12 +131,48 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private boolean resize = false;
 
+	/**
+	 * Variable indicating whether the repulsive forces should be approximated
+	 * using a Barnes-Hut quadtree instead of being computed for all pairs of
+	 * nodes.
+	 */
+	private boolean approximateRepulsion = false;
+
+	/**
+	 * The variable can be customized to set the Barnes-Hut approximation
+	 * parameter.
+	 */
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+
+	/**
+	 * The seed used for the random placement of nodes, or <code>null</code> if
+	 * the placement should not be reproducible.
+	 */
+	private Long randomSeed = null;
+
+	/**
+	 * The {@link ForkJoinPool} used to compute the forces in parallel, or
+	 * <code>null</code> if the forces should be computed sequentially.
+	 */
+	private ForkJoinPool forkJoinPool = null;
+
 	private int iteration;
-	private double[][] srcDestToSumOfWeights;
+	// summed edge weights between nodes i < j in compressed sparse row format
+	private int[] weightsRowStart;
+	private int[] weightsColumn;
+	private double[] weights;
 	private Node[] entities;
 	private double[] forcesX, forcesY;
 	private double[] locationsX, locationsY;
 	private double[] sizeW, sizeH;
+	// scratch buffers used during force computation
+	private double[] rowWeights;
+	private double[] scaledX, scaledY;
+	private QuadTree quadTree;
+	// per worker scratch buffers used during parallel force computation
+	private double[][] workerForcesX, workerForcesY;
+	private double[][] workerRowWeights;
+	private int[][] workerStacks;
 	private Rectangle bounds;
 	private double boundsScaleX = 0.2;
 	private double boundsScaleY = 0.2;
@@ -220,6 +265,107 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		resize = resizing;
 	}
 
+	/**
+	 * Returns whether the repulsive forces are approximated using a Barnes-Hut
+	 * quadtree.
+	 * 
+	 * @return <code>true</code> if the repulsive forces are approximated,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isApproximateRepulsion() {
+		return approximateRepulsion;
+	}
+
+	/**
+	 * Sets whether the repulsive forces should be approximated using a
+	 * Barnes-Hut quadtree (see {@link #setBarnesHutTheta(double)}), which
+	 * reduces the costs of an iteration from O(n^2) to O(n log n), or whether
+	 * they should be computed for all pairs of nodes (default is
+	 * <code>false</code>).
+	 * 
+	 * @param approximateRepulsion
+	 *            <code>true</code> if the repulsive forces should be
+	 *            approximated, otherwise <code>false</code>.
+	 */
+	public void setApproximateRepulsion(boolean approximateRepulsion) {
+		this.approximateRepulsion = approximateRepulsion;
+	}
+
+	/**
+	 * Returns the Barnes-Hut approximation parameter.
+	 * 
+	 * @return The Barnes-Hut approximation parameter.
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Sets the Barnes-Hut approximation parameter, which is only evaluated in
+	 * case repulsive forces are {@link #setApproximateRepulsion(boolean)
+	 * approximated}. A group of nodes is treated as a single body in case the
+	 * ratio of the size of the region it occupies to its distance is below the
+	 * given value. A value of <code>0</code> results in the exact forces, while
+	 * larger values trade accuracy for speed (default is <code>0.8</code>).
+	 * 
+	 * @param theta
+	 *            The Barnes-Hut approximation parameter.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		barnesHutTheta = theta;
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} that is used to compute the forces in
+	 * parallel, or <code>null</code> if the forces are computed sequentially.
+	 * 
+	 * @return The {@link ForkJoinPool} used for the force computation, or
+	 *         <code>null</code>.
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	/**
+	 * Sets the {@link ForkJoinPool} that is used to compute the forces in
+	 * parallel. The nodes are split into as many partitions as the pool's
+	 * parallelism, each of which accumulates forces into its own buffers.
+	 * These are summed up in a fixed order, so that the result does not depend
+	 * on the scheduling of the workers, i.e. layouts are reproducible for a
+	 * fixed {@link #setRandomSeed(Long) random seed} and parallelism. Pass in
+	 * <code>null</code> to compute the forces sequentially (default).
+	 * 
+	 * @param forkJoinPool
+	 *            The {@link ForkJoinPool} to use for the force computation, or
+	 *            <code>null</code>.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Returns the seed that is used for the random placement of nodes, or
+	 * <code>null</code> if no seed is used.
+	 * 
+	 * @return The seed used for random placement, or <code>null</code>.
+	 */
+	public Long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Sets the seed that is used for the {@link #setRandom(boolean) random
+	 * placement} of nodes, so that layouts are reproducible. Pass in
+	 * <code>null</code> to use a different placement for each layout pass
+	 * (default).
+	 * 
+	 * @param seed
+	 *            The seed to use for random placement, or <code>null</code>.
+	 */
+	public void setRandomSeed(Long seed) {
+		randomSeed = seed;
+	}
+
 	/**
 	 * Sets the spring layout move-control.
 	 * 
@@ -367,33 +513,89 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		bounds = LayoutProperties.getBounds(context.getGraph());
 		loadLocations();
 
-		srcDestToSumOfWeights = new double[entities.length][entities.length];
 		HashMap<Node, Integer> entityToPosition = new HashMap<>();
 		for (int i = 0; i < entities.length; i++) {
 			entityToPosition.put(entities[i], new Integer(i));
 		}
+		initWeights(context.getEdges(), entityToPosition);
+
+		if (sprRandom)
+			placeRandomly(); // put vertices in random places
+
+		iteration = 1;
 
-		Edge[] connections = context.getEdges();
+		startTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Sums up the weights of the given edges per (unordered) pair of nodes, and
+	 * stores the sums in compressed sparse row format, so that for each node i
+	 * the nodes j &gt; i it is connected to can be enumerated.
+	 * 
+	 * @param connections
+	 *            The edges to evaluate.
+	 * @param entityToPosition
+	 *            A map from nodes to their index within {@link #entities}.
+	 */
+	private void initWeights(Edge[] connections,
+			HashMap<Node, Integer> entityToPosition) {
+		int n = entities.length;
+		int[] sources = new int[connections.length];
+		int[] targets = new int[connections.length];
+		double[] edgeWeights = new double[connections.length];
+		int edgeCount = 0;
+		int[] rowStart = new int[n + 1];
 		for (int i = 0; i < connections.length; i++) {
 			Edge connection = connections[i];
 			Integer source = entityToPosition.get(connection.getSource());
 			Integer target = entityToPosition.get(connection.getTarget());
-			if (source == null || target == null)
+			if (source == null || target == null
+					|| source.intValue() == target.intValue())
 				continue;
 			double weight = LayoutProperties.getWeight(connection);
 			weight = (weight <= 0 ? 0.1 : weight);
-			srcDestToSumOfWeights[source.intValue()][target
-					.intValue()] += weight;
-			srcDestToSumOfWeights[target.intValue()][source
-					.intValue()] += weight;
+			sources[edgeCount] = Math.min(source, target);
+			targets[edgeCount] = Math.max(source, target);
+			edgeWeights[edgeCount] = weight;
+			rowStart[sources[edgeCount] + 1]++;
+			edgeCount++;
+		}
+		for (int i = 0; i < n; i++) {
+			rowStart[i + 1] += rowStart[i];
 		}
 
-		if (sprRandom)
-			placeRandomly(); // put vertices in random places
-
-		iteration = 1;
+		// distribute the edges into their rows
+		int[] column = new int[edgeCount];
+		double[] rowWeight = new double[edgeCount];
+		int[] next = Arrays.copyOf(rowStart, n);
+		for (int e = 0; e < edgeCount; e++) {
+			int k = next[sources[e]]++;
+			column[k] = targets[e];
+			rowWeight[k] = edgeWeights[e];
+		}
 
-		startTime = System.currentTimeMillis();
+		// merge parallel edges within each row
+		int[] slot = new int[n];
+		Arrays.fill(slot, -1);
+		weightsRowStart = new int[n + 1];
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			weightsRowStart[i] = size;
+			for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+				int j = column[k];
+				if (slot[j] < weightsRowStart[i]) {
+					slot[j] = size;
+					column[size] = j;
+					rowWeight[size] = rowWeight[k];
+					size++;
+				} else {
+					rowWeight[slot[j]] += rowWeight[k];
+				}
+			}
+		}
+		weightsRowStart[n] = size;
+		weightsColumn = Arrays.copyOf(column, size);
+		weights = Arrays.copyOf(rowWeight, size);
 	}
 
 	private void loadLocations() {
@@ -405,6 +607,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			sizeH = new double[length];
 			forcesX = new double[length];
 			forcesY = new double[length];
+			rowWeights = new double[length];
+			scaledX = new double[length];
+			scaledY = new double[length];
 		}
 		for (int i = 0; i < entities.length; i++) {
 			Point location = LayoutProperties.getLocation(entities[i]);
@@ -507,15 +712,17 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsX[0] = bounds.getX() + 0.5 * bounds.getWidth();
 			locationsY[0] = bounds.getY() + 0.5 * bounds.getHeight();
 		} else {
+			Random random = randomSeed == null ? new Random()
+					: new Random(randomSeed);
 			locationsX[0] = bounds.getX();
 			locationsY[0] = bounds.getY();
 			locationsX[1] = bounds.getX() + bounds.getWidth();
 			locationsY[1] = bounds.getY() + bounds.getHeight();
 			for (int i = 2; i < locationsX.length; i++) {
 				locationsX[i] = bounds.getX()
-						+ Math.random() * bounds.getWidth();
+						+ random.nextDouble() * bounds.getWidth();
 				locationsY[i] = bounds.getY()
-						+ Math.random() * bounds.getHeight();
+						+ random.nextDouble() * bounds.getHeight();
 			}
 		}
 	}
@@ -540,47 +747,23 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 				locationsY[i] = this.locationsY[i];
 			}
 		}
-		// TODO: Again really really slow!
 
 		for (int k = 0; k < 2; k++) {
-			for (int i = 0; i < this.locationsX.length; i++) {
-
-				for (int j = i + 1; j < locationsX.length; j++) {
-					double dx = (locationsX[i] - locationsX[j])
-							/ bounds.getWidth() / boundsScaleX;
-					double dy = (locationsY[i] - locationsY[j])
-							/ bounds.getHeight() / boundsScaleY;
-					double distance_sq = dx * dx + dy * dy;
-					// make sure distance and distance squared not too small
-					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
-							distance_sq);
-					double distance = Math.sqrt(distance_sq);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of
-					// destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					double sumOfWeights = srcDestToSumOfWeights[i][j];
-
-					double f;
-					if (sumOfWeights > 0) {
-						// nodes are pulled towards each other
-						f = -sprStrain * Math.log(distance / sprLength)
-								* sumOfWeights;
-					} else {
-						// nodes are repelled from each other
-						f = sprGravitation / (distance_sq);
-					}
-					double dfx = f * dx / distance;
-					double dfy = f * dy / distance;
-
-					forcesX[k][i] += dfx;
-					forcesY[k][i] += dfy;
-
-					forcesX[k][j] -= dfx;
-					forcesY[k][j] -= dfy;
+			if (forkJoinPool != null) {
+				accumulateForcesInParallel(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
+			} else if (approximateRepulsion) {
+				prepareApproximation(locationsX, locationsY);
+				for (int i = 0; i < locationsX.length; i++) {
+					quadTree.accumulateRepulsion(i, sprGravitation,
+							barnesHutTheta, forcesX[k], forcesY[k],
+							quadTree.stack);
 				}
+				accumulateAttraction(0, locationsX.length, forcesX[k],
+						forcesY[k]);
+			} else {
+				accumulateForces(0, locationsX.length, locationsX,
+						locationsY, forcesX[k], forcesY[k], rowWeights);
 			}
 
 			for (int i = 0; i < entities.length; i++) {
@@ -622,6 +805,245 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Accumulates the forces acting between the nodes i of the given range and
+	 * all nodes j &gt; i into the given force buffers. Connected nodes are
+	 * pulled towards each other, while all other nodes are repelled from each
+	 * other.
+	 * 
+	 * @param from
+	 *            The first node of the range (inclusive).
+	 * @param to
+	 *            The last node of the range (exclusive).
+	 * @param locationsX
+	 *            The x-coordinates of the nodes.
+	 * @param locationsY
+	 *            The y-coordinates of the nodes.
+	 * @param forcesX
+	 *            The buffer to accumulate the x-components of the forces into.
+	 * @param forcesY
+	 *            The buffer to accumulate the y-components of the forces into.
+	 * @param rowWeights
+	 *            A zero-initialized scratch buffer with an entry per node.
+	 */
+	private void accumulateForces(int from, int to, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY,
+			double[] rowWeights) {
+		double width = bounds.getWidth();
+		double height = bounds.getHeight();
+		for (int i = from; i < to; i++) {
+			// scatter the weights of the edges between i and j > i
+			for (int e = weightsRowStart[i]; e < weightsRowStart[i
+					+ 1]; e++) {
+				rowWeights[weightsColumn[e]] = weights[e];
+			}
+
+			for (int j = i + 1; j < locationsX.length; j++) {
+				double dx = (locationsX[i] - locationsX[j]) / width
+						/ boundsScaleX;
+				double dy = (locationsY[i] - locationsY[j]) / height
+						/ boundsScaleY;
+				double distance_sq = dx * dx + dy * dy;
+				// make sure distance and distance squared not too small
+				distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+						distance_sq);
+				double distance = Math.sqrt(distance_sq);
+
+				// If there are relationships between srcObj and destObj
+				// then decrease force on srcObj (a pull) in direction of
+				// destObj
+				// If no relation between srcObj and destObj then increase
+				// force on srcObj (a push) from direction of destObj.
+				double sumOfWeights = rowWeights[j];
+
+				double f;
+				if (sumOfWeights > 0) {
+					// nodes are pulled towards each other
+					f = -sprStrain * Math.log(distance / sprLength)
+							* sumOfWeights;
+				} else {
+					// nodes are repelled from each other
+					f = sprGravitation / (distance_sq);
+				}
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+
+			for (int e = weightsRowStart[i]; e < weightsRowStart[i
+					+ 1]; e++) {
+				rowWeights[weightsColumn[e]] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Accumulates the attractive forces acting between the connected nodes i
+	 * of the given range and j &gt; i into the given force buffers, replacing
+	 * the repulsion that was accounted for them by the
+	 * {@link #prepareApproximation(double[], double[]) Barnes-Hut quadtree}.
+	 * 
+	 * @param from
+	 *            The first node of the range (inclusive).
+	 * @param to
+	 *            The last node of the range (exclusive).
+	 * @param forcesX
+	 *            The buffer to accumulate the x-components of the forces into.
+	 * @param forcesY
+	 *            The buffer to accumulate the y-components of the forces into.
+	 */
+	private void accumulateAttraction(int from, int to, double[] forcesX,
+			double[] forcesY) {
+		for (int i = from; i < to; i++) {
+			for (int e = weightsRowStart[i]; e < weightsRowStart[i
+					+ 1]; e++) {
+				int j = weightsColumn[e];
+				double dx = scaledX[i] - scaledX[j];
+				double dy = scaledY[i] - scaledY[j];
+				double distance_sq = dx * dx + dy * dy;
+				distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+						distance_sq);
+				double distance = Math.sqrt(distance_sq);
+				// connected nodes are pulled towards each other instead of
+				// being repelled
+				double f = -sprStrain * Math.log(distance / sprLength)
+						* weights[e] - sprGravitation / distance_sq;
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+		}
+	}
+
+	/**
+	 * Accumulates the forces acting on the nodes into the given force buffers,
+	 * using the {@link #getForkJoinPool() fork join pool} to process
+	 * partitions of the nodes in parallel.
+	 * 
+	 * @param locationsX
+	 *            The x-coordinates of the nodes.
+	 * @param locationsY
+	 *            The y-coordinates of the nodes.
+	 * @param forcesX
+	 *            The buffer to accumulate the x-components of the forces into.
+	 * @param forcesY
+	 *            The buffer to accumulate the y-components of the forces into.
+	 */
+	private void accumulateForcesInParallel(final double[] locationsX,
+			final double[] locationsY, double[] forcesX, double[] forcesY) {
+		final int n = locationsX.length;
+		if (n == 0) {
+			return;
+		}
+		int workers = Math.max(1, Math.min(forkJoinPool.getParallelism(), n));
+		if (workerForcesX == null || workerForcesX.length != workers
+				|| workerForcesX[0].length != n) {
+			workerForcesX = new double[workers][n];
+			workerForcesY = new double[workers][n];
+			workerRowWeights = new double[workers][n];
+			workerStacks = new int[workers][];
+		}
+		if (approximateRepulsion) {
+			// the tree is built once and shared by all workers
+			prepareApproximation(locationsX, locationsY);
+		}
+
+		// in case of exact forces, node i interacts with all nodes j > i,
+		// so partitions are balanced by the number of pairs
+		final int[] partition = new int[workers + 1];
+		double pairsPerWorker = approximateRepulsion ? (double) n / workers
+				: (double) n * (n - 1) / 2 / workers;
+		double pairs = 0;
+		for (int i = 0, w = 1; i < n && w < workers; i++) {
+			pairs += approximateRepulsion ? 1 : n - i - 1;
+			if (pairs >= w * pairsPerWorker) {
+				partition[w++] = i + 1;
+			}
+		}
+		for (int w = 1; w <= workers; w++) {
+			partition[w] = Math.max(partition[w],
+					w == workers ? n : partition[w - 1]);
+		}
+
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+		for (int w = 0; w < workers; w++) {
+			final int worker = w;
+			tasks[w] = forkJoinPool.submit(new Runnable() {
+				@Override
+				public void run() {
+					double[] fx = workerForcesX[worker];
+					double[] fy = workerForcesY[worker];
+					Arrays.fill(fx, 0);
+					Arrays.fill(fy, 0);
+					int from = partition[worker];
+					int to = partition[worker + 1];
+					if (approximateRepulsion) {
+						if (workerStacks[worker] == null) {
+							workerStacks[worker] = QuadTree.createStack();
+						}
+						for (int i = from; i < to; i++) {
+							quadTree.accumulateRepulsion(i, sprGravitation,
+									barnesHutTheta, fx, fy,
+									workerStacks[worker]);
+						}
+						accumulateAttraction(from, to, fx, fy);
+					} else {
+						accumulateForces(from, to, locationsX, locationsY, fx,
+								fy, workerRowWeights[worker]);
+					}
+				}
+			});
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+
+		// reduce in a fixed order, so the result does not depend on the
+		// scheduling of the workers
+		for (int w = 0; w < workers; w++) {
+			double[] fx = workerForcesX[w];
+			double[] fy = workerForcesY[w];
+			for (int i = 0; i < n; i++) {
+				forcesX[i] += fx[i];
+				forcesY[i] += fy[i];
+			}
+		}
+	}
+
+	/**
+	 * Transforms the given locations into the scaled space in which forces
+	 * are computed, and builds the Barnes-Hut quadtree for them.
+	 * 
+	 * @param locationsX
+	 *            The x-coordinates of the nodes.
+	 * @param locationsY
+	 *            The y-coordinates of the nodes.
+	 */
+	private void prepareApproximation(double[] locationsX,
+			double[] locationsY) {
+		int n = locationsX.length;
+		double width = bounds.getWidth();
+		double height = bounds.getHeight();
+		for (int i = 0; i < n; i++) {
+			scaledX[i] = locationsX[i] / width / boundsScaleX;
+			scaledY[i] = locationsY[i] / height / boundsScaleY;
+		}
+		if (quadTree == null) {
+			quadTree = new QuadTree();
+		}
+		quadTree.build(scaledX, scaledY, n);
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position =
@@ -696,4 +1118,233 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[i] -= moveY;
 		}
 	}
+
+	/**
+	 * A region quadtree over the (scaled) node locations, which is used to
+	 * approximate the repulsive forces according to Barnes and Hut: a cell
+	 * that is far enough away from a node, relative to its size, acts on the
+	 * node like a single body located at the center of mass of the nodes it
+	 * contains. The tree is stored in primitive arrays, which are reused
+	 * between builds.
+	 */
+	private static final class QuadTree {
+
+		// coincident nodes are chained within a leaf below this depth
+		private static final int MAX_DEPTH = 32;
+
+		// per cell: lower left corner, side length, number of contained nodes
+		// and sum of their coordinates, index of first child (-1 for leaves)
+		// and first contained node (only for leaves, -1 if empty)
+		private double[] cellX = new double[64];
+		private double[] cellY = new double[64];
+		private double[] cellSize = new double[64];
+		private int[] mass = new int[64];
+		private double[] massX = new double[64];
+		private double[] massY = new double[64];
+		private int[] firstChild = new int[64];
+		private int[] firstBody = new int[64];
+		private int cellCount;
+
+		// per node: next node within the same leaf
+		private int[] nextBody = new int[0];
+		private double[] x;
+		private double[] y;
+
+		// traversal stack used for sequential force computation
+		final int[] stack = createStack();
+
+		/**
+		 * Creates a stack that is large enough to traverse the tree. Each
+		 * thread traversing the tree needs its own stack.
+		 * 
+		 * @return A new traversal stack.
+		 */
+		static int[] createStack() {
+			return new int[4 * (MAX_DEPTH + 1)];
+		}
+
+		/**
+		 * Computes the repulsive force the other nodes exert on the given node
+		 * and adds it to the given force buffers.
+		 *
+		 * @param body
+		 *            The index of the node.
+		 * @param gravitation
+		 *            The gravitation-control value.
+		 * @param theta
+		 *            The Barnes-Hut approximation parameter.
+		 * @param forcesX
+		 *            The buffer to accumulate the x-component into.
+		 * @param forcesY
+		 *            The buffer to accumulate the y-component into.
+		 * @param stack
+		 *            The {@link #createStack() stack} to use for the traversal.
+		 */
+		void accumulateRepulsion(int body, double gravitation, double theta,
+				double[] forcesX, double[] forcesY, int[] stack) {
+			double bx = x[body];
+			double by = y[body];
+			double fx = 0;
+			double fy = 0;
+			double theta_sq = theta * theta;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				if (mass[cell] == 0) {
+					continue;
+				}
+				if (firstChild[cell] < 0) {
+					for (int other = firstBody[cell]; other >= 0; other = nextBody[other]) {
+						if (other == body) {
+							continue;
+						}
+						double dx = bx - x[other];
+						double dy = by - y[other];
+						double distance_sq = Math.max(
+								MIN_DISTANCE * MIN_DISTANCE, dx * dx + dy * dy);
+						double distance = Math.sqrt(distance_sq);
+						double f = gravitation / distance_sq;
+						fx += f * dx / distance;
+						fy += f * dy / distance;
+					}
+					continue;
+				}
+				double size = cellSize[cell];
+				double dx = bx - massX[cell] / mass[cell];
+				double dy = by - massY[cell] / mass[cell];
+				double distance_sq = dx * dx + dy * dy;
+				boolean inside = bx >= cellX[cell] && bx <= cellX[cell] + size
+						&& by >= cellY[cell] && by <= cellY[cell] + size;
+				if (!inside && size * size < theta_sq * distance_sq) {
+					// far enough away to be treated as a single body
+					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+							distance_sq);
+					double distance = Math.sqrt(distance_sq);
+					double f = mass[cell] * gravitation / distance_sq;
+					fx += f * dx / distance;
+					fy += f * dy / distance;
+				} else {
+					int child = firstChild[cell];
+					stack[top++] = child;
+					stack[top++] = child + 1;
+					stack[top++] = child + 2;
+					stack[top++] = child + 3;
+				}
+			}
+			forcesX[body] += fx;
+			forcesY[body] += fy;
+		}
+
+		/**
+		 * Builds the tree for the given node locations.
+		 *
+		 * @param x
+		 *            The x-coordinates of the nodes.
+		 * @param y
+		 *            The y-coordinates of the nodes.
+		 * @param n
+		 *            The number of nodes.
+		 */
+		void build(double[] x, double[] y, int n) {
+			this.x = x;
+			this.y = y;
+			if (nextBody.length < n) {
+				nextBody = new int[n];
+			}
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				minX = Math.min(minX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+			double size = Math.max(maxX - minX, maxY - minY);
+			cellCount = 0;
+			newCell(minX, minY, size > 0 ? size : 1);
+			for (int i = 0; i < n; i++) {
+				insert(i);
+			}
+		}
+
+		private void insert(int body) {
+			double bx = x[body];
+			double by = y[body];
+			int cell = 0;
+			int depth = 0;
+			while (true) {
+				mass[cell]++;
+				massX[cell] += bx;
+				massY[cell] += by;
+				if (firstChild[cell] < 0) {
+					int other = firstBody[cell];
+					if (other < 0 || depth >= MAX_DEPTH
+							|| (x[other] == bx && y[other] == by)) {
+						nextBody[body] = other;
+						firstBody[cell] = body;
+						return;
+					}
+					// split the leaf and push down the (coincident) nodes it
+					// contains
+					subdivide(cell);
+					int child = firstChild[cell]
+							+ quadrant(cell, x[other], y[other]);
+					firstBody[child] = other;
+					firstBody[cell] = -1;
+					for (int o = other; o >= 0; o = nextBody[o]) {
+						mass[child]++;
+						massX[child] += x[o];
+						massY[child] += y[o];
+					}
+				}
+				cell = firstChild[cell] + quadrant(cell, bx, by);
+				depth++;
+			}
+		}
+
+		private int newCell(double x, double y, double size) {
+			if (cellCount == cellX.length) {
+				int capacity = 2 * cellCount;
+				cellX = Arrays.copyOf(cellX, capacity);
+				cellY = Arrays.copyOf(cellY, capacity);
+				cellSize = Arrays.copyOf(cellSize, capacity);
+				mass = Arrays.copyOf(mass, capacity);
+				massX = Arrays.copyOf(massX, capacity);
+				massY = Arrays.copyOf(massY, capacity);
+				firstChild = Arrays.copyOf(firstChild, capacity);
+				firstBody = Arrays.copyOf(firstBody, capacity);
+			}
+			int cell = cellCount++;
+			cellX[cell] = x;
+			cellY[cell] = y;
+			cellSize[cell] = size;
+			mass[cell] = 0;
+			massX[cell] = 0;
+			massY[cell] = 0;
+			firstChild[cell] = -1;
+			firstBody[cell] = -1;
+			return cell;
+		}
+
+		private int quadrant(int cell, double x, double y) {
+			double half = cellSize[cell] / 2;
+			return (x >= cellX[cell] + half ? 1 : 0)
+					+ (y >= cellY[cell] + half ? 2 : 0);
+		}
+
+		private void subdivide(int cell) {
+			double half = cellSize[cell] / 2;
+			double x = cellX[cell];
+			double y = cellY[cell];
+			// children are allocated consecutively in quadrant order
+			int first = newCell(x, y, half);
+			newCell(x + half, y, half);
+			newCell(x, y + half, half);
+			newCell(x + half, y + half, half);
+			firstChild[cell] = first;
+		}
+	}
 }
@@ -18,6 +18,7 @@
 package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -54,6 +55,22 @@ import org.eclipse.gef.layout.LayoutProperties;
  * This layout algorithm works only with - directed graphs (otherwise an
  * appropriate RuntimeException is thrown)
  * 
+ * The layers are computed by a {@link LayerProvider}, the order of the nodes
+ * within the layers is determined by a {@link CrossingReducer}, and the
+ * coordinates of the nodes within their layers are computed by a
+ * {@link CoordinateAssigner}, which uses the indices of the nodes by default.
+ * 
+ * When the layout is applied with <code>clean == false</code>, the layers and
+ * the node order of the previous layout pass are retained: nodes that are no
+ * longer layout relevant (removed or hidden) are taken out of their layers,
+ * and new nodes are inserted below their predecessors (or above their
+ * successors) at the free position that is closest to the barycenter of their
+ * neighbors. Only the new nodes are positioned, all other nodes keep their
+ * locations. Changes to the connections of retained nodes are not reflected
+ * by an incremental layout pass. A clean layout pass is performed instead if
+ * no previous layout pass is available for the context, or if the layout
+ * bounds were changed.
+ * 
  * @author Rene Kuhlemann
  * @author Adam Kovacs
  * @author mwienand
@@ -261,126 +278,15 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * Implements the CrossingReducer interface. This algorithm divides each
 	 * layer by a pivot node based on the relative position of connected nodes
 	 * and decides which side of the pivot point it should be for the fewer edge
-	 * crossing.
+	 * crossing. The new order of a layer is only retained if it does not
+	 * increase the number of crossings of the edges incident to that layer.
 	 * 
 	 * @author Adam Kovacs
 	 * 
 	 */
 	public static class SplitCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
-
-		/**
-		 * Filters the multiple connections from the two arrays
-		 * 
-		 * @param a
-		 * @param b
-		 * @return
-		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
-				}
-			}
-			return res;
-		}
-
-		/**
-		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
-		 * 
-		 * @param nodeA
-		 * @param nodeB
-		 * @return
-		 */
-		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
-
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return numOfCrosses;
-		}
+		private final Random random = new Random();
+		private CrossingCounter counter;
 
 		/**
 		 * Selects the pivot node by random and decides the order.
@@ -392,33 +298,21 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 			ArrayList<NodeWrapper> left = new ArrayList<>();
 			ArrayList<NodeWrapper> right = new ArrayList<>();
 
-			if (layer.size() < 1)
+			if (layer.size() < 2)
 				return layer;
-			Random random = new Random();
 			NodeWrapper pivot = layer.get(random.nextInt(layer.size()));
-			// NodeWrapper pivot = layer.get(0);
-			// NodeWrapper pivot = layer.get((int)(layer.size() / 2));
 			for (NodeWrapper node : layer) {
-				if (!node.equals(pivot) && node.node != null
-						&& pivot.node != null) {
-					int num1 = numberOfCrosses(node, pivot);
-					int num2 = numberOfCrosses(pivot, node);
+				if (node != pivot) {
+					long num1 = counter.countCrossings(node, pivot);
+					long num2 = counter.countCrossings(pivot, node);
 					if (num1 < num2)
 						left.add(node);
 					else if (num1 > num2)
 						right.add(node);
-					else {
-						if (num1 == num2 && num1 > 0) {
-							int tmpindex = map.get(pivot.node).index;
-							map.get(pivot.node).index = map
-									.get(node.node).index;
-							map.get(node.node).index = tmpindex;
-						}
-						if (node.index < pivot.index)
-							left.add(node);
-						else
-							right.add(node);
-					}
+					else if (node.index < pivot.index)
+						left.add(node);
+					else
+						right.add(node);
 				}
 			}
 
@@ -430,207 +324,516 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			// Building the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper nw : layer)
-					map.put(nw.node, nw);
+			counter = new CrossingCounter(nodes);
 			for (int i = 0; i < nodes.size(); i++) {
-				if (!nodes.get(i).isEmpty()) {
-					splitHeuristic(nodes.get(i));
-				}
+				List<NodeWrapper> layer = nodes.get(i);
+				// dummy nodes keep their positions
+				List<NodeWrapper> realNodes = new ArrayList<>();
+				for (NodeWrapper nw : layer)
+					if (nw.node != null)
+						realNodes.add(nw);
+				if (realNodes.size() < 2)
+					continue;
+				int[] indices = new int[realNodes.size()];
+				for (int j = 0; j < indices.length; j++)
+					indices[j] = realNodes.get(j).index;
+				long crossings = counter.countCrossings(i);
+				// the real nodes are redistributed over their former indices
+				List<NodeWrapper> order = splitHeuristic(realNodes);
+				int[] slots = indices.clone();
+				Arrays.sort(slots);
+				for (int j = 0; j < slots.length; j++)
+					order.get(j).index = slots[j];
+				if (counter.countCrossings(i) > crossings)
+					for (int j = 0; j < indices.length; j++)
+						realNodes.get(j).index = indices[j];
+				sortByIndex(layer);
 			}
+			counter = null;
 		}
 	}
 
 	/**
 	 * Implemented the CrossingReducer interface. This algorithm select
 	 * neighbouring nodes and decides there order based on the number of edge
-	 * crossings between them and those connected to them.
+	 * crossings between them and those connected to them. The layers are swept
+	 * until no more neighbouring nodes are switched, or until a sweep does no
+	 * longer reduce the total number of crossings.
 	 * 
 	 * @author Adam Kovacs
 	 * 
 	 */
 	public static class GreedyCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
-		private List<List<NodeWrapper>> layers = new ArrayList<>();
-		private Map<Integer, Integer> crossesForLayers = new IdentityHashMap<>();
+		private static final int MAX_SWEEPS = 100;
+		private CrossingCounter counter;
 
 		/**
-		 * Filters the multiple connections from the two arrays.
+		 * Iterates the list and switches that results in less crossings.
 		 * 
-		 * @param a
-		 * @param b
+		 * @param layer
 		 * @return
 		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
+		private boolean greedyHeuristic(List<NodeWrapper> layer) {
+			boolean res = false;
+			for (int i = 0; i < layer.size() - 1; i++) {
+				NodeWrapper left = layer.get(i);
+				NodeWrapper right = layer.get(i + 1);
+				if (left.node != null && right.node != null
+						&& counter.countCrossings(left, right) > counter
+								.countCrossings(right, left)) {
+					int tmpindex = left.index;
+					left.index = right.index;
+					right.index = tmpindex;
+					layer.set(i, right);
+					layer.set(i + 1, left);
+					res = true;
 				}
 			}
 			return res;
 		}
 
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			counter = new CrossingCounter(nodes);
+			long crossings = counter.countCrossings();
+			for (int sweep = 0; sweep < MAX_SWEEPS && crossings > 0; sweep++) {
+				Ordering ordering = new Ordering(nodes);
+				boolean change = false;
+				for (List<NodeWrapper> layer : nodes)
+					if (greedyHeuristic(layer))
+						change = true;
+				if (!change)
+					break;
+				// edges that span several layers may cross other edges
+				// because of a switch, so that the total is verified
+				long newCrossings = counter.countCrossings();
+				if (newCrossings >= crossings) {
+					if (newCrossings > crossings)
+						ordering.restore(nodes);
+					break;
+				}
+				crossings = newCrossings;
+			}
+			counter = null;
+		}
+	}
+
+	/**
+	 * Implements the CrossingReducer interface using the weighted median
+	 * heuristic of Gansner et al. (http://dx.doi.org/10.1109/32.221135). The
+	 * layers are sorted by the weighted median of the indices of the
+	 * neighbors on the preceding layers (down sweeps) and on the succeeding
+	 * layers (up sweeps) in alternation, while nodes without neighbors on the
+	 * respective side keep their positions. The order with the least number of
+	 * crossings is retained.
+	 * 
+	 * @author itemis AG
+	 */
+	public static class MedianCrossingReducer implements CrossingReducer {
+		private static final int MAX_SWEEPS = 24;
+
+		private void sortByMedian(CrossingCounter counter,
+				List<NodeWrapper> layer, boolean upper) {
+			int size = layer.size();
+			if (size < 2)
+				return;
+			int[] slots = new int[size];
+			final double[] medians = new double[size];
+			List<NodeWrapper> movable = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				NodeWrapper nw = layer.get(i);
+				slots[i] = nw.index;
+				medians[i] = counter.getMedian(nw, upper);
+				if (medians[i] >= 0) {
+					// remember the median within the index until sorted
+					nw.index = i;
+					movable.add(nw);
+				}
+			}
+			Collections.sort(movable, new Comparator<NodeWrapper>() {
+				public int compare(NodeWrapper node1, NodeWrapper node2) {
+					return Double.compare(medians[node1.index],
+							medians[node2.index]);
+				}
+			});
+			Arrays.sort(slots);
+			Iterator<NodeWrapper> it = movable.iterator();
+			for (int i = 0; i < size; i++) {
+				if (medians[i] >= 0)
+					layer.set(i, it.next());
+				layer.get(i).index = slots[i];
+			}
+		}
+
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			for (List<NodeWrapper> layer : nodes)
+				sortByIndex(layer);
+			CrossingCounter counter = new CrossingCounter(nodes);
+			long bestCrossings = counter.countCrossings();
+			Ordering best = new Ordering(nodes);
+			for (int sweep = 0; sweep < MAX_SWEEPS
+					&& bestCrossings > 0; sweep++) {
+				if ((sweep & 1) == 0) {
+					for (int i = 1; i < nodes.size(); i++)
+						sortByMedian(counter, nodes.get(i), true);
+				} else {
+					for (int i = nodes.size() - 2; i >= 0; i--)
+						sortByMedian(counter, nodes.get(i), false);
+				}
+				long crossings = counter.countCrossings();
+				if (crossings < bestCrossings) {
+					bestCrossings = crossings;
+					best = new Ordering(nodes);
+				}
+			}
+			best.restore(nodes);
+		}
+	}
+
+	/**
+	 * Snapshot of the order and the indices of the {@link NodeWrapper}s within
+	 * a list of layers, which is used by the {@link CrossingReducer}s to
+	 * restore the best order that was found.
+	 */
+	private static class Ordering {
+		private final NodeWrapper[][] wrappers;
+		private final int[][] indices;
+
+		Ordering(List<List<NodeWrapper>> layers) {
+			wrappers = new NodeWrapper[layers.size()][];
+			indices = new int[layers.size()][];
+			for (int i = 0; i < wrappers.length; i++) {
+				wrappers[i] = layers.get(i).toArray(new NodeWrapper[0]);
+				indices[i] = new int[wrappers[i].length];
+				for (int j = 0; j < indices[i].length; j++)
+					indices[i][j] = wrappers[i][j].index;
+			}
+		}
+
+		void restore(List<List<NodeWrapper>> layers) {
+			for (int i = 0; i < wrappers.length; i++) {
+				List<NodeWrapper> layer = layers.get(i);
+				for (int j = 0; j < indices[i].length; j++) {
+					wrappers[i][j].index = indices[i][j];
+					layer.set(j, wrappers[i][j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the edge crossings of a layered graph using the accumulator tree
+	 * of Barth, Jünger, and Mutzel (http://dx.doi.org/10.7155/jgaa.00088),
+	 * i.e. in <code>O(E log V)</code> for the edges that are incident to a
+	 * layer.
+	 * <p>
+	 * The adjacency of the wrapped {@link Node}s is determined once, when the
+	 * counter is constructed, and is stored in primitive arrays. In contrast,
+	 * the indices of the {@link NodeWrapper}s are read whenever crossings are
+	 * counted, so that a {@link CrossingReducer} may reorder the layers in
+	 * between. The indices are interpreted as horizontal positions, so that
+	 * edges may span several layers: two edges that leave a layer towards the
+	 * same side cross if the order of their end points on that layer is the
+	 * inverse of the order of their other end points. Dummy nodes are not
+	 * considered.
+	 * 
+	 * @author itemis AG
+	 */
+	public static class CrossingCounter {
+
+		private final Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+		private final NodeWrapper[] wrappers;
+		// the wrappers of layer i are wrappers[layerOffsets[i]] to
+		// wrappers[layerOffsets[i + 1] - 1]
+		private final int[] layerOffsets;
+		// the neighbors of wrappers[i] on the preceding (upper) and succeeding
+		// (lower) layers are stored at [offsets[i], offsets[i + 1])
+		private final int[] upperOffsets;
+		private final int[] upperNeighbors;
+		private final int[] lowerOffsets;
+		private final int[] lowerNeighbors;
+
+		// scratch buffers
+		private int[] north = new int[16];
+		private int[] south = new int[16];
+
 		/**
-		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
+		 * Constructs a new {@link CrossingCounter} for the given layers.
 		 * 
-		 * @param nodeA
-		 * @param nodeB
-		 * @return
+		 * @param layers
+		 *            The layers of {@link NodeWrapper}s, which may not change
+		 *            their membership as long as this {@link CrossingCounter}
+		 *            is used.
 		 */
-		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
+		public CrossingCounter(List<List<NodeWrapper>> layers) {
+			layerOffsets = new int[layers.size() + 1];
+			int count = 0;
+			for (int i = 0; i < layers.size(); i++) {
+				layerOffsets[i] = count;
+				count += layers.get(i).size();
+			}
+			layerOffsets[layers.size()] = count;
 
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
+			wrappers = new NodeWrapper[count];
+			Map<Node, NodeWrapper> map = new IdentityHashMap<>();
+			int id = 0;
+			for (List<NodeWrapper> layer : layers) {
+				for (NodeWrapper nw : layer) {
+					wrappers[id] = nw;
+					ids.put(nw, id++);
+					if (nw.node != null)
+						map.put(nw.node, nw);
+				}
+			}
+
+			upperOffsets = new int[count + 1];
+			lowerOffsets = new int[count + 1];
+			int[] upper = new int[count];
+			int[] lower = new int[count];
+			int upperCount = 0;
+			int lowerCount = 0;
+			int[] stamps = new int[count];
+			Arrays.fill(stamps, -1);
+			for (int i = 0; i < count; i++) {
+				upperOffsets[i] = upperCount;
+				lowerOffsets[i] = lowerCount;
+				NodeWrapper nw = wrappers[i];
+				if (nw.node == null)
+					continue;
+				for (int side = 0; side < 2; side++) {
+					for (Node n : side == 0 ? nw.node.getPredecessorNodes()
+							: nw.node.getSuccessorNodes()) {
+						NodeWrapper neighbor = map.get(n);
+						if (neighbor == null || neighbor.layer == nw.layer)
+							continue;
+						int j = ids.get(neighbor);
+						// filter nodes connected with bidirectional edges
+						if (stamps[j] == i)
+							continue;
+						stamps[j] = i;
+						if (neighbor.layer < nw.layer) {
+							if (upperCount == upper.length)
+								upper = Arrays.copyOf(upper, 2 * upperCount);
+							upper[upperCount++] = j;
+						} else {
+							if (lowerCount == lower.length)
+								lower = Arrays.copyOf(lower, 2 * lowerCount);
+							lower[lowerCount++] = j;
 						}
 					}
 				}
 			}
+			upperOffsets[count] = upperCount;
+			lowerOffsets[count] = lowerCount;
+			upperNeighbors = Arrays.copyOf(upper, upperCount);
+			lowerNeighbors = Arrays.copyOf(lower, lowerCount);
+		}
+
+		/**
+		 * Counts the crossings between two layers, given by the positions of
+		 * the end points of the edges on the northern and on the southern
+		 * layer, respectively. Edges that share an end point do not cross.
+		 * The edges are sorted by means of two counting sorts, so that the
+		 * crossings are counted in <code>O(E log S)</code>, where
+		 * <code>S</code> is the range of the southern positions.
+		 * 
+		 * @param north
+		 *            The positions of the northern end points of the edges.
+		 * @param south
+		 *            The positions of the southern end points of the edges.
+		 * @param edgeCount
+		 *            The number of edges, i.e. the number of positions that
+		 *            are used from the given arrays.
+		 * @return The number of crossings between the given edges.
+		 */
+		public static long countCrossings(int[] north, int[] south,
+				int edgeCount) {
+			if (edgeCount < 2)
+				return 0;
+			int northMin = Integer.MAX_VALUE;
+			int northMax = Integer.MIN_VALUE;
+			int southMin = Integer.MAX_VALUE;
+			int southMax = Integer.MIN_VALUE;
+			for (int i = 0; i < edgeCount; i++) {
+				northMin = Math.min(northMin, north[i]);
+				northMax = Math.max(northMax, north[i]);
+				southMin = Math.min(southMin, south[i]);
+				southMax = Math.max(southMax, south[i]);
+			}
+
+			// sort lexicographically by (north, south)
+			int[] order = new int[edgeCount];
+			for (int i = 0; i < edgeCount; i++)
+				order[i] = i;
+			order = countingSort(order, south, southMin, southMax);
+			order = countingSort(order, north, northMin, northMax);
+
+			// insert the southern end points into the accumulator tree, and
+			// count the edges whose southern end points are to the right
+			int firstIndex = 1;
+			while (firstIndex < southMax - southMin + 1)
+				firstIndex <<= 1;
+			int[] tree = new int[2 * firstIndex - 1];
+			firstIndex--;
+			long crossings = 0;
+			for (int i = 0; i < edgeCount; i++) {
+				int index = south[order[i]] - southMin + firstIndex;
+				tree[index]++;
+				while (index > 0) {
+					if ((index & 1) != 0)
+						crossings += tree[index + 1];
+					index = (index - 1) >> 1;
+					tree[index]++;
+				}
+			}
+			return crossings;
+		}
 
-			return numOfCrosses;
+		private static int[] countingSort(int[] order, int[] keys, int min,
+				int max) {
+			int[] counts = new int[max - min + 2];
+			for (int i : order)
+				counts[keys[i] - min + 1]++;
+			for (int i = 1; i < counts.length; i++)
+				counts[i] += counts[i - 1];
+			int[] sorted = new int[order.length];
+			for (int i : order)
+				sorted[counts[keys[i] - min]++] = i;
+			return sorted;
 		}
 
 		/**
-		 * Iterates the list and switches that results in less crossings.
+		 * Returns the total number of crossings, i.e. the sum of the crossings
+		 * between the edges that leave each layer towards the succeeding
+		 * layers.
+		 * 
+		 * @return The total number of crossings.
+		 */
+		public long countCrossings() {
+			long crossings = 0;
+			for (int i = 0; i < layerOffsets.length - 1; i++)
+				crossings += countCrossings(i, false);
+			return crossings;
+		}
+
+		/**
+		 * Returns the number of crossings between the edges that are incident
+		 * to the specified layer, i.e. the crossings of the edges towards the
+		 * preceding layers plus the crossings of the edges towards the
+		 * succeeding layers.
 		 * 
 		 * @param layer
-		 * @return
+		 *            The index of the layer within the list of layers that
+		 *            was passed in at construction.
+		 * @return The number of crossings between the edges of the specified
+		 *         layer.
 		 */
-		private boolean greedyHeuristic(List<NodeWrapper> layer) {
-			boolean res = false;
-			if (layer.size() > 1) {
-				for (int i = 0; i < layer.size() - 1; i++) {
-					if (layer.get(i).node != null
-							&& layer.get(i + 1).node != null) {
-						int num1 = numberOfCrosses(layer.get(i),
-								layer.get(i + 1));
-						int num2 = numberOfCrosses(layer.get(i + 1),
-								layer.get(i));
-						if (num1 > num2 || (num1 == num2 && num1 > 0)) {
-							if (!crossesForLayers
-									.containsKey((layer.get(i).layer))
-									|| crossesForLayers
-											.get(layer.get(i).layer) > num2) {
-								crossesForLayers.put(layer.get(i).layer, num2);
-								res = true;
-								int level = layer.get(0).layer;
-
-								NodeWrapper tmp = layers.get(level).get(i);
-								int tmpindex = layers.get(level).get(i).index;
-								layers.get(level).get(i).index = layers
-										.get(level).get(i + 1).index;
-								layers.get(level).set(i,
-										layers.get(level).get(i + 1));
-								layers.get(level).get(i + 1).index = tmpindex;
-								layers.get(level).set(i + 1, tmp);
-							}
-						}
-					}
+		public long countCrossings(int layer) {
+			return countCrossings(layer, true) + countCrossings(layer, false);
+		}
+
+		private long countCrossings(int layer, boolean upper) {
+			int[] offsets = upper ? upperOffsets : lowerOffsets;
+			int[] neighbors = upper ? upperNeighbors : lowerNeighbors;
+			int start = layerOffsets[layer];
+			int end = layerOffsets[layer + 1];
+			int edgeCount = offsets[end] - offsets[start];
+			if (north.length < edgeCount) {
+				north = new int[edgeCount];
+				south = new int[edgeCount];
+			}
+			int edge = 0;
+			for (int i = start; i < end; i++) {
+				int index = wrappers[i].index;
+				for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+					north[edge] = index;
+					south[edge++] = wrappers[neighbors[j]].index;
 				}
 			}
-			return res;
+			return countCrossings(north, south, edgeCount);
 		}
 
-		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			crossesForLayers.clear();
-			layers = nodes;
+		/**
+		 * Returns the number of crossings between the edges of the given
+		 * {@link NodeWrapper}s in case <i>left</i> is positioned to the left
+		 * of <i>right</i>, irrespective of their current indices. Both
+		 * {@link NodeWrapper}s have to be on the same layer.
+		 * 
+		 * @param left
+		 *            The {@link NodeWrapper} that is positioned to the left.
+		 * @param right
+		 *            The {@link NodeWrapper} that is positioned to the right.
+		 * @return The number of crossings between the edges of the given
+		 *         {@link NodeWrapper}s.
+		 */
+		public long countCrossings(NodeWrapper left, NodeWrapper right) {
+			Integer leftId = ids.get(left);
+			Integer rightId = ids.get(right);
+			if (leftId == null || rightId == null || left == right)
+				return 0;
+			return countCrossings(leftId, rightId, upperOffsets,
+					upperNeighbors)
+					+ countCrossings(leftId, rightId, lowerOffsets,
+							lowerNeighbors);
+		}
 
-			// Builds the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper node : layer)
-					map.put(node.node, node);
-
-			// After three iteration with no change it stops
-			int iteration = 0;
-			boolean change = false;
-			while (iteration < 3) {
-				change = false;
-				for (int i = 0; i < nodes.size(); i++) {
-					if (greedyHeuristic(layers.get(i))) {
-						change = true;
-					}
-				}
-				if (!change)
-					iteration++;
+		private long countCrossings(int left, int right, int[] offsets,
+				int[] neighbors) {
+			int leftCount = offsets[left + 1] - offsets[left];
+			int rightCount = offsets[right + 1] - offsets[right];
+			if (leftCount == 0 || rightCount == 0)
+				return 0;
+			if (north.length < Math.max(leftCount, rightCount)) {
+				north = new int[Math.max(leftCount, rightCount)];
+				south = new int[north.length];
+			}
+			for (int i = 0; i < leftCount; i++)
+				north[i] = wrappers[neighbors[offsets[left] + i]].index;
+			for (int i = 0; i < rightCount; i++)
+				south[i] = wrappers[neighbors[offsets[right] + i]].index;
+			Arrays.sort(north, 0, leftCount);
+			Arrays.sort(south, 0, rightCount);
+			// count the pairs where the neighbor of left is to the right
+			long crossings = 0;
+			int j = 0;
+			for (int i = 0; i < leftCount; i++) {
+				while (j < rightCount && south[j] < north[i])
+					j++;
+				crossings += j;
+			}
+			return crossings;
+		}
+
+		/**
+		 * Returns the weighted median of the indices of the neighbors of the
+		 * given {@link NodeWrapper} on the preceding (upper) or succeeding
+		 * layers, or <code>-1</code> if it does not have any neighbors there.
+		 */
+		private double getMedian(NodeWrapper nw, boolean upper) {
+			Integer id = ids.get(nw);
+			if (id == null)
+				return -1;
+			int[] offsets = upper ? upperOffsets : lowerOffsets;
+			int[] neighbors = upper ? upperNeighbors : lowerNeighbors;
+			int count = offsets[id + 1] - offsets[id];
+			if (count == 0)
+				return -1;
+			if (north.length < count) {
+				north = new int[count];
+				south = new int[count];
 			}
+			for (int i = 0; i < count; i++)
+				north[i] = wrappers[neighbors[offsets[id] + i]].index;
+			Arrays.sort(north, 0, count);
+			int m = count / 2;
+			if (count % 2 == 1)
+				return north[m];
+			if (count == 2)
+				return (north[0] + north[1]) / 2d;
+			double left = north[m - 1] - north[0];
+			double right = north[count - 1] - north[m];
+			if (left + right == 0)
+				return (north[m - 1] + north[m]) / 2d;
+			return (north[m - 1] * right + north[m] * left) / (left + right);
 		}
 	}
 
@@ -645,6 +848,11 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		 * The index of this {@link NodeWrapper} (used to find crossings).
 		 */
 		int index;
+		/**
+		 * The coordinate of this {@link NodeWrapper} within its layer, as
+		 * computed by the {@link CoordinateAssigner}.
+		 */
+		double position;
 		/**
 		 * The layer this {@link NodeWrapper} is in (used to find crossings).
 		 */
@@ -1210,6 +1418,435 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * An interface for the assignment of coordinates to the nodes within their
+	 * layers, which is the final step of the Sugiyama algorithm.
+	 * 
+	 * @author itemis AG
+	 */
+	public static interface CoordinateAssigner {
+
+		/**
+		 * Computes the coordinates of the given {@link NodeWrapper}s within
+		 * their layers, in units of the minimal distance between two
+		 * neighboring nodes of a layer. The order of the nodes within a layer,
+		 * as established by the {@link CrossingReducer}, has to be retained.
+		 * 
+		 * @param layers
+		 *            The layers of {@link NodeWrapper}s.
+		 * @return The coordinates of the {@link NodeWrapper}s, i.e. the
+		 *         coordinate of <code>layers.get(i).get(j)</code> is stored at
+		 *         <code>[i][j]</code>.
+		 */
+		double[][] assignCoordinates(List<List<NodeWrapper>> layers);
+	}
+
+	/**
+	 * Uses the index of a {@link NodeWrapper} within its layer as its
+	 * coordinate.
+	 * 
+	 * @author itemis AG
+	 */
+	public static class IndexCoordinateAssigner implements CoordinateAssigner {
+
+		public double[][] assignCoordinates(List<List<NodeWrapper>> layers) {
+			double[][] coordinates = new double[layers.size()][];
+			for (int i = 0; i < coordinates.length; i++) {
+				List<NodeWrapper> layer = layers.get(i);
+				coordinates[i] = new double[layer.size()];
+				for (int j = 0; j < coordinates[i].length; j++)
+					coordinates[i][j] = layer.get(j).index;
+			}
+			return coordinates;
+		}
+	}
+
+	/**
+	 * Implements the CoordinateAssigner interface using the linear-time
+	 * algorithm of Brandes and Köpf
+	 * (http://dx.doi.org/10.1007/3-540-45848-4_3). The nodes are aligned
+	 * vertically with their median neighbors on the adjacent layers (in four
+	 * directions), preferring inner segments, i.e. connections between dummy
+	 * nodes, so that long edges are drawn straight. The aligned blocks are
+	 * then compacted horizontally, and the four resulting layouts are
+	 * balanced, which yields a compact drawing.
+	 * <p>
+	 * Only connections between adjacent layers can be aligned, which are the
+	 * links between the {@link NodeWrapper}s (including dummy nodes) as well
+	 * as the edges between the wrapped {@link Node}s. The classes of blocks
+	 * are shifted by the longest path over their separation constraints, as
+	 * proposed by Brandes et al. in their revision of the algorithm
+	 * (http://dx.doi.org/10.7155/jgaa.00220).
+	 * 
+	 * @author itemis AG
+	 */
+	public static class BrandesKoepfCoordinateAssigner
+			implements CoordinateAssigner {
+
+		// the nodes are numbered by layer and position, so that the nodes of
+		// layer i are layerStart[i] to layerStart[i + 1] - 1
+		private int[] layerStart;
+		private int[] layerOf;
+		private boolean[] dummy;
+		// neighbors on the preceding (upper) and succeeding (lower) layer,
+		// sorted by position, and whether the segments are marked as type 1
+		// conflicts
+		private int[] upperOffsets;
+		private int[] upperNeighbors;
+		private boolean[] upperMarked;
+		private int[] lowerOffsets;
+		private int[] lowerNeighbors;
+		private boolean[] lowerMarked;
+
+		public double[][] assignCoordinates(List<List<NodeWrapper>> layers) {
+			List<List<NodeWrapper>> sortedLayers = new ArrayList<>();
+			for (List<NodeWrapper> layer : layers) {
+				List<NodeWrapper> sortedLayer = new ArrayList<>(layer);
+				sortByIndex(sortedLayer);
+				sortedLayers.add(sortedLayer);
+			}
+			Map<NodeWrapper, Integer> ids = createAdjacency(sortedLayers);
+			markType1Conflicts();
+
+			double[][] layouts = new double[4][];
+			for (int i = 0; i < 4; i++)
+				layouts[i] = computeLayout(i < 2, (i & 1) == 0);
+			double[] x = balance(layouts);
+
+			double[][] coordinates = new double[layers.size()][];
+			for (int i = 0; i < coordinates.length; i++) {
+				List<NodeWrapper> layer = layers.get(i);
+				coordinates[i] = new double[layer.size()];
+				for (int j = 0; j < coordinates[i].length; j++)
+					coordinates[i][j] = x[ids.get(layer.get(j))];
+			}
+			upperNeighbors = lowerNeighbors = null;
+			return coordinates;
+		}
+
+		private Map<NodeWrapper, Integer> createAdjacency(
+				List<List<NodeWrapper>> layers) {
+			int count = 0;
+			layerStart = new int[layers.size() + 1];
+			for (int i = 0; i < layers.size(); i++) {
+				layerStart[i] = count;
+				count += layers.get(i).size();
+			}
+			layerStart[layers.size()] = count;
+
+			Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+			Map<Node, NodeWrapper> map = new IdentityHashMap<>();
+			NodeWrapper[] wrappers = new NodeWrapper[count];
+			layerOf = new int[count];
+			dummy = new boolean[count];
+			int id = 0;
+			for (int i = 0; i < layers.size(); i++) {
+				for (NodeWrapper nw : layers.get(i)) {
+					wrappers[id] = nw;
+					layerOf[id] = i;
+					dummy[id] = nw.isDummy();
+					ids.put(nw, id++);
+					if (nw.node != null)
+						map.put(nw.node, nw);
+				}
+			}
+
+			upperOffsets = new int[count + 1];
+			lowerOffsets = new int[count + 1];
+			int[] upper = new int[count];
+			int[] lower = new int[count];
+			int upperCount = 0;
+			int lowerCount = 0;
+			int[] stamps = new int[count];
+			Arrays.fill(stamps, -1);
+			List<NodeWrapper> candidates = new ArrayList<>();
+			for (int v = 0; v < count; v++) {
+				upperOffsets[v] = upperCount;
+				lowerOffsets[v] = lowerCount;
+				NodeWrapper nw = wrappers[v];
+				candidates.clear();
+				candidates.addAll(nw.pred);
+				candidates.addAll(nw.succ);
+				if (nw.node != null) {
+					for (Node n : nw.node.getPredecessorNodes())
+						candidates.add(map.get(n));
+					for (Node n : nw.node.getSuccessorNodes())
+						candidates.add(map.get(n));
+				}
+				for (NodeWrapper candidate : candidates) {
+					Integer u = candidate == null ? null : ids.get(candidate);
+					if (u == null || stamps[u] == v)
+						continue;
+					stamps[u] = v;
+					if (layerOf[u] == layerOf[v] - 1) {
+						if (upperCount == upper.length)
+							upper = Arrays.copyOf(upper, 2 * upperCount);
+						upper[upperCount++] = u;
+					} else if (layerOf[u] == layerOf[v] + 1) {
+						if (lowerCount == lower.length)
+							lower = Arrays.copyOf(lower, 2 * lowerCount);
+						lower[lowerCount++] = u;
+					}
+				}
+				// the ids of a layer are ordered by position
+				Arrays.sort(upper, upperOffsets[v], upperCount);
+				Arrays.sort(lower, lowerOffsets[v], lowerCount);
+			}
+			upperOffsets[count] = upperCount;
+			lowerOffsets[count] = lowerCount;
+			upperNeighbors = Arrays.copyOf(upper, upperCount);
+			lowerNeighbors = Arrays.copyOf(lower, lowerCount);
+			upperMarked = new boolean[upperCount];
+			lowerMarked = new boolean[lowerCount];
+			return ids;
+		}
+
+		private int getPosition(int v) {
+			return v - layerStart[layerOf[v]];
+		}
+
+		private int getLayerSize(int layer) {
+			return layerStart[layer + 1] - layerStart[layer];
+		}
+
+		/**
+		 * Marks the segments that cross an inner segment (type 1 conflicts),
+		 * so that they are not aligned.
+		 */
+		private void markType1Conflicts() {
+			for (int i = 0; i < layerStart.length - 2; i++) {
+				int lowerStart = layerStart[i + 1];
+				int lowerSize = getLayerSize(i + 1);
+				int k0 = 0;
+				int l = 0;
+				for (int l1 = 0; l1 < lowerSize; l1++) {
+					int v = lowerStart + l1;
+					int inner = -1;
+					if (dummy[v])
+						for (int e = upperOffsets[v]; e < upperOffsets[v + 1]
+								&& inner < 0; e++)
+							if (dummy[upperNeighbors[e]])
+								inner = upperNeighbors[e];
+					if (l1 == lowerSize - 1 || inner >= 0) {
+						int k1 = inner >= 0 ? getPosition(inner)
+								: getLayerSize(i) - 1;
+						for (; l <= l1; l++) {
+							int w = lowerStart + l;
+							for (int e = upperOffsets[w]; e < upperOffsets[w
+									+ 1]; e++) {
+								int k = getPosition(upperNeighbors[e]);
+								if (k < k0 || k > k1)
+									mark(upperNeighbors[e], w, e);
+							}
+						}
+						k0 = k1;
+					}
+				}
+			}
+		}
+
+		private void mark(int u, int v, int upperEdge) {
+			upperMarked[upperEdge] = true;
+			for (int e = lowerOffsets[u]; e < lowerOffsets[u + 1]; e++)
+				if (lowerNeighbors[e] == v)
+					lowerMarked[e] = true;
+		}
+
+		/**
+		 * Returns the position of the given node within its layer, as seen
+		 * from the left (or from the right).
+		 */
+		private int getPosition(int v, boolean leftward) {
+			return leftward ? getPosition(v)
+					: getLayerSize(layerOf[v]) - 1 - getPosition(v);
+		}
+
+		/**
+		 * Returns the left (or right) neighbor of the given node within its
+		 * layer, or <code>-1</code> if there is none.
+		 */
+		private int getPredecessor(int v, boolean leftward) {
+			if (getPosition(v, leftward) == 0)
+				return -1;
+			return leftward ? v - 1 : v + 1;
+		}
+
+		private double[] computeLayout(boolean downward, boolean leftward) {
+			int count = layerOf.length;
+			int[] offsets = downward ? upperOffsets : lowerOffsets;
+			int[] neighbors = downward ? upperNeighbors : lowerNeighbors;
+			boolean[] marked = downward ? upperMarked : lowerMarked;
+
+			// vertical alignment
+			int[] root = new int[count];
+			int[] align = new int[count];
+			for (int v = 0; v < count; v++)
+				root[v] = align[v] = v;
+			int layerCount = layerStart.length - 1;
+			for (int step = 1; step < layerCount; step++) {
+				int layer = downward ? step : layerCount - 1 - step;
+				int size = getLayerSize(layer);
+				int r = -1;
+				for (int k = 0; k < size; k++) {
+					int v = leftward ? layerStart[layer] + k
+							: layerStart[layer + 1] - 1 - k;
+					int d = offsets[v + 1] - offsets[v];
+					for (int m = (d - 1) / 2; m <= d / 2 && d > 0; m++) {
+						int e = leftward ? offsets[v] + m
+								: offsets[v + 1] - 1 - m;
+						int u = neighbors[e];
+						if (align[v] == v && !marked[e]
+								&& r < getPosition(u, leftward)) {
+							align[u] = v;
+							root[v] = root[u];
+							align[v] = root[v];
+							r = getPosition(u, leftward);
+						}
+					}
+				}
+			}
+
+			// horizontal compaction of the blocks
+			int[] sink = new int[count];
+			double[] x = new double[count];
+			int[] cursor = new int[count];
+			byte[] state = new byte[count];
+			int[] stack = new int[count];
+			for (int v = 0; v < count; v++)
+				sink[v] = v;
+			for (int v = 0; v < count; v++) {
+				if (root[v] != v || state[v] != 0)
+					continue;
+				int top = 0;
+				stack[top++] = v;
+				state[v] = 1;
+				cursor[v] = v;
+				while (top > 0) {
+					int b = stack[top - 1];
+					int w = cursor[b];
+					boolean pushed = false;
+					do {
+						int p = getPredecessor(w, leftward);
+						if (p >= 0) {
+							int u = root[p];
+							if (state[u] == 0) {
+								// place the block of the predecessor first
+								state[u] = 1;
+								cursor[u] = u;
+								stack[top++] = u;
+								pushed = true;
+								break;
+							}
+							if (sink[b] == b)
+								sink[b] = sink[u];
+							if (sink[b] == sink[u])
+								x[b] = Math.max(x[b], x[u] + 1);
+						}
+						w = align[w];
+						cursor[b] = w;
+					} while (w != b);
+					if (!pushed) {
+						state[b] = 2;
+						top--;
+					}
+				}
+			}
+
+			// shift the classes by the longest path over the separation
+			// constraints between them
+			int[] constraintOffsets = new int[count + 1];
+			for (int v = 0; v < count; v++) {
+				int p = getPredecessor(v, leftward);
+				if (p >= 0 && sink[root[p]] != sink[root[v]])
+					constraintOffsets[sink[root[p]]]++;
+			}
+			int total = 0;
+			for (int c = 0; c <= count; c++) {
+				int n = constraintOffsets[c];
+				constraintOffsets[c] = total;
+				total += n;
+			}
+			int[] constraintTargets = new int[total];
+			double[] constraintDistances = new double[total];
+			int[] inDegrees = new int[count];
+			int[] fill = constraintOffsets.clone();
+			for (int v = 0; v < count; v++) {
+				int p = getPredecessor(v, leftward);
+				if (p >= 0 && sink[root[p]] != sink[root[v]]) {
+					int from = sink[root[p]];
+					int to = sink[root[v]];
+					constraintTargets[fill[from]] = to;
+					constraintDistances[fill[from]++] = x[root[p]] + 1
+							- x[root[v]];
+					inDegrees[to]++;
+				}
+			}
+			double[] shift = new double[count];
+			int queueEnd = 0;
+			for (int c = 0; c < count; c++)
+				if (sink[c] == c && root[c] == c && inDegrees[c] == 0)
+					stack[queueEnd++] = c;
+			for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+				int c = stack[queueStart];
+				for (int e = constraintOffsets[c]; e < constraintOffsets[c
+						+ 1]; e++) {
+					int t = constraintTargets[e];
+					shift[t] = Math.max(shift[t],
+							shift[c] + constraintDistances[e]);
+					if (--inDegrees[t] == 0)
+						stack[queueEnd++] = t;
+				}
+			}
+
+			double[] coordinates = new double[count];
+			for (int v = 0; v < count; v++) {
+				int r = root[v];
+				coordinates[v] = x[r] + shift[sink[r]];
+				if (!leftward)
+					coordinates[v] = -coordinates[v];
+			}
+			return coordinates;
+		}
+
+		/**
+		 * Aligns the four layouts to the one of smallest width, and combines
+		 * them by the average of the two median coordinates of each node.
+		 */
+		private double[] balance(double[][] layouts) {
+			int count = layerOf.length;
+			double[] min = new double[layouts.length];
+			double[] max = new double[layouts.length];
+			int smallest = 0;
+			for (int i = 0; i < layouts.length; i++) {
+				min[i] = Double.POSITIVE_INFINITY;
+				max[i] = Double.NEGATIVE_INFINITY;
+				for (double c : layouts[i]) {
+					min[i] = Math.min(min[i], c);
+					max[i] = Math.max(max[i], c);
+				}
+				if (max[i] - min[i] < max[smallest] - min[smallest])
+					smallest = i;
+			}
+			double[] x = new double[count];
+			double[] candidates = new double[layouts.length];
+			double minX = Double.POSITIVE_INFINITY;
+			for (int v = 0; v < count; v++) {
+				for (int i = 0; i < layouts.length; i++) {
+					// the leftward layouts are aligned to the left side
+					double offset = (i & 1) == 0 ? min[smallest] - min[i]
+							: max[smallest] - max[i];
+					candidates[i] = layouts[i][v] + offset;
+				}
+				Arrays.sort(candidates);
+				x[v] = (candidates[1] + candidates[2]) / 2;
+				minX = Math.min(minX, x[v]);
+			}
+			for (int v = 0; v < count; v++)
+				x[v] -= minX;
+			return x;
+		}
+	}
+
 	private List<List<NodeWrapper>> layers = new ArrayList<>();
 	private Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 	private final Direction direction;
@@ -1220,6 +1857,13 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private LayerProvider layerProvider;
 	private CrossingReducer crossingReducer;
+	private CoordinateAssigner coordinateAssigner;
+
+	// state of the previous layout pass (used for incremental layout)
+	private LayoutContext previousContext;
+	private Rectangle previousBoundary;
+	private double dx;
+	private double dy;
 
 	/**
 	 * Constructs a tree-like, layered layout of a directed graph.
@@ -1240,6 +1884,33 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
 			LayerProvider layering, CrossingReducer crossing) {
+		this(dir, dim, layering, crossing, null);
+	}
+
+	/**
+	 * Constructs a tree-like, layered layout of a directed graph.
+	 * 
+	 * @param dir
+	 *            {@link Direction#HORIZONTAL}: left to right -
+	 *            {@link Direction#VERTICAL} : top to bottom
+	 * 
+	 * @param dim
+	 *            - desired size of the layout area. Uses the BOUNDS_PROPERTY of
+	 *            the LayoutContext if not set
+	 * 
+	 * @param layering
+	 *            - implementation of LayerProvider interface
+	 * 
+	 * @param crossing
+	 *            - implementation of CrossingReducer interface
+	 * 
+	 * @param coordinates
+	 *            - implementation of CoordinateAssigner interface, uses the
+	 *            indices of the nodes within their layers if not set
+	 */
+	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
+			LayerProvider layering, CrossingReducer crossing,
+			CoordinateAssigner coordinates) {
 		direction = dir;
 		dimension = dim;
 
@@ -1247,6 +1918,8 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				: layering;
 		crossingReducer = (crossing == null) ? new BarycentricCrossingReducer()
 				: crossing;
+		coordinateAssigner = (coordinates == null)
+				? new IndexCoordinateAssigner() : coordinates;
 	}
 
 	/**
@@ -1331,10 +2004,11 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
+		if (!clean && applyIncrementalLayout(layoutContext))
 			return;
 		layers.clear();
 		map.clear();
+		last = 0;
 
 		ArrayList<Node> nodes = new ArrayList<>();
 		ArrayList<Node> nodes2 = new ArrayList<>();
@@ -1355,25 +2029,253 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		calculatePositions(layoutContext);
 	}
 
-	private void calculatePositions(LayoutContext context) {
-		Rectangle boundary = LayoutProperties.getBounds(context.getGraph());
+	/**
+	 * Updates the layers of the previous layout pass, removing the nodes that
+	 * are no longer layout relevant, and inserting the new ones. Only the new
+	 * nodes are positioned.
+	 * 
+	 * @param context
+	 *            The {@link LayoutContext} to layout.
+	 * @return <code>true</code> if the incremental layout pass was performed,
+	 *         <code>false</code> if a clean layout pass is needed instead.
+	 */
+	private boolean applyIncrementalLayout(LayoutContext context) {
+		Rectangle boundary = getBoundary(context);
+		if (context != previousContext || boundary == null
+				|| !boundary.equals(previousBoundary))
+			return false;
+
+		Node[] nodes = context.getNodes();
+		Set<Node> relevantNodes = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		Collections.addAll(relevantNodes, nodes);
+
+		// remove nodes that are no longer layout relevant
+		for (Iterator<Map.Entry<Node, NodeWrapper>> iterator = map.entrySet()
+				.iterator(); iterator.hasNext();) {
+			Map.Entry<Node, NodeWrapper> entry = iterator.next();
+			if (entry.getKey() == null)
+				// dummy
+				continue;
+			if (!relevantNodes.contains(entry.getKey())) {
+				removeWrapper(entry.getValue());
+				iterator.remove();
+			}
+		}
+
+		// insert new nodes (after their new predecessors)
+		Set<Node> visiting = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		for (Node node : nodes)
+			if (!map.containsKey(node))
+				insertWrapper(node, relevantNodes, visiting);
+		return true;
+	}
+
+	/**
+	 * Removes the given {@link NodeWrapper} and the dummies of its connections
+	 * from the layers. The positions of the other nodes are not changed.
+	 */
+	private void removeWrapper(NodeWrapper nw) {
+		layers.get(nw.layer).remove(nw);
+		for (NodeWrapper succ : nw.succ) {
+			NodeWrapper previous = nw;
+			while (succ != null && succ.isDummy()) {
+				layers.get(succ.layer).remove(succ);
+				previous = succ;
+				succ = succ.succ.isEmpty() ? null : succ.succ.get(0);
+			}
+			if (succ != null)
+				succ.pred.remove(previous);
+		}
+		for (NodeWrapper pred : nw.pred) {
+			NodeWrapper previous = nw;
+			while (pred != null && pred.isDummy()) {
+				layers.get(pred.layer).remove(pred);
+				previous = pred;
+				pred = pred.pred.isEmpty() ? null : pred.pred.get(0);
+			}
+			if (pred != null)
+				pred.succ.remove(previous);
+		}
+	}
+
+	/**
+	 * Inserts a {@link NodeWrapper} for the given {@link Node} into the layer
+	 * below its predecessors (or above its successors), at the free index that
+	 * is closest to the barycenter of its neighbors, and positions the node.
+	 * Connections that span several layers are routed through dummies. New
+	 * predecessors are inserted first.
+	 */
+	private NodeWrapper insertWrapper(Node node, Set<Node> relevantNodes,
+			Set<Node> visiting) {
+		visiting.add(node);
+		List<NodeWrapper> preds = new ArrayList<>();
+		for (Node predecessor : node.getPredecessorNodes()) {
+			if (!relevantNodes.contains(predecessor))
+				continue;
+			NodeWrapper pred = map.get(predecessor);
+			if (pred == null && !visiting.contains(predecessor))
+				pred = insertWrapper(predecessor, relevantNodes, visiting);
+			if (pred != null)
+				preds.add(pred);
+		}
+		List<NodeWrapper> succs = new ArrayList<>();
+		for (Node successor : node.getSuccessorNodes()) {
+			NodeWrapper succ = map.get(successor);
+			if (succ != null && relevantNodes.contains(successor))
+				succs.add(succ);
+		}
+
+		int layerIndex = 0;
+		if (!preds.isEmpty()) {
+			for (NodeWrapper pred : preds)
+				layerIndex = Math.max(layerIndex, pred.layer + 1);
+			// connections to successors that are not below the node are not
+			// reflected
+			for (Iterator<NodeWrapper> iterator = succs.iterator(); iterator
+					.hasNext();)
+				if (iterator.next().layer <= layerIndex)
+					iterator.remove();
+		} else if (!succs.isEmpty()) {
+			layerIndex = Integer.MAX_VALUE;
+			for (NodeWrapper succ : succs)
+				layerIndex = Math.min(layerIndex, succ.layer - 1);
+			layerIndex = Math.max(0, layerIndex);
+		}
+		while (layers.size() <= layerIndex)
+			layers.add(new ArrayList<NodeWrapper>());
+		List<NodeWrapper> layer = layers.get(layerIndex);
+
+		// determine the free position closest to the barycenter of the
+		// neighbors
+		double barycenter = Double.NaN;
+		if (!preds.isEmpty() || !succs.isEmpty()) {
+			barycenter = 0;
+			for (NodeWrapper pred : preds)
+				barycenter += pred.position;
+			for (NodeWrapper succ : succs)
+				barycenter += succ.position;
+			barycenter /= preds.size() + succs.size();
+		}
+
+		NodeWrapper nw = new NodeWrapper(node, layerIndex);
+		nw.index = getFreeIndex(layer, barycenter);
+		nw.position = nw.index;
+		layer.add(nw);
+		map.put(node, nw);
+		for (NodeWrapper pred : preds)
+			connect(pred, nw);
+		for (NodeWrapper succ : succs)
+			connect(nw, succ);
+		LayoutProperties.setLocation(node, getLocation(nw));
+		visiting.remove(node);
+		return nw;
+	}
+
+	/**
+	 * Connects the given {@link NodeWrapper}s, inserting dummies into the
+	 * layers in between (so that the hierarchy stays proper) at the free
+	 * positions that are closest to the straight line between them.
+	 */
+	private void connect(NodeWrapper upper, NodeWrapper lower) {
+		NodeWrapper previous = upper;
+		for (int level = upper.layer + 1; level < lower.layer; level++) {
+			double ratio = (double) (level - upper.layer)
+					/ (lower.layer - upper.layer);
+			NodeWrapper dummy = new NodeWrapper(level);
+			dummy.index = getFreeIndex(layers.get(level), upper.position
+					+ ratio * (lower.position - upper.position));
+			dummy.position = dummy.index;
+			layers.get(level).add(dummy);
+			dummy.addPredecessor(previous);
+			previous.addSuccessor(dummy);
+			previous = dummy;
+		}
+		lower.addPredecessor(previous);
+		previous.addSuccessor(lower);
+	}
+
+	/**
+	 * Returns the free index within the given layer that is closest to the
+	 * given position, or the index after the last used position if the given
+	 * position is {@link Double#NaN}.
+	 */
+	private static int getFreeIndex(List<NodeWrapper> layer,
+			double position) {
+		double[] usedPositions = new double[layer.size()];
+		for (int i = 0; i < usedPositions.length; i++)
+			usedPositions[i] = layer.get(i).position;
+		Arrays.sort(usedPositions);
+		if (Double.isNaN(position))
+			return usedPositions.length == 0 ? 0
+					: (int) Math.floor(
+							usedPositions[usedPositions.length - 1]) + 1;
+		int center = Math.max(0, (int) Math.round(position));
+		for (int distance = 0;; distance++) {
+			if (isFree(usedPositions, center + distance))
+				return center + distance;
+			if (center - distance >= 0
+					&& isFree(usedPositions, center - distance))
+				return center - distance;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the given position keeps the minimal
+	 * distance to the given (sorted) positions of the nodes of a layer.
+	 */
+	private static boolean isFree(double[] usedPositions, double position) {
+		int i = Arrays.binarySearch(usedPositions, position);
+		if (i >= 0)
+			return false;
+		i = -i - 1;
+		return (i == 0 || position - usedPositions[i - 1] >= 1)
+				&& (i == usedPositions.length
+						|| usedPositions[i] - position >= 1);
+	}
+
+	private Rectangle getBoundary(LayoutContext context) {
 		if (dimension != null)
-			boundary = new Rectangle(0, 0, dimension.getWidth(),
+			return new Rectangle(0, 0, dimension.getWidth(),
 					dimension.getHeight());
-		double dx = boundary.getWidth() / layers.size();
-		double dy = boundary.getHeight() / (last + 1);
+		return LayoutProperties.getBounds(context.getGraph());
+	}
+
+	private Point getLocation(NodeWrapper nw) {
 		if (direction == Direction.HORIZONTAL)
-			for (Node node : context.getNodes()) {
-				NodeWrapper nw = map.get(node);
-				LayoutProperties.setLocation(node, new Point(
-						(nw.layer + 0.5d) * dx, (nw.index + 0.5d) * dy));
-			}
-		else
-			for (Node node : context.getNodes()) {
-				NodeWrapper nw = map.get(node);
-				LayoutProperties.setLocation(node, new Point(
-						(nw.index + 0.5d) * dx, (nw.layer + 0.5d) * dy));
+			return new Point((nw.layer + 0.5d) * dx, (nw.position + 0.5d) * dy);
+		return new Point((nw.position + 0.5d) * dx, (nw.layer + 0.5d) * dy);
+	}
+
+	private void calculatePositions(LayoutContext context) {
+		double[][] coordinates = coordinateAssigner.assignCoordinates(layers);
+		for (int i = 0; i < coordinates.length; i++) {
+			List<NodeWrapper> layer = layers.get(i);
+			for (int j = 0; j < coordinates[i].length; j++) {
+				NodeWrapper nw = layer.get(j);
+				nw.position = coordinates[i][j];
+				if (nw.position + 1 > last)
+					last = (int) Math.ceil(nw.position + 1);
 			}
+		}
+		Rectangle boundary = getBoundary(context);
+		dx = boundary.getWidth() / layers.size();
+		dy = boundary.getHeight() / (last + 1);
+		for (Node node : context.getNodes())
+			LayoutProperties.setLocation(node, getLocation(map.get(node)));
+		previousContext = context;
+		previousBoundary = boundary.getCopy();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Sorts the given layer by the indices of its {@link NodeWrapper}s.
+	 */
+	private static void sortByIndex(List<NodeWrapper> layer) {
+		Collections.sort(layer, new Comparator<NodeWrapper>() {
+			public int compare(NodeWrapper node1, NodeWrapper node2) {
+				return Integer.compare(node1.index, node2.index);
+			}
+		});
+	}
+}
@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutContext.LayoutSnapshot;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * The TidyTreeLayoutAlgorithm class arranges graph nodes in a layered,
+ * tree-like layout using the linear-time variant of Walker's algorithm by
+ * Buchheim, Jünger, and Leipert (http://dx.doi.org/10.1007/3-540-36151-0_32).
+ * In contrast to the {@link TreeLayoutAlgorithm}, which reserves the same
+ * breadth for each leaf, subtrees are packed as closely as possible, while
+ * parents are centered above their children.
+ * <p>
+ * The tree structure is computed as a spanning forest of the layout relevant
+ * edges (by a breadth-first search starting at the nodes without incoming
+ * edges) and stored in an index-based parent array, so that the complete
+ * layout is computed in <code>O(n + e)</code>. The children of a node are
+ * ordered by their index within the {@link LayoutContext}. Every layout pass
+ * is performed completely, irrespective of the <code>clean</code> flag.
+ *
+ * @author itemis AG
+ */
+public class TidyTreeLayoutAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * Provides the contour operations of the algorithm of Buchheim, Jünger,
+	 * and Leipert on top of the index-based tree arrays.
+	 */
+	private static class Tree {
+		private final int[] parent;
+		private final int[] childOffsets;
+		private final int[] children;
+		private final int[] number;
+		private final double[] prelim;
+		private final double[] mod;
+		private final double[] change;
+		private final double[] shift;
+		private final int[] thread;
+		private final int[] ancestor;
+
+		Tree(int[] parent, int[] childOffsets, int[] children, int[] number,
+				double[] prelim, double[] mod, double[] change, double[] shift,
+				int[] thread, int[] ancestor) {
+			this.parent = parent;
+			this.childOffsets = childOffsets;
+			this.children = children;
+			this.number = number;
+			this.prelim = prelim;
+			this.mod = mod;
+			this.change = change;
+			this.shift = shift;
+			this.thread = thread;
+			this.ancestor = ancestor;
+		}
+
+		private int nextLeft(int v) {
+			return childOffsets[v] < childOffsets[v + 1]
+					? children[childOffsets[v]] : thread[v];
+		}
+
+		private int nextRight(int v) {
+			return childOffsets[v] < childOffsets[v + 1]
+					? children[childOffsets[v + 1] - 1] : thread[v];
+		}
+
+		/**
+		 * Resolves the conflicts between the subtree of <i>v</i> and the
+		 * subtrees of its left siblings, and returns the new default ancestor.
+		 */
+		int apportion(int v, int w, int defaultAncestor) {
+			if (w < 0)
+				return defaultAncestor;
+			int vip = v;
+			int vop = v;
+			int vim = w;
+			int vom = children[childOffsets[parent[v]]];
+			double sip = mod[vip];
+			double sop = mod[vop];
+			double sim = mod[vim];
+			double som = mod[vom];
+			vim = nextRight(vim);
+			vip = nextLeft(vip);
+			while (vim >= 0 && vip >= 0) {
+				vom = nextLeft(vom);
+				vop = nextRight(vop);
+				ancestor[vop] = v;
+				double distance = prelim[vim] + sim - prelim[vip] - sip + 1;
+				if (distance > 0) {
+					int a = parent[ancestor[vim]] == parent[v] ? ancestor[vim]
+							: defaultAncestor;
+					moveSubtree(a, v, distance);
+					sip += distance;
+					sop += distance;
+				}
+				sim += mod[vim];
+				sip += mod[vip];
+				som += mod[vom];
+				sop += mod[vop];
+				vim = nextRight(vim);
+				vip = nextLeft(vip);
+			}
+			if (vim >= 0 && nextRight(vop) < 0) {
+				thread[vop] = vim;
+				mod[vop] += sim - sop;
+			}
+			if (vip >= 0 && nextLeft(vom) < 0) {
+				thread[vom] = vip;
+				mod[vom] += sip - som;
+				defaultAncestor = v;
+			}
+			return defaultAncestor;
+		}
+
+		private void moveSubtree(int wm, int wp, double distance) {
+			double c = distance / (number[wp] - number[wm]);
+			change[wp] -= c;
+			shift[wp] += distance;
+			change[wm] += c;
+			prelim[wp] += distance;
+			mod[wp] += distance;
+		}
+
+		void executeShifts(int v) {
+			double s = 0;
+			double c = 0;
+			for (int i = childOffsets[v + 1] - 1; i >= childOffsets[v]; i--) {
+				int w = children[i];
+				prelim[w] += s;
+				mod[w] += s;
+				c += change[w];
+				s += shift[w] + c;
+			}
+		}
+	}
+
+	private int direction = TreeLayoutAlgorithm.TOP_DOWN;
+
+	private boolean resize = false;
+
+	private Dimension nodeSpace;
+
+	/**
+	 * Create a default tidy tree layout.
+	 */
+	public TidyTreeLayoutAlgorithm() {
+	}
+
+	/**
+	 * Create a tidy tree layout with a specified direction.
+	 *
+	 * @param direction
+	 *            The direction, one of {@link TreeLayoutAlgorithm#BOTTOM_UP},
+	 *            {@link TreeLayoutAlgorithm#LEFT_RIGHT},
+	 *            {@link TreeLayoutAlgorithm#RIGHT_LEFT},
+	 *            {@link TreeLayoutAlgorithm#TOP_DOWN}
+	 */
+	public TidyTreeLayoutAlgorithm(int direction) {
+		this(direction, null);
+	}
+
+	/**
+	 * Create a tidy tree layout with fixed size spacing around nodes. If
+	 * nodeSpace is not null, neighboring nodes (and layers) are placed at the
+	 * given distance. Otherwise, the layout is scaled to the container's
+	 * available space.
+	 *
+	 * @param direction
+	 *            The direction, one of {@link TreeLayoutAlgorithm#BOTTOM_UP},
+	 *            {@link TreeLayoutAlgorithm#LEFT_RIGHT},
+	 *            {@link TreeLayoutAlgorithm#RIGHT_LEFT},
+	 *            {@link TreeLayoutAlgorithm#TOP_DOWN}
+	 * @param nodeSpace
+	 *            the size to make each node. May be null.
+	 */
+	public TidyTreeLayoutAlgorithm(int direction, Dimension nodeSpace) {
+		setDirection(direction);
+		this.nodeSpace = nodeSpace;
+	}
+
+	/**
+	 * Computes the breadth positions for the nodes of the forest that is
+	 * given by the specified parent array, in units of the minimal distance
+	 * between two neighboring nodes. The children of a node are ordered by
+	 * their indices, and so are the roots of the forest. The leftmost node is
+	 * placed at <code>0</code>.
+	 *
+	 * @param parents
+	 *            The index of the parent of each node, or <code>-1</code> for
+	 *            the roots. The parent relation may not contain cycles.
+	 * @return The breadth positions of the nodes.
+	 */
+	public static double[] computePositions(int[] parents) {
+		int n = parents.length;
+		// the virtual root n is the parent of all roots
+		int[] parent = new int[n + 1];
+		int[] childOffsets = new int[n + 2];
+		for (int v = 0; v < n; v++) {
+			parent[v] = parents[v] < 0 ? n : parents[v];
+			childOffsets[parent[v]]++;
+		}
+		parent[n] = -1;
+		int total = 0;
+		for (int v = 0; v <= n + 1; v++) {
+			int count = childOffsets[v];
+			childOffsets[v] = total;
+			total += count;
+		}
+		int[] children = new int[n];
+		int[] number = new int[n + 1];
+		int[] fill = Arrays.copyOf(childOffsets, n + 1);
+		for (int v = 0; v < n; v++) {
+			number[v] = fill[parent[v]] - childOffsets[parent[v]];
+			children[fill[parent[v]]++] = v;
+		}
+
+		double[] prelim = new double[n + 1];
+		double[] mod = new double[n + 1];
+		double[] change = new double[n + 1];
+		double[] shift = new double[n + 1];
+		int[] thread = new int[n + 1];
+		int[] ancestor = new int[n + 1];
+		int[] defaultAncestor = new int[n + 1];
+		for (int v = 0; v <= n; v++) {
+			thread[v] = -1;
+			ancestor[v] = v;
+			defaultAncestor[v] = -1;
+		}
+		Tree tree = new Tree(parent, childOffsets, children, number, prelim,
+				mod, change, shift, thread, ancestor);
+
+		// first walk (post-order), children from left to right
+		int[] stack = new int[n + 1];
+		int[] cursor = new int[n + 1];
+		int[] preOrder = new int[n + 1];
+		int visited = 0;
+		int top = 0;
+		stack[top++] = n;
+		cursor[n] = childOffsets[n];
+		preOrder[visited++] = n;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (cursor[v] < childOffsets[v + 1]) {
+				int w = children[cursor[v]++];
+				cursor[w] = childOffsets[w];
+				preOrder[visited++] = w;
+				stack[top++] = w;
+				continue;
+			}
+			top--;
+			int w = number[v] > 0 && parent[v] >= 0
+					? children[childOffsets[parent[v]] + number[v] - 1] : -1;
+			if (childOffsets[v] < childOffsets[v + 1]) {
+				tree.executeShifts(v);
+				double midpoint = (prelim[children[childOffsets[v]]]
+						+ prelim[children[childOffsets[v + 1] - 1]]) / 2;
+				if (w >= 0) {
+					prelim[v] = prelim[w] + 1;
+					mod[v] = prelim[v] - midpoint;
+				} else {
+					prelim[v] = midpoint;
+				}
+			} else if (w >= 0) {
+				prelim[v] = prelim[w] + 1;
+			}
+			if (parent[v] >= 0) {
+				int p = parent[v];
+				if (defaultAncestor[p] < 0)
+					defaultAncestor[p] = children[childOffsets[p]];
+				defaultAncestor[p] = tree.apportion(v, w, defaultAncestor[p]);
+			}
+		}
+
+		// second walk (pre-order)
+		double[] positions = new double[n];
+		double min = Double.POSITIVE_INFINITY;
+		mod[n] -= prelim[n];
+		for (int i = 1; i < visited; i++) {
+			int v = preOrder[i];
+			positions[v] = prelim[v] + mod[parent[v]];
+			mod[v] += mod[parent[v]];
+			min = Math.min(min, positions[v]);
+		}
+		for (int v = 0; v < n; v++)
+			positions[v] -= min;
+		return positions;
+	}
+
+	/**
+	 * Returns the direction of this {@link TidyTreeLayoutAlgorithm}.
+	 *
+	 * @return The direction of this {@link TidyTreeLayoutAlgorithm}.
+	 */
+	public int getDirection() {
+		return direction;
+	}
+
+	/**
+	 * Changes the direction of this {@link TidyTreeLayoutAlgorithm} to the
+	 * given value. The direction may either be
+	 * {@link TreeLayoutAlgorithm#TOP_DOWN},
+	 * {@link TreeLayoutAlgorithm#BOTTOM_UP},
+	 * {@link TreeLayoutAlgorithm#LEFT_RIGHT}, or
+	 * {@link TreeLayoutAlgorithm#RIGHT_LEFT}.
+	 *
+	 * @param direction
+	 *            The new direction for this {@link TidyTreeLayoutAlgorithm}.
+	 */
+	public void setDirection(int direction) {
+		if (direction == TreeLayoutAlgorithm.TOP_DOWN
+				|| direction == TreeLayoutAlgorithm.BOTTOM_UP
+				|| direction == TreeLayoutAlgorithm.LEFT_RIGHT
+				|| direction == TreeLayoutAlgorithm.RIGHT_LEFT)
+			this.direction = direction;
+		else
+			throw new IllegalArgumentException(
+					"Invalid direction: " + direction);
+	}
+
+	/**
+	 * @param nodeSpace
+	 *            the nodeSpace size to set
+	 */
+	public void setNodeSpace(Dimension nodeSpace) {
+		this.nodeSpace = nodeSpace;
+	}
+
+	/**
+	 *
+	 * @return true if this algorithm is set to resize elements
+	 */
+	public boolean isResizing() {
+		return resize;
+	}
+
+	/**
+	 *
+	 * @param resizing
+	 *            true if this algorithm should resize elements (default is
+	 *            false)
+	 */
+	public void setResizing(boolean resizing) {
+		resize = resizing;
+	}
+
+	/**
+	 * Computes a spanning forest of the nodes of the given
+	 * {@link LayoutSnapshot} by a breadth-first search, which starts at the
+	 * nodes without incoming edges (in the order of the nodes), and continues
+	 * at the first node of each remaining cycle.
+	 *
+	 * @return The index of the parent of each node, or <code>-1</code> for
+	 *         the roots.
+	 */
+	private static int[] computeSpanningForest(LayoutSnapshot snapshot,
+			int[] depths) {
+		int n = snapshot.getNodeCount();
+		int[] edgeSources = snapshot.getEdgeSources();
+		int[] edgeTargets = snapshot.getEdgeTargets();
+		int[] sources = new int[edgeSources.length];
+		int[] targets = new int[edgeSources.length];
+		int[] offsets = new int[n + 1];
+		int[] inDegrees = new int[n];
+		int edgeCount = 0;
+		for (int e = 0; e < edgeSources.length; e++) {
+			int source = edgeSources[e];
+			int target = edgeTargets[e];
+			if (source < 0 || target < 0 || source == target)
+				continue;
+			sources[edgeCount] = source;
+			targets[edgeCount++] = target;
+			offsets[source]++;
+			inDegrees[target]++;
+		}
+		int total = 0;
+		for (int i = 0; i <= n; i++) {
+			int count = offsets[i];
+			offsets[i] = total;
+			total += count;
+		}
+		int[] successors = new int[edgeCount];
+		int[] fill = Arrays.copyOf(offsets, n);
+		for (int e = 0; e < edgeCount; e++)
+			successors[fill[sources[e]]++] = targets[e];
+
+		int[] parents = new int[n];
+		Arrays.fill(parents, -1);
+		boolean[] visited = new boolean[n];
+		int[] queue = new int[n];
+		for (int pass = 0; pass < 2; pass++) {
+			for (int root = 0; root < n; root++) {
+				if (visited[root] || (pass == 0 && inDegrees[root] > 0))
+					continue;
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = root;
+				visited[root] = true;
+				depths[root] = 0;
+				while (head < tail) {
+					int v = queue[head++];
+					for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+						int w = successors[e];
+						if (!visited[w]) {
+							visited[w] = true;
+							parents[w] = v;
+							depths[w] = depths[v] + 1;
+							queue[tail++] = w;
+						}
+					}
+				}
+			}
+		}
+		return parents;
+	}
+
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		LayoutSnapshot snapshot = layoutContext.getLayoutSnapshot();
+		Node[] entities = snapshot.getNodes();
+		if (entities.length == 0)
+			return;
+		int[] depths = new int[entities.length];
+		int[] parents = computeSpanningForest(snapshot, depths);
+		double[] positions = computePositions(parents);
+
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		double leafSize = 1;
+		double layerSize = 1;
+		if (nodeSpace != null) {
+			if (direction == TreeLayoutAlgorithm.TOP_DOWN
+					|| direction == TreeLayoutAlgorithm.BOTTOM_UP) {
+				leafSize = nodeSpace.getWidth();
+				layerSize = nodeSpace.getHeight();
+			} else {
+				leafSize = nodeSpace.getHeight();
+				layerSize = nodeSpace.getWidth();
+			}
+		}
+		for (int i = 0; i < entities.length; i++) {
+			double breadthPosition = (positions[i] + 0.5) * leafSize;
+			double depthPosition = (depths[i] + 0.5) * layerSize;
+			switch (direction) {
+			case TreeLayoutAlgorithm.TOP_DOWN:
+				LayoutProperties.setLocation(entities[i],
+						new Point(breadthPosition, depthPosition));
+				break;
+			case TreeLayoutAlgorithm.BOTTOM_UP:
+				LayoutProperties.setLocation(entities[i],
+						new Point(breadthPosition,
+								(bounds == null ? 0 : bounds.getHeight())
+										- depthPosition));
+				break;
+			case TreeLayoutAlgorithm.LEFT_RIGHT:
+				LayoutProperties.setLocation(entities[i],
+						new Point(depthPosition, breadthPosition));
+				break;
+			case TreeLayoutAlgorithm.RIGHT_LEFT:
+				LayoutProperties.setLocation(entities[i],
+						new Point((bounds == null ? 0 : bounds.getWidth())
+								- depthPosition, breadthPosition));
+				break;
+			}
+		}
+
+		if (resize) {
+			AlgorithmHelper.maximizeSizes(entities);
+		}
+		if (nodeSpace == null && bounds != null) {
+			Rectangle resizedBounds = new Rectangle(bounds);
+			int insets = 4;
+			resizedBounds.setX(resizedBounds.getX() + insets);
+			resizedBounds.setY(resizedBounds.getY() + insets);
+			resizedBounds.setWidth(resizedBounds.getWidth() - 2 * insets);
+			resizedBounds.setHeight(resizedBounds.getHeight() - 2 * insets);
+			AlgorithmHelper.fitWithinBounds(entities, resizedBounds, resize);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer sb = new StringBuffer();
+		sb.append("TidyTreeLayout { direction : ");
+		switch (direction) {
+		case TreeLayoutAlgorithm.BOTTOM_UP:
+			sb.append("bottom -> top");
+			break;
+		case TreeLayoutAlgorithm.LEFT_RIGHT:
+			sb.append("left -> right");
+			break;
+		case TreeLayoutAlgorithm.RIGHT_LEFT:
+			sb.append("right -> left");
+			break;
+		case TreeLayoutAlgorithm.TOP_DOWN:
+			sb.append("top -> down");
+			break;
+		}
+		sb.append(", resize : " + resize);
+		sb.append(" }");
+		return sb.toString();
+	}
+}
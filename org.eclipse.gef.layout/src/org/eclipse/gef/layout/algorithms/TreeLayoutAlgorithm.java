@@ -14,11 +14,19 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
@@ -28,6 +36,18 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
 /**
  * The TreeLayoutAlgorithm class implements a simple algorithm to arrange graph
  * nodes in a layered tree-like layout.
+ * <p>
+ * When the layout is applied with <code>clean == false</code>, the algorithm
+ * tries to update the previous layout incrementally: the tree structure of the
+ * previous layout pass is only updated where nodes were added or removed (e.g.
+ * hidden) or edges changed, and only those subtrees that were changed or that
+ * were shifted by such a change are re-positioned. All other nodes keep their
+ * parents and locations. The leaf and layer sizes as well as the mapping to
+ * the layout bounds are retained from the previous clean layout pass, so that
+ * new nodes are placed consistently (and may therefore exceed the layout
+ * bounds). A clean layout pass is performed instead if no previous layout pass
+ * is available for the context, or if the bounds or the configuration of the
+ * algorithm were changed.
  * 
  * @author Casey Best
  * @author Ian Bull
@@ -39,6 +59,17 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
  */
 public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
+	/**
+	 * Stores the parent and position of a {@link Node} within the tree
+	 * computed by the previous layout pass. Subtrees are only skipped by
+	 * incremental layout passes if all of these are unchanged.
+	 */
+	private static class Placement {
+		private Node parent;
+		private int position;
+		private int depth;
+	}
+
 	/**
 	 * Tree direction constant for which root is placed at the top and branches
 	 * spread downwards
@@ -75,6 +106,16 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private Dimension nodeSpace;
 
+	// state of the previous layout pass (used for incremental layout)
+	private final Map<Node, Placement> placements = new IdentityHashMap<>();
+	private LayoutContext previousContext;
+	private Map<Edge, Node[]> previousEdges;
+	private Rectangle previousBounds;
+	private int previousDirection;
+	private Dimension previousNodeSpace;
+	private Rectangle fitStartingBounds;
+	private Rectangle fitDestinationBounds;
+
 	/**
 	 * Create a default Tree Layout.
 	 */
@@ -166,8 +207,20 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
-			return;
+		if (!clean && (nodeSpace != null || fitStartingBounds != null)) {
+			List<Node> relocated = internalApplyIncrementalLayout(
+					layoutContext);
+			if (relocated != null) {
+				if (nodeSpace == null) {
+					// place the relocated nodes like the previous clean pass
+					AlgorithmHelper.fitWithinBounds(
+							AlgorithmHelper.getLayoutRelevantNodes(
+									layoutContext, relocated),
+							fitStartingBounds, fitDestinationBounds, false);
+				}
+				return;
+			}
+		}
 
 		internalApplyLayout(layoutContext);
 
@@ -179,6 +232,8 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	private void scaleEntities(Node[] entities) {
+		fitStartingBounds = null;
+		fitDestinationBounds = null;
 		if (nodeSpace == null) {
 			Rectangle resizedBounds = new Rectangle(bounds);
 			int insets = 4;
@@ -186,7 +241,22 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			resizedBounds.setY(resizedBounds.getY() + insets);
 			resizedBounds.setWidth(resizedBounds.getWidth() - 2 * insets);
 			resizedBounds.setHeight(resizedBounds.getHeight() - 2 * insets);
-			AlgorithmHelper.fitWithinBounds(entities, resizedBounds, resize);
+			if (entities.length > 1) {
+				Rectangle startingBounds = AlgorithmHelper
+						.getLayoutBounds(entities, false);
+				AlgorithmHelper.fitWithinBounds(entities, startingBounds,
+						resizedBounds, resize);
+				// an incremental layout pass can only reproduce a
+				// non-degenerated mapping
+				if (startingBounds.getWidth() > 0
+						&& startingBounds.getHeight() > 0) {
+					fitStartingBounds = startingBounds;
+					fitDestinationBounds = resizedBounds;
+				}
+			} else {
+				AlgorithmHelper.fitWithinBounds(entities, resizedBounds,
+						resize);
+			}
 		}
 	}
 
@@ -204,13 +274,128 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		TreeNode superRoot = treeObserver.getSuperRoot();
 		bounds = LayoutProperties.getBounds(context.getGraph());
 		updateLeafAndLayerSizes();
+		placements.clear();
 		int leafCountSoFar = 0;
 		for (Iterator<TreeNode> iterator = superRoot.getChildren()
 				.iterator(); iterator.hasNext();) {
 			TreeNode rootInfo = iterator.next();
-			computePositionRecursively(rootInfo, leafCountSoFar);
+			computePositionRecursively(rootInfo, leafCountSoFar, null, null);
 			leafCountSoFar = leafCountSoFar + rootInfo.numOfLeaves;
 		}
+
+		previousContext = context;
+		previousEdges = getEdgeEnds(context);
+		previousBounds = bounds == null ? null : bounds.getCopy();
+		previousDirection = direction;
+		previousNodeSpace = nodeSpace == null ? null : nodeSpace.getCopy();
+	}
+
+	/**
+	 * Performs an incremental layout pass for the tree without scaling the
+	 * entities, based on the previous layout pass. The tree structure of the
+	 * previous layout pass is updated for the added and removed nodes and the
+	 * changed edges, and only those subtrees that were changed or shifted are
+	 * re-positioned, using the leaf and layer sizes of the previous layout
+	 * pass.
+	 * 
+	 * @param context
+	 *            The {@link LayoutContext} to use.
+	 * @return The {@link Node}s that were re-positioned, or <code>null</code>
+	 *         if an incremental layout pass is not possible, because the
+	 *         previous layout pass was performed for a different context,
+	 *         bounds, or configuration.
+	 */
+	List<Node> internalApplyIncrementalLayout(LayoutContext context) {
+		Rectangle currentBounds = LayoutProperties
+				.getBounds(context.getGraph());
+		if (context != previousContext || previousBounds == null
+				|| !previousBounds.equals(currentBounds)
+				|| direction != previousDirection
+				|| !Objects.equals(nodeSpace, previousNodeSpace)) {
+			return null;
+		}
+
+		// determine the changes since the previous layout pass by identity
+		// comparisons, so that only the affected parts of the tree structure
+		// are updated
+		Node[] nodes = context.getNodes();
+		Set<Node> currentNodes = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		List<Node> addedNodes = new ArrayList<>();
+		for (Node node : nodes) {
+			currentNodes.add(node);
+			if (!placements.containsKey(node)) {
+				addedNodes.add(node);
+			}
+		}
+		List<Node> removedNodes = new ArrayList<>();
+		for (Iterator<Node> iterator = placements.keySet().iterator(); iterator
+				.hasNext();) {
+			Node node = iterator.next();
+			if (!currentNodes.contains(node)) {
+				removedNodes.add(node);
+				iterator.remove();
+			}
+		}
+		Set<Node> changedNodes = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		Map<Edge, Node[]> currentEdges = getEdgeEnds(context);
+		for (Map.Entry<Edge, Node[]> entry : currentEdges.entrySet()) {
+			Node[] previous = previousEdges.remove(entry.getKey());
+			if (previous == null || previous[0] != entry.getValue()[0]
+					|| previous[1] != entry.getValue()[1]) {
+				changedNodes.add(entry.getValue()[1]);
+				if (previous != null) {
+					changedNodes.add(previous[1]);
+				}
+			}
+		}
+		for (Node[] removed : previousEdges.values()) {
+			changedNodes.add(removed[1]);
+		}
+		previousEdges = currentEdges;
+
+		// mark the subtrees that changed since the previous layout pass
+		Set<TreeNode> changed = Collections
+				.newSetFromMap(new IdentityHashMap<TreeNode, Boolean>());
+		for (TreeNode treeNode : treeObserver.updateTree(removedNodes,
+				addedNodes, changedNodes)) {
+			markChanged(treeNode, changed);
+		}
+
+		TreeNode superRoot = treeObserver.getSuperRoot();
+		List<Node> relocated = new ArrayList<>();
+		int leafCountSoFar = 0;
+		for (Iterator<TreeNode> iterator = superRoot.getChildren()
+				.iterator(); iterator.hasNext();) {
+			TreeNode rootInfo = iterator.next();
+			computePositionRecursively(rootInfo, leafCountSoFar, changed,
+					relocated);
+			leafCountSoFar = leafCountSoFar + rootInfo.numOfLeaves;
+		}
+		return relocated;
+	}
+
+	/**
+	 * Returns the source and target nodes of the edges of the graph of the
+	 * given {@link LayoutContext}, which determine the tree structure.
+	 */
+	private static Map<Edge, Node[]> getEdgeEnds(LayoutContext context) {
+		Map<Edge, Node[]> edgeEnds = new IdentityHashMap<>();
+		for (Edge edge : context.getGraph().getEdges()) {
+			edgeEnds.put(edge, new Node[] { edge.getSource(), edge.getTarget() });
+		}
+		return edgeEnds;
+	}
+
+	/**
+	 * Marks the given {@link TreeNode} and all its ancestors as changed.
+	 */
+	private static void markChanged(TreeNode treeNode, Set<TreeNode> changed) {
+		while (treeNode != null && treeNode.getNode() != null
+				&& changed.add(treeNode)) {
+			treeNode = treeNode.parent;
+		}
 	}
 
 	private void updateLeafAndLayerSizes() {
@@ -235,10 +420,33 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	/**
-	 * Computes positions recursively until the leaf nodes are reached.
+	 * Computes positions recursively until the leaf nodes are reached. If a
+	 * set of changed {@link TreeNode}s is given, subtrees that did not change
+	 * and keep their position are skipped, and the re-positioned nodes are
+	 * added to the given list.
 	 */
 	private void computePositionRecursively(TreeNode entityInfo,
-			int relativePosition) {
+			int relativePosition, Set<TreeNode> changed,
+			List<Node> relocated) {
+		Placement placement = placements.get(entityInfo.getNode());
+		if (changed != null && !changed.contains(entityInfo)
+				&& placement != null
+				&& placement.parent == entityInfo.parent.getNode()
+				&& placement.position == relativePosition
+				&& placement.depth == entityInfo.depth) {
+			return;
+		}
+		if (placement == null) {
+			placement = new Placement();
+			placements.put(entityInfo.getNode(), placement);
+		}
+		placement.parent = entityInfo.parent.getNode();
+		placement.position = relativePosition;
+		placement.depth = entityInfo.depth;
+		if (relocated != null) {
+			relocated.add(entityInfo.getNode());
+		}
+
 		double breadthPosition = relativePosition
 				+ entityInfo.numOfLeaves / 2.0;
 		double depthPosition = (entityInfo.depth + 0.5);
@@ -267,7 +475,8 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		for (Iterator<TreeNode> iterator = entityInfo.children
 				.iterator(); iterator.hasNext();) {
 			TreeNode childInfo = iterator.next();
-			computePositionRecursively(childInfo, relativePosition);
+			computePositionRecursively(childInfo, relativePosition, changed,
+					relocated);
 			relativePosition += childInfo.numOfLeaves;
 		}
 	}
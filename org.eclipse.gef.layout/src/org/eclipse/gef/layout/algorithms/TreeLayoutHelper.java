@@ -13,10 +13,16 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -37,6 +43,12 @@ import org.eclipse.gef.layout.LayoutContext;
  */
 public class TreeLayoutHelper {
 
+	/**
+	 * The depth of the {@link TreeNode}s within subtrees that are detached
+	 * from {@link #superRoot} while the tree structure is updated.
+	 */
+	private static final int DETACHED_DEPTH = -2;
+
 	/**
 	 * <code>TreeLayoutObserver</code> uses instance of this class to create
 	 * instances of {@link TreeNode}. It may be extended and passed to
@@ -409,12 +421,16 @@ public class TreeLayoutHelper {
 
 	/**
 	 * Recomputes all the information about the tree structure (the same effect
-	 * as creating new <code>TreeLayoutObserver</code>).
+	 * as creating new <code>TreeLayoutObserver</code>). Only the given nodes
+	 * become part of the tree structure, i.e. predecessors and successors that
+	 * are not contained (e.g. because they are filtered by the layout context)
+	 * are ignored, so that the children of such a predecessor become roots.
 	 * 
 	 * @param nodes
-	 *            nodes
+	 *            The nodes that form the tree structure.
 	 */
 	public void computeTree(Node[] nodes) {
+		layoutToTree.clear();
 		superRoot = factory.createTreeNode(null, this);
 		layoutToTree.put(null, superRoot);
 		createTrees(nodes);
@@ -450,17 +466,250 @@ public class TreeLayoutHelper {
 		return treeNode;
 	}
 
+	/**
+	 * Updates the tree structure that was computed by the last call of
+	 * {@link #computeTree(Node[])} or this method, so that the effort is
+	 * proportional to the number of changes (and the size of the subtrees that
+	 * are moved). The removed nodes are detached from the tree structure. The
+	 * added nodes, the changed nodes that are no longer children of one of
+	 * their predecessors, and the children of the removed nodes are
+	 * (re-)attached to the predecessor with the smallest depth, or become
+	 * roots if none of their predecessors is part of the tree structure.
+	 * Roots that are successors of an added node are moved below it. All
+	 * other nodes keep their parents, so that the resulting tree structure may
+	 * differ from the one that is computed by {@link #computeTree(Node[])}.
+	 * The order of the tree nodes is not updated.
+	 * 
+	 * @param removedNodes
+	 *            The nodes that are no longer part of the tree structure.
+	 * @param addedNodes
+	 *            The nodes that are added to the tree structure.
+	 * @param changedNodes
+	 *            The nodes whose incoming edges changed.
+	 * @return The {@link TreeNode}s whose subtree changed, i.e. the
+	 *         (re-)attached ones and their previous and new parents.
+	 */
+	Set<TreeNode> updateTree(Collection<Node> removedNodes,
+			Collection<Node> addedNodes, Collection<Node> changedNodes) {
+		Set<TreeNode> affected = Collections
+				.newSetFromMap(new IdentityHashMap<TreeNode, Boolean>());
+		List<TreeNode> moved = new ArrayList<>();
+		List<TreeNode> detached = new ArrayList<>();
+		for (Node node : removedNodes) {
+			TreeNode treeNode = layoutToTree.remove(node);
+			if (treeNode != null) {
+				detach(treeNode, affected);
+				for (TreeNode child : treeNode.children) {
+					child.parent = null;
+					detached.add(child);
+				}
+				treeNode.children.clear();
+			}
+		}
+		for (Node node : addedNodes) {
+			if (!layoutToTree.containsKey(node)) {
+				TreeNode treeNode = getTreeNode(node);
+				treeNode.depth = DETACHED_DEPTH;
+				detached.add(treeNode);
+			}
+		}
+		for (Node node : changedNodes) {
+			TreeNode treeNode = layoutToTree.get(node);
+			// detached nodes are attached below anyway
+			if (treeNode == null || treeNode.depth < 0) {
+				continue;
+			}
+			if (treeNode.parent == superRoot) {
+				// the subtree of the root is detached while searching a
+				// parent, so that it cannot be attached to its own subtree
+				setDepth(treeNode, DETACHED_DEPTH);
+				TreeNode parent = findParent(treeNode);
+				if (parent != null) {
+					detach(treeNode, affected);
+					attach(parent, treeNode, moved, affected);
+				} else {
+					setDepth(treeNode, superRoot.depth + 1);
+				}
+			} else if (!node.getAllPredecessorNodes()
+					.contains(treeNode.parent.node)) {
+				detach(treeNode, affected);
+				detached.add(treeNode);
+			}
+		}
+
+		// attach the detached nodes, so that nodes may be attached to
+		// previously detached ones
+		boolean attached = true;
+		while (attached && !detached.isEmpty()) {
+			attached = false;
+			for (Iterator<TreeNode> iterator = detached.iterator(); iterator
+					.hasNext();) {
+				TreeNode treeNode = iterator.next();
+				TreeNode parent = findParent(treeNode);
+				if (parent != null) {
+					attach(parent, treeNode, moved, affected);
+					iterator.remove();
+					attached = true;
+				}
+			}
+		}
+		for (TreeNode treeNode : detached) {
+			attach(superRoot, treeNode, moved, affected);
+		}
+		for (Node node : addedNodes) {
+			TreeNode treeNode = layoutToTree.get(node);
+			for (Node successor : node.getAllSuccessorNodes()) {
+				TreeNode child = layoutToTree.get(successor);
+				if (child != null && child.parent == superRoot
+						&& getRoot(treeNode) != child) {
+					detach(child, affected);
+					attach(treeNode, child, moved, affected);
+				}
+			}
+		}
+
+		updateMetrics(moved, affected);
+		return affected;
+	}
+
+	/**
+	 * Adds the given child to the given parent, and updates the depths within
+	 * the subtree of the child. The child is added to the given list of moved
+	 * {@link TreeNode}s, and both are added to the given set of affected
+	 * {@link TreeNode}s.
+	 */
+	private void attach(TreeNode parent, TreeNode child, List<TreeNode> moved,
+			Set<TreeNode> affected) {
+		parent.addChild(child);
+		setDepth(child, parent.depth + 1);
+		moved.add(child);
+		affected.add(parent);
+		affected.add(child);
+	}
+
+	/**
+	 * Detaches the given {@link TreeNode} from its parent (if any), which is
+	 * added to the given set of affected {@link TreeNode}s. The depths within
+	 * the subtree of the given {@link TreeNode} are set to
+	 * {@link #DETACHED_DEPTH}.
+	 */
+	private void detach(TreeNode treeNode, Set<TreeNode> affected) {
+		if (treeNode.parent != null) {
+			treeNode.parent.children.remove(treeNode);
+			affected.add(treeNode.parent);
+			treeNode.parent = null;
+		}
+		setDepth(treeNode, DETACHED_DEPTH);
+	}
+
+	/**
+	 * Returns the predecessor of the given {@link TreeNode} that has the
+	 * smallest depth and is attached to {@link #superRoot}, or
+	 * <code>null</code> if there is none. As the depths within detached
+	 * subtrees are {@link #DETACHED_DEPTH}, the given {@link TreeNode} is
+	 * never attached within its own subtree.
+	 */
+	private TreeNode findParent(TreeNode treeNode) {
+		TreeNode parent = null;
+		for (Node predecessor : treeNode.node.getAllPredecessorNodes()) {
+			TreeNode candidate = layoutToTree.get(predecessor);
+			if (candidate != null && candidate.depth >= 0
+					&& (parent == null || candidate.depth < parent.depth)) {
+				parent = candidate;
+			}
+		}
+		return parent;
+	}
+
+	/**
+	 * Returns the root (i.e. the child of {@link #superRoot}) of the tree that
+	 * contains the given attached {@link TreeNode}.
+	 */
+	private TreeNode getRoot(TreeNode treeNode) {
+		while (treeNode.parent != superRoot) {
+			treeNode = treeNode.parent;
+		}
+		return treeNode;
+	}
+
+	/**
+	 * Sets the depth of the given {@link TreeNode} to the given value, and
+	 * the depths of its descendants accordingly (or to
+	 * {@link #DETACHED_DEPTH} if the given value is {@link #DETACHED_DEPTH}).
+	 */
+	private void setDepth(TreeNode treeNode, int depth) {
+		treeNode.depth = depth;
+		Deque<TreeNode> stack = new ArrayDeque<>(treeNode.children);
+		while (!stack.isEmpty()) {
+			TreeNode descendant = stack.pop();
+			descendant.depth = depth == DETACHED_DEPTH ? DETACHED_DEPTH
+					: descendant.parent.depth + 1;
+			stack.addAll(descendant.children);
+		}
+	}
+
+	/**
+	 * Updates the height, number of leaves, and number of descendants of the
+	 * nodes within the subtrees of the given moved {@link TreeNode}s, as well
+	 * as of the given affected {@link TreeNode}s and their ancestors. Affected
+	 * {@link TreeNode}s that are no longer attached to {@link #superRoot} are
+	 * removed from the given set.
+	 */
+	private void updateMetrics(List<TreeNode> moved, Set<TreeNode> affected) {
+		for (Iterator<TreeNode> iterator = affected.iterator(); iterator
+				.hasNext();) {
+			TreeNode treeNode = iterator.next();
+			if (treeNode.depth < 0 && treeNode != superRoot) {
+				iterator.remove();
+			}
+		}
+		for (TreeNode treeNode : moved) {
+			treeNode.precomputeTree();
+		}
+		// update the affected nodes and their ancestors, deep ones first
+		Set<TreeNode> path = Collections
+				.newSetFromMap(new IdentityHashMap<TreeNode, Boolean>());
+		for (TreeNode treeNode : affected) {
+			for (TreeNode ancestor = treeNode; ancestor != null
+					&& path.add(ancestor); ancestor = ancestor.parent) {
+			}
+		}
+		List<TreeNode> sortedPath = new ArrayList<>(path);
+		Collections.sort(sortedPath, new Comparator<TreeNode>() {
+			@Override
+			public int compare(TreeNode n1, TreeNode n2) {
+				return Integer.compare(n2.depth, n1.depth);
+			}
+		});
+		for (TreeNode treeNode : sortedPath) {
+			treeNode.height = 0;
+			treeNode.numOfLeaves = treeNode.children.isEmpty() ? 1 : 0;
+			treeNode.numOfDescendants = 0;
+			for (int i = 0; i < treeNode.children.size(); i++) {
+				TreeNode child = treeNode.children.get(i);
+				child.firstChild = i == 0;
+				child.lastChild = i == treeNode.children.size() - 1;
+				treeNode.height = Math.max(treeNode.height, child.height + 1);
+				treeNode.numOfLeaves += child.numOfLeaves;
+				treeNode.numOfDescendants += child.numOfDescendants + 1;
+			}
+		}
+	}
+
 	/**
 	 * Builds a tree structure using BFS method. Created trees are children of
-	 * {@link #superRoot}.
+	 * {@link #superRoot}. Only the given nodes are part of the tree structure.
 	 * 
 	 * @param nodes
 	 */
 	private void createTrees(Node[] nodes) {
+		Set<Node> nodeSet = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		Collections.addAll(nodeSet, nodes);
 		HashSet<Node> alreadyVisited = new HashSet<>();
 		LinkedList<Object[]> nodesToAdd = new LinkedList<>();
 		for (int i = 0; i < nodes.length; i++) {
-			Node root = findRoot(nodes[i], alreadyVisited);
+			Node root = findRoot(nodes[i], alreadyVisited, nodeSet);
 			if (root != null) {
 				alreadyVisited.add(root);
 				nodesToAdd.addLast(new Object[] { root, superRoot });
@@ -477,7 +726,8 @@ public class TreeLayoutHelper {
 			Node[] children = currentNode.node.getAllSuccessorNodes()
 					.toArray(new Node[] {});
 			for (int i = 0; i < children.length; i++) {
-				if (!alreadyVisited.contains(children[i])) {
+				if (nodeSet.contains(children[i])
+						&& !alreadyVisited.contains(children[i])) {
 					alreadyVisited.add(children[i]);
 					nodesToAdd
 							.addLast(new Object[] { children[i], currentNode });
@@ -499,9 +749,13 @@ public class TreeLayoutHelper {
 	 * @param alreadyVisited
 	 *            set of nodes that can't lay on path to the root (if one does,
 	 *            method stops and returns null).
+	 * @param nodeSet
+	 *            set of nodes that are part of the tree structure (other
+	 *            predecessors are ignored).
 	 * @return
 	 */
-	private Node findRoot(Node nodeLayout, Set<Node> alreadyVisited) {
+	private Node findRoot(Node nodeLayout, Set<Node> alreadyVisited,
+			Set<Node> nodeSet) {
 		HashSet<Node> alreadyVisitedRoot = new HashSet<>();
 		while (true) {
 			if (alreadyVisited.contains(nodeLayout))
@@ -509,10 +763,15 @@ public class TreeLayoutHelper {
 			if (alreadyVisitedRoot.contains(nodeLayout))
 				return nodeLayout;
 			alreadyVisitedRoot.add(nodeLayout);
-			Node[] predecessingNodes = nodeLayout.getAllPredecessorNodes()
-					.toArray(new Node[] {});
-			if (predecessingNodes.length > 0) {
-				nodeLayout = predecessingNodes[0];
+			Node predecessor = null;
+			for (Node n : nodeLayout.getAllPredecessorNodes()) {
+				if (nodeSet.contains(n)) {
+					predecessor = n;
+					break;
+				}
+			}
+			if (predecessor != null) {
+				nodeLayout = predecessor;
 			} else {
 				return nodeLayout;
 			}
@@ -14,6 +14,9 @@ package org.eclipse.gef.zest.fx.behaviors;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Rectangle;
@@ -35,17 +38,38 @@ import org.eclipse.gef.zest.fx.models.NavigationModel.ViewportState;
 import org.eclipse.gef.zest.fx.parts.GraphPart;
 import org.eclipse.gef.zest.fx.parts.NodePart;
 
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.SetChangeListener;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.util.Duration;
 
 /**
  * The {@link GraphLayoutBehavior} is responsible for initiating layout passes.
  * It is only applicable to {@link GraphPart}.
+ * <p>
+ * If a layout {@link ExecutorService} is
+ * {@link #setLayoutExecutor(ExecutorService) set}, the layout algorithm is
+ * executed asynchronously, so that the JavaFX application thread is not
+ * blocked during the computation of the layout. The results are transferred
+ * back on the JavaFX application thread, and a pending layout pass is
+ * cancelled when a newer one is requested.
+ * <p>
+ * If {@link #setCoalesceLayouts(boolean) layout coalescing} is enabled, the
+ * layout passes that are triggered by changes of the children, the hidden
+ * nodes, or the layout bounds are not executed immediately. Instead, a single
+ * layout pass is executed at the next pulse, or after a configurable
+ * {@link #setLayoutQuietPeriod(Duration) quiet period} without further
+ * triggers.
  *
  * @author mwienand
  *
@@ -88,19 +112,50 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	private ListChangeListener<IVisualPart<? extends Node>> childrenObserver = new ListChangeListener<IVisualPart<? extends Node>>() {
 		@Override
 		public void onChanged(ListChangeListener.Change<? extends IVisualPart<? extends Node>> c) {
-			applyLayout(true, null);
+			// the layout filter depends on the content parts
+			getLayoutContext().invalidateLayoutSnapshot();
+			scheduleLayout(!incrementalLayouts);
 		}
 	};
 
 	private SetChangeListener<org.eclipse.gef.graph.Node> hidingModelObserver = new SetChangeListener<org.eclipse.gef.graph.Node>() {
 		@Override
 		public void onChanged(SetChangeListener.Change<? extends org.eclipse.gef.graph.Node> change) {
-			applyLayout(true, null);
+			// the layout filter depends on the hidden nodes
+			getLayoutContext().invalidateLayoutSnapshot();
+			scheduleLayout(!incrementalLayouts);
 		}
 	};
 
 	private boolean skipNextLayout;
 
+	private ExecutorService layoutExecutor;
+
+	private Future<?> pendingLayout;
+
+	private boolean coalesceLayouts;
+
+	private Duration layoutQuietPeriod = Duration.ZERO;
+
+	private boolean layoutScheduled;
+
+	private boolean scheduledLayoutClean;
+
+	private boolean incrementalLayouts;
+
+	private int coalescedLayoutRequestCount;
+
+	private AnimationTimer pulseLayoutTimer;
+
+	private PauseTransition quietPeriodLayoutTransition;
+
+	private Executor fxApplicationThreadExecutor = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			Platform.runLater(command);
+		}
+	};
+
 	/**
 	 * Performs one layout pass using the static layout algorithm that is
 	 * configured for the layout context.
@@ -149,10 +204,33 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		// update the graph
 		if (layoutContext.getGraph() != graph) {
 			layoutContext.setGraph(graph);
+		} else if (clean) {
+			// changes of the layout irrelevant attribute are not observed, so
+			// that the layout filter results are re-computed for clean passes
+			layoutContext.invalidateLayoutSnapshot();
 		}
 
 		// apply layout (if no algorithm is set, will be a no-op)
-		layoutContext.applyLayout(true);
+		if (layoutExecutor != null) {
+			// failures of the layout algorithm are re-thrown on the JavaFX
+			// application thread and reported by the pending layout
+			pendingLayout = layoutContext.applyLayout(clean, layoutExecutor, fxApplicationThreadExecutor);
+		} else {
+			pendingLayout = null;
+			layoutContext.applyLayout(clean);
+		}
+	}
+
+	/**
+	 * Executes the layout pass that was scheduled by
+	 * {@link #scheduleLayout(boolean)}, unless it was unscheduled in the
+	 * meantime.
+	 */
+	private void applyScheduledLayout() {
+		if (layoutScheduled) {
+			layoutScheduled = false;
+			applyLayout(scheduledLayoutClean, null);
+		}
 	}
 
 	/**
@@ -272,6 +350,11 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 
 		LayoutContext layoutContext = getLayoutContext();
+		// discard scheduled layout passes and the results of a pending
+		// asynchronous layout pass
+		unscheduleLayout();
+		layoutContext.cancelLayout();
+		pendingLayout = null;
 		layoutContext.unschedulePreLayoutPass(preLayout);
 		layoutContext.unschedulePostLayoutPass(postLayout);
 		if (nestingVisual != null) {
@@ -289,6 +372,17 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return (GraphPart) super.getHost();
 	}
 
+	/**
+	 * Returns the number of layout requests that were coalesced into an
+	 * already scheduled layout pass, i.e. the number of layout passes that
+	 * were saved by {@link #setCoalesceLayouts(boolean) layout coalescing}.
+	 *
+	 * @return The number of coalesced layout requests.
+	 */
+	public int getCoalescedLayoutRequestCount() {
+		return coalescedLayoutRequestCount;
+	}
+
 	/**
 	 * Returns the {@link InfiniteCanvas} of the {@link IViewer} of the
 	 * {@link #getHost() host}.
@@ -300,11 +394,34 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return ((InfiniteCanvasViewer) getHost().getRoot().getViewer()).getCanvas();
 	}
 
+	/**
+	 * Returns the {@link ExecutorService} that is used to execute the layout
+	 * algorithm asynchronously, or <code>null</code> if the layout algorithm
+	 * is executed synchronously on the JavaFX application thread.
+	 *
+	 * @return The {@link ExecutorService} used for asynchronous layout passes,
+	 *         or <code>null</code>.
+	 */
+	public ExecutorService getLayoutExecutor() {
+		return layoutExecutor;
+	}
+
 	@Override
 	protected LayoutContext getLayoutContext() {
 		return getHost().getAdapter(LayoutContext.class);
 	}
 
+	/**
+	 * Returns the quiet period after which a scheduled layout pass is executed
+	 * when {@link #isCoalesceLayouts() layout coalescing} is enabled.
+	 *
+	 * @return The quiet period, {@link Duration#ZERO} if the layout pass is
+	 *         executed at the next pulse.
+	 */
+	public Duration getLayoutQuietPeriod() {
+		return layoutQuietPeriod;
+	}
+
 	/**
 	 * Returns the {@link NodePart} that contains the nested graph to which the
 	 * behavior corresponds, if this behavior is related to a nested graph.
@@ -319,6 +436,42 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return null;
 	}
 
+	/**
+	 * Returns the {@link Future} of the last asynchronous layout pass that was
+	 * started by this behavior, or <code>null</code> if the last layout pass
+	 * was executed synchronously. The {@link Future} completes exceptionally
+	 * if the layout algorithm failed, and it is cancelled if the layout pass
+	 * was superseded or cancelled.
+	 *
+	 * @return The {@link Future} of the last asynchronous layout pass, or
+	 *         <code>null</code>.
+	 */
+	public Future<?> getPendingLayout() {
+		return pendingLayout;
+	}
+
+	/**
+	 * Returns <code>true</code> if layout triggers are coalesced into a single
+	 * layout pass, otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if layout triggers are coalesced, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isCoalesceLayouts() {
+		return coalesceLayouts;
+	}
+
+	/**
+	 * Returns <code>true</code> if changes of the children or the hidden nodes
+	 * trigger incremental layout passes, otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if incremental layout passes are triggered,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isIncrementalLayouts() {
+		return incrementalLayouts;
+	}
+
 	@Override
 	protected void postLayout() {
 		// execute post-layout of all nodes and edges
@@ -351,6 +504,145 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 	}
 
+	/**
+	 * Requests a layout pass in response to a change of the children, the
+	 * hidden nodes, or the layout bounds. If {@link #isCoalesceLayouts() layout
+	 * coalescing} is disabled, the layout pass is executed immediately.
+	 * Otherwise, a layout pass is scheduled for the next pulse, or for the end
+	 * of the {@link #getLayoutQuietPeriod() quiet period}, which is restarted
+	 * by every request. Requests that are issued while a layout pass is
+	 * scheduled are counted as {@link #getCoalescedLayoutRequestCount()
+	 * coalesced}. The coalesced layout pass is clean if any of the coalesced
+	 * requests is clean.
+	 *
+	 * @param clean
+	 *            Whether to fully re-compute the layout or not.
+	 */
+	protected void scheduleLayout(boolean clean) {
+		if (!coalesceLayouts) {
+			applyLayout(clean, null);
+			return;
+		}
+		if (layoutScheduled) {
+			coalescedLayoutRequestCount++;
+			scheduledLayoutClean |= clean;
+			if (quietPeriodLayoutTransition != null
+					&& quietPeriodLayoutTransition.getStatus() == Animation.Status.RUNNING) {
+				quietPeriodLayoutTransition.playFromStart();
+			}
+			return;
+		}
+		layoutScheduled = true;
+		scheduledLayoutClean = clean;
+		if (layoutQuietPeriod.greaterThan(Duration.ZERO)) {
+			if (quietPeriodLayoutTransition == null) {
+				quietPeriodLayoutTransition = new PauseTransition();
+				quietPeriodLayoutTransition.setOnFinished(new EventHandler<ActionEvent>() {
+					@Override
+					public void handle(ActionEvent event) {
+						applyScheduledLayout();
+					}
+				});
+			}
+			quietPeriodLayoutTransition.setDuration(layoutQuietPeriod);
+			quietPeriodLayoutTransition.playFromStart();
+		} else {
+			if (pulseLayoutTimer == null) {
+				pulseLayoutTimer = new AnimationTimer() {
+					@Override
+					public void handle(long now) {
+						stop();
+						applyScheduledLayout();
+					}
+				};
+			}
+			pulseLayoutTimer.start();
+		}
+	}
+
+	/**
+	 * Enables or disables the coalescing of layout triggers. When enabled,
+	 * changes of the children, the hidden nodes, or the layout bounds only
+	 * schedule a layout pass (see {@link #scheduleLayout(boolean)}), so that a
+	 * burst of changes results in a single layout pass. When disabled (the
+	 * default), a scheduled layout pass is executed immediately.
+	 *
+	 * @param coalesceLayouts
+	 *            <code>true</code> to coalesce layout triggers, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setCoalesceLayouts(boolean coalesceLayouts) {
+		this.coalesceLayouts = coalesceLayouts;
+		if (!coalesceLayouts && layoutScheduled) {
+			unscheduleLayout();
+			applyLayout(scheduledLayoutClean, null);
+		}
+	}
+
+	/**
+	 * Specifies whether changes of the children or the hidden nodes trigger
+	 * incremental layout passes (i.e. the layout algorithm is applied with
+	 * <code>clean == false</code>), so that an algorithm that supports
+	 * incremental layout only re-positions the affected nodes. Changes of the
+	 * layout bounds always trigger a clean layout pass. Incremental layout
+	 * passes are disabled by default, because not all layout algorithms
+	 * support them.
+	 *
+	 * @param incrementalLayouts
+	 *            <code>true</code> to trigger incremental layout passes,
+	 *            otherwise <code>false</code>.
+	 */
+	public void setIncrementalLayouts(boolean incrementalLayouts) {
+		this.incrementalLayouts = incrementalLayouts;
+	}
+
+	/**
+	 * Sets the quiet period after which a scheduled layout pass is executed
+	 * when {@link #isCoalesceLayouts() layout coalescing} is enabled. Every
+	 * further layout trigger restarts the quiet period. Passing in
+	 * {@link Duration#ZERO} (the default) executes the layout pass at the next
+	 * pulse. The new quiet period applies to subsequently scheduled layout
+	 * passes.
+	 *
+	 * @param layoutQuietPeriod
+	 *            The quiet period, must not be <code>null</code>.
+	 */
+	public void setLayoutQuietPeriod(Duration layoutQuietPeriod) {
+		if (layoutQuietPeriod == null) {
+			throw new IllegalArgumentException("The quiet period may not be null.");
+		}
+		this.layoutQuietPeriod = layoutQuietPeriod;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} that is used to execute the layout
+	 * algorithm asynchronously. Passing in <code>null</code> (the default)
+	 * restores synchronous layout passes on the JavaFX application thread. The
+	 * change takes effect with the next layout pass. The
+	 * {@link ExecutorService} is not shut down by this behavior.
+	 *
+	 * @param layoutExecutor
+	 *            The {@link ExecutorService} to use for asynchronous layout
+	 *            passes, or <code>null</code>.
+	 */
+	public void setLayoutExecutor(ExecutorService layoutExecutor) {
+		this.layoutExecutor = layoutExecutor;
+	}
+
+	/**
+	 * Unschedules a layout pass that was scheduled by
+	 * {@link #scheduleLayout(boolean)}.
+	 */
+	private void unscheduleLayout() {
+		layoutScheduled = false;
+		if (pulseLayoutTimer != null) {
+			pulseLayoutTimer.stop();
+		}
+		if (quietPeriodLayoutTransition != null) {
+			quietPeriodLayoutTransition.stop();
+		}
+	}
+
 	/**
 	 * Updates the bounds property from the visual (viewport or nesting node)
 	 */
@@ -364,7 +656,7 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		Rectangle oldBounds = LayoutProperties.getBounds(getHost().getContent());
 		if (oldBounds != newBounds && (oldBounds == null || !oldBounds.equals(newBounds))) {
 			LayoutProperties.setBounds(getHost().getContent(), newBounds);
-			applyLayout(true, null);
+			scheduleLayout(true);
 		}
 	}
 }
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule.RunnableWithResult;
+import org.eclipse.gef.zest.fx.ZestProperties;
+import org.eclipse.gef.zest.fx.behaviors.GraphLayoutBehavior;
+import org.eclipse.gef.zest.fx.parts.GraphPart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javafx.application.Platform;
+
+public class GraphLayoutBehaviorTests {
+
+	/**
+	 * Moves all nodes to a location that identifies the layout pass. The
+	 * first layout pass is blocked until it is released.
+	 */
+	private static class BlockingLayoutAlgorithm implements ILayoutAlgorithm {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch released = new CountDownLatch(1);
+		private final AtomicInteger passes = new AtomicInteger();
+		private volatile boolean appliedOnApplicationThread;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			appliedOnApplicationThread |= Platform.isFxApplicationThread();
+			int pass = passes.incrementAndGet();
+			if (pass == 1) {
+				started.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					// a cancelled layout pass is completed nevertheless
+					try {
+						released.await();
+					} catch (InterruptedException e1) {
+						throw new IllegalStateException(e1);
+					}
+				}
+			}
+			for (Node node : layoutContext.getNodes()) {
+				LayoutProperties.setLocation(node, new Point(pass, pass));
+			}
+		}
+	}
+
+	/**
+	 * A {@link GraphLayoutBehavior} for a {@link GraphPart} that is not
+	 * attached to a viewer, which records the applied layout passes.
+	 */
+	private static class TestGraphLayoutBehavior extends GraphLayoutBehavior {
+		private final Graph graph;
+		private final LayoutContext layoutContext = new LayoutContext();
+		private final List<Boolean> appliedLayouts = new ArrayList<>();
+		private int preLayoutCount;
+		private int postLayoutCount;
+		private GraphPart host;
+
+		public TestGraphLayoutBehavior(Graph graph) {
+			this.graph = graph;
+			layoutContext.schedulePreLayoutPass(new Runnable() {
+				@Override
+				public void run() {
+					preLayoutCount++;
+				}
+			});
+			layoutContext.schedulePostLayoutPass(new Runnable() {
+				@Override
+				public void run() {
+					postLayoutCount++;
+				}
+			});
+		}
+
+		@Override
+		public void applyLayout(boolean clean, Object extra) {
+			appliedLayouts.add(clean);
+			super.applyLayout(clean, extra);
+		}
+
+		@Override
+		public GraphPart getHost() {
+			if (host == null) {
+				host = new GraphPart() {
+					@Override
+					public Graph getContent() {
+						return graph;
+					}
+				};
+			}
+			return host;
+		}
+
+		@Override
+		protected LayoutContext getLayoutContext() {
+			return layoutContext;
+		}
+
+		public void requestLayout(boolean clean) {
+			scheduleLayout(clean);
+		}
+	}
+
+	/**
+	 * Ensure the JavaFX toolkit is properly initialized.
+	 */
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private ExecutorService executor;
+
+	private Graph graph;
+
+	private TestGraphLayoutBehavior behavior;
+
+	private BlockingLayoutAlgorithm algorithm;
+
+	private void assertLocations(Point expected) {
+		for (Node node : graph.getNodes()) {
+			assertEquals(expected, LayoutProperties.getLocation(node));
+		}
+	}
+
+	/**
+	 * Waits until the given number of layout passes was applied by the
+	 * behavior, and for a few more pulses, so that additional layout passes
+	 * would be detected.
+	 */
+	private void waitForLayouts(int count) throws Throwable {
+		long start = System.currentTimeMillis();
+		while (ctx.runAndWait(new RunnableWithResult<Integer>() {
+			@Override
+			public Integer run() {
+				return behavior.appliedLayouts.size();
+			}
+		}) < count) {
+			if (System.currentTimeMillis() - start > 10000) {
+				fail("The scheduled layout pass was not applied.");
+			}
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+	}
+
+	@Before
+	public void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node, new Point());
+			LayoutProperties.setSize(node, new Dimension(20, 10));
+			nodes.add(node);
+		}
+		graph = new Graph(nodes, new ArrayList<org.eclipse.gef.graph.Edge>());
+		algorithm = new BlockingLayoutAlgorithm();
+		ZestProperties.setLayoutAlgorithm(graph, algorithm);
+		behavior = new TestGraphLayoutBehavior(graph);
+		behavior.setLayoutExecutor(executor);
+	}
+
+	@After
+	public void tearDown() {
+		algorithm.released.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void asynchronousLayoutIsPublished() throws Throwable {
+		algorithm.released.countDown();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.applyLayout(true, null);
+			}
+		});
+		Future<?> pendingLayout = behavior.getPendingLayout();
+		assertNotNull(pendingLayout);
+		pendingLayout.get(10, TimeUnit.SECONDS);
+		assertFalse(algorithm.appliedOnApplicationThread);
+
+		// the results are published on the application thread
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertLocations(new Point(1, 1));
+				assertEquals(1, behavior.preLayoutCount);
+				assertEquals(1, behavior.postLayoutCount);
+			}
+		});
+	}
+
+	@Test
+	public void cancelledLayoutIsDiscarded() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.applyLayout(true, null);
+			}
+		});
+		final Future<?> pendingLayout = behavior.getPendingLayout();
+		algorithm.started.await(10, TimeUnit.SECONDS);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.getLayoutContext().cancelLayout();
+				assertTrue(pendingLayout.isCancelled());
+				// the post-layout pass is executed on cancellation
+				assertEquals(1, behavior.postLayoutCount);
+			}
+		});
+		algorithm.released.countDown();
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertLocations(new Point());
+				assertEquals(1, behavior.preLayoutCount);
+				assertEquals(1, behavior.postLayoutCount);
+			}
+		});
+	}
+
+	@Test
+	public void cleanLayoutWinsWhenCoalesced() throws Throwable {
+		algorithm.released.countDown();
+		behavior.setLayoutExecutor(null);
+		behavior.setCoalesceLayouts(true);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.requestLayout(false);
+				behavior.requestLayout(true);
+				behavior.requestLayout(false);
+			}
+		});
+		waitForLayouts(1);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(Arrays.asList(true), behavior.appliedLayouts);
+				assertEquals(2, behavior.getCoalescedLayoutRequestCount());
+			}
+		});
+	}
+
+	@Test
+	public void coalescedLayoutTriggersResultInOneLayoutPass() throws Throwable {
+		algorithm.released.countDown();
+		behavior.setLayoutExecutor(null);
+		behavior.setCoalesceLayouts(true);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 5; i++) {
+					behavior.requestLayout(false);
+				}
+				// the layout pass is deferred to the next pulse
+				assertTrue(behavior.appliedLayouts.isEmpty());
+			}
+		});
+		waitForLayouts(1);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(Arrays.asList(false), behavior.appliedLayouts);
+				assertEquals(4, behavior.getCoalescedLayoutRequestCount());
+				assertEquals(1, behavior.preLayoutCount);
+				assertEquals(1, behavior.postLayoutCount);
+				assertLocations(new Point(1, 1));
+			}
+		});
+
+		// a later trigger schedules another layout pass
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.requestLayout(false);
+			}
+		});
+		waitForLayouts(2);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(Arrays.asList(false, false), behavior.appliedLayouts);
+				assertEquals(4, behavior.getCoalescedLayoutRequestCount());
+			}
+		});
+	}
+
+	@Test
+	public void failingLayoutIsReported() throws Throwable {
+		final IllegalStateException failure = new IllegalStateException();
+		ZestProperties.setLayoutAlgorithm(graph, new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext, boolean clean) {
+				throw failure;
+			}
+		});
+		final AtomicReference<Throwable> reported = new AtomicReference<>();
+		final AtomicReference<UncaughtExceptionHandler> handler = new AtomicReference<>();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				handler.set(Thread.currentThread().getUncaughtExceptionHandler());
+				Thread.currentThread().setUncaughtExceptionHandler(new UncaughtExceptionHandler() {
+					@Override
+					public void uncaughtException(Thread t, Throwable e) {
+						reported.set(e);
+					}
+				});
+				behavior.applyLayout(true, null);
+			}
+		});
+		try {
+			behavior.getPendingLayout().get(10, TimeUnit.SECONDS);
+			fail("The failure should be reported by the pending layout.");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+
+		// the failure is re-thrown on the application thread
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				Thread.currentThread().setUncaughtExceptionHandler(handler.get());
+				assertSame(failure, reported.get());
+				assertEquals(1, behavior.postLayoutCount);
+			}
+		});
+	}
+
+	@Test
+	public void supersededLayoutIsDiscarded() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.applyLayout(true, null);
+			}
+		});
+		final Future<?> supersededLayout = behavior.getPendingLayout();
+		algorithm.started.await(10, TimeUnit.SECONDS);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.applyLayout(true, null);
+				assertTrue(supersededLayout.isCancelled());
+			}
+		});
+		Future<?> pendingLayout = behavior.getPendingLayout();
+		algorithm.released.countDown();
+		pendingLayout.get(10, TimeUnit.SECONDS);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// only the results of the second layout pass are published
+				assertLocations(new Point(2, 2));
+				assertEquals(2, behavior.preLayoutCount);
+				assertEquals(2, behavior.postLayoutCount);
+			}
+		});
+	}
+
+}